@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.internal.Util;
+
+/**
+ * Measures the random revision lookups of {@link DefaultCommitIdDatabase}, with and without memory-mapping
+ * the database file.
+ */
+@State(Scope.Benchmark)
+public class CommitIdDatabaseBenchmark {
+
+    @Param({ "1000", "1000000" })
+    private int noRevisions;
+
+    @Param({ "true", "false" })
+    private boolean mmap;
+
+    private File rootDir;
+    private DefaultCommitIdDatabase db;
+
+    @Setup
+    public void init() throws Exception {
+        rootDir = Files.createTempDirectory("jmh-commitiddatabase.").toFile();
+        db = new DefaultCommitIdDatabase(rootDir, mmap);
+        final byte[] commitId = new byte[20];
+        for (int i = 1; i <= noRevisions; i++) {
+            ThreadLocalRandom.current().nextBytes(commitId);
+            db.put(new Revision(i), ObjectId.fromRaw(commitId));
+        }
+    }
+
+    @TearDown
+    public void destroy() throws Exception {
+        db.close();
+        Util.deleteFileTree(rootDir);
+    }
+
+    @Benchmark
+    public ObjectId randomLookup() {
+        return db.get(new Revision(ThreadLocalRandom.current().nextInt(noRevisions) + 1));
+    }
+}
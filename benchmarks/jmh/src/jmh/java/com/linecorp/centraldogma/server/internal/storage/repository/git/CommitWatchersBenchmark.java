@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.linecorp.centraldogma.common.Revision;
+
+/**
+ * Measures the latency of {@link CommitWatchers#notify(Revision, String)} against the number of
+ * the registered watchers.
+ */
+@State(Scope.Benchmark)
+public class CommitWatchersBenchmark {
+
+    private static final int NUM_DIRECTORIES = 100;
+
+    @Param({ "1000", "10000", "50000" })
+    private int noWatchers;
+
+    /**
+     * The percentage of the watchers whose path pattern starts with a wildcard, e.g. {@code *.json}.
+     */
+    @Param({ "0", "1" })
+    private int globPercentage;
+
+    private final AtomicInteger numNotified = new AtomicInteger();
+    private CommitWatchers commitWatchers;
+    private Revision revision;
+
+    @Setup
+    public void init() {
+        commitWatchers = new CommitWatchers();
+        revision = Revision.INIT.forward(1);
+        final int noGlobWatchers = noWatchers * globPercentage / 100;
+        for (int i = 0; i < noWatchers; i++) {
+            final String pathPattern;
+            if (i < noGlobWatchers) {
+                pathPattern = "file" + i + ".json";
+            } else if (i % 2 == 0) {
+                pathPattern = "/dir" + i % NUM_DIRECTORIES + "/file" + i + ".json";
+            } else {
+                pathPattern = "/dir" + i % NUM_DIRECTORIES + "/sub" + i + "/**";
+            }
+            // Use a listener rather than a future so that a watcher is not removed once notified.
+            commitWatchers.add(Revision.INIT, pathPattern, null,
+                               (revision, cause) -> numNotified.incrementAndGet());
+        }
+    }
+
+    @Benchmark
+    public void notifyMatching() {
+        commitWatchers.notify(revision, "dir2/file2.json");
+    }
+
+    @Benchmark
+    public void notifyNonMatching() {
+        commitWatchers.notify(revision, "dir3/file4.txt");
+    }
+}
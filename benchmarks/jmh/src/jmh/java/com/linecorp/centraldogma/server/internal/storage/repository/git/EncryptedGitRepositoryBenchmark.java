@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import static com.linecorp.centraldogma.server.internal.storage.repository.git.GitRepositoryManager.createEncryptionRepository;
+import static com.linecorp.centraldogma.server.internal.storage.repository.git.GitRepositoryManager.createFileRepository;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.linecorp.centraldogma.common.Author;
+import com.linecorp.centraldogma.common.Change;
+import com.linecorp.centraldogma.common.Markup;
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.internal.Util;
+import com.linecorp.centraldogma.server.storage.encryption.EncryptionStorageManager;
+import com.linecorp.centraldogma.server.storage.encryption.WrappedDekDetails;
+import com.linecorp.centraldogma.server.storage.project.Project;
+
+/**
+ * Compares the plain and the encrypted repositories. The repository cache is not used so that
+ * the objects are read from the storage.
+ */
+@State(Scope.Benchmark)
+public class EncryptedGitRepositoryBenchmark {
+
+    private static final Author AUTHOR = Author.ofEmail("user@example.com");
+    private static final String PROJECT_NAME = "foo";
+    private static final String REPO_NAME = "bar";
+
+    @Param({ "false", "true" })
+    private boolean encrypted;
+
+    @Param({ "100", "1000" })
+    private int noCommits;
+
+    @Param({ "10", "100" })
+    private int noFiles;
+
+    private File rootDir;
+    private EncryptionStorageManager encryptionStorageManager;
+    private GitRepository repo;
+    private int currentRevision;
+
+    @Setup
+    public void init() throws Exception {
+        rootDir = Files.createTempDirectory("jmh-encrypted-gitrepository.").toFile();
+        final Project project = mock(Project.class);
+        when(project.name()).thenReturn(PROJECT_NAME);
+        final File repoDir = new File(rootDir, REPO_NAME);
+        if (encrypted) {
+            encryptionStorageManager =
+                    EncryptionStorageManager.of(new File(rootDir, "rocksdb").toPath(), false, "kekId");
+            final String wdek = encryptionStorageManager.generateWdek().join();
+            encryptionStorageManager.storeWdek(
+                    new WrappedDekDetails(wdek, 1, encryptionStorageManager.kekId(), PROJECT_NAME, REPO_NAME));
+            repo = createEncryptionRepository(project, repoDir, AUTHOR, System.currentTimeMillis(),
+                                              ForkJoinPool.commonPool(), null, encryptionStorageManager);
+        } else {
+            repo = createFileRepository(project, repoDir, AUTHOR, System.currentTimeMillis(),
+                                        ForkJoinPool.commonPool(), null);
+        }
+        currentRevision = 1;
+
+        final Change<?>[] changes = new Change<?>[noFiles];
+        for (int i = 0; i < noFiles; i++) {
+            changes[i] = Change.ofTextUpsert("/dir_" + i % 10 + "/file_" + i + ".txt", "0");
+        }
+        commit(changes);
+        for (int i = 1; i < noCommits; i++) {
+            commit(Change.ofTextUpsert("/dir_" + i % 10 + "/file_" + i % noFiles + ".txt",
+                                       String.valueOf(i)));
+        }
+    }
+
+    @TearDown
+    public void destroy() throws Exception {
+        repo.internalClose();
+        if (encryptionStorageManager != null) {
+            encryptionStorageManager.close();
+        }
+        Util.deleteFileTree(rootDir);
+    }
+
+    @Benchmark
+    public void find(Blackhole bh) throws Exception {
+        bh.consume(repo.find(Revision.HEAD, "/**").join());
+    }
+
+    @Benchmark
+    public void history(Blackhole bh) throws Exception {
+        bh.consume(repo.history(Revision.HEAD, Revision.INIT, "/dir_0/**", 100).join());
+    }
+
+    @Benchmark
+    public void commit(Blackhole bh) throws Exception {
+        bh.consume(commit(Change.ofTextUpsert("/dir_0/file_0.txt", String.valueOf(currentRevision))));
+    }
+
+    private Revision commit(Change<?>... changes) {
+        final Revision revision =
+                repo.commit(new Revision(currentRevision), currentRevision * 1000L, AUTHOR,
+                            "Summary", "Detail", Markup.PLAINTEXT, changes).join().revision();
+        currentRevision++;
+        return revision;
+    }
+}
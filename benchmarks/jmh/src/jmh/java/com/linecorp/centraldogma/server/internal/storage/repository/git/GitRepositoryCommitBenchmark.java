@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import static com.linecorp.centraldogma.server.internal.storage.repository.git.GitRepositoryManager.createFileRepository;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.linecorp.centraldogma.common.Author;
+import com.linecorp.centraldogma.common.Change;
+import com.linecorp.centraldogma.common.Markup;
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.internal.Util;
+import com.linecorp.centraldogma.server.storage.project.Project;
+
+/**
+ * Measures the cost of a commit which changes a single file in a repository with many files.
+ */
+@State(Scope.Benchmark)
+public class GitRepositoryCommitBenchmark {
+
+    private static final Author AUTHOR = Author.ofEmail("user@example.com");
+    private static final int FILES_PER_DIR = 100;
+
+    @Param({ "100", "1000", "10000", "40000" })
+    private int noFiles;
+
+    private File repoDir;
+    private GitRepository repo;
+    private int currentRevision;
+
+    @Setup
+    public void init() throws Exception {
+        repoDir = Files.createTempDirectory("jmh-gitrepository.").toFile();
+        repo = createFileRepository(mock(Project.class), repoDir, AUTHOR,
+                                    System.currentTimeMillis(), ForkJoinPool.commonPool(), null);
+        currentRevision = 1;
+
+        // Add the files in batches to keep the setup time reasonable.
+        final List<Change<?>> changes = new ArrayList<>();
+        for (int i = 0; i < noFiles; i++) {
+            changes.add(Change.ofTextUpsert(path(i), "0"));
+            if (changes.size() == 1000) {
+                commit(changes.toArray(new Change<?>[0]));
+                changes.clear();
+            }
+        }
+        if (!changes.isEmpty()) {
+            commit(changes.toArray(new Change<?>[0]));
+        }
+    }
+
+    @TearDown
+    public void destroy() throws Exception {
+        repo.internalClose();
+        Util.deleteFileTree(repoDir);
+    }
+
+    @Benchmark
+    public void commit(Blackhole bh) throws Exception {
+        final int index = ThreadLocalRandom.current().nextInt(noFiles);
+        bh.consume(commit(Change.ofTextUpsert(path(index), String.valueOf(currentRevision))));
+    }
+
+    private Revision commit(Change<?>... changes) {
+        final Revision revision =
+                repo.commit(new Revision(currentRevision), currentRevision * 1000L, AUTHOR,
+                            "Summary", "Detail", Markup.PLAINTEXT, changes).join().revision();
+        currentRevision++;
+        return revision;
+    }
+
+    private static String path(int index) {
+        return "/dir_" + index / FILES_PER_DIR + "/file_" + index + ".txt";
+    }
+}
@@ -46,7 +46,7 @@ public class GitRepositoryHistoryBenchmark {
 
     private static final Author AUTHOR = Author.ofEmail("user@example.com");
 
-    @Param({ "100", "1000"})
+    @Param({ "100", "1000", "10000" })
     private int noCommits;
 
     @Param({ "1", "3", "5", "10", "30" })
@@ -86,6 +86,16 @@ public class GitRepositoryHistoryBenchmark {
         }
     }
 
+    @Benchmark
+    public void findLatestRevision(Blackhole bh) throws Exception {
+        cache.clear();
+        // The files were added by the first commits and have never been changed since.
+        for (int i = 0; i < noFiles; i++) {
+            bh.consume(repo.findLatestRevision(new Revision(i + 2), "/dir/file_" + i + ".txt", false)
+                           .join());
+        }
+    }
+
     private void addCommit(int index) {
         repo.commit(new Revision(currentRevision), currentRevision * 1000L, AUTHOR,
                     "Summary", "Detail", Markup.PLAINTEXT,
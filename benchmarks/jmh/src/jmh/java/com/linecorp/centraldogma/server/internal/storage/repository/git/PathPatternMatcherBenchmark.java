@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link PathPatternMatcher}, which matches a path against all path patterns at once, with
+ * matching a path against each path pattern one after another.
+ */
+@State(Scope.Benchmark)
+public class PathPatternMatcherBenchmark {
+
+    private static final int NUM_DIRECTORIES = 100;
+    private static final String PATH = "/dir2/sub2/file2.json";
+
+    @Param({ "10", "1000", "100000" })
+    private int noPatterns;
+
+    private Pattern[] regexes;
+    private PathPatternMatcher<String> matcher;
+
+    @Setup
+    public void init() {
+        regexes = new Pattern[noPatterns];
+        final PathPatternMatcher.Builder<String> builder = PathPatternMatcher.builder();
+        for (int i = 0; i < noPatterns; i++) {
+            final String pathPattern;
+            switch (i % 4) {
+                case 0:
+                    pathPattern = "/dir" + i % NUM_DIRECTORIES + "/sub" + i + "/file" + i + ".json";
+                    break;
+                case 1:
+                    pathPattern = "/dir" + i % NUM_DIRECTORIES + "/sub" + i + "/**";
+                    break;
+                case 2:
+                    pathPattern = "/dir" + i % NUM_DIRECTORIES + "/*/file" + i + ".json";
+                    break;
+                default:
+                    pathPattern = "/**/file" + i + ".json";
+                    break;
+            }
+            regexes[i] = PathPatternFilter.compile(pathPattern);
+            builder.add(pathPattern, pathPattern);
+        }
+        matcher = builder.build();
+    }
+
+    @Benchmark
+    public void perPattern(Blackhole bh) {
+        final String path = PATH.substring(1);
+        for (Pattern regex : regexes) {
+            bh.consume(regex.matcher(path).matches());
+        }
+    }
+
+    @Benchmark
+    public void compiled(Blackhole bh) {
+        bh.consume(matcher.match(PATH));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.metadata;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.linecorp.centraldogma.common.ProjectRole;
+import com.linecorp.centraldogma.common.RepositoryRole;
+
+/**
+ * Measures the authorization overhead of a request, which finds the {@link RepositoryRole} of a user.
+ */
+@State(Scope.Benchmark)
+public class RepositoryRoleIndexBenchmark {
+
+    private static final UserAndTimestamp CREATION = new UserAndTimestamp(User.SYSTEM.id());
+
+    @Param({ "10", "100", "1000" })
+    private int noMembers;
+
+    private ProjectMetadata metadata;
+    private String[] userIds;
+
+    @Setup
+    public void init() {
+        final ImmutableMap.Builder<String, Member> members = ImmutableMap.builder();
+        final ImmutableMap.Builder<String, RepositoryRole> users = ImmutableMap.builder();
+        userIds = new String[noMembers * 2];
+        for (int i = 0; i < noMembers; i++) {
+            final String memberId = "member" + i + "@foo.com";
+            members.put(memberId, new Member(memberId, i % 10 == 0 ? ProjectRole.OWNER : ProjectRole.MEMBER,
+                                             CREATION));
+            if (i % 2 == 0) {
+                users.put(memberId, RepositoryRole.WRITE);
+            }
+            userIds[i] = memberId;
+            // Guests who are not the members of the project.
+            userIds[noMembers + i] = "guest" + i + "@foo.com";
+        }
+        final Roles roles = new Roles(ProjectRoles.of(RepositoryRole.READ, RepositoryRole.READ),
+                                      users.build(), null, ImmutableMap.of());
+        metadata = new ProjectMetadata("project",
+                                       ImmutableMap.of("repo", RepositoryMetadata.of("repo", roles, CREATION)),
+                                       members.build(), null, ImmutableMap.of(), CREATION, null);
+    }
+
+    @Benchmark
+    public RepositoryRole index() {
+        final String userId = userIds[ThreadLocalRandom.current().nextInt(userIds.length)];
+        final RepositoryRoleIndex index = metadata.repositoryRoleIndex("repo");
+        return CompletableFuture.completedFuture(index.userRole(userId)).join();
+    }
+
+    /**
+     * Computes the role for each request as it was done before {@link RepositoryRoleIndex} was introduced.
+     */
+    @Benchmark
+    public RepositoryRole compute() {
+        final String userId = userIds[ThreadLocalRandom.current().nextInt(userIds.length)];
+        return CompletableFuture.completedFuture(metadata).thenApply(projectMetadata -> {
+            final Roles roles = projectMetadata.repo("repo").roles();
+            final RepositoryRole userRepositoryRole = roles.users().get(userId);
+            final Member member = projectMetadata.memberOrDefault(userId, null);
+            final ProjectRole projectRole = member != null ? member.role() : ProjectRole.GUEST;
+            return RepositoryRoleIndex.repositoryRole(roles, userRepositoryRole, projectRole);
+        }).join();
+    }
+}
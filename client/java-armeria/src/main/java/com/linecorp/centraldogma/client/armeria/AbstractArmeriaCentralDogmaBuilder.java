@@ -59,6 +59,8 @@ public class AbstractArmeriaCentralDogmaBuilder<B extends AbstractArmeriaCentral
     private Duration healthCheckInterval;
     private DnsAddressEndpointGroupConfigurator dnsAddressEndpointGroupConfigurator = b -> {};
     private ScheduledExecutorService blockingTaskExecutor = CommonPools.blockingTaskExecutor();
+    private boolean jsonPatchWatch;
+    private boolean streamingWatch;
 
     /**
      * Returns the {@link ClientFactory} that will create an underlying
@@ -204,6 +206,46 @@ public class AbstractArmeriaCentralDogmaBuilder<B extends AbstractArmeriaCentral
         return self();
     }
 
+    /**
+     * Returns whether the client requests a JSON patch instead of the full content when a watched JSON file
+     * is changed.
+     */
+    protected final boolean isJsonPatchWatch() {
+        return jsonPatchWatch;
+    }
+
+    /**
+     * Sets whether the client requests a JSON patch from the last known revision instead of the full content
+     * when a watched JSON file is changed. The client applies the patch to the content it received last.
+     * This reduces the network traffic and the parsing cost for a large JSON file whose small part is
+     * changed often. The server sends the full content if the patch is not smaller than it.
+     * This option is disabled by default.
+     */
+    public final B jsonPatchWatch(boolean jsonPatchWatch) {
+        this.jsonPatchWatch = jsonPatchWatch;
+        return self();
+    }
+
+    /**
+     * Returns whether the client multiplexes the watches over a single long-lived stream.
+     */
+    protected final boolean isStreamingWatch() {
+        return streamingWatch;
+    }
+
+    /**
+     * Sets whether the client multiplexes the watches over a single long-lived HTTP/2 stream instead of
+     * sending a long-polling request for each watch. This reduces the number of requests when the client
+     * has many watchers, because a watcher does not send a new request whenever a change is notified or
+     * its watch is timed out. The watches which render a template or request a JSON patch, and the watches
+     * to a server which does not provide the stream keep using long polling.
+     * This option is disabled by default.
+     */
+    public final B streamingWatch(boolean streamingWatch) {
+        this.streamingWatch = streamingWatch;
+        return self();
+    }
+
     /**
      * Returns a newly created {@link ClientBuilder} configured with the specified {@code customizer}
      * and then with the {@link ArmeriaClientConfigurator} specified with
@@ -16,6 +16,7 @@
 package com.linecorp.centraldogma.client.armeria;
 
 import java.net.UnknownHostException;
+import java.nio.file.Path;
 import java.util.concurrent.ScheduledExecutorService;
 
 import com.linecorp.armeria.client.ClientBuilder;
@@ -48,13 +49,19 @@ public final class ArmeriaCentralDogmaBuilder
         // TODO(ikhoon): Apply ExecutorServiceMetrics for the 'blockingTaskExecutor' once
         //               https://github.com/line/centraldogma/pull/542 is merged.
         final ScheduledExecutorService blockingTaskExecutor = blockingTaskExecutor();
+        // Only the outermost client keeps the snapshots so that the cache directory is not shared.
+        final Path snapshotCacheDir = snapshotCacheDir();
 
         final CentralDogma dogma = new ArmeriaCentralDogma(blockingTaskExecutor,
                                                            builder.build(WebClient.class),
                                                            accessToken(),
                                                            endpointGroup::close,
                                                            meterRegistry(),
-                                                           null);
+                                                           null,
+                                                           isJsonPatchWatch(),
+                                                           isStreamingWatch(),
+                                                           maxRetriesOnReplicationLag <= 0 ? snapshotCacheDir
+                                                                                           : null);
         if (maxRetriesOnReplicationLag <= 0) {
             return dogma;
         } else {
@@ -67,7 +74,7 @@ public final class ArmeriaCentralDogmaBuilder
                         final ClientRequestContext ctx = ClientRequestContext.currentOrNull();
                         return ctx != null ? ctx.remoteAddress() : null;
                     },
-                    meterRegistry());
+                    meterRegistry(), snapshotCacheDir);
         }
     }
 }
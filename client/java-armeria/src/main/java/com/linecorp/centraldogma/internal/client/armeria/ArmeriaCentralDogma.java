@@ -28,8 +28,10 @@ import static com.linecorp.centraldogma.internal.api.v1.HttpApiV1Constants.REPOS
 import static com.spotify.futures.CompletableFutures.exceptionallyCompletedFuture;
 import static java.util.Objects.requireNonNull;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -39,6 +41,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
 
@@ -54,6 +57,8 @@ import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -121,6 +126,7 @@ import com.linecorp.centraldogma.internal.Jackson;
 import com.linecorp.centraldogma.internal.Util;
 import com.linecorp.centraldogma.internal.Yaml;
 import com.linecorp.centraldogma.internal.api.v1.WatchTimeout;
+import com.linecorp.centraldogma.internal.jsonpatch.JsonPatch;
 
 import io.micrometer.core.instrument.MeterRegistry;
 
@@ -136,6 +142,8 @@ public final class ArmeriaCentralDogma extends AbstractCentralDogma {
                                     .put("value", "active")));
     private static final String REMOVED_PARAM = "?status=removed";
 
+    private static final int MAX_LAST_WATCHED_ENTRIES = 1024;
+
     private static final Map<String, Function<String, CentralDogmaException>> EXCEPTION_FACTORIES =
             ImmutableMap.<String, Function<String, CentralDogmaException>>builder()
                         .put(ProjectExistsException.class.getName(), ProjectExistsException::new)
@@ -165,16 +173,64 @@ public final class ArmeriaCentralDogma extends AbstractCentralDogma {
     private final SafeCloseable safeCloseable;
     @Nullable
     private final CompletableFuture<Void> whenReady;
+    // The last JSON entries returned by watchFile(), which the JSON patches from the server are applied to.
+    // null if the JSON patches are not requested.
+    @Nullable
+    private final Cache<List<Object>, Entry<?>> lastWatchedEntries;
+    // null if the watches are sent as long-polling requests.
+    @Nullable
+    private final WatchStream watchStream;
 
     public ArmeriaCentralDogma(ScheduledExecutorService blockingTaskExecutor,
                                WebClient client, String accessToken, SafeCloseable safeCloseable,
                                @Nullable MeterRegistry meterRegistry,
                                @Nullable CompletableFuture<Void> whenReady) {
-        super(blockingTaskExecutor, meterRegistry);
+        this(blockingTaskExecutor, client, accessToken, safeCloseable, meterRegistry, whenReady, false, false);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param jsonPatchWatchEnabled whether to request a JSON patch instead of the full content when
+     *                              watching a JSON file
+     * @param streamingWatchEnabled whether to multiplex the watches over a single long-lived stream
+     *                              instead of sending a long-polling request for each watch
+     */
+    public ArmeriaCentralDogma(ScheduledExecutorService blockingTaskExecutor,
+                               WebClient client, String accessToken, SafeCloseable safeCloseable,
+                               @Nullable MeterRegistry meterRegistry,
+                               @Nullable CompletableFuture<Void> whenReady, boolean jsonPatchWatchEnabled,
+                               boolean streamingWatchEnabled) {
+        this(blockingTaskExecutor, client, accessToken, safeCloseable, meterRegistry, whenReady,
+             jsonPatchWatchEnabled, streamingWatchEnabled, null);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param jsonPatchWatchEnabled whether to request a JSON patch instead of the full content when
+     *                              watching a JSON file
+     * @param streamingWatchEnabled whether to multiplex the watches over a single long-lived stream
+     *                              instead of sending a long-polling request for each watch
+     * @param snapshotCacheDir the directory where the latest value of the watched files is stored,
+     *                         or {@code null} to disable the snapshots
+     */
+    public ArmeriaCentralDogma(ScheduledExecutorService blockingTaskExecutor,
+                               WebClient client, String accessToken, SafeCloseable safeCloseable,
+                               @Nullable MeterRegistry meterRegistry,
+                               @Nullable CompletableFuture<Void> whenReady, boolean jsonPatchWatchEnabled,
+                               boolean streamingWatchEnabled, @Nullable Path snapshotCacheDir) {
+        super(blockingTaskExecutor, meterRegistry, snapshotCacheDir);
         this.client = requireNonNull(client, "client");
         authorization = "Bearer " + requireNonNull(accessToken, "accessToken");
         this.safeCloseable = safeCloseable;
         this.whenReady = whenReady;
+        if (jsonPatchWatchEnabled) {
+            lastWatchedEntries = CacheBuilder.newBuilder().maximumSize(MAX_LAST_WATCHED_ENTRIES).build();
+        } else {
+            lastWatchedEntries = null;
+        }
+        watchStream = streamingWatchEnabled ? new WatchStream(client, authorization) : null;
     }
 
     @Override
@@ -886,8 +942,17 @@ public final class ArmeriaCentralDogma extends AbstractCentralDogma {
             final StringBuilder path = pathBuilder(projectName, repositoryName);
             path.append("/contents").append(pathPattern.encoded());
 
-            return watch(lastKnownRevision, timeoutMillis, path.toString(), QueryType.IDENTITY,
-                         ArmeriaCentralDogma::watchRepository, errorOnEntryNotFound);
+            final Supplier<CompletableFuture<Revision>> longPolling =
+                    () -> watch(lastKnownRevision, timeoutMillis, path.toString(), QueryType.IDENTITY,
+                                ArmeriaCentralDogma::watchRepository, errorOnEntryNotFound, false);
+            if (watchStream != null) {
+                final ObjectNode subscription = newSubscription(projectName, repositoryName,
+                                                                lastKnownRevision, pathPattern.patternString(),
+                                                                errorOnEntryNotFound);
+                return watchStream.watch(subscription, timeoutMillis,
+                                         res -> watchRepository(res, QueryType.IDENTITY), longPolling);
+            }
+            return longPolling.get();
         } catch (Exception e) {
             return exceptionallyCompletedFuture(e);
         }
@@ -954,19 +1019,97 @@ public final class ArmeriaCentralDogma extends AbstractCentralDogma {
                 requestPath = path.toString();
             }
 
-            return watch(lastKnownRevision, timeoutMillis, requestPath, query.type(),
-                         (res, queryType) -> watchFile(res, queryType, viewRaw), errorOnEntryNotFound);
+            if (lastWatchedEntries != null && !viewRaw && !renderTemplate) {
+                return watchFileWithJsonPatch(projectName, repositoryName, lastKnownRevision, query,
+                                              timeoutMillis, errorOnEntryNotFound, requestPath);
+            }
+            final Supplier<CompletableFuture<Entry<T>>> longPolling =
+                    () -> watch(lastKnownRevision, timeoutMillis, requestPath, query.type(),
+                                (res, queryType) -> watchFile(res, queryType, viewRaw, null),
+                                errorOnEntryNotFound, false);
+            if (watchStream != null && !renderTemplate) {
+                final ObjectNode subscription = newSubscription(projectName, repositoryName,
+                                                                lastKnownRevision, query.path(),
+                                                                errorOnEntryNotFound);
+                if (query.type() == QueryType.JSON_PATH) {
+                    final ArrayNode jsonPaths = subscription.putArray("jsonpath");
+                    query.expressions().forEach(jsonPaths::add);
+                }
+                subscription.put("viewRaw", viewRaw);
+                return watchStream.watch(subscription, timeoutMillis,
+                                         res -> watchFile(res, query.type(), viewRaw, null), longPolling);
+            }
+            return longPolling.get();
         } catch (Exception e) {
             return exceptionallyCompletedFuture(e);
         }
     }
 
+    private static ObjectNode newSubscription(String projectName, String repositoryName,
+                                              Revision lastKnownRevision, String path,
+                                              boolean errorOnEntryNotFound) {
+        return JsonNodeFactory.instance.objectNode()
+                                       .put("project", projectName)
+                                       .put("repo", repositoryName)
+                                       .put("revision", lastKnownRevision.text())
+                                       .put("path", path)
+                                       .put("errorOnEntryNotFound", errorOnEntryNotFound);
+    }
+
+    /**
+     * Watches the specified file, requesting a JSON patch from the last {@link Entry} returned for the same
+     * {@link Query} if its revision is the {@code lastKnownRevision}, so that the full content of a large
+     * JSON file is not transferred again when only a part of it is changed.
+     */
+    private <T> CompletableFuture<Entry<T>> watchFileWithJsonPatch(String projectName, String repositoryName,
+                                                                   Revision lastKnownRevision, Query<T> query,
+                                                                   long timeoutMillis,
+                                                                   boolean errorOnEntryNotFound,
+                                                                   String requestPath) {
+        assert lastWatchedEntries != null;
+        final List<Object> key = ImmutableList.of(projectName, repositoryName, query);
+        final Entry<?> lastEntry = lastWatchedEntries.getIfPresent(key);
+        final Entry<?> baseEntry;
+        if (lastEntry != null && lastEntry.type() == EntryType.JSON &&
+            lastEntry.revision().equals(lastKnownRevision)) {
+            baseEntry = lastEntry;
+        } else {
+            baseEntry = null;
+        }
+
+        return watch(lastKnownRevision, timeoutMillis, requestPath, query.type(), (res, queryType) -> {
+            final Entry<T> entry;
+            try {
+                entry = watchFile(res, queryType, false, baseEntry);
+            } catch (JsonPatchConflictException e) {
+                // Do not use the same base again.
+                lastWatchedEntries.invalidate(key);
+                throw e;
+            }
+            if (entry != null) {
+                if (entry.type() == EntryType.JSON) {
+                    // Keep a copy because the caller may modify the content of the returned entry.
+                    lastWatchedEntries.put(key, Entry.ofJson(entry.revision(), entry.path(),
+                                                             ((JsonNode) entry.content()).deepCopy()));
+                } else {
+                    lastWatchedEntries.invalidate(key);
+                }
+            }
+            return entry;
+        }, errorOnEntryNotFound, baseEntry != null);
+    }
+
     @Nullable
-    private static <T> Entry<T> watchFile(AggregatedHttpResponse res, QueryType queryType, boolean viewRaw) {
+    private static <T> Entry<T> watchFile(AggregatedHttpResponse res, QueryType queryType, boolean viewRaw,
+                                          @Nullable Entry<?> baseEntry) {
         switch (res.status().code()) {
             case 200: // OK
                 final JsonNode node = toJson(res, JsonNodeType.OBJECT);
                 final Revision revision = new Revision(getField(node, "revision").asInt());
+                final JsonNode patch = node.get("patch");
+                if (patch != null) {
+                    return applyJsonPatch(revision, getField(node, "entry"), baseEntry, patch);
+                }
                 return toEntry(revision, getField(node, "entry"), queryType, viewRaw);
             case 304: // Not Modified
                 return null;
@@ -975,14 +1118,33 @@ public final class ArmeriaCentralDogma extends AbstractCentralDogma {
         return handleErrorResponse(res);
     }
 
+    private static <T> Entry<T> applyJsonPatch(Revision revision, JsonNode entryNode,
+                                               @Nullable Entry<?> baseEntry, JsonNode patch) {
+        if (baseEntry == null) {
+            throw new CentralDogmaException("unexpected JSON patch in the watch response: " + entryNode);
+        }
+
+        final JsonNode content;
+        try {
+            content = JsonPatch.fromJson(patch).apply((JsonNode) baseEntry.content());
+        } catch (IOException e) {
+            throw new JsonPatchConflictException("failed to parse the JSON patch: " + patch, e);
+        }
+        return unsafeCast(Entry.ofJson(revision, getField(entryNode, "path").asText(), content));
+    }
+
     private <T> CompletableFuture<T> watch(Revision lastKnownRevision, long timeoutMillis,
                                            String path, QueryType queryType,
                                            BiFunction<AggregatedHttpResponse, QueryType, T> func,
-                                           boolean errorOnEntryNotFound) {
+                                           boolean errorOnEntryNotFound, boolean jsonPatchAccepted) {
         final RequestHeadersBuilder builder = headersBuilder(HttpMethod.GET, path);
+        String prefer = "wait=" + LongMath.saturatedAdd(timeoutMillis, 999) / 1000L +
+                        ", notify-entry-not-found=" + errorOnEntryNotFound;
+        if (jsonPatchAccepted) {
+            prefer += ", delta=json-patch";
+        }
         builder.set(HttpHeaderNames.IF_NONE_MATCH, lastKnownRevision.text())
-               .set(HttpHeaderNames.PREFER, "wait=" + LongMath.saturatedAdd(timeoutMillis, 999) / 1000L +
-                                            ", notify-entry-not-found=" + errorOnEntryNotFound);
+               .set(HttpHeaderNames.PREFER, prefer);
 
         try (SafeCloseable ignored = Clients.withContextCustomizer(ctx -> {
             final long responseTimeoutMillis = ctx.responseTimeoutMillis();
@@ -1321,6 +1483,10 @@ public final class ArmeriaCentralDogma extends AbstractCentralDogma {
 
     @Override
     public void close() {
+        if (watchStream != null) {
+            watchStream.close();
+        }
+        closeSnapshots();
         safeCloseable.close();
     }
 }
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.internal.client.armeria;
+
+import static com.linecorp.centraldogma.internal.api.v1.HttpApiV1Constants.WATCH_STREAM_PATH;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import com.linecorp.armeria.client.Clients;
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpObject;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpRequestWriter;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.util.SafeCloseable;
+import com.linecorp.centraldogma.common.CentralDogmaException;
+import com.linecorp.centraldogma.internal.Jackson;
+import com.linecorp.centraldogma.internal.api.v1.JsonLinesDecoder;
+
+import io.netty.channel.EventLoop;
+
+/**
+ * A long-lived HTTP/2 stream which multiplexes the watches of an {@link ArmeriaCentralDogma}, so that
+ * a watcher does not send a new long-polling request whenever its watch is completed or timed out.
+ * A watch falls back to long polling if the stream is closed or the server does not provide the stream.
+ */
+final class WatchStream implements SafeCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WatchStream.class);
+
+    // Do not reopen a stream immediately after it is closed, e.g. by a server which is shutting down.
+    private static final long REOPEN_DELAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final WebClient client;
+    private final String authorization;
+    private final AtomicLong nextId = new AtomicLong();
+    private final Map<Long, PendingWatch<?>> pendingWatches = new ConcurrentHashMap<>();
+
+    // Guarded by 'this'.
+    @Nullable
+    private Connection connection;
+    private long lastClosedNanos;
+    private boolean closed;
+
+    // Set when the server does not provide the watch stream, e.g. an old version.
+    private volatile boolean unsupported;
+
+    WatchStream(WebClient client, String authorization) {
+        this.client = requireNonNull(client, "client");
+        this.authorization = requireNonNull(authorization, "authorization");
+    }
+
+    /**
+     * Subscribes the specified watch and returns the future which is completed with the result of the
+     * specified {@code responseHandler}. The {@code responseHandler} receives the response which
+     * the long-polling watch request would have received, or {@link HttpStatus#NOT_MODIFIED} if the watch
+     * is timed out.
+     */
+    <T> CompletableFuture<T> watch(ObjectNode subscription, long timeoutMillis,
+                                   Function<AggregatedHttpResponse, T> responseHandler,
+                                   Supplier<CompletableFuture<T>> fallback) {
+        final Connection connection = connection();
+        if (connection == null) {
+            return fallback.get();
+        }
+
+        final long id = nextId.incrementAndGet();
+        final PendingWatch<T> watch = new PendingWatch<>(connection, responseHandler, fallback);
+        pendingWatches.put(id, watch);
+        subscription.put("type", "subscribe").put("id", id);
+        if (!connection.send(subscription)) {
+            if (pendingWatches.remove(id, watch)) {
+                return fallback.get();
+            }
+            // The watch has been passed to the fallback by the closed connection.
+            return watch.result;
+        }
+
+        final ScheduledFuture<?> timeoutFuture = connection.eventLoop.schedule(() -> {
+            if (pendingWatches.remove(id, watch)) {
+                connection.unsubscribe(id);
+                watch.complete(AggregatedHttpResponse.of(HttpStatus.NOT_MODIFIED));
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        watch.result.whenComplete((unused1, unused2) -> {
+            timeoutFuture.cancel(false);
+            if (pendingWatches.remove(id, watch)) {
+                // Cancelled by the caller.
+                connection.unsubscribe(id);
+            }
+        });
+        return watch.result;
+    }
+
+    @Nullable
+    private synchronized Connection connection() {
+        if (unsupported || closed) {
+            return null;
+        }
+        if (connection == null) {
+            if (lastClosedNanos != 0 && System.nanoTime() - lastClosedNanos < REOPEN_DELAY_NANOS) {
+                return null;
+            }
+            connection = new Connection();
+        }
+        return connection;
+    }
+
+    @Override
+    public void close() {
+        final Connection connection;
+        synchronized (this) {
+            closed = true;
+            connection = this.connection;
+            this.connection = null;
+        }
+        if (connection != null) {
+            connection.request.close();
+        }
+    }
+
+    private final class Connection implements Subscriber<HttpObject> {
+
+        final EventLoop eventLoop;
+        final HttpRequestWriter request;
+        private final JsonLinesDecoder decoder = new JsonLinesDecoder(Integer.MAX_VALUE);
+        @Nullable
+        private Subscription subscription;
+
+        Connection() {
+            eventLoop = client.options().factory().eventLoopGroup().next();
+            request = HttpRequest.streaming(RequestHeaders.builder(HttpMethod.POST, WATCH_STREAM_PATH)
+                                                          .set(HttpHeaderNames.AUTHORIZATION, authorization)
+                                                          .contentType(MediaType.JSON_LINES)
+                                                          .build());
+            final HttpResponse response;
+            try (SafeCloseable ignored = Clients.withContextCustomizer(ctx -> {
+                // The stream lasts until the client is closed.
+                ctx.clearResponseTimeout();
+                ctx.setMaxResponseLength(0);
+            })) {
+                response = client.execute(request);
+            }
+            response.subscribe(this, eventLoop);
+        }
+
+        boolean send(ObjectNode message) {
+            final byte[] bytes;
+            try {
+                bytes = Jackson.writeValueAsBytes(message);
+            } catch (Exception e) {
+                throw new CentralDogmaException("failed to encode a watch message: " + message, e);
+            }
+            final byte[] line = new byte[bytes.length + 1];
+            System.arraycopy(bytes, 0, line, 0, bytes.length);
+            line[bytes.length] = '\n';
+            return request.tryWrite(HttpData.wrap(line));
+        }
+
+        void unsubscribe(long id) {
+            send(JsonNodeFactory.instance.objectNode().put("type", "unsubscribe").put("id", id));
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(HttpObject obj) {
+            try {
+                if (obj instanceof ResponseHeaders) {
+                    final HttpStatus status = ((ResponseHeaders) obj).status();
+                    if (status.isInformational() || status == HttpStatus.OK) {
+                        return;
+                    }
+                    if (status == HttpStatus.NOT_FOUND || status == HttpStatus.METHOD_NOT_ALLOWED) {
+                        logger.info("The server does not support the watch stream; using long polling.");
+                        unsupported = true;
+                    }
+                    throw new CentralDogmaException("unexpected watch stream response: " + obj);
+                }
+                if (obj instanceof HttpData) {
+                    for (JsonNode event : decoder.decode(((HttpData) obj).array())) {
+                        onEvent(event);
+                    }
+                }
+            } catch (Exception e) {
+                assert subscription != null;
+                subscription.cancel();
+                onError(e);
+            }
+        }
+
+        private void onEvent(JsonNode event) throws Exception {
+            final PendingWatch<?> watch = pendingWatches.remove(event.get("id").asLong());
+            if (watch == null) {
+                // Timed out or cancelled already.
+                return;
+            }
+            final HttpStatus status = HttpStatus.valueOf(event.get("status").asInt());
+            if (status == HttpStatus.TOO_MANY_REQUESTS) {
+                // The stream has as many watches as the server allows.
+                watch.fallback();
+                return;
+            }
+            final JsonNode content = event.get("content");
+            if (content == null) {
+                watch.complete(AggregatedHttpResponse.of(status));
+            } else {
+                watch.complete(AggregatedHttpResponse.of(status, MediaType.JSON_UTF_8,
+                                                         Jackson.writeValueAsBytes(content)));
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            logger.debug("A watch stream has been closed; using long polling for the pending watches:", t);
+            close();
+        }
+
+        @Override
+        public void onComplete() {
+            close();
+        }
+
+        private void close() {
+            synchronized (WatchStream.this) {
+                if (connection == this) {
+                    connection = null;
+                    lastClosedNanos = System.nanoTime();
+                }
+            }
+            request.abort();
+            pendingWatches.forEach((id, watch) -> {
+                if (watch.connection == this && pendingWatches.remove(id, watch)) {
+                    watch.fallback();
+                }
+            });
+        }
+    }
+
+    private static final class PendingWatch<T> {
+
+        final Connection connection;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        private final Function<AggregatedHttpResponse, T> responseHandler;
+        private final Supplier<CompletableFuture<T>> fallback;
+
+        PendingWatch(Connection connection, Function<AggregatedHttpResponse, T> responseHandler,
+                     Supplier<CompletableFuture<T>> fallback) {
+            this.connection = connection;
+            this.responseHandler = responseHandler;
+            this.fallback = fallback;
+        }
+
+        void complete(AggregatedHttpResponse res) {
+            try {
+                result.complete(responseHandler.apply(res));
+            } catch (Throwable cause) {
+                result.completeExceptionally(cause);
+            }
+        }
+
+        void fallback() {
+            fallback.get().handle((value, cause) -> {
+                if (cause != null) {
+                    result.completeExceptionally(cause);
+                } else {
+                    result.complete(value);
+                }
+                return null;
+            });
+        }
+    }
+}
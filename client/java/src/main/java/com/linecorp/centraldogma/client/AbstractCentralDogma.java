@@ -41,6 +41,7 @@ import com.linecorp.centraldogma.common.MergedEntry;
 import com.linecorp.centraldogma.common.PushResult;
 import com.linecorp.centraldogma.common.Query;
 import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.internal.client.SnapshotStore;
 
 import io.micrometer.core.instrument.MeterRegistry;
 
@@ -52,6 +53,8 @@ public abstract class AbstractCentralDogma implements CentralDogma {
     private final ScheduledExecutorService blockingTaskExecutor;
     @Nullable
     private final MeterRegistry meterRegistry;
+    @Nullable
+    private final SnapshotStore snapshotStore;
 
     /**
      * Creates a new instance.
@@ -62,8 +65,26 @@ public abstract class AbstractCentralDogma implements CentralDogma {
      */
     protected AbstractCentralDogma(ScheduledExecutorService blockingTaskExecutor,
                                    @Nullable MeterRegistry meterRegistry) {
+        this(blockingTaskExecutor, meterRegistry, null);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param blockingTaskExecutor the {@link ScheduledExecutorService} which will be used for scheduling the
+     *                             tasks related with automatic retries and invoking the callbacks for
+     *                             watched changes.
+     * @param snapshotCacheDir the directory where the {@link Watcher}s of a file store the last known value
+     *                         and retrieve it from when they start, or {@code null} to disable the snapshots.
+     *                         A subclass which specifies this must call {@link #closeSnapshots()} when it is
+     *                         closed.
+     */
+    protected AbstractCentralDogma(ScheduledExecutorService blockingTaskExecutor,
+                                   @Nullable MeterRegistry meterRegistry, @Nullable Path snapshotCacheDir) {
         this.blockingTaskExecutor = requireNonNull(blockingTaskExecutor, "blockingTaskExecutor");
         this.meterRegistry = meterRegistry;
+        snapshotStore = snapshotCacheDir != null ? new SnapshotStore(snapshotCacheDir, blockingTaskExecutor)
+                                                 : null;
     }
 
     /**
@@ -74,12 +95,22 @@ public abstract class AbstractCentralDogma implements CentralDogma {
         return blockingTaskExecutor;
     }
 
+    /**
+     * Writes the last known values of the watched files which were not written yet to the snapshot cache
+     * directory and stops writing them. This method does nothing if no snapshot cache directory was specified.
+     */
+    protected final void closeSnapshots() {
+        if (snapshotStore != null) {
+            snapshotStore.close();
+        }
+    }
+
     @Override
     public CentralDogmaRepository forRepo(String projectName, String repositoryName) {
         requireNonNull(projectName, "projectName");
         requireNonNull(repositoryName, "repositoryName");
         return new CentralDogmaRepository(this, projectName, repositoryName, blockingTaskExecutor,
-                                          meterRegistry);
+                                          meterRegistry, snapshotStore);
     }
 
     @Override
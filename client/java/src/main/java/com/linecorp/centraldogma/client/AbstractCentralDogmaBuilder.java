@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URL;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -74,6 +75,8 @@ public abstract class AbstractCentralDogmaBuilder<B extends AbstractCentralDogma
             TimeUnit.SECONDS.toMillis(DEFAULT_RETRY_INTERVAL_ON_REPLICATION_LAG_SECONDS);
     @Nullable
     private MeterRegistry meterRegistry;
+    @Nullable
+    private Path snapshotCacheDir;
 
     /**
      * Returns {@code this}.
@@ -436,4 +439,25 @@ public abstract class AbstractCentralDogmaBuilder<B extends AbstractCentralDogma
     protected final MeterRegistry meterRegistry() {
         return meterRegistry;
     }
+
+    /**
+     * Sets the directory where the client stores the latest value of the files watched by
+     * {@link CentralDogmaRepository#watcher(com.linecorp.centraldogma.common.Query)}. A {@link Watcher}
+     * returns the stored value immediately when it starts, and then catches up with the changes made
+     * since the stored revision, so that the application starts quickly and survives a server outage.
+     * The snapshots are not stored if this is not set.
+     */
+    public final B snapshotCacheDir(Path snapshotCacheDir) {
+        this.snapshotCacheDir = requireNonNull(snapshotCacheDir, "snapshotCacheDir");
+        return self();
+    }
+
+    /**
+     * Returns the directory where the client stores the latest value of the watched files.
+     * {@code null} if the snapshots are not stored.
+     */
+    @Nullable
+    protected final Path snapshotCacheDir() {
+        return snapshotCacheDir;
+    }
 }
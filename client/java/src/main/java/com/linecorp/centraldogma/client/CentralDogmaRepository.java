@@ -44,6 +44,7 @@ import com.linecorp.centraldogma.common.PushResult;
 import com.linecorp.centraldogma.common.Query;
 import com.linecorp.centraldogma.common.QueryType;
 import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.internal.client.SnapshotStore;
 
 import io.micrometer.core.instrument.MeterRegistry;
 
@@ -58,15 +59,18 @@ public final class CentralDogmaRepository {
     private final ScheduledExecutorService blockingTaskExecutor;
     @Nullable
     private final MeterRegistry meterRegistry;
+    @Nullable
+    private final SnapshotStore snapshotStore;
 
     CentralDogmaRepository(CentralDogma centralDogma, String projectName, String repositoryName,
                            ScheduledExecutorService blockingTaskExecutor,
-                           @Nullable MeterRegistry meterRegistry) {
+                           @Nullable MeterRegistry meterRegistry, @Nullable SnapshotStore snapshotStore) {
         this.centralDogma = centralDogma;
         this.projectName = projectName;
         this.repositoryName = repositoryName;
         this.blockingTaskExecutor = blockingTaskExecutor;
         this.meterRegistry = meterRegistry;
+        this.snapshotStore = snapshotStore;
     }
 
     private static Change<?> toChange(String repoPath, Path file) {
@@ -104,6 +108,11 @@ public final class CentralDogmaRepository {
         return centralDogma;
     }
 
+    @Nullable
+    SnapshotStore snapshotStore() {
+        return snapshotStore;
+    }
+
     /**
      * Returns the name of the project.
      */
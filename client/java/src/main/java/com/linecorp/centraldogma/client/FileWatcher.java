@@ -25,6 +25,7 @@ import javax.annotation.Nullable;
 import com.linecorp.centraldogma.common.Entry;
 import com.linecorp.centraldogma.common.Query;
 import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.internal.client.SnapshotStore;
 
 import io.micrometer.core.instrument.MeterRegistry;
 
@@ -43,13 +44,17 @@ final class FileWatcher<T> extends AbstractWatcher<T> {
     private final boolean renderTemplate;
     @Nullable
     private final String variableFile;
+    // null if the snapshot cache is disabled or the template is rendered.
+    @Nullable
+    private final SnapshotStore snapshotStore;
+    private boolean snapshotServed;
 
     FileWatcher(CentralDogma centralDogma, ScheduledExecutorService watchScheduler, String projectName,
                 String repositoryName, Query<T> query, long timeoutMillis, boolean errorOnEntryNotFound,
                 @Nullable Function<Object, ? extends T> mapper, Executor mapperExecutor,
                 long delayOnSuccessMillis, long initialDelayMillis, long maxDelayMillis, double multiplier,
                 double jitterRate, @Nullable MeterRegistry meterRegistry, boolean renderTemplate,
-                @Nullable String variableFile) {
+                @Nullable String variableFile, @Nullable SnapshotStore snapshotStore) {
         super(watchScheduler, projectName, repositoryName, query.path(), errorOnEntryNotFound,
               delayOnSuccessMillis, initialDelayMillis, maxDelayMillis, multiplier, jitterRate, meterRegistry);
         this.centralDogma = centralDogma;
@@ -62,15 +67,39 @@ final class FileWatcher<T> extends AbstractWatcher<T> {
         this.mapperExecutor = mapperExecutor;
         this.renderTemplate = renderTemplate;
         this.variableFile = variableFile;
+        // A rendered template depends on the variables as well, which are not stored in the snapshot.
+        this.snapshotStore = renderTemplate ? null : snapshotStore;
     }
 
     @Override
     CompletableFuture<Latest<T>> doWatch(Revision lastKnownRevision, @Nullable Revision templateRevision) {
-        final CompletableFuture<Entry<T>> future = centralDogma.watchFile(projectName, repositoryName,
-                                                                          lastKnownRevision, query,
-                                                                          timeoutMillis, errorOnEntryNotFound,
-                                                                          false, renderTemplate, variableFile,
-                                                                          templateRevision);
+        if (snapshotStore != null && !snapshotServed && Revision.INIT.equals(lastKnownRevision)) {
+            snapshotServed = true;
+            final Entry<T> snapshot = snapshotStore.get(projectName, repositoryName, query);
+            if (snapshot != null) {
+                // Serve the last known value immediately. The next watch will bring the changes made
+                // since the revision of the snapshot.
+                return toLatest(CompletableFuture.completedFuture(snapshot));
+            }
+        }
+
+        CompletableFuture<Entry<T>> future = centralDogma.watchFile(projectName, repositoryName,
+                                                                    lastKnownRevision, query,
+                                                                    timeoutMillis, errorOnEntryNotFound,
+                                                                    false, renderTemplate, variableFile,
+                                                                    templateRevision);
+        if (snapshotStore != null) {
+            future = future.thenApply(entry -> {
+                if (entry != null) {
+                    snapshotStore.put(projectName, repositoryName, query, entry);
+                }
+                return entry;
+            });
+        }
+        return toLatest(future);
+    }
+
+    private CompletableFuture<Latest<T>> toLatest(CompletableFuture<Entry<T>> future) {
         if (mapper == null) {
             return future.thenApply(entry -> {
                 if (entry == null) {
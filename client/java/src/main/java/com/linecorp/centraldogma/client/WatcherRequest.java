@@ -215,7 +215,7 @@ public final class WatcherRequest<T> extends WatchOptions {
                     centralDogmaRepo.centralDogma(), blockingTaskExecutor, proName, repoName, query,
                     timeoutMillis(), errorOnEntryNotFound(), mapper, executor, delayOnSuccessMillis,
                     initialDelayMillis, maxDelayMillis, multiplier, jitterRate, meterRegistry,
-                    renderTemplate, variableFile);
+                    renderTemplate, variableFile, centralDogmaRepo.snapshotStore());
         } else {
             checkState(!renderTemplate, "renderTemplate can't be set when watching multiple files.");
             assert pathPattern != null;
@@ -20,6 +20,7 @@ import static com.spotify.futures.CompletableFutures.exceptionallyCompletedFutur
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 
+import java.nio.file.Path;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -93,7 +94,16 @@ public final class ReplicationLagTolerantCentralDogma extends AbstractCentralDog
                                               CentralDogma delegate, int maxRetries, long retryIntervalMillis,
                                               Supplier<?> currentReplicaHintSupplier,
                                               @Nullable MeterRegistry meterRegistry) {
-        super(blockingTaskExecutor, meterRegistry);
+        this(blockingTaskExecutor, delegate, maxRetries, retryIntervalMillis, currentReplicaHintSupplier,
+             meterRegistry, null);
+    }
+
+    public ReplicationLagTolerantCentralDogma(ScheduledExecutorService blockingTaskExecutor,
+                                              CentralDogma delegate, int maxRetries, long retryIntervalMillis,
+                                              Supplier<?> currentReplicaHintSupplier,
+                                              @Nullable MeterRegistry meterRegistry,
+                                              @Nullable Path snapshotCacheDir) {
+        super(blockingTaskExecutor, meterRegistry, snapshotCacheDir);
 
         requireNonNull(delegate, "delegate");
         checkArgument(maxRetries > 0, "maxRetries: %s (expected: > 0)", maxRetries);
@@ -822,7 +832,11 @@ public final class ReplicationLagTolerantCentralDogma extends AbstractCentralDog
 
     @Override
     public void close() throws Exception {
-        delegate.close();
+        try {
+            closeSnapshots();
+        } finally {
+            delegate.close();
+        }
     }
 
     @VisibleForTesting
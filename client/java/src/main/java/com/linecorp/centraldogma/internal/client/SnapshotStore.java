@@ -0,0 +1,250 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.internal.client;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
+
+import com.linecorp.centraldogma.common.Entry;
+import com.linecorp.centraldogma.common.EntryType;
+import com.linecorp.centraldogma.common.Query;
+import com.linecorp.centraldogma.common.QueryType;
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.internal.Jackson;
+
+/**
+ * A local file store of the {@link Entry}s retrieved by the watchers of a client, which is used to
+ * serve the last known value of a file immediately when a client is restarted or the servers are not
+ * reachable. The snapshots updated within {@value #FLUSH_DELAY_MILLIS} milliseconds are written together,
+ * and a file is replaced atomically so that a crash does not leave a partially written file.
+ */
+public final class SnapshotStore implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotStore.class);
+
+    private static final String FILE_NAME = "snapshots.json";
+
+    @VisibleForTesting
+    static final long FLUSH_DELAY_MILLIS = 1000;
+
+    private final Path file;
+    private final ScheduledExecutorService executor;
+    private final Map<String, ObjectNode> snapshots = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile boolean dirty;
+
+    /**
+     * Creates a new instance which stores the snapshots in the specified directory.
+     *
+     * @param executor the {@link ScheduledExecutorService} which writes the snapshots to the file
+     */
+    public SnapshotStore(Path dir, ScheduledExecutorService executor) {
+        requireNonNull(dir, "dir");
+        this.executor = requireNonNull(executor, "executor");
+        file = dir.resolve(FILE_NAME);
+        load();
+    }
+
+    private void load() {
+        final byte[] data;
+        try {
+            data = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            logger.warn("Failed to read the snapshots from {}; starting with an empty cache:", file, e);
+            return;
+        }
+
+        try {
+            for (JsonNode snapshot : Jackson.readTree(data)) {
+                if (snapshot.isObject()) {
+                    snapshots.put(key(snapshot), (ObjectNode) snapshot);
+                }
+            }
+        } catch (Exception e) {
+            snapshots.clear();
+            logger.warn("Failed to parse the snapshots in {}; starting with an empty cache:", file, e);
+        }
+    }
+
+    /**
+     * Returns the last stored {@link Entry} of the specified {@link Query},
+     * or {@code null} if there's no snapshot.
+     */
+    @Nullable
+    public <T> Entry<T> get(String projectName, String repositoryName, Query<T> query) {
+        final ObjectNode snapshot = snapshots.get(key(projectName, repositoryName, query));
+        if (snapshot == null) {
+            return null;
+        }
+        try {
+            return toEntry(snapshot);
+        } catch (Exception e) {
+            logger.warn("Failed to restore a snapshot: {}", snapshot, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the specified {@link Entry} as the latest snapshot of the specified {@link Query}.
+     * The snapshot is written to the file asynchronously.
+     */
+    public <T> void put(String projectName, String repositoryName, Query<T> query, Entry<T> entry) {
+        requireNonNull(entry, "entry");
+        if (!entry.hasContent()) {
+            return;
+        }
+        final ObjectNode snapshot = JsonNodeFactory.instance.objectNode();
+        snapshot.put("project", requireNonNull(projectName, "projectName"));
+        snapshot.put("repo", requireNonNull(repositoryName, "repositoryName"));
+        snapshot.put("queryType", query.type().name());
+        snapshot.put("path", query.path());
+        final ArrayNode expressions = snapshot.putArray("expressions");
+        query.expressions().forEach(expressions::add);
+        snapshot.put("revision", entry.revision().major());
+        snapshot.put("entryType", entry.type().name());
+        if (entry.type() == EntryType.TEXT) {
+            snapshot.put("content", (String) entry.content());
+        } else {
+            snapshot.set("content", (JsonNode) entry.content());
+        }
+
+        final ObjectNode stored = snapshots.compute(key(snapshot), (unused, old) -> {
+            if (old != null && old.get("revision").asInt() >= entry.revision().major()) {
+                // Do not overwrite a snapshot with the same or an older one.
+                return old;
+            }
+            return snapshot;
+        });
+        if (stored != snapshot) {
+            return;
+        }
+        dirty = true;
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.schedule(() -> {
+                    flushScheduled.set(false);
+                    flush();
+                }, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes the snapshots to a temporary file, syncs it to the disk and renames it to the snapshot file,
+     * so that a crash never leaves an empty or partially written snapshot file.
+     */
+    @VisibleForTesting
+    synchronized void flush() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        final ArrayNode array = JsonNodeFactory.instance.arrayNode();
+        snapshots.values().forEach(array::add);
+        Path tempFile = null;
+        try {
+            final Path dir = file.getParent();
+            Files.createDirectories(dir);
+            tempFile = Files.createTempFile(dir, FILE_NAME, ".tmp");
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                final ByteBuffer buf = ByteBuffer.wrap(Jackson.writeValueAsBytes(array));
+                while (buf.hasRemaining()) {
+                    channel.write(buf);
+                }
+                channel.force(true);
+            }
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            dirty = true;
+            logger.warn("Failed to write the snapshots to {}:", file, e);
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {
+                    // Ignore.
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Entry<T> toEntry(JsonNode snapshot) throws Exception {
+        final Revision revision = new Revision(snapshot.get("revision").asInt());
+        final String path = snapshot.get("path").asText();
+        final EntryType entryType = EntryType.valueOf(snapshot.get("entryType").asText());
+        final JsonNode content = snapshot.get("content");
+        if (entryType == EntryType.TEXT) {
+            return (Entry<T>) Entry.ofText(revision, path, content.asText());
+        }
+        return (Entry<T>) Entry.of(revision, path, entryType, content.deepCopy());
+    }
+
+    private static String key(JsonNode snapshot) {
+        final StringBuilder buf = new StringBuilder();
+        buf.append(snapshot.get("project").asText()).append('/')
+           .append(snapshot.get("repo").asText()).append('/')
+           .append(QueryType.valueOf(snapshot.get("queryType").asText()).name()).append(':')
+           .append(snapshot.get("path").asText());
+        for (JsonNode expression : snapshot.get("expressions")) {
+            buf.append('\0').append(expression.asText());
+        }
+        return buf.toString();
+    }
+
+    private static String key(String projectName, String repositoryName, Query<?> query) {
+        final StringBuilder buf = new StringBuilder();
+        buf.append(projectName).append('/').append(repositoryName).append('/')
+           .append(query.type().name()).append(':').append(query.path());
+        for (String expression : query.expressions()) {
+            buf.append('\0').append(expression);
+        }
+        return buf.toString();
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.internal.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import com.linecorp.centraldogma.common.Entry;
+import com.linecorp.centraldogma.common.Query;
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.internal.Jackson;
+
+class SnapshotStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ScheduledExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void snapshotsSurviveReopen() throws Exception {
+        final Query<JsonNode> jsonQuery = Query.ofJsonPath("/a.json", "$.a");
+        final Query<String> textQuery = Query.ofText("/b.txt");
+        final JsonNode json = Jackson.readTree("{\"b\":1}");
+
+        final SnapshotStore store = new SnapshotStore(tempDir, executor);
+        assertThat(store.get("foo", "bar", jsonQuery)).isNull();
+        store.put("foo", "bar", jsonQuery, Entry.ofJson(new Revision(3), "/a.json", json));
+        store.put("foo", "bar", textQuery, Entry.ofText(new Revision(4), "/b.txt", "hello\n"));
+        // An older snapshot does not overwrite a newer one.
+        store.put("foo", "bar", textQuery, Entry.ofText(new Revision(2), "/b.txt", "old\n"));
+        store.close();
+
+        final SnapshotStore reopened = new SnapshotStore(tempDir, executor);
+        assertThat(reopened.get("foo", "bar", jsonQuery))
+                .isEqualTo(Entry.ofJson(new Revision(3), "/a.json", json));
+        assertThat(reopened.get("foo", "bar", textQuery))
+                .isEqualTo(Entry.ofText(new Revision(4), "/b.txt", "hello\n"));
+        // A different query of the same file has its own snapshot.
+        assertThat(reopened.get("foo", "bar", Query.ofJson("/a.json"))).isNull();
+        assertThat(reopened.get("foo", "baz", jsonQuery)).isNull();
+    }
+
+    @Test
+    void flushedInBackground() throws Exception {
+        final Query<String> query = Query.ofText("/a.txt");
+        final SnapshotStore store = new SnapshotStore(tempDir, executor);
+        store.put("foo", "bar", query, Entry.ofText(new Revision(2), "/a.txt", "a"));
+        await().until(() -> Files.exists(tempDir.resolve("snapshots.json")));
+        assertThat(new SnapshotStore(tempDir, executor).get("foo", "bar", query).content()).isEqualTo("a");
+        // Only the snapshot file is left.
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files).hasSize(1);
+        }
+    }
+
+    @Test
+    void concurrentPuts() throws Exception {
+        final Query<String> query = Query.ofText("/a.txt");
+        final SnapshotStore store = new SnapshotStore(tempDir, executor);
+        final ExecutorService putExecutor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 1; i <= 1000; i++) {
+                final Revision revision = new Revision(i);
+                futures.add(putExecutor.submit(() -> store.put(
+                        "foo", "bar", query, Entry.ofText(revision, "/a.txt", revision.text()))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            putExecutor.shutdownNow();
+        }
+        // The newest snapshot is never overwritten by an older one which was put concurrently.
+        assertThat(store.get("foo", "bar", query).revision()).isEqualTo(new Revision(1000));
+    }
+
+    @Test
+    void corruptedFile() throws Exception {
+        Files.write(tempDir.resolve("snapshots.json"), "[{\"project\":".getBytes(StandardCharsets.UTF_8));
+        final SnapshotStore store = new SnapshotStore(tempDir, executor);
+        assertThat(store.get("foo", "bar", Query.ofText("/a.txt"))).isNull();
+    }
+}
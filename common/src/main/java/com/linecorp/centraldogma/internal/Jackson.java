@@ -53,6 +53,8 @@ import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.datatype.jsr310.deser.InstantDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.InstantSerializer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.jayway.jsonpath.Configuration;
@@ -92,6 +94,11 @@ public final class Jackson {
                          .mappingProvider(new JacksonMappingProvider(prettyMapper))
                          .build();
 
+    // The same JSON paths are evaluated repeatedly, e.g. by the clients which watch the same file,
+    // so the compiled form of a JSON path, which is immutable and thread-safe, is reused.
+    private static final Cache<String, JsonPath> compiledJsonPaths =
+            CacheBuilder.newBuilder().maximumSize(4096).build();
+
     static {
         // If the json-path library is shaded, its transitive dependency 'json-smart' should not be required.
         // Override the default configuration so that json-path does not attempt to load the json-smart classes.
@@ -311,19 +318,29 @@ public final class Jackson {
         requireNonNull(jsonNode, "jsonNode");
         requireNonNull(jsonPath, "jsonPath");
 
-        final JsonPath compiledJsonPath;
+        final JsonPath compiledJsonPath = compileJsonPath(jsonPath);
         try {
-            compiledJsonPath = JsonPath.compile(jsonPath);
+            return JsonPath.parse(jsonNode, jsonPathCfg)
+                           .read(compiledJsonPath, JsonNode.class);
         } catch (Exception e) {
-            throw new QuerySyntaxException("invalid JSON path: " + jsonPath, e);
+            throw new QueryExecutionException("JSON path evaluation failed: " + jsonPath, e);
+        }
+    }
+
+    private static JsonPath compileJsonPath(String jsonPath) {
+        final JsonPath cached = compiledJsonPaths.getIfPresent(jsonPath);
+        if (cached != null) {
+            return cached;
         }
 
+        final JsonPath compiledJsonPath;
         try {
-            return JsonPath.parse(jsonNode, jsonPathCfg)
-                           .read(compiledJsonPath, JsonNode.class);
+            compiledJsonPath = JsonPath.compile(jsonPath);
         } catch (Exception e) {
-            throw new QueryExecutionException("JSON path evaluation failed: " + jsonPath, e);
+            throw new QuerySyntaxException("invalid JSON path: " + jsonPath, e);
         }
+        compiledJsonPaths.put(jsonPath, compiledJsonPath);
+        return compiledJsonPath;
     }
 
     public static String escapeText(String text) {
@@ -44,5 +44,7 @@ public final class HttpApiV1Constants {
 
     public static final String REMOVED = "/removed";
 
+    public static final String WATCH_STREAM_PATH = API_V1_PATH_PREFIX + "watch";
+
     private HttpApiV1Constants() {}
 }
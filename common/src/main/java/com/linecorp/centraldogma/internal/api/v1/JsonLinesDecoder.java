@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.internal.api.v1;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.centraldogma.internal.Jackson;
+
+/**
+ * Decodes the newline-delimited JSON messages of a watch stream, which may be split into arbitrary chunks.
+ * This class is not thread-safe.
+ */
+public final class JsonLinesDecoder {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final int maxLineLength;
+    private byte[] remaining = EMPTY;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxLineLength the maximum length of a line in bytes
+     */
+    public JsonLinesDecoder(int maxLineLength) {
+        checkArgument(maxLineLength > 0, "maxLineLength: %s (expected: > 0)", maxLineLength);
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Returns the JSON messages completed by the specified chunk. The bytes after the last newline are kept
+     * until the next chunk arrives.
+     *
+     * @throws IllegalArgumentException if a line is longer than the maximum length
+     */
+    public List<JsonNode> decode(byte[] chunk) throws JsonProcessingException {
+        ImmutableList.Builder<JsonNode> messages = null;
+        int start = 0;
+        for (int i = 0; i < chunk.length; i++) {
+            if (chunk[i] != '\n') {
+                continue;
+            }
+            final byte[] line = append(remaining, chunk, start, i);
+            remaining = EMPTY;
+            start = i + 1;
+            if (line.length == 0) {
+                continue;
+            }
+            if (messages == null) {
+                messages = ImmutableList.builder();
+            }
+            messages.add(Jackson.readTree(line));
+        }
+
+        remaining = append(remaining, chunk, start, chunk.length);
+        checkArgument(remaining.length <= maxLineLength,
+                      "line too long: %s bytes (expected: <= %s)", remaining.length, maxLineLength);
+        return messages != null ? messages.build() : ImmutableList.of();
+    }
+
+    private static byte[] append(byte[] head, byte[] chunk, int start, int end) {
+        if (head.length == 0) {
+            return start == end ? EMPTY : Arrays.copyOfRange(chunk, start, end);
+        }
+        final byte[] merged = Arrays.copyOf(head, head.length + end - start);
+        System.arraycopy(chunk, start, merged, head.length, end - start);
+        return merged;
+    }
+}
@@ -23,6 +23,7 @@ import javax.annotation.Nullable;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.MoreObjects;
 
 import com.linecorp.centraldogma.common.Revision;
@@ -32,10 +33,25 @@ public class WatchResultDto {
 
     private final Revision revision;
     private final EntryDto<?> entry;
+    @Nullable
+    private final Revision baseRevision;
+    @Nullable
+    private final JsonNode patch;
 
     public WatchResultDto(Revision revision, @Nullable EntryDto<?> entry) {
+        this(revision, entry, null, null);
+    }
+
+    /**
+     * Creates a new instance whose {@code entry} does not have its content but the JSON patch which
+     * transforms the content at the {@code baseRevision} into the content at the {@code revision}.
+     */
+    public WatchResultDto(Revision revision, @Nullable EntryDto<?> entry,
+                          @Nullable Revision baseRevision, @Nullable JsonNode patch) {
         this.revision = requireNonNull(revision, "revision");
         this.entry = entry;
+        this.baseRevision = baseRevision;
+        this.patch = patch;
     }
 
     @JsonProperty("revision")
@@ -48,12 +64,26 @@ public class WatchResultDto {
         return entry;
     }
 
+    @Nullable
+    @JsonProperty("baseRevision")
+    public Revision baseRevision() {
+        return baseRevision;
+    }
+
+    @Nullable
+    @JsonProperty("patch")
+    public JsonNode patch() {
+        return patch;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
                           .omitNullValues()
                           .add("revision", revision())
                           .add("entry", entry())
+                          .add("baseRevision", baseRevision())
+                          .add("patch", patch())
                           .toString();
     }
 }
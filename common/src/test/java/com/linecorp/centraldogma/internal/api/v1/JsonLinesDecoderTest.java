@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.internal.api.v1;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.linecorp.centraldogma.internal.Jackson;
+
+class JsonLinesDecoderTest {
+
+    @Test
+    void decodeSplitMessages() throws Exception {
+        final JsonLinesDecoder decoder = new JsonLinesDecoder(1024);
+        assertThat(decoder.decode(bytes("{\"id\":1}\n{\"id\"")))
+                .containsExactly(Jackson.readTree("{\"id\":1}"));
+        assertThat(decoder.decode(bytes(":2"))).isEmpty();
+        assertThat(decoder.decode(bytes("}\n\n{\"id\":3}\n")))
+                .containsExactly(Jackson.readTree("{\"id\":2}"), Jackson.readTree("{\"id\":3}"));
+    }
+
+    @Test
+    void rejectTooLongLine() throws Exception {
+        final JsonLinesDecoder decoder = new JsonLinesDecoder(8);
+        assertThat(decoder.decode(bytes("{\"a\":"))).isEmpty();
+        assertThatThrownBy(() -> decoder.decode(bytes("\"bcd\"")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.it;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import com.linecorp.armeria.client.WebClientBuilder;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.centraldogma.client.CentralDogma;
+import com.linecorp.centraldogma.client.CentralDogmaRepository;
+import com.linecorp.centraldogma.client.Watcher;
+import com.linecorp.centraldogma.client.armeria.ArmeriaCentralDogmaBuilder;
+import com.linecorp.centraldogma.common.Change;
+import com.linecorp.centraldogma.common.Entry;
+import com.linecorp.centraldogma.common.Query;
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.internal.Jackson;
+import com.linecorp.centraldogma.testing.junit.CentralDogmaExtension;
+
+class JsonPatchWatchTest {
+
+    private static final String PATH = "/large.json";
+
+    @RegisterExtension
+    static final CentralDogmaExtension dogma = new CentralDogmaExtension() {
+        @Override
+        protected void configureClient(ArmeriaCentralDogmaBuilder builder) {
+            builder.jsonPatchWatch(true);
+        }
+
+        @Override
+        protected void configureHttpClient(WebClientBuilder builder) {
+            builder.addHeader(HttpHeaderNames.AUTHORIZATION, "Bearer anonymous");
+        }
+
+        @Override
+        protected void scaffold(CentralDogma client) {
+            client.createProject("foo").join();
+            client.createRepository("foo", "bar").join();
+        }
+    };
+
+    @Test
+    void watchFileWithJsonPatch() throws Exception {
+        final CentralDogmaRepository repo = dogma.client().forRepo("foo", "bar");
+        final Revision rev1 = repo.commit("Add a large file", Change.ofJsonUpsert(PATH, largeJson(0)))
+                                  .push().join().revision();
+
+        final Watcher<JsonNode> watcher = repo.watcher(Query.ofJson(PATH)).start();
+        assertThat(watcher.awaitInitialValue().value()).isEqualTo(largeJson(0));
+
+        // The client applies the JSON patches to the content it received last.
+        for (int i = 1; i <= 3; i++) {
+            repo.commit("Update a field", Change.ofJsonUpsert(PATH, largeJson(i))).push().join();
+            final JsonNode expected = largeJson(i);
+            await().untilAsserted(() -> assertThat(watcher.latestValue()).isEqualTo(expected));
+        }
+        watcher.close();
+
+        // The server sends only the JSON patch from the last known revision.
+        final AggregatedHttpResponse res =
+                dogma.httpClient().prepare()
+                     .get("/api/v1/projects/foo/repos/bar/contents" + PATH)
+                     .header(HttpHeaderNames.IF_NONE_MATCH, rev1.text())
+                     .header(HttpHeaderNames.PREFER, "wait=10, delta=json-patch")
+                     .execute().aggregate().join();
+        assertThat(res.status()).isSameAs(HttpStatus.OK);
+        final JsonNode body = Jackson.readTree(res.contentUtf8());
+        assertThat(body.get("baseRevision").asInt()).isEqualTo(rev1.major());
+        assertThat(body.get("patch").isArray()).isTrue();
+        assertThat(body.get("entry").has("content")).isFalse();
+
+        // A client which did not opt in receives the full content.
+        final Entry<JsonNode> entry = repo.watch(Query.ofJson(PATH)).start(rev1).join();
+        assertThat(entry.content()).isEqualTo(largeJson(3));
+    }
+
+    private static JsonNode largeJson(int version) {
+        final ObjectNode node = JsonNodeFactory.instance.objectNode();
+        for (int i = 0; i < 1000; i++) {
+            node.put("key" + i, "value" + i);
+        }
+        node.put("version", version);
+        return node;
+    }
+}
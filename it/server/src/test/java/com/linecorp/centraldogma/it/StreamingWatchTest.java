@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.it;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import com.linecorp.centraldogma.client.CentralDogma;
+import com.linecorp.centraldogma.client.CentralDogmaRepository;
+import com.linecorp.centraldogma.client.Watcher;
+import com.linecorp.centraldogma.client.armeria.ArmeriaCentralDogmaBuilder;
+import com.linecorp.centraldogma.common.Change;
+import com.linecorp.centraldogma.common.Entry;
+import com.linecorp.centraldogma.common.EntryNotFoundException;
+import com.linecorp.centraldogma.common.PathPattern;
+import com.linecorp.centraldogma.common.Query;
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.internal.Jackson;
+import com.linecorp.centraldogma.testing.junit.CentralDogmaExtension;
+
+class StreamingWatchTest {
+
+    @RegisterExtension
+    static final CentralDogmaExtension dogma = new CentralDogmaExtension() {
+        @Override
+        protected void configureClient(ArmeriaCentralDogmaBuilder builder) {
+            builder.streamingWatch(true);
+        }
+
+        @Override
+        protected void scaffold(CentralDogma client) {
+            client.createProject("foo").join();
+            client.createRepository("foo", "bar").join();
+        }
+    };
+
+    @Test
+    void watchersShareStream() throws Exception {
+        final CentralDogmaRepository repo = dogma.client().forRepo("foo", "bar");
+        repo.commit("Add files", Change.ofJsonUpsert("/a.json", "{ \"a\": 1 }"),
+                    Change.ofJsonUpsert("/b.json", "{ \"b\": 1 }"))
+            .push().join();
+
+        final Watcher<JsonNode> fileWatcher = repo.watcher(Query.ofJsonPath("/a.json", "$.a")).start();
+        final Watcher<Revision> repoWatcher = repo.watcher(PathPattern.of("/b.json")).start();
+        assertThat(fileWatcher.awaitInitialValue().value()).isEqualTo(Jackson.valueToTree(1));
+        final Revision initialRevision = repoWatcher.awaitInitialValue().value();
+
+        final Revision newRevision =
+                repo.commit("Modify a.json", Change.ofJsonUpsert("/a.json", "{ \"a\": 2 }"))
+                    .push().join().revision();
+        await().untilAsserted(() -> assertThat(fileWatcher.latestValue()).isEqualTo(Jackson.valueToTree(2)));
+
+        repo.commit("Modify b.json", Change.ofJsonUpsert("/b.json", "{ \"b\": 2 }")).push().join();
+        await().untilAsserted(() -> assertThat(repoWatcher.latestValue()).isGreaterThan(newRevision));
+        assertThat(initialRevision).isLessThan(newRevision);
+
+        fileWatcher.close();
+        repoWatcher.close();
+    }
+
+    @Test
+    void timeoutAndError() {
+        final CentralDogmaRepository repo = dogma.client().forRepo("foo", "bar");
+        final Revision head = repo.normalize(Revision.HEAD).join();
+
+        // Timed out by the client without a change.
+        final Entry<JsonNode> entry = repo.watch(Query.ofJson("/a.json")).timeoutMillis(500).start(head).join();
+        assertThat(entry).isNull();
+
+        // The error of a watch is delivered through the stream.
+        assertThatThrownBy(() -> repo.watch(Query.ofJson("/missing.json"))
+                                     .errorOnEntryNotFound(true)
+                                     .start(head).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(EntryNotFoundException.class);
+    }
+}
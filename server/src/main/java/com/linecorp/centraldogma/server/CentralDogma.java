@@ -149,6 +149,7 @@ import com.linecorp.centraldogma.server.internal.api.MirroringServiceV1;
 import com.linecorp.centraldogma.server.internal.api.ProjectServiceV1;
 import com.linecorp.centraldogma.server.internal.api.RepositoryServiceV1;
 import com.linecorp.centraldogma.server.internal.api.WatchService;
+import com.linecorp.centraldogma.server.internal.api.WatchStreamServiceV1;
 import com.linecorp.centraldogma.server.internal.api.auth.ApplicationTokenAuthorizer;
 import com.linecorp.centraldogma.server.internal.api.auth.RequiresProjectRoleDecorator.RequiresProjectRoleDecoratorFactory;
 import com.linecorp.centraldogma.server.internal.api.auth.RequiresRepositoryRoleDecorator.RequiresRepositoryRoleDecoratorFactory;
@@ -162,6 +163,8 @@ import com.linecorp.centraldogma.server.internal.mirror.DefaultMirrorAccessContr
 import com.linecorp.centraldogma.server.internal.mirror.DefaultMirroringServicePlugin;
 import com.linecorp.centraldogma.server.internal.mirror.MirrorAccessControl;
 import com.linecorp.centraldogma.server.internal.mirror.MirrorRunner;
+import com.linecorp.centraldogma.server.internal.replication.ReplicaSnapshot;
+import com.linecorp.centraldogma.server.internal.replication.ReplicaSnapshotService;
 import com.linecorp.centraldogma.server.internal.replication.ZooKeeperCommandExecutor;
 import com.linecorp.centraldogma.server.internal.storage.project.DefaultProjectManager;
 import com.linecorp.centraldogma.server.internal.storage.project.ProjectApiManager;
@@ -452,6 +455,12 @@ public class CentralDogma implements AutoCloseable {
         try {
             logger.info("Starting the Central Dogma ..");
 
+            if (cfg.replicationConfig() instanceof ZooKeeperReplicationConfig) {
+                // Must be done before any component opens the files in the data directory.
+                ReplicaSnapshot.bootstrapIfNecessary((ZooKeeperReplicationConfig) cfg.replicationConfig(),
+                                                     cfg.dataDir());
+            }
+
             final ThreadPoolExecutor repositoryWorkerImpl = new ThreadPoolExecutor(
                     cfg.numRepositoryWorkers(), cfg.numRepositoryWorkers(),
                     // TODO(minwoox): Use LinkedTransferQueue when we upgrade to JDK 21.
@@ -466,10 +475,11 @@ public class CentralDogma implements AutoCloseable {
             purgeWorker = Executors.newSingleThreadScheduledExecutor(
                     new DefaultThreadFactory("purge-worker", true));
 
-            encryptionStorageManager = EncryptionStorageManager.of(cfg);
+            encryptionStorageManager = EncryptionStorageManager.of(cfg, meterRegistry);
 
             pm = new DefaultProjectManager(cfg.dataDir(), repositoryWorker, purgeWorker,
-                                           meterRegistry, cfg.repositoryCacheSpec(), encryptionStorageManager);
+                                           meterRegistry, cfg.repositoryCacheSpec(), encryptionStorageManager,
+                                           cfg.numStartupWorkers());
 
             logger.info("Started the project manager: {}", pm);
 
@@ -618,7 +628,7 @@ public class CentralDogma implements AutoCloseable {
             case NONE:
                 logger.info("No replication mechanism specified; entering standalone");
                 executor = new StandaloneCommandExecutor(pm, repositoryWorker, statusManager, sessionManager,
-                                                         encryptionStorageManager,
+                                                         encryptionStorageManager, cfg.groupCommit(),
                                                          onTakeLeadership, onReleaseLeadership,
                                                          onTakeZoneLeadership, onReleaseZoneLeadership);
                 break;
@@ -777,6 +787,12 @@ public class CentralDogma implements AutoCloseable {
                                                         .build());
         configManagement(sb, config().managementConfig());
 
+        if (executor instanceof ZooKeeperCommandExecutor) {
+            configReplicaSnapshotService(sb, (ZooKeeperCommandExecutor) executor,
+                                         (ZooKeeperReplicationConfig) cfg.replicationConfig(),
+                                         cfg.managementConfig(), encryptionStorageManager);
+        }
+
         sb.serviceUnder("/docs/",
                         DocService.builder()
                                   .exampleHeaders(CentralDogmaService.class,
@@ -898,7 +914,7 @@ public class CentralDogma implements AutoCloseable {
         return new ZooKeeperCommandExecutor(
                 zkCfg, dataDir,
                 new StandaloneCommandExecutor(pm, repositoryWorker, serverStatusManager, sessionManager,
-                                              encryptionStorageManager,
+                                              encryptionStorageManager, cfg.groupCommit(),
                         /* onTakeLeadership */ null, /* onReleaseLeadership */ null,
                         /* onTakeZoneLeadership */ null, /* onReleaseZoneLeadership */ null),
                 meterRegistry, zone,
@@ -996,6 +1012,9 @@ public class CentralDogma implements AutoCloseable {
                                }
                            })
                            .build(new ContentServiceV1(executor, pm, watchService, meterRegistry));
+        apiV1ServiceBuilder.service("/watch", new WatchStreamServiceV1(projectApiManager, mds, watchService,
+                                                                       cfg.maxNumWatchesPerStream(),
+                                                                       cfg.maxWatchStreamTimeoutMillis()));
 
         if (authProvider != null) {
             sb.service("/security_enabled", new AbstractHttpService() {
@@ -1092,6 +1111,21 @@ public class CentralDogma implements AutoCloseable {
         sb.decorator(builder.newDecorator());
     }
 
+    private static void configReplicaSnapshotService(ServerBuilder sb, ZooKeeperCommandExecutor executor,
+                                                     ZooKeeperReplicationConfig zkCfg,
+                                                     @Nullable ManagementConfig managementConfig,
+                                                     EncryptionStorageManager encryptionStorageManager) {
+        if (!zkCfg.snapshotServiceEnabled()) {
+            return;
+        }
+
+        // A snapshot contains all data including the secrets, so it is never served on the public ports.
+        checkState(managementConfig != null && managementConfig.port() != 0,
+                   "'management.port' must be specified to enable 'replication.snapshotServiceEnabled'.");
+        sb.virtualHost(managementConfig.port())
+          .annotatedService(new ReplicaSnapshotService(executor, zkCfg.secret(), encryptionStorageManager));
+    }
+
     private static void configManagement(ServerBuilder sb, @Nullable ManagementConfig managementConfig) {
         if (managementConfig == null) {
             return;
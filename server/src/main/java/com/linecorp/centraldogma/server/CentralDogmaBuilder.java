@@ -71,7 +71,10 @@ public final class CentralDogmaBuilder {
     private static final ServerPort DEFAULT_PORT = new ServerPort(36462, SessionProtocol.HTTP);
 
     static final int DEFAULT_NUM_REPOSITORY_WORKERS = 16;
+    static final int DEFAULT_NUM_STARTUP_WORKERS = 1;
     static final long DEFAULT_MAX_REMOVED_REPOSITORY_AGE_MILLIS = 604_800_000;  // 7 days
+    static final int DEFAULT_MAX_NUM_WATCHES_PER_STREAM = 8192;
+    static final long DEFAULT_MAX_WATCH_STREAM_TIMEOUT_MILLIS = 3_600_000;  // 1 hour
 
     public static final String DEFAULT_REPOSITORY_CACHE_SPEC =
             "maximumWeight=268435456," + // Cache up to apx. 256-megachars.
@@ -102,6 +105,10 @@ public final class CentralDogmaBuilder {
     private final File dataDir;
     private int numRepositoryWorkers = DEFAULT_NUM_REPOSITORY_WORKERS;
     private long maxRemovedRepositoryAgeMillis = DEFAULT_MAX_REMOVED_REPOSITORY_AGE_MILLIS;
+    private boolean groupCommit;
+    private int numStartupWorkers = DEFAULT_NUM_STARTUP_WORKERS;
+    private int maxNumWatchesPerStream = DEFAULT_MAX_NUM_WATCHES_PER_STREAM;
+    private long maxWatchStreamTimeoutMillis = DEFAULT_MAX_WATCH_STREAM_TIMEOUT_MILLIS;
 
     @Nullable
     private String repositoryCacheSpec = DEFAULT_REPOSITORY_CACHE_SPEC;
@@ -348,6 +355,58 @@ public final class CentralDogmaBuilder {
         return this;
     }
 
+    /**
+     * Sets whether the concurrent pushes to the same repository are applied together as a group.
+     * The pushes which arrive while the previous group is being applied are applied in a row and
+     * their watchers are notified at once, while each push still gets its own revision.
+     * If unspecified, every push is applied separately.
+     */
+    public CentralDogmaBuilder groupCommit(boolean groupCommit) {
+        this.groupCommit = groupCommit;
+        return this;
+    }
+
+    /**
+     * Sets the number of threads which open the existing projects and repositories respectively while
+     * the server starts up. The repositories of different projects and of the same project are opened
+     * concurrently when greater than {@code 1}.
+     * If unspecified, {@value #DEFAULT_NUM_STARTUP_WORKERS} is used, i.e. they are opened sequentially.
+     */
+    public CentralDogmaBuilder numStartupWorkers(int numStartupWorkers) {
+        this.numStartupWorkers = numStartupWorkers;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of the watches which a client subscribes to over a single watch stream.
+     * A watch subscribed beyond the limit is rejected with {@code 429 Too Many Requests}.
+     * If unspecified, {@value #DEFAULT_MAX_NUM_WATCHES_PER_STREAM} is used.
+     */
+    public CentralDogmaBuilder maxNumWatchesPerStream(int maxNumWatchesPerStream) {
+        this.maxNumWatchesPerStream = maxNumWatchesPerStream;
+        return this;
+    }
+
+    /**
+     * Sets the maximum time a watch subscribed over a watch stream waits for a change. The watch is
+     * completed with {@code 304 Not Modified} when no change is found during the time.
+     * If unspecified, {@value #DEFAULT_MAX_WATCH_STREAM_TIMEOUT_MILLIS} milliseconds is used.
+     */
+    public CentralDogmaBuilder maxWatchStreamTimeout(Duration maxWatchStreamTimeout) {
+        return maxWatchStreamTimeoutMillis(
+                requireNonNull(maxWatchStreamTimeout, "maxWatchStreamTimeout").toMillis());
+    }
+
+    /**
+     * Sets the maximum time in milliseconds a watch subscribed over a watch stream waits for a change.
+     * The watch is completed with {@code 304 Not Modified} when no change is found during the time.
+     * If unspecified, {@value #DEFAULT_MAX_WATCH_STREAM_TIMEOUT_MILLIS} milliseconds is used.
+     */
+    public CentralDogmaBuilder maxWatchStreamTimeoutMillis(long maxWatchStreamTimeoutMillis) {
+        this.maxWatchStreamTimeoutMillis = maxWatchStreamTimeoutMillis;
+        return this;
+    }
+
     /**
      * Sets the cache specification which determines the capacity and behavior of the cache for the return
      * values of methods in {@link Repository} of the server. See {@link CaffeineSpec} for the syntax
@@ -615,7 +674,9 @@ public final class CentralDogmaBuilder {
                                       clientAddressSources, numWorkers, maxNumConnections,
                                       requestTimeoutMillis, idleTimeoutMillis, maxFrameLength,
                                       numRepositoryWorkers, repositoryCacheSpec,
-                                      maxRemovedRepositoryAgeMillis, gracefulShutdownTimeout,
+                                      maxRemovedRepositoryAgeMillis, groupCommit, numStartupWorkers,
+                                      maxNumWatchesPerStream, maxWatchStreamTimeoutMillis,
+                                      gracefulShutdownTimeout,
                                       webAppEnabled, webAppTitle, replicationConfig,
                                       null, accessLogFormat, authCfg,
                                       corsConfig, pluginConfigs, managementConfig, zoneConfig,
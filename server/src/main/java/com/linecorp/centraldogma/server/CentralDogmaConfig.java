@@ -24,8 +24,11 @@ import static com.linecorp.armeria.common.util.InetAddressPredicates.ofCidr;
 import static com.linecorp.armeria.common.util.InetAddressPredicates.ofExact;
 import static com.linecorp.armeria.server.ClientAddressSource.ofHeader;
 import static com.linecorp.armeria.server.ClientAddressSource.ofProxyProtocol;
+import static com.linecorp.centraldogma.server.CentralDogmaBuilder.DEFAULT_MAX_NUM_WATCHES_PER_STREAM;
 import static com.linecorp.centraldogma.server.CentralDogmaBuilder.DEFAULT_MAX_REMOVED_REPOSITORY_AGE_MILLIS;
+import static com.linecorp.centraldogma.server.CentralDogmaBuilder.DEFAULT_MAX_WATCH_STREAM_TIMEOUT_MILLIS;
 import static com.linecorp.centraldogma.server.CentralDogmaBuilder.DEFAULT_NUM_REPOSITORY_WORKERS;
+import static com.linecorp.centraldogma.server.CentralDogmaBuilder.DEFAULT_NUM_STARTUP_WORKERS;
 import static com.linecorp.centraldogma.server.CentralDogmaBuilder.DEFAULT_REPOSITORY_CACHE_SPEC;
 import static com.linecorp.centraldogma.server.internal.storage.repository.RepositoryCache.validateCacheSpec;
 import static java.util.Objects.requireNonNull;
@@ -232,6 +235,12 @@ public final class CentralDogmaConfig {
     // Repository
     private final Integer numRepositoryWorkers;
     private final long maxRemovedRepositoryAgeMillis;
+    private final boolean groupCommit;
+    private final int numStartupWorkers;
+
+    // Watch stream
+    private final int maxNumWatchesPerStream;
+    private final long maxWatchStreamTimeoutMillis;
 
     // Cache
     private final String repositoryCacheSpec;
@@ -290,6 +299,10 @@ public final class CentralDogmaConfig {
             @JsonProperty("numRepositoryWorkers") @Nullable Integer numRepositoryWorkers,
             @JsonProperty("repositoryCacheSpec") @Nullable String repositoryCacheSpec,
             @JsonProperty("maxRemovedRepositoryAgeMillis") @Nullable Long maxRemovedRepositoryAgeMillis,
+            @JsonProperty("groupCommit") @Nullable Boolean groupCommit,
+            @JsonProperty("numStartupWorkers") @Nullable Integer numStartupWorkers,
+            @JsonProperty("maxNumWatchesPerStream") @Nullable Integer maxNumWatchesPerStream,
+            @JsonProperty("maxWatchStreamTimeoutMillis") @Nullable Long maxWatchStreamTimeoutMillis,
             @JsonProperty("gracefulShutdownTimeout") @Nullable GracefulShutdownTimeout gracefulShutdownTimeout,
             @JsonProperty("webAppEnabled") @Nullable Boolean webAppEnabled,
             @JsonProperty("webAppTitle") @Nullable String webAppTitle,
@@ -327,6 +340,17 @@ public final class CentralDogmaConfig {
                                                           DEFAULT_MAX_REMOVED_REPOSITORY_AGE_MILLIS);
         checkArgument(this.maxRemovedRepositoryAgeMillis >= 0,
                       "maxRemovedRepositoryAgeMillis: %s (expected: >= 0)", this.maxRemovedRepositoryAgeMillis);
+        this.groupCommit = firstNonNull(groupCommit, false);
+        this.numStartupWorkers = firstNonNull(numStartupWorkers, DEFAULT_NUM_STARTUP_WORKERS);
+        checkArgument(this.numStartupWorkers > 0,
+                      "numStartupWorkers: %s (expected: > 0)", this.numStartupWorkers);
+        this.maxNumWatchesPerStream = firstNonNull(maxNumWatchesPerStream, DEFAULT_MAX_NUM_WATCHES_PER_STREAM);
+        checkArgument(this.maxNumWatchesPerStream > 0,
+                      "maxNumWatchesPerStream: %s (expected: > 0)", this.maxNumWatchesPerStream);
+        this.maxWatchStreamTimeoutMillis = firstNonNull(maxWatchStreamTimeoutMillis,
+                                                        DEFAULT_MAX_WATCH_STREAM_TIMEOUT_MILLIS);
+        checkArgument(this.maxWatchStreamTimeoutMillis > 0,
+                      "maxWatchStreamTimeoutMillis: %s (expected: > 0)", this.maxWatchStreamTimeoutMillis);
         this.repositoryCacheSpec = validateCacheSpec(
                 firstNonNull(repositoryCacheSpec, DEFAULT_REPOSITORY_CACHE_SPEC));
 
@@ -479,6 +503,40 @@ public final class CentralDogmaConfig {
         return maxRemovedRepositoryAgeMillis;
     }
 
+    /**
+     * Returns whether the concurrent pushes to the same repository are applied together as a group.
+     * Each push still gets its own revision.
+     */
+    @JsonProperty
+    public boolean groupCommit() {
+        return groupCommit;
+    }
+
+    /**
+     * Returns the number of threads which open the existing projects and repositories respectively
+     * while starting up.
+     */
+    @JsonProperty
+    public int numStartupWorkers() {
+        return numStartupWorkers;
+    }
+
+    /**
+     * Returns the maximum number of the watches which a client subscribes to over a single watch stream.
+     */
+    @JsonProperty
+    public int maxNumWatchesPerStream() {
+        return maxNumWatchesPerStream;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds a watch subscribed over a watch stream waits for a change.
+     */
+    @JsonProperty
+    public long maxWatchStreamTimeoutMillis() {
+        return maxWatchStreamTimeoutMillis;
+    }
+
     /**
      * Returns the {@code repositoryCacheSpec}.
      *
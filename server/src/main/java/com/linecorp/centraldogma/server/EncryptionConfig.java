@@ -16,18 +16,22 @@
 package com.linecorp.centraldogma.server;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Encryption configuration.
@@ -36,25 +40,91 @@ public final class EncryptionConfig {
 
     private static final String ENCRYPTION_MARKER_FILE_NAME = ".encryption-enabled";
 
+    static final long DEFAULT_BLOCK_CACHE_SIZE_BYTES = 64 * 1024 * 1024;
+    static final long DEFAULT_WRITE_BUFFER_SIZE_BYTES = 64 * 1024 * 1024;
+    static final String DEFAULT_COMPACTION_STYLE = "LEVEL";
+    static final int DEFAULT_MAX_BACKGROUND_JOBS = 2;
+    static final long DEFAULT_OBJECT_CACHE_SIZE_BYTES = 64 * 1024 * 1024;
+    static final int DEFAULT_OBJECT_KEY_CACHE_SIZE = 65536;
+
+    private static final Set<String> COMPACTION_STYLES = ImmutableSet.of("LEVEL", "UNIVERSAL");
+
     private final boolean enabled;
     private final boolean encryptSessionCookie;
     @Nullable
     private final String kekId;
+    private final long blockCacheSizeBytes;
+    private final long writeBufferSizeBytes;
+    private final String compactionStyle;
+    private final int maxBackgroundJobs;
+    private final long compactionRateLimitBytesPerSecond;
+    private final long objectCacheSizeBytes;
+    private final int objectKeyCacheSize;
+
+    /**
+     * Creates an instance with the default storage options.
+     */
+    public EncryptionConfig(@Nullable Boolean enabled, @Nullable Boolean encryptSessionCookie,
+                            @Nullable String kekId) {
+        this(enabled, encryptSessionCookie, kekId, null, null, null, null, null, null, null);
+    }
 
     /**
      * Creates an instance.
+     *
+     * @param blockCacheSizeBytes the size of the block cache shared by all column families of the storage
+     * @param writeBufferSizeBytes the size of a memtable of a column family
+     * @param compactionStyle the compaction style of the storage. {@code "LEVEL"} or {@code "UNIVERSAL"}.
+     * @param maxBackgroundJobs the maximum number of concurrent flushes and compactions
+     * @param compactionRateLimitBytesPerSecond the maximum bytes per second written by flushes and
+     *                                          compactions. {@code 0} disables the rate limit.
+     * @param objectCacheSizeBytes the maximum total size of the decrypted Git objects of the encrypted
+     *                             repositories which are cached in memory. {@code 0} disables the cache.
+     * @param objectKeyCacheSize the maximum number of the unwrapped object keys of the encrypted
+     *                           repositories which are cached in memory. {@code 0} disables the cache.
      */
     @JsonCreator
     public EncryptionConfig(@JsonProperty("enabled") @Nullable Boolean enabled,
                             @JsonProperty("encryptSessionCookie")
                             @Nullable Boolean encryptSessionCookie,
-                            @JsonProperty("kekId") @Nullable String kekId) {
+                            @JsonProperty("kekId") @Nullable String kekId,
+                            @JsonProperty("blockCacheSizeBytes") @Nullable Long blockCacheSizeBytes,
+                            @JsonProperty("writeBufferSizeBytes") @Nullable Long writeBufferSizeBytes,
+                            @JsonProperty("compactionStyle") @Nullable String compactionStyle,
+                            @JsonProperty("maxBackgroundJobs") @Nullable Integer maxBackgroundJobs,
+                            @JsonProperty("compactionRateLimitBytesPerSecond")
+                            @Nullable Long compactionRateLimitBytesPerSecond,
+                            @JsonProperty("objectCacheSizeBytes") @Nullable Long objectCacheSizeBytes,
+                            @JsonProperty("objectKeyCacheSize") @Nullable Integer objectKeyCacheSize) {
         this.enabled = firstNonNull(enabled, false);
         this.encryptSessionCookie = this.enabled && firstNonNull(encryptSessionCookie, false);
         if (this.enabled) {
             requireNonNull(kekId, "kekId");
         }
         this.kekId = kekId;
+
+        this.blockCacheSizeBytes = firstNonNull(blockCacheSizeBytes, DEFAULT_BLOCK_CACHE_SIZE_BYTES);
+        checkArgument(this.blockCacheSizeBytes > 0,
+                      "blockCacheSizeBytes: %s (expected: > 0)", this.blockCacheSizeBytes);
+        this.writeBufferSizeBytes = firstNonNull(writeBufferSizeBytes, DEFAULT_WRITE_BUFFER_SIZE_BYTES);
+        checkArgument(this.writeBufferSizeBytes > 0,
+                      "writeBufferSizeBytes: %s (expected: > 0)", this.writeBufferSizeBytes);
+        this.compactionStyle = firstNonNull(compactionStyle, DEFAULT_COMPACTION_STYLE).toUpperCase(Locale.ROOT);
+        checkArgument(COMPACTION_STYLES.contains(this.compactionStyle),
+                      "compactionStyle: %s (expected: one of %s)", compactionStyle, COMPACTION_STYLES);
+        this.maxBackgroundJobs = firstNonNull(maxBackgroundJobs, DEFAULT_MAX_BACKGROUND_JOBS);
+        checkArgument(this.maxBackgroundJobs > 0,
+                      "maxBackgroundJobs: %s (expected: > 0)", this.maxBackgroundJobs);
+        this.compactionRateLimitBytesPerSecond = firstNonNull(compactionRateLimitBytesPerSecond, 0L);
+        checkArgument(this.compactionRateLimitBytesPerSecond >= 0,
+                      "compactionRateLimitBytesPerSecond: %s (expected: >= 0)",
+                      this.compactionRateLimitBytesPerSecond);
+        this.objectCacheSizeBytes = firstNonNull(objectCacheSizeBytes, DEFAULT_OBJECT_CACHE_SIZE_BYTES);
+        checkArgument(this.objectCacheSizeBytes >= 0,
+                      "objectCacheSizeBytes: %s (expected: >= 0)", this.objectCacheSizeBytes);
+        this.objectKeyCacheSize = firstNonNull(objectKeyCacheSize, DEFAULT_OBJECT_KEY_CACHE_SIZE);
+        checkArgument(this.objectKeyCacheSize >= 0,
+                      "objectKeyCacheSize: %s (expected: >= 0)", this.objectKeyCacheSize);
     }
 
     /**
@@ -120,12 +190,78 @@ public final class EncryptionConfig {
         return kekId;
     }
 
+    /**
+     * Returns the size of the block cache shared by all column families of the encryption storage.
+     */
+    @JsonProperty
+    public long blockCacheSizeBytes() {
+        return blockCacheSizeBytes;
+    }
+
+    /**
+     * Returns the size of a memtable of a column family of the encryption storage.
+     */
+    @JsonProperty
+    public long writeBufferSizeBytes() {
+        return writeBufferSizeBytes;
+    }
+
+    /**
+     * Returns the compaction style of the encryption storage. {@code "LEVEL"} or {@code "UNIVERSAL"}.
+     */
+    @JsonProperty
+    public String compactionStyle() {
+        return compactionStyle;
+    }
+
+    /**
+     * Returns the maximum number of concurrent flushes and compactions of the encryption storage.
+     */
+    @JsonProperty
+    public int maxBackgroundJobs() {
+        return maxBackgroundJobs;
+    }
+
+    /**
+     * Returns the maximum bytes per second written by the flushes and compactions of the encryption
+     * storage. {@code 0} if the rate is not limited.
+     */
+    @JsonProperty
+    public long compactionRateLimitBytesPerSecond() {
+        return compactionRateLimitBytesPerSecond;
+    }
+
+    /**
+     * Returns the maximum total size of the decrypted Git objects of the encrypted repositories which are
+     * cached in memory.
+     */
+    @JsonProperty
+    public long objectCacheSizeBytes() {
+        return objectCacheSizeBytes;
+    }
+
+    /**
+     * Returns the maximum number of the unwrapped object keys of the encrypted repositories which are
+     * cached in memory.
+     */
+    @JsonProperty
+    public int objectKeyCacheSize() {
+        return objectKeyCacheSize;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
                           .add("enabled", enabled)
                           .add("encryptSessionCookie", encryptSessionCookie)
                           .add("kekId", kekId)
+                          .add("blockCacheSizeBytes", blockCacheSizeBytes)
+                          .add("writeBufferSizeBytes", writeBufferSizeBytes)
+                          .add("compactionStyle", compactionStyle)
+                          .add("maxBackgroundJobs", maxBackgroundJobs)
+                          .add("compactionRateLimitBytesPerSecond", compactionRateLimitBytesPerSecond)
+                          .add("objectCacheSizeBytes", objectCacheSizeBytes)
+                          .add("objectKeyCacheSize", objectKeyCacheSize)
                           .toString();
     }
 }
@@ -28,6 +28,7 @@ import java.net.UnknownHostException;
 import java.util.Enumeration;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
@@ -50,6 +51,8 @@ public final class ZooKeeperReplicationConfig implements ReplicationConfig {
     private static final int DEFAULT_NUM_WORKERS = 16;
     private static final int DEFAULT_MAX_LOG_COUNT = 1024;
     private static final long DEFAULT_MIN_LOG_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final int DEFAULT_MAX_LOG_BATCH_SIZE = 1;
+    private static final int DEFAULT_NUM_REPLAY_WORKERS = 1;
     private static final String DEFAULT_SECRET = "ch4n63m3";
 
     private final int serverId;
@@ -61,6 +64,11 @@ public final class ZooKeeperReplicationConfig implements ReplicationConfig {
     private final int numWorkers;
     private final int maxLogCount;
     private final long minLogAgeMillis;
+    private final int maxLogBatchSize;
+    private final int numReplayWorkers;
+    @Nullable
+    private final String snapshotSourceUri;
+    private final boolean snapshotServiceEnabled;
 
     /**
      * Creates a new replication configuration.
@@ -69,16 +77,18 @@ public final class ZooKeeperReplicationConfig implements ReplicationConfig {
      * @param servers the ZooKeeper server addresses, keyed by their ZooKeeper server IDs
      */
     public ZooKeeperReplicationConfig(int serverId, Map<Integer, ZooKeeperServerConfig> servers) {
-        this(serverId, servers, null, null, null, null, null, null);
+        this(serverId, servers, null, null, null, null, null, null, null, null, null, null);
     }
 
     @VisibleForTesting
     ZooKeeperReplicationConfig(
             int serverId, Map<Integer, ZooKeeperServerConfig> servers, String secret,
             Map<String, String> additionalProperties,
-            int timeoutMillis, int numWorkers, int maxLogCount, long minLogAgeMillis) {
+            int timeoutMillis, int numWorkers, int maxLogCount, long minLogAgeMillis, int maxLogBatchSize,
+            int numReplayWorkers) {
         this(Integer.valueOf(serverId), servers, secret, additionalProperties, Integer.valueOf(timeoutMillis),
-             Integer.valueOf(numWorkers), Integer.valueOf(maxLogCount), Long.valueOf(minLogAgeMillis));
+             Integer.valueOf(numWorkers), Integer.valueOf(maxLogCount), Long.valueOf(minLogAgeMillis),
+             Integer.valueOf(maxLogBatchSize), Integer.valueOf(numReplayWorkers), null, null);
     }
 
     @JsonCreator
@@ -93,7 +103,12 @@ public final class ZooKeeperReplicationConfig implements ReplicationConfig {
                                @JsonProperty("timeoutMillis") @Nullable Integer timeoutMillis,
                                @JsonProperty("numWorkers") @Nullable Integer numWorkers,
                                @JsonProperty("maxLogCount") @Nullable Integer maxLogCount,
-                               @JsonProperty("minLogAgeMillis") @Nullable Long minLogAgeMillis) {
+                               @JsonProperty("minLogAgeMillis") @Nullable Long minLogAgeMillis,
+                               @JsonProperty("maxLogBatchSize") @Nullable Integer maxLogBatchSize,
+                               @JsonProperty("numReplayWorkers") @Nullable Integer numReplayWorkers,
+                               @JsonProperty("snapshotSourceUri") @Nullable String snapshotSourceUri,
+                               @JsonProperty("snapshotServiceEnabled")
+                               @Nullable Boolean snapshotServiceEnabled) {
 
         requireNonNull(servers, "servers");
         this.serverId = serverId != null ? serverId : findServerId(servers);
@@ -123,6 +138,16 @@ public final class ZooKeeperReplicationConfig implements ReplicationConfig {
 
         this.minLogAgeMillis =
                 minLogAgeMillis == null || minLogAgeMillis <= 0 ? DEFAULT_MIN_LOG_AGE_MILLIS : minLogAgeMillis;
+        this.maxLogBatchSize =
+                maxLogBatchSize == null || maxLogBatchSize <= 0 ? DEFAULT_MAX_LOG_BATCH_SIZE : maxLogBatchSize;
+        this.numReplayWorkers =
+                numReplayWorkers == null || numReplayWorkers <= 0 ? DEFAULT_NUM_REPLAY_WORKERS
+                                                                  : numReplayWorkers;
+        this.snapshotSourceUri = snapshotSourceUri;
+        this.snapshotServiceEnabled = Boolean.TRUE.equals(snapshotServiceEnabled);
+        // The snapshot service exports all data, so it must not be protected by the well-known secret.
+        checkArgument(!this.snapshotServiceEnabled || !DEFAULT_SECRET.equals(secret()),
+                      "secret must be specified to enable the snapshot service.");
     }
 
     private static int findServerId(Map<Integer, ZooKeeperServerConfig> servers) {
@@ -260,6 +285,57 @@ public final class ZooKeeperReplicationConfig implements ReplicationConfig {
         return minLogAgeMillis;
     }
 
+    /**
+     * Returns the maximum number of commands which can be stored in a single log item. The commands queued
+     * behind the same lock are always executed back-to-back while the lock is held. When greater than
+     * {@code 1}, they are also stored in ZooKeeper as a single log item. Note that the replicas which do
+     * not understand a batched log item fail to replay it, so every replica must be upgraded before enabling
+     * this option.
+     * If unspecified, the default of {@value #DEFAULT_MAX_LOG_BATCH_SIZE} is returned, i.e. every command is
+     * stored as a separate log item.
+     */
+    @JsonProperty
+    public int maxLogBatchSize() {
+        return maxLogBatchSize;
+    }
+
+    /**
+     * Returns the number of worker threads which replay the logs written by other replicas. When greater than
+     * {@code 1}, the logs of different repositories are replayed concurrently while the logs of the same
+     * repository are still replayed in order. The logs of project-level and root commands are replayed only
+     * after all the logs before them are replayed.
+     * If unspecified, the default of {@value #DEFAULT_NUM_REPLAY_WORKERS} is returned, i.e. every log is
+     * replayed sequentially.
+     */
+    @JsonProperty
+    public int numReplayWorkers() {
+        return numReplayWorkers;
+    }
+
+    /**
+     * Returns the URI of the replica which a new or far-behind replica downloads a snapshot of the data from,
+     * e.g. {@code "http://replica1.example.com:36463"}, which must point to the management port of a replica
+     * whose {@link #snapshotServiceEnabled()} is {@code true}. When specified, a replica which has no data
+     * or whose last replayed log has been removed from ZooKeeper restores the snapshot on startup and then
+     * replays only the logs after it. If unspecified, {@code null} is returned and no snapshot is downloaded.
+     */
+    @Nullable
+    @JsonProperty
+    public String snapshotSourceUri() {
+        return snapshotSourceUri;
+    }
+
+    /**
+     * Returns whether this replica serves the snapshots of its data to the other replicas which are
+     * configured with {@link #snapshotSourceUri()}. The snapshots are served only on the dedicated
+     * management port and require the {@link #secret()}, which must not be the default one.
+     * If unspecified, {@code false} is returned.
+     */
+    @JsonProperty
+    public boolean snapshotServiceEnabled() {
+        return snapshotServiceEnabled;
+    }
+
     @Override
     public int hashCode() {
         return serverId;
@@ -283,7 +359,11 @@ public final class ZooKeeperReplicationConfig implements ReplicationConfig {
                timeoutMillis() == that.timeoutMillis() &&
                numWorkers() == that.numWorkers() &&
                maxLogCount() == that.maxLogCount() &&
-               minLogAgeMillis() == that.minLogAgeMillis();
+               minLogAgeMillis() == that.minLogAgeMillis() &&
+               maxLogBatchSize() == that.maxLogBatchSize() &&
+               numReplayWorkers() == that.numReplayWorkers() &&
+               Objects.equals(snapshotSourceUri(), that.snapshotSourceUri()) &&
+               snapshotServiceEnabled() == that.snapshotServiceEnabled();
     }
 
     @Override
@@ -295,6 +375,10 @@ public final class ZooKeeperReplicationConfig implements ReplicationConfig {
                           .add("timeoutMillis", timeoutMillis())
                           .add("numWorkers", numWorkers())
                           .add("maxLogCount", maxLogCount())
-                          .add("minLogAgeMillis", minLogAgeMillis()).toString();
+                          .add("minLogAgeMillis", minLogAgeMillis())
+                          .add("maxLogBatchSize", maxLogBatchSize())
+                          .add("numReplayWorkers", numReplayWorkers())
+                          .add("snapshotSourceUri", snapshotSourceUri())
+                          .add("snapshotServiceEnabled", snapshotServiceEnabled()).toString();
     }
 }
@@ -56,6 +56,7 @@ public class StandaloneCommandExecutor extends AbstractCommandExecutor {
     private final SessionManager sessionManager;
     private final EncryptionStorageManager encryptionStorageManager;
     private final ServerStatusManager serverStatusManager;
+    private final boolean groupCommit;
 
     /**
      * Creates a new instance.
@@ -77,12 +78,39 @@ public class StandaloneCommandExecutor extends AbstractCommandExecutor {
                                      @Nullable Consumer<CommandExecutor> onReleaseLeadership,
                                      @Nullable Consumer<CommandExecutor> onTakeZoneLeadership,
                                      @Nullable Consumer<CommandExecutor> onReleaseZoneLeadership) {
+        this(projectManager, repositoryWorker, serverStatusManager, sessionManager, encryptionStorageManager,
+             false, onTakeLeadership, onReleaseLeadership, onTakeZoneLeadership, onReleaseZoneLeadership);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param projectManager the project manager for accessing the storage
+     * @param repositoryWorker the executor which is used for performing storage operations
+     * @param sessionManager the session manager for creating/removing a session
+     * @param groupCommit whether the concurrent pushes to the same repository are applied together
+     * @param onTakeLeadership the callback to be invoked after the replica has taken the leadership
+     * @param onReleaseLeadership the callback to be invoked before the replica releases the leadership
+     * @param onTakeZoneLeadership the callback to be invoked after the replica has taken the zone leadership
+     * @param onReleaseZoneLeadership the callback to be invoked before the replica releases the zone leadership
+     */
+    public StandaloneCommandExecutor(ProjectManager projectManager,
+                                     Executor repositoryWorker,
+                                     ServerStatusManager serverStatusManager,
+                                     @Nullable SessionManager sessionManager,
+                                     EncryptionStorageManager encryptionStorageManager,
+                                     boolean groupCommit,
+                                     @Nullable Consumer<CommandExecutor> onTakeLeadership,
+                                     @Nullable Consumer<CommandExecutor> onReleaseLeadership,
+                                     @Nullable Consumer<CommandExecutor> onTakeZoneLeadership,
+                                     @Nullable Consumer<CommandExecutor> onReleaseZoneLeadership) {
         super(onTakeLeadership, onReleaseLeadership, onTakeZoneLeadership, onReleaseZoneLeadership);
         this.projectManager = requireNonNull(projectManager, "projectManager");
         this.repositoryWorker = requireNonNull(repositoryWorker, "repositoryWorker");
         this.serverStatusManager = requireNonNull(serverStatusManager, "serverStatusManager");
         this.sessionManager = sessionManager;
         this.encryptionStorageManager = requireNonNull(encryptionStorageManager, "encryptionStorageManager");
+        this.groupCommit = groupCommit;
     }
 
     @Override
@@ -378,7 +406,7 @@ public class StandaloneCommandExecutor extends AbstractCommandExecutor {
         final AbstractPushCommand<?> pushCommand = (AbstractPushCommand<?>) c;
         return repo(c).commit(pushCommand.baseRevision(), pushCommand.timestamp(), pushCommand.author(),
                               pushCommand.summary(), pushCommand.detail(), pushCommand.markup(),
-                              pushCommand.changes(), normalizing);
+                              pushCommand.changes(), normalizing, groupCommit);
     }
 
     private Repository repo(RepositoryCommand<?> c) {
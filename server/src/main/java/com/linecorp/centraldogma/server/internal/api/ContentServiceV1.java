@@ -36,18 +36,23 @@ import java.util.Optional;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Streams;
 
+import com.linecorp.armeria.common.HttpData;
 import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.ResponseHeaders;
 import com.linecorp.armeria.common.util.Exceptions;
 import com.linecorp.armeria.server.ServiceRequestContext;
 import com.linecorp.armeria.server.annotation.ConsumesJson;
@@ -60,6 +65,7 @@ import com.linecorp.armeria.server.annotation.RequestConverter;
 import com.linecorp.centraldogma.common.Author;
 import com.linecorp.centraldogma.common.Change;
 import com.linecorp.centraldogma.common.Entry;
+import com.linecorp.centraldogma.common.EntryType;
 import com.linecorp.centraldogma.common.InvalidPushException;
 import com.linecorp.centraldogma.common.Markup;
 import com.linecorp.centraldogma.common.MergeQuery;
@@ -68,14 +74,18 @@ import com.linecorp.centraldogma.common.RepositoryRole;
 import com.linecorp.centraldogma.common.Revision;
 import com.linecorp.centraldogma.common.RevisionRange;
 import com.linecorp.centraldogma.common.ShuttingDownException;
+import com.linecorp.centraldogma.internal.Jackson;
 import com.linecorp.centraldogma.internal.api.v1.ChangeDto;
 import com.linecorp.centraldogma.internal.api.v1.CommitMessageDto;
 import com.linecorp.centraldogma.internal.api.v1.EntryDto;
 import com.linecorp.centraldogma.internal.api.v1.MergedEntryDto;
 import com.linecorp.centraldogma.internal.api.v1.PushResultDto;
 import com.linecorp.centraldogma.internal.api.v1.WatchResultDto;
+import com.linecorp.centraldogma.internal.jsonpatch.JsonPatch;
+import com.linecorp.centraldogma.internal.jsonpatch.ReplaceMode;
 import com.linecorp.centraldogma.server.command.Command;
 import com.linecorp.centraldogma.server.command.CommandExecutor;
+import com.linecorp.centraldogma.server.internal.api.WatchService.FileWatchFuture;
 import com.linecorp.centraldogma.server.internal.api.auth.RequiresRepositoryRole;
 import com.linecorp.centraldogma.server.internal.api.converter.ChangesRequestConverter;
 import com.linecorp.centraldogma.server.internal.api.converter.CommitMessageRequestConverter;
@@ -108,6 +118,9 @@ public class ContentServiceV1 extends AbstractService {
 
     private static final String MIRROR_LOCAL_REPO = "localRepo";
 
+    private static final ResponseHeaders WATCH_RESULT_HEADERS =
+            ResponseHeaders.of(HttpStatus.OK, HttpHeaderNames.CONTENT_TYPE, MediaType.JSON_UTF_8);
+
     private final WatchService watchService;
     private final MeterRegistry meterRegistry;
     private final Templater templater;
@@ -286,7 +299,8 @@ public class ContentServiceV1 extends AbstractService {
             final boolean errorOnEntryNotFound = watchRequest.notifyEntryNotFound();
             if (query != null) {
                 return watchFile(ctx, repository, lastKnownRevision, query, timeOutMillis,
-                                 errorOnEntryNotFound, viewRaw, templateParams);
+                                 errorOnEntryNotFound, viewRaw, watchRequest.jsonPatchAccepted(),
+                                 templateParams);
             }
 
             return watchRepository(ctx, repository, lastKnownRevision, normalizedPath,
@@ -310,7 +324,8 @@ public class ContentServiceV1 extends AbstractService {
     private CompletableFuture<?> watchFile(ServiceRequestContext ctx,
                                            Repository repository, Revision lastKnownRevision,
                                            Query<?> query, long timeOutMillis, boolean errorOnEntryNotFound,
-                                           boolean viewRaw, TemplateParams templateParams) {
+                                           boolean viewRaw, boolean jsonPatchAccepted,
+                                           TemplateParams templateParams) {
         final CompletableFuture<? extends Entry<?>> future = watchService.watchFile(
                 repository, lastKnownRevision, query, timeOutMillis, errorOnEntryNotFound, templateParams,
                 newTempRev -> newTemplater(repository, templateParams.withTemplateRevision(newTempRev)));
@@ -319,11 +334,82 @@ public class ContentServiceV1 extends AbstractService {
             ctx.log().whenComplete().thenRun(() -> future.cancel(false));
         }
 
-        return future.thenApply(entry -> {
+        // A JSON patch is sent only for the plain JSON content which the client can patch by itself.
+        final boolean sendJsonPatch = jsonPatchAccepted && !viewRaw && !templateParams.renderTemplate() &&
+                                      !lastKnownRevision.isRelative();
+        // The requests which joined the same file watch share the encoded responses.
+        final FileWatchFuture<?> fileWatchFuture =
+                future instanceof FileWatchFuture ? (FileWatchFuture<?>) future : null;
+        return future.thenCompose(entry -> {
+            if (sendJsonPatch && entry.type() == EntryType.JSON) {
+                return newJsonPatchWatchFileResponse(fileWatchFuture, repository, lastKnownRevision, query,
+                                                     entry);
+            }
+            return CompletableFuture.completedFuture(
+                    (Object) newWatchFileResponse(fileWatchFuture, repository, entry, viewRaw));
+        }).exceptionally(ContentServiceV1::handleWatchFailure);
+    }
+
+    private static HttpResponse newWatchFileResponse(@Nullable FileWatchFuture<?> fileWatchFuture,
+                                                     Repository repository, Entry<?> entry, boolean viewRaw) {
+        final byte[] content = encodeWatchResult(fileWatchFuture, repository, entry, viewRaw);
+        return HttpResponse.of(WATCH_RESULT_HEADERS, HttpData.wrap(content));
+    }
+
+    private static byte[] encodeWatchResult(@Nullable FileWatchFuture<?> fileWatchFuture,
+                                            Repository repository, Entry<?> entry, boolean viewRaw) {
+        return encodeWatchResult(fileWatchFuture, viewRaw ? WatchResultType.RAW : WatchResultType.FULL, () -> {
             final Revision revision = entry.revision();
             final EntryDto<?> entryDto = newEntryDto(repository, revision, entry, true, viewRaw);
-            return (Object) new WatchResultDto(revision, entryDto);
-        }).exceptionally(ContentServiceV1::handleWatchFailure);
+            return encode(new WatchResultDto(revision, entryDto));
+        });
+    }
+
+    /**
+     * Encodes the response with the specified {@code encoder}, or returns the one encoded already by
+     * another request which joined the same file watch.
+     */
+    private static byte[] encodeWatchResult(@Nullable FileWatchFuture<?> fileWatchFuture,
+                                            WatchResultType type, Supplier<byte[]> encoder) {
+        if (fileWatchFuture == null) {
+            // No other request waits for the same entry.
+            return encoder.get();
+        }
+        return fileWatchFuture.encodedResult(type, encoder);
+    }
+
+    /**
+     * Returns the response which contains the JSON patch from the content at the {@code lastKnownRevision}
+     * to the content of the specified {@link Entry}, or the full content if the patch is not smaller.
+     */
+    private static <T> CompletableFuture<Object> newJsonPatchWatchFileResponse(
+            @Nullable FileWatchFuture<?> fileWatchFuture, Repository repository, Revision lastKnownRevision,
+            Query<T> query, Entry<?> entry) {
+        return repository.getOrNull(lastKnownRevision, query).handle((oldEntry, cause) -> {
+            final byte[] full = encodeWatchResult(fileWatchFuture, repository, entry, false);
+            if (cause != null || oldEntry == null || oldEntry.type() != EntryType.JSON) {
+                return HttpResponse.of(WATCH_RESULT_HEADERS, HttpData.wrap(full));
+            }
+
+            // The requests which joined the same file watch have the same lastKnownRevision.
+            final byte[] patched = encodeWatchResult(fileWatchFuture, WatchResultType.JSON_PATCH, () -> {
+                final Revision revision = entry.revision();
+                final JsonPatch patch = JsonPatch.generate((JsonNode) oldEntry.content(),
+                                                           (JsonNode) entry.content(), ReplaceMode.RFC6902);
+                final EntryDto<?> entryDto = newEntryDto(repository, revision, entry, false, false);
+                return encode(new WatchResultDto(revision, entryDto, lastKnownRevision, patch.toJson()));
+            });
+            return HttpResponse.of(WATCH_RESULT_HEADERS,
+                                   HttpData.wrap(patched.length < full.length ? patched : full));
+        });
+    }
+
+    private static byte[] encode(WatchResultDto watchResult) {
+        try {
+            return Jackson.writeValueAsBytes(watchResult);
+        } catch (JsonProcessingException e) {
+            return Exceptions.throwUnsafely(e);
+        }
     }
 
     private <T> EntryTransformer<T> newTemplater(Repository repository, TemplateParams templateParams) {
@@ -503,4 +589,13 @@ public class ContentServiceV1 extends AbstractService {
             }
         }
     }
+
+    /**
+     * The types of the responses encoded from the {@link Entry} of a file watch.
+     */
+    private enum WatchResultType {
+        FULL,
+        RAW,
+        JSON_PATCH
+    }
 }
@@ -19,6 +19,10 @@ package com.linecorp.centraldogma.server.internal.api;
 import static java.util.Objects.requireNonNull;
 
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
@@ -27,12 +31,15 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableList;
+
 import com.linecorp.armeria.common.RequestContext;
 import com.linecorp.armeria.common.util.Exceptions;
 import com.linecorp.armeria.common.util.TimeoutMode;
@@ -63,6 +70,8 @@ public final class WatchService {
 
     private final Set<CompletableFuture<?>> pendingFutures =
             Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final Map<FileWatchKey, FileWatch<?>> fileWatches = new ConcurrentHashMap<>();
+    private final Counter coalescedCounter;
     private final Counter wakeupCounter;
     private final Counter timeoutCounter;
     private final Counter failureCounter;
@@ -71,6 +80,9 @@ public final class WatchService {
         requireNonNull(meterRegistry, "meterRegistry");
 
         Gauge.builder("watches.active", this, self -> self.pendingFutures.size()).register(meterRegistry);
+        Gauge.builder("watches.file.groups", this, self -> self.fileWatches.size()).register(meterRegistry);
+
+        coalescedCounter = Counter.builder("watches.file.coalesced").register(meterRegistry);
 
         wakeupCounter = Counter.builder("watches.processed")
                                .tag("result", "wakeup")
@@ -114,6 +126,12 @@ public final class WatchService {
      * {@link Query} since the specified {@code lastKnownRevision}. This will wait until the specified
      * {@code timeoutMillis} passes. If there's no change during the time, the returned future will be
      * exceptionally completed with the {@link CancellationException}.
+     *
+     * <p>The watches on the same {@link Query} with the same {@code lastKnownRevision} share a single
+     * {@link Repository#watch(Revision, Query)} call unless a template is rendered, so that the query is
+     * evaluated only once when a new commit is pushed. The returned futures are completed with the same
+     * {@link Entry} instance, and they are {@link FileWatchFuture}s which share the responses encoded
+     * from it.
      */
     public <T> CompletableFuture<Entry<T>> watchFile(
             Repository repo, Revision lastKnownRevision, Query<T> query,
@@ -122,14 +140,18 @@ public final class WatchService {
             @Nullable Function<Revision, EntryTransformer<T>> transformerFactory) {
         final ServiceRequestContext ctx = RequestContext.current();
         updateRequestTimeout(ctx, timeoutMillis);
+        final CompletableFuture<Entry<T>> result;
         if (!templateParams.renderTemplate()) {
-            transformerFactory = null;
+            if (lastKnownRevision.isRelative()) {
+                result = repo.watch(lastKnownRevision, query, errorOnEntryNotFound, null, null, null);
+            } else {
+                result = joinFileWatch(repo, lastKnownRevision, query, errorOnEntryNotFound);
+            }
+        } else {
+            result = repo.watch(lastKnownRevision, query, errorOnEntryNotFound,
+                                templateParams.variableFile(), templateParams.templateRevision(),
+                                transformerFactory);
         }
-        final CompletableFuture<Entry<T>> result = repo.watch(lastKnownRevision, query,
-                                                              errorOnEntryNotFound,
-                                                              templateParams.variableFile(),
-                                                              templateParams.templateRevision(),
-                                                              transformerFactory);
         if (result.isDone()) {
             return result;
         }
@@ -138,6 +160,76 @@ public final class WatchService {
         return result;
     }
 
+    /**
+     * Awaits and retrieves the latest revision of the commit that changed the file that matches the specified
+     * {@code pathPattern} since the specified {@code lastKnownRevision}. Unlike
+     * {@link #watchRepository(Repository, Revision, String, long, boolean)}, the returned future is not
+     * timed out but completed only when a change is found or it is cancelled by a watch stream.
+     */
+    public CompletableFuture<Revision> watchRepository(Repository repo, Revision lastKnownRevision,
+                                                       String pathPattern, boolean errorOnEntryNotFound) {
+        final CompletableFuture<Revision> result = repo.watch(lastKnownRevision, pathPattern,
+                                                              errorOnEntryNotFound);
+        if (!result.isDone()) {
+            track(result);
+        }
+        return result;
+    }
+
+    /**
+     * Awaits and retrieves the latest revision of the commit that changed the file that matches the specified
+     * {@link Query} since the specified {@code lastKnownRevision}. Unlike
+     * {@link #watchFile(Repository, Revision, Query, long, boolean, TemplateParams, Function)}, the returned
+     * future is not timed out but completed only when a change is found or it is cancelled by a watch stream.
+     */
+    public <T> CompletableFuture<Entry<T>> watchFile(Repository repo, Revision lastKnownRevision,
+                                                     Query<T> query, boolean errorOnEntryNotFound) {
+        final CompletableFuture<Entry<T>> result;
+        if (lastKnownRevision.isRelative()) {
+            result = repo.watch(lastKnownRevision, query, errorOnEntryNotFound, null, null, null);
+        } else {
+            result = joinFileWatch(repo, lastKnownRevision, query, errorOnEntryNotFound);
+        }
+        if (!result.isDone()) {
+            track(result);
+        }
+        return result;
+    }
+
+    private <T> CompletableFuture<Entry<T>> joinFileWatch(Repository repo, Revision lastKnownRevision,
+                                                          Query<T> query, boolean errorOnEntryNotFound) {
+        final FileWatchKey key = new FileWatchKey(repo, lastKnownRevision, query, errorOnEntryNotFound);
+        for (;;) {
+            @SuppressWarnings("unchecked")
+            final FileWatch<T> fileWatch = (FileWatch<T>) fileWatches.get(key);
+            if (fileWatch != null) {
+                final FileWatchFuture<T> result = new FileWatchFuture<>(fileWatch.encodedResults);
+                if (fileWatch.join(result)) {
+                    coalescedCounter.increment();
+                    return result;
+                }
+                // The watch has been closed; replace it with a new one.
+                fileWatches.remove(key, fileWatch);
+                continue;
+            }
+
+            final FileWatch<T> newFileWatch = new FileWatch<>();
+            if (fileWatches.putIfAbsent(key, newFileWatch) != null) {
+                // Created by another request.
+                continue;
+            }
+            newFileWatch.future.whenComplete((unused1, unused2) -> fileWatches.remove(key, newFileWatch));
+
+            // The new watch has been closed already if the other requests which joined it have left.
+            final FileWatchFuture<T> result = new FileWatchFuture<>(newFileWatch.encodedResults);
+            if (newFileWatch.join(result)) {
+                newFileWatch.start(repo.watch(lastKnownRevision, query, errorOnEntryNotFound,
+                                              null, null, null));
+                return result;
+            }
+        }
+    }
+
     private <T> void scheduleTimeout(ServiceRequestContext ctx, CompletableFuture<T> result,
                                      long timeoutMillis) {
         pendingFutures.add(result);
@@ -178,6 +270,18 @@ public final class WatchService {
         });
     }
 
+    private void track(CompletableFuture<?> result) {
+        pendingFutures.add(result);
+        result.whenComplete((unused, cause) -> {
+            if (cause == null) {
+                wakeupCounter.increment();
+            } else if (!(cause instanceof CancellationException)) {
+                failureCounter.increment();
+            }
+            pendingFutures.remove(result);
+        });
+    }
+
     private static long applyJitter(long timeoutMillis) {
         // Specify the 'bound' value that's slightly greater than 1.0 because it's exclusive.
         final double rate = ThreadLocalRandom.current().nextDouble(1 - JITTER_RATE, 1.001);
@@ -187,4 +291,141 @@ public final class WatchService {
             return timeoutMillis;
         }
     }
+
+    private static final class FileWatchKey {
+        private final Repository repo;
+        private final Revision lastKnownRevision;
+        private final Query<?> query;
+        private final boolean errorOnEntryNotFound;
+        private final int hashCode;
+
+        FileWatchKey(Repository repo, Revision lastKnownRevision, Query<?> query,
+                     boolean errorOnEntryNotFound) {
+            this.repo = repo;
+            this.lastKnownRevision = lastKnownRevision;
+            this.query = query;
+            this.errorOnEntryNotFound = errorOnEntryNotFound;
+            hashCode = Objects.hash(lastKnownRevision, query, errorOnEntryNotFound) * 31 +
+                       System.identityHashCode(repo);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FileWatchKey)) {
+                return false;
+            }
+            final FileWatchKey that = (FileWatchKey) o;
+            return repo == that.repo &&
+                   errorOnEntryNotFound == that.errorOnEntryNotFound &&
+                   lastKnownRevision.equals(that.lastKnownRevision) &&
+                   query.equals(that.query);
+        }
+    }
+
+    /**
+     * A {@link Repository#watch(Revision, Query)} call shared by the requests with the same
+     * {@link FileWatchKey}. The underlying watch is cancelled when all requests leave before it completes.
+     */
+    private static final class FileWatch<T> {
+
+        private static final CancellationException CANCELLATION_EXCEPTION =
+                Exceptions.clearTrace(new CancellationException("all watchers left"));
+
+        final CompletableFuture<Entry<T>> future = new CompletableFuture<>();
+
+        // The responses encoded from the Entry of 'future', which are released with this watch.
+        final Map<Object, byte[]> encodedResults = new ConcurrentHashMap<>();
+
+        // Guarded by 'this'.
+        private final Set<CompletableFuture<Entry<T>>> watchers = new HashSet<>();
+        private boolean closed;
+
+        FileWatch() {
+            future.whenComplete((entry, cause) -> {
+                final List<CompletableFuture<Entry<T>>> watchers;
+                synchronized (this) {
+                    watchers = ImmutableList.copyOf(this.watchers);
+                    this.watchers.clear();
+                }
+                watchers.forEach(watcher -> complete(watcher, entry, cause));
+            });
+        }
+
+        /**
+         * Adds the specified {@code watcher} to this watch. Returns {@code false} if this watch has been
+         * closed because all watchers left.
+         */
+        boolean join(CompletableFuture<Entry<T>> watcher) {
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                if (!future.isDone()) {
+                    watchers.add(watcher);
+                    watcher.whenComplete((unused1, unused2) -> leave(watcher));
+                    return true;
+                }
+            }
+
+            future.whenComplete((entry, cause) -> complete(watcher, entry, cause));
+            return true;
+        }
+
+        private void leave(CompletableFuture<Entry<T>> watcher) {
+            synchronized (this) {
+                if (!watchers.remove(watcher) || !watchers.isEmpty()) {
+                    return;
+                }
+                closed = true;
+            }
+            future.completeExceptionally(CANCELLATION_EXCEPTION);
+        }
+
+        void start(CompletableFuture<Entry<T>> watchFuture) {
+            // Propagate the state of 'watchFuture' to 'future' and cancel 'watchFuture' if 'future' is
+            // complete first, i.e. all watchers left.
+            watchFuture.whenComplete((entry, cause) -> complete(future, entry, cause));
+            future.whenComplete(
+                    (unused1, unused2) -> watchFuture.completeExceptionally(CANCELLATION_EXCEPTION));
+        }
+
+        private static <T> void complete(CompletableFuture<Entry<T>> future,
+                                         @Nullable Entry<T> entry, @Nullable Throwable cause) {
+            if (cause != null) {
+                future.completeExceptionally(cause);
+            } else {
+                future.complete(entry);
+            }
+        }
+    }
+
+    /**
+     * The {@link CompletableFuture} of a request which joined a {@link FileWatch}. The requests which joined
+     * the same {@link FileWatch} share the responses encoded from its {@link Entry}, so that a response is
+     * encoded only once per change and released when the requests are done.
+     */
+    static final class FileWatchFuture<T> extends CompletableFuture<Entry<T>> {
+
+        private final Map<Object, byte[]> encodedResults;
+
+        FileWatchFuture(Map<Object, byte[]> encodedResults) {
+            this.encodedResults = encodedResults;
+        }
+
+        /**
+         * Returns the response of the specified {@code type} which was encoded by another request,
+         * or encodes it with the specified {@code encoder}.
+         */
+        byte[] encodedResult(Object type, Supplier<byte[]> encoder) {
+            return encodedResults.computeIfAbsent(type, unused -> encoder.get());
+        }
+    }
 }
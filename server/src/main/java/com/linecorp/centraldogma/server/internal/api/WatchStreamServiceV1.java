@@ -0,0 +1,421 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.api;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.linecorp.centraldogma.internal.Util.isValidFilePath;
+import static com.linecorp.centraldogma.server.internal.api.ContentServiceV1.IS_WATCH_REQUEST;
+import static com.linecorp.centraldogma.server.internal.api.DtoConverter.newEntryDto;
+import static java.util.Objects.requireNonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.Streams;
+
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpObject;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpResponseWriter;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.util.Exceptions;
+import com.linecorp.armeria.server.AbstractHttpService;
+import com.linecorp.armeria.server.HttpResponseException;
+import com.linecorp.armeria.server.HttpStatusException;
+import com.linecorp.armeria.server.ServiceRequestContext;
+import com.linecorp.centraldogma.common.Entry;
+import com.linecorp.centraldogma.common.Query;
+import com.linecorp.centraldogma.common.QueryType;
+import com.linecorp.centraldogma.common.RepositoryRole;
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.common.ShuttingDownException;
+import com.linecorp.centraldogma.internal.Jackson;
+import com.linecorp.centraldogma.internal.api.v1.JsonLinesDecoder;
+import com.linecorp.centraldogma.internal.api.v1.WatchResultDto;
+import com.linecorp.centraldogma.server.internal.admin.auth.AuthUtil;
+import com.linecorp.centraldogma.server.internal.api.auth.RequiresRepositoryRoleDecorator;
+import com.linecorp.centraldogma.server.internal.storage.project.ProjectApiManager;
+import com.linecorp.centraldogma.server.metadata.MetadataService;
+import com.linecorp.centraldogma.server.metadata.User;
+import com.linecorp.centraldogma.server.storage.repository.Repository;
+
+/**
+ * A service which multiplexes many file and repository watches of a client over a single long-lived
+ * HTTP/2 stream, so that the client does not send a new long-polling request whenever a watch is completed.
+ *
+ * <p>The client sends the newline-delimited JSON messages in the request body:
+ * <pre>{@code
+ * {"type":"subscribe","id":1,"project":"foo","repo":"bar","revision":"3","path":"/a.json",
+ *  "jsonpath":["$.a"],"errorOnEntryNotFound":false,"viewRaw":false}
+ * {"type":"unsubscribe","id":1}
+ * }</pre>
+ * and the server sends a newline-delimited JSON message in the response body when a watch is completed:
+ * <pre>{@code
+ * {"id":1,"status":200,"content":{"revision":4,"entry":{...}}}
+ * }</pre>
+ * where the {@code status} and the {@code content} are what the long-polling watch request of
+ * {@link ContentServiceV1} responds with, except that the {@code content} of a failure is always a JSON object.
+ * A watch is removed once its result is sent. The client unsubscribes the watch which it does not need anymore,
+ * and the server completes a watch with {@code 304 Not Modified} when no change is found during
+ * the maximum timeout. A subscription with a duplicate or an invalid ID, or beyond the maximum number of
+ * watches of a stream, is rejected with a message of its ID while the other watches of the stream stay.
+ */
+public final class WatchStreamServiceV1 extends AbstractHttpService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WatchStreamServiceV1.class);
+
+    private static final ResponseHeaders RESPONSE_HEADERS =
+            ResponseHeaders.of(HttpStatus.OK, HttpHeaderNames.CONTENT_TYPE, MediaType.JSON_LINES);
+
+    // A subscription is small. Do not buffer a line which never ends.
+    private static final int MAX_MESSAGE_LENGTH = 64 * 1024;
+
+    private static final byte[] CONTENT_FIELD = "\"content\":".getBytes(StandardCharsets.US_ASCII);
+
+    private static final CancellationException CANCELLATION_EXCEPTION =
+            Exceptions.clearTrace(new CancellationException("watch timed out"));
+
+    private static final HttpApiExceptionHandler exceptionHandler = new HttpApiExceptionHandler();
+
+    private final ProjectApiManager projectApiManager;
+    private final MetadataService mds;
+    private final WatchService watchService;
+    private final int maxNumWatches;
+    private final long maxTimeoutMillis;
+
+    public WatchStreamServiceV1(ProjectApiManager projectApiManager, MetadataService mds,
+                                WatchService watchService, int maxNumWatches, long maxTimeoutMillis) {
+        this.projectApiManager = requireNonNull(projectApiManager, "projectApiManager");
+        this.mds = requireNonNull(mds, "mds");
+        this.watchService = requireNonNull(watchService, "watchService");
+        checkArgument(maxNumWatches > 0, "maxNumWatches: %s (expected: > 0)", maxNumWatches);
+        checkArgument(maxTimeoutMillis > 0, "maxTimeoutMillis: %s (expected: > 0)", maxTimeoutMillis);
+        this.maxNumWatches = maxNumWatches;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+    }
+
+    @Override
+    protected HttpResponse doPost(ServiceRequestContext ctx, HttpRequest req) {
+        // The stream lasts until the client closes it.
+        ctx.clearRequestTimeout();
+        ctx.setMaxRequestLength(0);
+        ctx.setAttr(IS_WATCH_REQUEST, true);
+
+        final HttpResponseWriter res = HttpResponse.streaming();
+        res.write(RESPONSE_HEADERS);
+        final WatchStream stream = new WatchStream(ctx, AuthUtil.currentUser(ctx), res);
+        res.whenComplete().handle((unused1, unused2) -> {
+            stream.unsubscribeAll();
+            return null;
+        });
+        req.subscribe(stream, ctx.eventLoop());
+        return res;
+    }
+
+    private final class WatchStream implements Subscriber<HttpObject> {
+
+        private final ServiceRequestContext ctx;
+        private final User user;
+        private final HttpResponseWriter res;
+        private final JsonLinesDecoder decoder = new JsonLinesDecoder(MAX_MESSAGE_LENGTH);
+        // The subscriptions which are completed when the watch is completed or unsubscribed.
+        private final Map<Long, CompletableFuture<Void>> subscriptions = new ConcurrentHashMap<>();
+
+        WatchStream(ServiceRequestContext ctx, User user, HttpResponseWriter res) {
+            this.ctx = ctx;
+            this.user = user;
+            this.res = res;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(HttpObject obj) {
+            if (!(obj instanceof HttpData)) {
+                return;
+            }
+            try {
+                for (JsonNode message : decoder.decode(((HttpData) obj).array())) {
+                    handle(message);
+                }
+            } catch (Exception e) {
+                logger.debug("{} Closing a watch stream due to an invalid message:", ctx, e);
+                res.abort(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            res.abort(t);
+        }
+
+        @Override
+        public void onComplete() {
+            res.close();
+        }
+
+        private void handle(JsonNode message) {
+            // A message without an ID cannot be answered, so it closes the stream.
+            final JsonNode idNode = field(message, "id");
+            if (!idNode.isIntegralNumber() || !idNode.canConvertToLong()) {
+                sendError(idNode.toString(), HttpStatus.BAD_REQUEST, "invalid watch ID: " + idNode);
+                return;
+            }
+
+            final long id = idNode.asLong();
+            try {
+                final String type = field(message, "type").asText();
+                switch (type) {
+                    case "subscribe":
+                        subscribe(id, message);
+                        break;
+                    case "unsubscribe":
+                        final CompletableFuture<Void> subscription = subscriptions.remove(id);
+                        if (subscription != null) {
+                            subscription.cancel(false);
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown message type: " + type);
+                }
+            } catch (IllegalArgumentException e) {
+                logger.debug("{} Rejecting an invalid watch stream message: {}", ctx, message, e);
+                sendError(Long.toString(id), HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+        }
+
+        private void subscribe(long id, JsonNode message) {
+            final String projectName = field(message, "project").asText();
+            final String repoName = field(message, "repo").asText();
+            final Revision lastKnownRevision = new Revision(field(message, "revision").asText());
+            final String path = field(message, "path").asText();
+            final List<String> jsonPaths = Streams.stream(message.path("jsonpath"))
+                                                  .map(JsonNode::asText)
+                                                  .collect(toImmutableList());
+            final boolean errorOnEntryNotFound = message.path("errorOnEntryNotFound").asBoolean();
+            final boolean viewRaw = message.path("viewRaw").asBoolean();
+
+            // Determine the query in the same way as QueryRequestConverter does.
+            final Query<?> query;
+            if (!jsonPaths.isEmpty()) {
+                query = Query.ofJsonPath(path, jsonPaths);
+            } else if (isValidFilePath(path)) {
+                query = Query.of(QueryType.IDENTITY, path);
+            } else {
+                query = null;
+            }
+
+            if (subscriptions.size() >= maxNumWatches) {
+                sendError(Long.toString(id), HttpStatus.TOO_MANY_REQUESTS,
+                          "too many watches in a stream (max: " + maxNumWatches + ')');
+                return;
+            }
+            final CompletableFuture<Void> subscription = new CompletableFuture<>();
+            if (subscriptions.putIfAbsent(id, subscription) != null) {
+                sendError(Long.toString(id), HttpStatus.BAD_REQUEST, "duplicate watch ID: " + id);
+                return;
+            }
+
+            final CompletableFuture<Void> authorized = RequiresRepositoryRoleDecorator.checkRole(
+                    ctx, mds, user, projectName, repoName, RepositoryRole.READ);
+            final CompletableFuture<WatchResultDto> future = authorized.thenCompose(unused -> {
+                final Repository repo = projectApiManager.getProject(projectName, user).repos().get(repoName);
+                return watch(subscription, repo, lastKnownRevision, path, query, errorOnEntryNotFound,
+                             viewRaw);
+            });
+            final ScheduledFuture<?> timeoutFuture = ctx.eventLoop().schedule(
+                    () -> future.completeExceptionally(CANCELLATION_EXCEPTION),
+                    maxTimeoutMillis, TimeUnit.MILLISECONDS);
+            future.handle((result, cause) -> {
+                timeoutFuture.cancel(false);
+                if (!subscriptions.remove(id, subscription)) {
+                    // Unsubscribed already.
+                    return null;
+                }
+                subscription.complete(null);
+                if (cause != null) {
+                    sendFailure(id, cause);
+                } else {
+                    sendResult(id, result);
+                }
+                return null;
+            });
+        }
+
+        private CompletableFuture<WatchResultDto> watch(CompletableFuture<Void> subscription, Repository repo,
+                                                        Revision lastKnownRevision, String path,
+                                                        @Nullable Query<?> query, boolean errorOnEntryNotFound,
+                                                        boolean viewRaw) {
+            if (query != null) {
+                final CompletableFuture<? extends Entry<?>> future =
+                        watchService.watchFile(repo, lastKnownRevision, query, errorOnEntryNotFound);
+                subscription.whenComplete((unused1, unused2) -> future.cancel(false));
+                return future.thenApply(entry -> {
+                    final Revision revision = entry.revision();
+                    return new WatchResultDto(revision, newEntryDto(repo, revision, entry, true, viewRaw));
+                });
+            }
+
+            final CompletableFuture<Revision> future =
+                    watchService.watchRepository(repo, lastKnownRevision, path, errorOnEntryNotFound);
+            subscription.whenComplete((unused1, unused2) -> future.cancel(false));
+            return future.thenApply(revision -> new WatchResultDto(revision, null));
+        }
+
+        private void sendResult(long id, WatchResultDto result) {
+            final byte[] content;
+            try {
+                content = Jackson.writeValueAsBytes(result);
+            } catch (Exception e) {
+                sendFailure(id, e);
+                return;
+            }
+            send(id, HttpStatus.OK, content);
+        }
+
+        private void sendFailure(long id, Throwable cause) {
+            final Throwable peeledCause = Exceptions.peel(cause);
+            if (peeledCause instanceof CancellationException || peeledCause instanceof ShuttingDownException) {
+                // Use the same status code as handleWatchFailure() in ContentServiceV1.
+                send(id, HttpStatus.NOT_MODIFIED, null);
+                return;
+            }
+
+            HttpResponse response = exceptionHandler.onServiceException(ctx, peeledCause);
+            if (response == null) {
+                if (peeledCause instanceof HttpResponseException) {
+                    response = ((HttpResponseException) peeledCause).httpResponse();
+                } else {
+                    response = HttpResponse.of(((HttpStatusException) peeledCause).httpStatus());
+                }
+            }
+            response.aggregate().handle((aggregated, unused) -> {
+                if (aggregated != null) {
+                    send(id, aggregated.status(), errorContent(aggregated));
+                } else {
+                    send(id, HttpStatus.INTERNAL_SERVER_ERROR, null);
+                }
+                return null;
+            });
+        }
+
+        /**
+         * Returns the JSON object which is sent as the {@code content} of a failed watch. The error response
+         * is re-encoded into a single line if it is a JSON object, and is wrapped as the {@code message} of
+         * a JSON object otherwise, e.g. a plain text response.
+         */
+        @Nullable
+        private byte[] errorContent(AggregatedHttpResponse aggregated) {
+            final String body = aggregated.contentUtf8();
+            if (body.isEmpty()) {
+                return null;
+            }
+            try {
+                final MediaType contentType = aggregated.contentType();
+                if (contentType != null && contentType.isJson()) {
+                    final JsonNode node = Jackson.readTree(body);
+                    if (node.isObject()) {
+                        return Jackson.writeValueAsBytes(node);
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                logger.debug("{} Failed to parse an error response: {}", ctx, body, e);
+            }
+            return messageContent(body);
+        }
+
+        /**
+         * Sends the failure of the watch with the specified ID, whose {@code content} is a JSON object with
+         * the specified {@code message}.
+         */
+        private void sendError(String id, HttpStatus status, String message) {
+            send(id, status, messageContent(message));
+        }
+
+        private void send(long id, HttpStatus status, @Nullable byte[] content) {
+            send(Long.toString(id), status, content);
+        }
+
+        private void send(String id, HttpStatus status, @Nullable byte[] content) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            // An invalid ID is sent back as it is, which may not be ASCII.
+            final String head = "{\"id\":" + id + ",\"status\":" + status.code();
+            final byte[] headBytes = head.getBytes(StandardCharsets.UTF_8);
+            out.write(headBytes, 0, headBytes.length);
+            if (content != null && content.length > 0) {
+                out.write(',');
+                out.write(CONTENT_FIELD, 0, CONTENT_FIELD.length);
+                out.write(content, 0, content.length);
+            }
+            out.write('}');
+            out.write('\n');
+            res.tryWrite(HttpData.wrap(out.toByteArray()));
+        }
+
+        void unsubscribeAll() {
+            for (Long id : subscriptions.keySet()) {
+                final CompletableFuture<Void> subscription = subscriptions.remove(id);
+                if (subscription != null) {
+                    subscription.cancel(false);
+                }
+            }
+        }
+    }
+
+    private static byte[] messageContent(String message) {
+        final ObjectNode node = JsonNodeFactory.instance.objectNode();
+        node.put("message", message);
+        try {
+            return Jackson.writeValueAsBytes(node);
+        } catch (JsonProcessingException e) {
+            // Should never reach here.
+            throw new Error(e);
+        }
+    }
+
+    private static JsonNode field(JsonNode message, String name) {
+        final JsonNode field = message.get(name);
+        checkArgument(field != null && !field.isNull(), "missing field '%s': %s", name, message);
+        return field;
+    }
+}
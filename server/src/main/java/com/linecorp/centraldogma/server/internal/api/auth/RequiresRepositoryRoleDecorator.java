@@ -21,7 +21,7 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.linecorp.centraldogma.server.internal.api.auth.RequiresProjectRoleDecorator.handleException;
 import static java.util.Objects.requireNonNull;
 
-import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 import javax.annotation.Nullable;
@@ -32,6 +32,8 @@ import com.linecorp.armeria.common.HttpRequest;
 import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.HttpStatus;
 import com.linecorp.armeria.common.util.Exceptions;
+import com.linecorp.armeria.common.util.UnmodifiableFuture;
+import com.linecorp.armeria.server.HttpResponseException;
 import com.linecorp.armeria.server.HttpService;
 import com.linecorp.armeria.server.ServiceRequestContext;
 import com.linecorp.armeria.server.SimpleDecoratingHttpService;
@@ -50,6 +52,30 @@ import com.linecorp.centraldogma.server.storage.project.Project;
  */
 public final class RequiresRepositoryRoleDecorator extends SimpleDecoratingHttpService {
 
+    /**
+     * Checks whether the specified {@link User} has the specified {@link RepositoryRole} for the repository
+     * in the same way as this decorator does. This is used by a service which serves the repositories
+     * specified in the request content rather than the path. The returned {@link CompletableFuture} is
+     * completed exceptionally with an {@link HttpResponseException}, which has the same response as this
+     * decorator, if the {@link User} does not have the {@link RepositoryRole}.
+     */
+    public static CompletableFuture<Void> checkRole(ServiceRequestContext ctx, MetadataService mds, User user,
+                                                    String projectName, String repoName,
+                                                    RepositoryRole requiredRole) {
+        try {
+            if (user.isSystemAdmin()) {
+                return UnmodifiableFuture.completedFuture(null);
+            }
+            if (Project.isInternalRepo(repoName)) {
+                return throwForbiddenResponse(ctx, projectName, repoName);
+            }
+            return mds.findRepositoryRole(projectName, repoName, user).thenAccept(
+                    role -> requireRole(ctx, role, requiredRole, projectName, repoName));
+        } catch (Throwable cause) {
+            return UnmodifiableFuture.exceptionallyCompletedFuture(cause);
+        }
+    }
+
     private final MetadataService mds;
 
     private final RepositoryRole requiredRole;
@@ -95,8 +121,8 @@ public final class RequiresRepositoryRoleDecorator extends SimpleDecoratingHttpS
         return serveUserRepo(ctx, req, user, projectName, maybeRemoveGitSuffix(repoName));
     }
 
-    private static HttpResponse throwForbiddenResponse(ServiceRequestContext ctx, String projectName,
-                                                       String repoName) {
+    private static <T> T throwForbiddenResponse(ServiceRequestContext ctx, String projectName,
+                                                String repoName) {
         return HttpApiUtil.throwResponse(ctx, HttpStatus.FORBIDDEN,
                                          "Repository '%s/%s' can be accessed only by a system administrator.",
                                          projectName, repoName);
@@ -115,31 +141,45 @@ public final class RequiresRepositoryRoleDecorator extends SimpleDecoratingHttpS
 
     private HttpResponse serveUserRepo(ServiceRequestContext ctx, HttpRequest req,
                                        User user, String projectName, String repoName) throws Exception {
-        final CompletionStage<RepositoryRole> f;
+        final CompletableFuture<RepositoryRole> f;
         try {
             f = mds.findRepositoryRole(projectName, repoName, user);
         } catch (Throwable cause) {
             return handleException(ctx, cause);
         }
 
+        if (f.isDone() && !f.isCompletedExceptionally()) {
+            // The role is usually found from the index of the current metadata without any I/O.
+            return serveUserRepo(ctx, req, f.join(), projectName, repoName);
+        }
         return HttpResponse.of(f.handle((role, cause) -> {
             if (cause != null) {
                 return handleException(ctx, cause);
             }
-            if (role == null || !role.has(requiredRole)) {
-                 return HttpApiUtil.throwResponse(
-                         ctx, HttpStatus.FORBIDDEN,
-                         "You must have the %s repository role to access the '%s/%s'.",
-                         requiredRole, projectName, repoName);
-            }
             try {
-                return unwrap().serve(ctx, req);
+                return serveUserRepo(ctx, req, role, projectName, repoName);
             } catch (Exception e) {
                 return Exceptions.throwUnsafely(e);
             }
         }));
     }
 
+    private HttpResponse serveUserRepo(ServiceRequestContext ctx, HttpRequest req,
+                                       @Nullable RepositoryRole role, String projectName,
+                                       String repoName) throws Exception {
+        requireRole(ctx, role, requiredRole, projectName, repoName);
+        return unwrap().serve(ctx, req);
+    }
+
+    private static void requireRole(ServiceRequestContext ctx, @Nullable RepositoryRole role,
+                                    RepositoryRole requiredRole, String projectName, String repoName) {
+        if (role == null || !role.has(requiredRole)) {
+            HttpApiUtil.throwResponse(ctx, HttpStatus.FORBIDDEN,
+                                      "You must have the %s repository role to access the '%s/%s'.",
+                                      requiredRole, projectName, repoName);
+        }
+    }
+
     /**
      * A {@link DecoratorFactoryFunction} which creates a {@link RequiresRepositoryRoleDecorator} with the
      * specified {@link RepositoryRole}.
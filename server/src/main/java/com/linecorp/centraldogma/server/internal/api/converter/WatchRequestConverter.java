@@ -51,6 +51,10 @@ public final class WatchRequestConverter implements RequestConverterFunction {
 
     private static final String NOTIFY_ENTRY_NOT_FOUND = "notify-entry-not-found";
 
+    private static final String DELTA = "delta";
+
+    private static final String JSON_PATCH = "json-patch";
+
     /**
      * Converts the specified {@code request} to a {@link WatchRequest} when the request has
      * {@link HttpHeaderNames#IF_NONE_MATCH}. {@code null} otherwise.
@@ -70,16 +74,19 @@ public final class WatchRequestConverter implements RequestConverterFunction {
         final String prefer = request.headers().get(HttpHeaderNames.PREFER);
         final long timeoutMillis;
         final boolean notifyEntryNotFound;
+        final boolean jsonPatchAccepted;
         if (!isNullOrEmpty(prefer)) {
             final Map<String, String> tokens = extract(prefer);
             timeoutMillis = timeoutMillis(tokens, prefer);
             notifyEntryNotFound = notifyEntryNotFound(tokens);
+            jsonPatchAccepted = JSON_PATCH.equalsIgnoreCase(tokens.get(DELTA));
         } else {
             timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
             notifyEntryNotFound = false;
+            jsonPatchAccepted = false;
         }
 
-        return new WatchRequest(lastKnownRevision, timeoutMillis, notifyEntryNotFound);
+        return new WatchRequest(lastKnownRevision, timeoutMillis, notifyEntryNotFound, jsonPatchAccepted);
     }
 
     @VisibleForTesting
@@ -158,11 +165,14 @@ public final class WatchRequestConverter implements RequestConverterFunction {
         private final Revision lastKnownRevision;
         private final long timeoutMillis;
         private final boolean notifyEntryNotFound;
+        private final boolean jsonPatchAccepted;
 
-        WatchRequest(Revision lastKnownRevision, long timeoutMillis, boolean notifyEntryNotFound) {
+        WatchRequest(Revision lastKnownRevision, long timeoutMillis, boolean notifyEntryNotFound,
+                     boolean jsonPatchAccepted) {
             this.lastKnownRevision = lastKnownRevision;
             this.timeoutMillis = timeoutMillis;
             this.notifyEntryNotFound = notifyEntryNotFound;
+            this.jsonPatchAccepted = jsonPatchAccepted;
         }
 
         public Revision lastKnownRevision() {
@@ -177,11 +187,20 @@ public final class WatchRequestConverter implements RequestConverterFunction {
             return notifyEntryNotFound;
         }
 
+        /**
+         * Returns whether the client accepts a JSON patch from the {@link #lastKnownRevision()} instead of
+         * the full content of the changed JSON file, i.e. {@code Prefer: delta=json-patch}.
+         */
+        public boolean jsonPatchAccepted() {
+            return jsonPatchAccepted;
+        }
+
         @Override
         public String toString() {
             return MoreObjects.toStringHelper(this)
                               .add("lastKnownRevision", lastKnownRevision)
                               .add("timeoutMillis", timeoutMillis)
+                              .add("jsonPatchAccepted", jsonPatchAccepted)
                               .toString();
         }
     }
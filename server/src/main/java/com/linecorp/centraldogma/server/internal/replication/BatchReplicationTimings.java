@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.centraldogma.server.internal.replication;
+
+import java.util.List;
+
+/**
+ * A {@link SharedReplicationTimings} that records the phases shared by a batch of commands, such as lock
+ * acquisition, log replay and log store, into the {@link ReplicationTimings} of every command in the batch.
+ * The phases specific to each command are recorded into its own {@link ReplicationTimings} directly.
+ */
+final class BatchReplicationTimings implements SharedReplicationTimings {
+
+    private final List<ReplicationTimings> timings;
+
+    BatchReplicationTimings(List<ReplicationTimings> timings) {
+        this.timings = timings;
+    }
+
+    @Override
+    public void startLockAcquisition(long startNanos) {
+        timings.forEach(t -> t.startLockAcquisition(startNanos));
+    }
+
+    @Override
+    public void endLockAcquisition(boolean lockAcquired) {
+        timings.forEach(t -> t.endLockAcquisition(lockAcquired));
+    }
+
+    @Override
+    public void reuseLock() {
+        timings.forEach(ReplicationTimings::reuseLock);
+    }
+
+    @Override
+    public void startLockRelease() {
+        timings.forEach(ReplicationTimings::startLockRelease);
+    }
+
+    @Override
+    public void endLockRelease() {
+        timings.forEach(ReplicationTimings::endLockRelease);
+    }
+
+    @Override
+    public void startLogReplay() {
+        timings.forEach(ReplicationTimings::startLogReplay);
+    }
+
+    @Override
+    public void endLogReplay() {
+        timings.forEach(ReplicationTimings::endLogReplay);
+    }
+
+    @Override
+    public void startLogStore() {
+        timings.forEach(ReplicationTimings::startLogStore);
+    }
+
+    @Override
+    public void endLogStore() {
+        timings.forEach(ReplicationTimings::endLogStore);
+    }
+}
@@ -30,6 +30,7 @@ final class DefaultReplicationTimings implements ReplicationTimings {
     private long lockAcquisitionStartNanos;
     private long lockAcquisitionDurationNanos;
     private boolean lockAcquired;
+    private boolean lockReused;
 
     private long lockReleaseStartNanos;
     private long lockReleaseDurationNanos;
@@ -72,6 +73,12 @@ final class DefaultReplicationTimings implements ReplicationTimings {
         this.lockAcquired = lockAcquired;
     }
 
+    @Override
+    public void reuseLock() {
+        lockAcquired = true;
+        lockReused = true;
+    }
+
     @Override
     public void startLockRelease() {
         lockReleaseStartNanos = System.nanoTime();
@@ -119,7 +126,9 @@ final class DefaultReplicationTimings implements ReplicationTimings {
     @Override
     public void record() {
         metrics.executorQueueLatencyTimer().record(executorQueueLatencyNanos, TimeUnit.NANOSECONDS);
-        if (lockAcquired) {
+        if (lockReused) {
+            metrics.lockReuseCounter().increment();
+        } else if (lockAcquired) {
             metrics.lockAcquireSuccessTimer().record(lockAcquisitionDurationNanos, TimeUnit.NANOSECONDS);
         } else {
             metrics.lockAcquireFailureTimer().record(lockAcquisitionDurationNanos, TimeUnit.NANOSECONDS);
@@ -148,7 +157,11 @@ final class DefaultReplicationTimings implements ReplicationTimings {
         sb.append(", executorQueueLatency=");
         TextFormatter.appendElapsed(sb, executorQueueLatencyNanos);
         sb.append(", lockAcquisition=");
-        TextFormatter.appendElapsed(sb, lockAcquisitionDurationNanos);
+        if (lockReused) {
+            sb.append("reused");
+        } else {
+            TextFormatter.appendElapsed(sb, lockAcquisitionDurationNanos);
+        }
         sb.append(", lockRelease=");
         TextFormatter.appendElapsed(sb, lockReleaseDurationNanos);
         sb.append(", commandExecution=");
@@ -33,6 +33,20 @@ import com.google.common.base.MoreObjects;
 @JsonIgnoreProperties(ignoreUnknown = true)
 class LogMeta {
 
+    /**
+     * The version of a log item which contains a single {@link ReplicationLog}. A log item without
+     * a version is of this version.
+     */
+    static final int VERSION_SINGLE = 1;
+
+    /**
+     * The version of a log item which contains a JSON array of {@link ReplicationLog}s, which have been
+     * executed in a row while the lock was held once and must be replayed in the same order.
+     */
+    static final int VERSION_BATCH = 2;
+
+    @Nullable
+    private final Integer version;
     private final int replicaId;
     private final long timestamp;
     private final int size;
@@ -43,13 +57,15 @@ class LogMeta {
     private final List<Long> blocks;
 
     @JsonCreator
-    LogMeta(@JsonProperty(value = "replicaId", required = true) int replicaId,
+    LogMeta(@Nullable @JsonProperty("version") Integer version,
+            @JsonProperty(value = "replicaId", required = true) int replicaId,
             @JsonProperty(value = "timestamp", defaultValue = "0") @Nullable Long timestamp,
             @JsonProperty("size") int size,
             @JsonProperty("blocks") List<Long> blocks,
             @Nullable @JsonProperty("compressed") Boolean compressed,
             @Nullable @JsonProperty("encrypted") Boolean encrypted) {
 
+        this.version = version;
         this.replicaId = replicaId;
         if (timestamp == null) {
             timestamp = 0L;
@@ -63,7 +79,31 @@ class LogMeta {
 
     LogMeta(int replicaId, Long timestamp, int size,
             @Nullable Boolean compressed, @Nullable Boolean encrypted) {
-        this(replicaId, timestamp, size, new ArrayList<>(4), compressed, encrypted);
+        this(null, replicaId, timestamp, size, compressed, encrypted);
+    }
+
+    LogMeta(@Nullable Integer version, int replicaId, Long timestamp, int size,
+            @Nullable Boolean compressed, @Nullable Boolean encrypted) {
+        this(version, replicaId, timestamp, size, new ArrayList<>(4), compressed, encrypted);
+    }
+
+    @Nullable
+    @JsonProperty("version")
+    Integer version() {
+        return version;
+    }
+
+    /**
+     * Returns whether this log item contains more than one {@link ReplicationLog}.
+     */
+    boolean isBatch() {
+        if (version == null || version == VERSION_SINGLE) {
+            return false;
+        }
+        if (version == VERSION_BATCH) {
+            return true;
+        }
+        throw new IllegalStateException("unsupported log version: " + version);
     }
 
     @JsonProperty
@@ -108,7 +148,8 @@ class LogMeta {
             return false;
         }
         final LogMeta logMeta = (LogMeta) o;
-        return replicaId == logMeta.replicaId &&
+        return Objects.equals(version, logMeta.version) &&
+               replicaId == logMeta.replicaId &&
                timestamp == logMeta.timestamp &&
                size == logMeta.size &&
                Objects.equals(compressed, logMeta.compressed) &&
@@ -118,13 +159,14 @@ class LogMeta {
 
     @Override
     public int hashCode() {
-        return Objects.hash(replicaId, timestamp, size, compressed, encrypted, blocks);
+        return Objects.hash(version, replicaId, timestamp, size, compressed, encrypted, blocks);
     }
 
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
                           .omitNullValues()
+                          .add("version", version)
                           .add("replicaId", replicaId)
                           .add("timestamp", timestamp)
                           .add("size", size)
@@ -31,6 +31,9 @@ enum NoopReplicationTimings implements ReplicationTimings {
     @Override
     public void endLockAcquisition(boolean lockAcquired) {}
 
+    @Override
+    public void reuseLock() {}
+
     @Override
     public void startLockRelease() {}
 
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.replication;
+
+import static com.linecorp.centraldogma.server.internal.replication.ZooKeeperCommandExecutor.LAST_REVISION_FILE;
+import static com.linecorp.centraldogma.server.internal.replication.ZooKeeperCommandExecutor.readLastReplayedRevision;
+import static java.util.Objects.requireNonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.SplitHttpResponse;
+import com.linecorp.armeria.common.auth.AuthToken;
+import com.linecorp.centraldogma.internal.Jackson;
+import com.linecorp.centraldogma.internal.Util;
+import com.linecorp.centraldogma.server.ZooKeeperReplicationConfig;
+import com.linecorp.centraldogma.server.storage.encryption.EncryptionStorageManager;
+
+/**
+ * Exports and restores a snapshot of the data directory of a replica, so that a new or far-behind replica
+ * replays only the logs after the snapshot instead of all logs since its last replayed revision, which may
+ * have been removed from ZooKeeper already.
+ *
+ * <p>A snapshot is a ZIP stream of the files in the data directory, except the local state of the replica,
+ * followed by {@value #SNAPSHOT_INFO} which contains the revision of the snapshot and the number of the
+ * files. The CRC-32 checksum of every file is verified while restoring, and a truncated stream is rejected
+ * because it does not end with {@value #SNAPSHOT_INFO}.
+ */
+public final class ReplicaSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaSnapshot.class);
+
+    static final String PATH = "/replication/snapshot";
+    static final String INFO_PATH = PATH + "/info";
+
+    static final String SNAPSHOT_INFO = "SNAPSHOT_INFO";
+    static final String STAGING_DIR = "_snapshot_staging";
+    private static final String RESTORING_DIR = "_snapshot_restoring";
+    private static final String DOWNLOAD_FILE = "_snapshot.zip";
+    // Exists while the data directory is being replaced with a snapshot.
+    private static final String RESTORE_MARKER_FILE = "_snapshot_restore_in_progress";
+
+    // See DefaultEncryptionStorageManager.ROCKSDB_PATH.
+    private static final String ROCKSDB_DIR = "_rocks";
+
+    /**
+     * The files and directories in the data directory which belong to the replica itself.
+     * They are neither exported nor replaced by a restored snapshot.
+     */
+    private static final Set<String> LOCAL_FILES = ImmutableSet.of(
+            "_zookeeper", LAST_REVISION_FILE, "replica_id", "server-status.properties");
+
+    /**
+     * The files which are derived from the Git repositories and rebuilt in the background when missing.
+     */
+    private static final Set<String> DERIVED_FILES = ImmutableSet.of("changed_paths.dat");
+
+    /**
+     * Restores the snapshot from the replica at {@link ZooKeeperReplicationConfig#snapshotSourceUri()}
+     * if this replica has no data or cannot catch up by replaying the logs in ZooKeeper. This method must
+     * be called before the projects in the specified {@code dataDir} are opened.
+     */
+    public static void bootstrapIfNecessary(ZooKeeperReplicationConfig cfg, File dataDir) throws Exception {
+        requireNonNull(cfg, "cfg");
+        requireNonNull(dataDir, "dataDir");
+        final boolean interrupted = new File(dataDir, RESTORE_MARKER_FILE).exists();
+        final String sourceUri = cfg.snapshotSourceUri();
+        if (sourceUri == null) {
+            if (interrupted) {
+                throw new ReplicationException("the previous snapshot restore was interrupted, " +
+                                               "but snapshotSourceUri is not specified");
+            }
+            return;
+        }
+        if (interrupted) {
+            logger.warn("The previous snapshot restore was interrupted; restoring a snapshot again.");
+        }
+
+        final long lastRevision = readLastReplayedRevision(new File(dataDir, LAST_REVISION_FILE));
+        final WebClient client = WebClient.builder(sourceUri)
+                                          .auth(AuthToken.ofOAuth2(cfg.secret()))
+                                          .responseTimeoutMillis(0)
+                                          .maxResponseLength(0)
+                                          .build();
+        final long sourceRevision;
+        final long oldestLogRevision;
+        try {
+            final AggregatedHttpResponse infoRes = client.blocking().get(INFO_PATH);
+            if (infoRes.status() != HttpStatus.OK) {
+                throw new ReplicationException("unexpected status: " + infoRes.status());
+            }
+            final JsonNode info = Jackson.readTree(infoRes.contentUtf8());
+            sourceRevision = info.get("revision").asLong();
+            oldestLogRevision = info.get("oldestLogRevision").asLong();
+        } catch (Exception e) {
+            if (interrupted) {
+                // Must not start with the partially restored data.
+                throw new ReplicationException("failed to get the snapshot info from " + sourceUri +
+                                               " to complete the interrupted snapshot restore", e);
+            }
+            // The source replica may not be running yet, e.g. when a new cluster is being started.
+            logger.warn("Failed to get the snapshot info from {}; replaying the logs instead.", sourceUri, e);
+            return;
+        }
+        if (!interrupted && lastRevision >= 0 && lastRevision + 1 >= oldestLogRevision) {
+            logger.info("Skipping the snapshot bootstrap; the logs since revision {} are available.",
+                        lastRevision + 1);
+            return;
+        }
+        if (!interrupted && lastRevision >= sourceRevision) {
+            return;
+        }
+
+        logger.info("Downloading a snapshot from {} (last replayed revision: {}, oldest log revision: {}) ..",
+                    sourceUri, lastRevision, oldestLogRevision);
+        final Path downloadFile = new File(dataDir, DOWNLOAD_FILE).toPath();
+        try {
+            final SplitHttpResponse res = client.get(PATH).split();
+            final ResponseHeaders headers = res.headers().join();
+            if (headers.status() != HttpStatus.OK) {
+                res.body().abort();
+                throw new ReplicationException("failed to download a snapshot from " + sourceUri + ": " +
+                                               headers.status());
+            }
+            res.body().writeTo(Function.identity(), downloadFile,
+                               StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                               StandardOpenOption.WRITE).join();
+
+            final long revision;
+            try (InputStream in = Files.newInputStream(downloadFile)) {
+                revision = restore(in, dataDir);
+            }
+            logger.info("Restored the snapshot at revision {} from {}", revision, sourceUri);
+        } finally {
+            Files.deleteIfExists(downloadFile);
+        }
+    }
+
+    /**
+     * Stages the files in the specified {@code dataDir} into the specified {@code stagingDir}. The Git
+     * objects, which are never modified once written, are hard-linked and the other files are copied.
+     * The caller must make sure that the data directory is not modified while staging, except that
+     * the Git objects may be packed in the background, in which case
+     * a {@link java.nio.file.NoSuchFileException} may be raised.
+     */
+    static void stage(File dataDir, File stagingDir,
+                      EncryptionStorageManager encryptionStorageManager) throws IOException {
+        final Path stagingPath = stagingDir.toPath();
+        Files.createDirectories(stagingPath);
+        for (Path child : list(dataDir.toPath())) {
+            final String name = child.getFileName().toString();
+            if (isLocalFile(name) || ROCKSDB_DIR.equals(name)) {
+                continue;
+            }
+            stage(child, stagingPath.resolve(name), false);
+        }
+        if (encryptionStorageManager.enabled()) {
+            encryptionStorageManager.createCheckpoint(stagingPath.resolve(ROCKSDB_DIR));
+        }
+    }
+
+    private static void stage(Path src, Path dst, boolean immutable) throws IOException {
+        if (!Files.isDirectory(src)) {
+            if (immutable) {
+                Files.createLink(dst, src);
+            } else {
+                Files.copy(src, dst);
+            }
+            return;
+        }
+
+        Files.createDirectories(dst);
+        final boolean objectsDir = "objects".equals(src.getFileName().toString());
+        final List<Path> children = list(src);
+        if (objectsDir) {
+            // Stage the packs after the loose objects, because a loose object is removed only after it is
+            // packed. Otherwise, an object packed while staging would be missing from the snapshot.
+            children.sort(Comparator.comparing(child -> "pack".equals(child.getFileName().toString())));
+        }
+        for (Path child : children) {
+            final String name = child.getFileName().toString();
+            if (DERIVED_FILES.contains(name) || name.endsWith(".lock")) {
+                continue;
+            }
+            stage(child, dst.resolve(name), immutable || objectsDir);
+        }
+    }
+
+    /**
+     * Writes the files in the specified {@code stagingDir} as a snapshot of the specified {@code revision}.
+     */
+    static void write(File stagingDir, long revision, OutputStream out) throws IOException {
+        final Path stagingPath = stagingDir.toPath();
+        final List<Path> files;
+        try (Stream<Path> stream = Files.walk(stagingPath)) {
+            files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            // Most files are compressed already.
+            zip.setLevel(Deflater.BEST_SPEED);
+            for (Path file : files) {
+                final String name = stagingPath.relativize(file).toString().replace(File.separatorChar, '/');
+                zip.putNextEntry(new ZipEntry(name));
+                Files.copy(file, zip);
+                zip.closeEntry();
+            }
+
+            final Properties info = new Properties();
+            info.setProperty("revision", String.valueOf(revision));
+            info.setProperty("files", String.valueOf(files.size()));
+            zip.putNextEntry(new ZipEntry(SNAPSHOT_INFO));
+            info.store(zip, null);
+            zip.closeEntry();
+        }
+    }
+
+    /**
+     * Restores the snapshot read from the specified {@link InputStream} into the specified {@code dataDir},
+     * replacing all files in it except the local state of the replica.
+     *
+     * @return the revision of the restored snapshot
+     */
+    static long restore(InputStream in, File dataDir) throws IOException {
+        final Path restoringPath = new File(dataDir, RESTORING_DIR).toPath();
+        Util.deleteFileTree(restoringPath.toFile());
+        Files.createDirectories(restoringPath);
+
+        Properties info = null;
+        int numFiles = 0;
+        try (ZipInputStream zip = new ZipInputStream(in)) {
+            for (ZipEntry entry; (entry = zip.getNextEntry()) != null;) {
+                if (info != null) {
+                    throw new IOException("unexpected entry after " + SNAPSHOT_INFO + ": " + entry.getName());
+                }
+                if (SNAPSHOT_INFO.equals(entry.getName())) {
+                    info = new Properties();
+                    info.load(zip);
+                    continue;
+                }
+
+                final Path file = restoringPath.resolve(entry.getName()).normalize();
+                if (!file.startsWith(restoringPath) || isLocalFile(restoringPath.relativize(file)
+                                                                                 .getName(0).toString())) {
+                    throw new IOException("invalid entry: " + entry.getName());
+                }
+                Files.createDirectories(file.getParent());
+                // ZipInputStream verifies the CRC-32 checksum when the end of the entry is reached.
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                                                            StandardOpenOption.WRITE)) {
+                    ByteStreams.copy(zip, Channels.newOutputStream(channel));
+                    channel.force(true);
+                }
+                numFiles++;
+            }
+        }
+
+        if (info == null) {
+            throw new IOException("incomplete snapshot: " + SNAPSHOT_INFO + " is missing");
+        }
+        final long revision = Long.parseLong(info.getProperty("revision"));
+        final int expectedNumFiles = Integer.parseInt(info.getProperty("files"));
+        if (numFiles != expectedNumFiles) {
+            throw new IOException("incomplete snapshot: " + numFiles + " files (expected: " +
+                                  expectedNumFiles + ')');
+        }
+
+        // Mark the data directory as being restored and invalidate the last replayed revision before
+        // modifying it, so that a restore interrupted by a crash is detected and repeated on the next startup
+        // rather than replaying the logs on top of the partially replaced data.
+        final Path dataPath = dataDir.toPath();
+        final Path markerFile = dataPath.resolve(RESTORE_MARKER_FILE);
+        try (FileChannel channel = FileChannel.open(markerFile, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.deleteIfExists(dataPath.resolve(LAST_REVISION_FILE));
+        syncDirectory(dataPath);
+
+        // Replace the data directory with the snapshot.
+        for (Path child : list(dataPath)) {
+            final String name = child.getFileName().toString();
+            if (isLocalFile(name) || DOWNLOAD_FILE.equals(name)) {
+                continue;
+            }
+            Util.deleteFileTree(child.toFile());
+        }
+        for (Path child : list(restoringPath)) {
+            Files.move(child, dataPath.resolve(child.getFileName()));
+        }
+        Files.delete(restoringPath);
+
+        final Path tmpRevisionFile = dataPath.resolve(LAST_REVISION_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmpRevisionFile, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                                    StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(String.valueOf(revision).getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        }
+        Files.move(tmpRevisionFile, dataPath.resolve(LAST_REVISION_FILE), StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(dataPath);
+        Files.delete(markerFile);
+        syncDirectory(dataPath);
+        return revision;
+    }
+
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms, e.g. Windows, do not allow opening a directory.
+            logger.debug("Failed to sync the directory: {}", dir, e);
+        }
+    }
+
+    private static boolean isLocalFile(String name) {
+        return LOCAL_FILES.contains(name) || name.startsWith(STAGING_DIR) || RESTORING_DIR.equals(name) ||
+               RESTORE_MARKER_FILE.equals(name) || (LAST_REVISION_FILE + ".tmp").equals(name);
+    }
+
+    private static List<Path> list(Path dir) throws IOException {
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private ReplicaSnapshot() {}
+}
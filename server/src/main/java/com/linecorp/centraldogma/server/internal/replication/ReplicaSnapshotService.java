@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.replication;
+
+import static java.util.Objects.requireNonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.stream.StreamMessage;
+import com.linecorp.armeria.common.util.Exceptions;
+import com.linecorp.armeria.server.HttpStatusException;
+import com.linecorp.armeria.server.ServiceRequestContext;
+import com.linecorp.armeria.server.annotation.Blocking;
+import com.linecorp.armeria.server.annotation.Get;
+import com.linecorp.armeria.server.annotation.ProducesJson;
+import com.linecorp.centraldogma.server.storage.encryption.EncryptionStorageManager;
+
+/**
+ * Serves the snapshots of the data directory to the other replicas. See {@link ReplicaSnapshot}.
+ * This service is bound only to the management port when explicitly enabled, and the requests are
+ * authenticated with the secret shared by the replicas, which is sent as a bearer token.
+ */
+public final class ReplicaSnapshotService {
+
+    private final ZooKeeperCommandExecutor executor;
+    private final byte[] authorization;
+    private final EncryptionStorageManager encryptionStorageManager;
+
+    public ReplicaSnapshotService(ZooKeeperCommandExecutor executor, String secret,
+                                  EncryptionStorageManager encryptionStorageManager) {
+        this.executor = requireNonNull(executor, "executor");
+        authorization = ("Bearer " + requireNonNull(secret, "secret")).getBytes(StandardCharsets.UTF_8);
+        this.encryptionStorageManager = requireNonNull(encryptionStorageManager, "encryptionStorageManager");
+    }
+
+    /**
+     * GET /replication/snapshot/info
+     *
+     * <p>Returns the last replayed revision of this replica and the oldest revision of the logs in ZooKeeper.
+     */
+    @Get(ReplicaSnapshot.INFO_PATH)
+    @Blocking
+    @ProducesJson
+    public Map<String, Long> info(ServiceRequestContext ctx) throws Exception {
+        authorize(ctx);
+        return ImmutableMap.of("revision", executor.lastReplayedRevision(),
+                               "oldestLogRevision", executor.oldestLogRevision());
+    }
+
+    /**
+     * GET /replication/snapshot
+     *
+     * <p>Streams a snapshot of the data directory of this replica.
+     */
+    @Get(ReplicaSnapshot.PATH)
+    public HttpResponse snapshot(ServiceRequestContext ctx) {
+        authorize(ctx);
+        // A snapshot may take long to transfer.
+        ctx.clearRequestTimeout();
+        return HttpResponse.of(
+                ResponseHeaders.of(HttpStatus.OK, HttpHeaderNames.CONTENT_TYPE, MediaType.ZIP),
+                StreamMessage.fromOutputStream(out -> {
+                    try {
+                        executor.exportSnapshot(out, encryptionStorageManager);
+                    } catch (Exception e) {
+                        Exceptions.throwUnsafely(e);
+                    }
+                }, ctx.blockingTaskExecutor()));
+    }
+
+    private void authorize(ServiceRequestContext ctx) {
+        final String value = ctx.request().headers().get(HttpHeaderNames.AUTHORIZATION);
+        if (value == null ||
+            !MessageDigest.isEqual(authorization, value.getBytes(StandardCharsets.UTF_8))) {
+            throw HttpStatusException.of(HttpStatus.UNAUTHORIZED);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import com.google.common.collect.ImmutableList;
 
 import com.linecorp.armeria.common.metric.MoreMeters;
 
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Timer;
@@ -30,6 +31,7 @@ final class ReplicationMetrics {
     private final Timer executorQueueLatencyTimer;
     private final Timer lockAcquireSuccessTimer;
     private final Timer lockAcquireFailureTimer;
+    private final Counter lockReuseCounter;
     private final Timer lockReleaseTimer;
     private final Timer commandExecutionTimer;
     private final Timer logReplayTimer;
@@ -45,6 +47,8 @@ final class ReplicationMetrics {
         lockAcquireFailureTimer = MoreMeters.newTimer(registry, "replication.lock.acquisition",
                                                       ImmutableList.of(Tag.of("project", projectName),
                                                                        Tag.of("acquired", "false")));
+        lockReuseCounter = registry.counter("replication.lock.reuse",
+                                            ImmutableList.of(Tag.of("project", projectName)));
         lockReleaseTimer = MoreMeters.newTimer(registry, "replication.lock.release",
                                                       ImmutableList.of(Tag.of("project", projectName)));
         commandExecutionTimer = MoreMeters.newTimer(registry, "replication.command.execution",
@@ -67,6 +71,10 @@ final class ReplicationMetrics {
         return lockAcquireFailureTimer;
     }
 
+    Counter lockReuseCounter() {
+        return lockReuseCounter;
+    }
+
     Timer lockReleaseTimer() {
         return lockReleaseTimer;
     }
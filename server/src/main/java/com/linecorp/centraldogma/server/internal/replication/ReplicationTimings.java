@@ -18,7 +18,7 @@ package com.linecorp.centraldogma.server.internal.replication;
 
 import javax.annotation.Nullable;
 
-interface ReplicationTimings {
+interface ReplicationTimings extends SharedReplicationTimings {
 
     static ReplicationTimings of(@Nullable ReplicationMetrics metrics) {
         if (metrics == null) {
@@ -31,26 +31,10 @@ interface ReplicationTimings {
 
     void startExecutorExecution();
 
-    void startLockAcquisition(long startNanos);
-
-    void endLockAcquisition(boolean lockAcquired);
-
-    void startLockRelease();
-
-    void endLockRelease();
-
     void startCommandExecution();
 
     void endCommandExecution();
 
-    void startLogReplay();
-
-    void endLogReplay();
-
-    void startLogStore();
-
-    void endLogStore();
-
     void record();
 
     String toText();
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.centraldogma.server.internal.replication;
+
+/**
+ * The phases of {@link ReplicationTimings} which may be shared by a batch of commands, i.e. lock acquisition,
+ * log replay and log store.
+ */
+interface SharedReplicationTimings {
+
+    void startLockAcquisition(long startNanos);
+
+    void endLockAcquisition(boolean lockAcquired);
+
+    void reuseLock();
+
+    void startLockRelease();
+
+    void endLockRelease();
+
+    void startLogReplay();
+
+    void endLogReplay();
+
+    void startLogStore();
+
+    void endLogStore();
+}
@@ -24,26 +24,38 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
@@ -69,6 +81,7 @@ import org.apache.zookeeper.server.quorum.QuorumPeerConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.github.luben.zstd.Zstd;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
@@ -76,13 +89,16 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.escape.Escaper;
 import com.google.common.escape.Escapers;
+import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.Uninterruptibles;
 
+import com.linecorp.armeria.common.CommonPools;
 import com.linecorp.armeria.common.util.SafeCloseable;
 import com.linecorp.centraldogma.common.LockAcquireTimeoutException;
 import com.linecorp.centraldogma.common.Revision;
 import com.linecorp.centraldogma.internal.Jackson;
+import com.linecorp.centraldogma.internal.Util;
 import com.linecorp.centraldogma.server.ZooKeeperReplicationConfig;
 import com.linecorp.centraldogma.server.ZooKeeperServerConfig;
 import com.linecorp.centraldogma.server.command.AbstractCommandExecutor;
@@ -96,6 +112,7 @@ import com.linecorp.centraldogma.server.command.NormalizableCommit;
 import com.linecorp.centraldogma.server.command.RepositoryCommand;
 import com.linecorp.centraldogma.server.command.UpdateServerStatusCommand;
 import com.linecorp.centraldogma.server.internal.command.DefaultExecutionContext;
+import com.linecorp.centraldogma.server.storage.encryption.EncryptionStorageManager;
 
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -112,6 +129,8 @@ public final class ZooKeeperCommandExecutor
 
     private static final String PATH_PREFIX = "/dogma";
     private static final int MAX_BYTES = 1024 * 1023; // Max size in document is 1M. but safety.
+    // The maximum number of revisions whose logs are loaded in memory while replaying them concurrently.
+    private static final int MAX_CONCURRENT_REPLAY_REVISIONS = 1024;
 
     // Log revision should be started at 0 and be increased by 1. Do not create any changes without creating
     // a log node, because otherwise the consistency of the log revision will be broken. Also, we should use
@@ -126,15 +145,30 @@ public final class ZooKeeperCommandExecutor
 
     private static final String LEADER_PATH = "leader";
 
+    static final String LAST_REVISION_FILE = "last_revision";
+
+    // The number of attempts to stage a snapshot, which fails when a file is removed while being staged,
+    // e.g. when the loose objects of a Git repository are packed.
+    private static final int MAX_SNAPSHOT_STAGING_ATTEMPTS = 3;
+
     private static final RetryPolicy RETRY_POLICY_ALWAYS = new RetryForever(500);
     private static final RetryPolicy RETRY_POLICY_NEVER = (retryCount, elapsedTimeMs, sleeper) -> false;
 
     private static final ExecutionContext REPLAY_CONTEXT = new DefaultExecutionContext(true);
 
+    private static final TypeReference<List<ReplicationLog<?>>> REPLICATION_LOGS_TYPE =
+            new TypeReference<List<ReplicationLog<?>>>() {};
+
     private final ConcurrentMap<String, InterProcessMutex> mutexMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PendingCommands> pendingCommandsMap = new ConcurrentHashMap<>();
     private final Map<String, ReplicationMetrics> replicationTimings = new ConcurrentHashMap<>();
 
+    // Acquired in the shared mode while the data directory is being updated, and in the exclusive mode
+    // while a snapshot is staged, so that a snapshot contains exactly the changes up to its revision.
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
     private final ZooKeeperReplicationConfig cfg;
+    private final File dataDir;
     private final File revisionFile;
     private final File zkConfFile;
     private final File zkDataDir;
@@ -147,12 +181,19 @@ public final class ZooKeeperCommandExecutor
 
     // Failing to acquire a lock is a critical problem, so we wait as much as we can.
     private long lockTimeoutNanos = TimeUnit.MINUTES.toNanos(1);
+    // The maximum time for which a worker keeps the lock of an execution path to execute the commands queued
+    // behind it back-to-back, before releasing it so that the other replicas can acquire it.
+    private long lockLeaseNanos = TimeUnit.MILLISECONDS.toNanos(100);
+    private int maxLogBatchSize;
+    private int numReplayWorkers;
 
     private volatile EmbeddedZooKeeper quorumPeer;
     private volatile CuratorFramework curator;
     private volatile RetryPolicy retryPolicy = RETRY_POLICY_NEVER;
     private volatile ExecutorService executor;
     private volatile ExecutorService logWatcherExecutor;
+    @Nullable
+    private volatile ExecutorService logReplayExecutor;
     private volatile PathChildrenCache logWatcher;
     private volatile OldLogRemover oldLogRemover;
     private volatile ExecutorService leaderSelectorExecutor;
@@ -369,6 +410,88 @@ public final class ZooKeeperCommandExecutor
         }
     }
 
+    private static final class RevisionLogs {
+        final long revision;
+        final List<ReplicationLog<?>> logs;
+
+        RevisionLogs(long revision, List<ReplicationLog<?>> logs) {
+            this.revision = revision;
+            this.logs = logs;
+        }
+    }
+
+    /**
+     * Tracks which revisions of a batch have been replayed by the partitions, so that the highest
+     * contiguous replayed revision can be persisted while the other partitions are still replaying.
+     */
+    private static final class ReplayProgress {
+        private final long firstRevision;
+        private final boolean[] replayed;
+        private int numContiguousReplayed;
+        volatile boolean failed;
+
+        ReplayProgress(long firstRevision, long lastRevision) {
+            this.firstRevision = firstRevision;
+            replayed = new boolean[Ints.checkedCast(lastRevision - firstRevision + 1)];
+            // The revisions which have nothing to replay are replayed already.
+            Arrays.fill(replayed, true);
+        }
+
+        void addPending(long revision) {
+            replayed[(int) (revision - firstRevision)] = false;
+        }
+
+        /**
+         * Marks the specified revision as replayed and returns the highest contiguous replayed revision,
+         * or {@code -1} if it has not been advanced.
+         */
+        long replayed(long revision) {
+            replayed[(int) (revision - firstRevision)] = true;
+            final int oldNumContiguousReplayed = numContiguousReplayed;
+            while (numContiguousReplayed < replayed.length && replayed[numContiguousReplayed]) {
+                numContiguousReplayed++;
+            }
+            if (numContiguousReplayed == oldNumContiguousReplayed) {
+                return -1;
+            }
+            return firstRevision + numContiguousReplayed - 1;
+        }
+    }
+
+    private static final class PendingCommands {
+        final Queue<PendingCommand<?>> queue = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        // The lock of the execution path kept by the draining worker across the batches, which is always
+        // released before the worker stops draining. Accessed only by the draining worker.
+        @Nullable
+        InterProcessMutex lock;
+        long lockLeaseDeadlineNanos;
+    }
+
+    private static final class PendingCommand<T> {
+        final ExecutionContext ctx;
+        final Command<T> command;
+        final ReplicationTimings timings;
+        final CompletableFuture<T> future;
+        @Nullable
+        ScheduledFuture<?> lockTimeoutFuture;
+        @Nullable
+        T result;
+
+        PendingCommand(ExecutionContext ctx, Command<T> command, ReplicationTimings timings,
+                       CompletableFuture<T> future) {
+            this.ctx = ctx;
+            this.command = command;
+            this.timings = timings;
+            this.future = future;
+        }
+
+        void complete() {
+            future.complete(result);
+        }
+    }
+
     private volatile ListenerInfo listenerInfo;
 
     public ZooKeeperCommandExecutor(ZooKeeperReplicationConfig cfg,
@@ -382,8 +505,10 @@ public final class ZooKeeperCommandExecutor
         super(onTakeLeadership, onReleaseLeadership, onTakeZoneLeadership, onReleaseZoneLeadership);
 
         this.cfg = requireNonNull(cfg, "cfg");
-        requireNonNull(dataDir, "dataDir");
-        revisionFile = new File(dataDir.getAbsolutePath() + File.separatorChar + "last_revision");
+        maxLogBatchSize = cfg.maxLogBatchSize();
+        numReplayWorkers = cfg.numReplayWorkers();
+        this.dataDir = requireNonNull(dataDir, "dataDir");
+        revisionFile = new File(dataDir, LAST_REVISION_FILE);
         zkConfFile = new File(dataDir.getAbsolutePath() + File.separatorChar +
                               "_zookeeper" + File.separatorChar + "config.properties");
         zkDataDir = new File(dataDir.getAbsolutePath() + File.separatorChar +
@@ -470,6 +595,15 @@ public final class ZooKeeperCommandExecutor
                             new DefaultThreadFactory("zookeeper-log-watcher", true)),
                     "zkLogWatcher");
 
+            if (numReplayWorkers > 1) {
+                logReplayExecutor = ExecutorServiceMetrics.monitor(
+                        meterRegistry,
+                        Executors.newFixedThreadPool(
+                                numReplayWorkers,
+                                new DefaultThreadFactory("zookeeper-log-replayer", true)),
+                        "zkLogReplayer");
+            }
+
             logWatcher = new PathChildrenCache(curator, absolutePath(LOG_PATH),
                                                true, false, logWatcherExecutor);
             logWatcher.getListenable().addListener(this, MoreExecutors.directExecutor());
@@ -729,6 +863,7 @@ public final class ZooKeeperCommandExecutor
                             logger.info("Closing the log watcher");
                             logWatcher.close();
                             interrupted |= shutdown(logWatcherExecutor);
+                            interrupted |= shutdown(logReplayExecutor);
                             logger.info("Closed the log watcher");
                         }
                     } catch (Exception e) {
@@ -783,6 +918,10 @@ public final class ZooKeeperCommandExecutor
     }
 
     private long getLastReplayedRevision() throws Exception {
+        return readLastReplayedRevision(revisionFile);
+    }
+
+    static long readLastReplayedRevision(File revisionFile) throws IOException {
         final FileInputStream fis;
         try {
             fis = new FileInputStream(revisionFile);
@@ -823,66 +962,233 @@ public final class ZooKeeperCommandExecutor
             return;
         }
 
+        final ExecutorService logReplayExecutor = this.logReplayExecutor;
+        if (logReplayExecutor != null) {
+            replayLogsConcurrently(info, targetRevision, logReplayExecutor);
+            return;
+        }
+
         long nextRevision = info.lastReplayedRevision + 1;
         for (;;) {
             if (!canReplicate) {
                 break;
             }
-            ReplicationLog<?> l = null;
-            try {
-                final Optional<ReplicationLog<?>> log = loadLog(nextRevision, true);
-                Command<?> command = null;
-                if (log.isPresent()) {
-                    l = log.get();
-                    command = l.command();
-                    final Object expectedResult = l.result();
-                    final Object actualResult = delegate.execute(REPLAY_CONTEXT, command).get();
-
-                    if (!Objects.equals(expectedResult, actualResult)) {
-                        throw new ReplicationException(
-                                "mismatching replay result at revision " + nextRevision +
-                                ": " + actualResult + " (expected: " + expectedResult +
-                                ", command: " + command + ')');
-                    }
-                } else {
-                    // same replicaId. skip
+            // A batch of logs is replayed in the order it was executed, and its revision is marked as
+            // replayed only after all the logs in the batch are replayed.
+            // An empty list means the log was written by this replica. skip
+            final List<ReplicationLog<?>> logs = loadLogsForReplay(nextRevision);
+            for (ReplicationLog<?> log : logs) {
+                replayLog(nextRevision, log);
+            }
+            markReplayed(info, nextRevision, logs);
+            if (nextRevision == targetRevision) {
+                break;
+            } else {
+                nextRevision++;
+            }
+        }
+    }
+
+    /**
+     * Replays the logs up to the specified {@code targetRevision} using the specified {@link ExecutorService}.
+     * The logs of the repository commands are partitioned by their execution paths, so that the logs of
+     * different repositories are replayed concurrently while the logs of the same repository are replayed in
+     * order. Any other log, such as the log of a project or root command, acts as a barrier which is
+     * replayed only after all the logs before it are replayed. The last replayed revision is advanced and
+     * persisted as soon as all the logs up to the revision are replayed, and the other partitions stop
+     * replaying when a partition fails.
+     */
+    private void replayLogsConcurrently(ListenerInfo info, long targetRevision, ExecutorService executor) {
+        long nextRevision = info.lastReplayedRevision + 1;
+        while (nextRevision <= targetRevision) {
+            if (!canReplicate) {
+                break;
+            }
+
+            // Load the logs up to the next barrier.
+            final Map<String, List<RevisionLogs>> partitions = new LinkedHashMap<>();
+            final long firstRevision = nextRevision;
+            long lastRevision = nextRevision - 1;
+            RevisionLogs barrier = null;
+            while (nextRevision <= targetRevision &&
+                   nextRevision - info.lastReplayedRevision <= MAX_CONCURRENT_REPLAY_REVISIONS) {
+                final long revision = nextRevision++;
+                final List<ReplicationLog<?>> logs = loadLogsForReplay(revision);
+                final String executionPath = repositoryExecutionPath(logs);
+                if (executionPath == null) {
+                    barrier = new RevisionLogs(revision, logs);
+                    break;
                 }
+                if (!logs.isEmpty()) {
+                    partitions.computeIfAbsent(executionPath, unused -> new ArrayList<>())
+                              .add(new RevisionLogs(revision, logs));
+                }
+                lastRevision = revision;
+            }
 
-                updateLastReplayedRevision(nextRevision);
-                info.lastReplayedRevision = nextRevision;
-                if (command instanceof UpdateServerStatusCommand) {
-                    updateZkCommandStatusLater((UpdateServerStatusCommand) command);
+            if (!partitions.isEmpty()) {
+                final ReplayProgress progress = new ReplayProgress(firstRevision, lastRevision);
+                partitions.values().forEach(partition -> partition.forEach(
+                        revisionLogs -> progress.addPending(revisionLogs.revision)));
+                final List<CompletableFuture<Boolean>> futures = new ArrayList<>(partitions.size());
+                for (List<RevisionLogs> partition : partitions.values()) {
+                    try {
+                        futures.add(CompletableFuture.supplyAsync(
+                                () -> replayPartition(info, partition, progress), executor));
+                    } catch (RejectedExecutionException e) {
+                        // Stopped while replaying.
+                        progress.failed = true;
+                        futures.add(CompletableFuture.completedFuture(false));
+                        break;
+                    }
+                }
+                boolean replayed = true;
+                Throwable cause = null;
+                for (CompletableFuture<Boolean> future : futures) {
+                    try {
+                        replayed &= future.join();
+                    } catch (CompletionException e) {
+                        if (cause == null) {
+                            cause = e.getCause();
+                        }
+                    }
+                }
+                if (cause != null) {
+                    if (cause instanceof ReplicationException) {
+                        // Logged and handled by replayLog() already.
+                        throw (ReplicationException) cause;
+                    }
+                    throw replayFailed(lastRevision, null, cause);
                 }
-                if (nextRevision == targetRevision) {
+                if (!replayed) {
+                    // Stopped while replaying.
                     break;
-                } else {
-                    nextRevision++;
                 }
-            } catch (Throwable t) {
-                if (l != null) {
-                    logger.error(
-                            "Failed to replay a log at revision {}; entering read-only mode. replay log: {}",
-                            nextRevision, l, t);
-                } else {
-                    logger.error("Failed to replay a log at revision {}; entering read-only mode.",
-                                 nextRevision, t);
+            }
+
+            if (lastRevision > info.lastReplayedRevision) {
+                markReplayed(info, lastRevision, ImmutableList.of());
+            }
+
+            if (barrier != null) {
+                if (!canReplicate) {
+                    break;
                 }
+                for (ReplicationLog<?> log : barrier.logs) {
+                    replayLog(barrier.revision, log);
+                }
+                markReplayed(info, barrier.revision, barrier.logs);
+            }
+        }
+    }
 
-                stopLater();
+    /**
+     * Returns the execution path of the specified logs if all of them are the logs of the repository commands
+     * for the same repository. An empty string is returned if the logs are empty. {@code null} is returned
+     * otherwise, i.e. the logs must be replayed as a barrier.
+     */
+    @Nullable
+    private static String repositoryExecutionPath(List<ReplicationLog<?>> logs) {
+        String executionPath = "";
+        for (ReplicationLog<?> log : logs) {
+            final Command<?> command = log.command();
+            if (!(command instanceof RepositoryCommand)) {
+                return null;
+            }
+            if (executionPath.isEmpty()) {
+                executionPath = command.executionPath();
+            } else if (!executionPath.equals(command.executionPath())) {
+                return null;
+            }
+        }
+        return executionPath;
+    }
 
-                if (t instanceof ReplicationException) {
-                    throw (ReplicationException) t;
+    private boolean replayPartition(ListenerInfo info, List<RevisionLogs> partition, ReplayProgress progress) {
+        try {
+            for (RevisionLogs revisionLogs : partition) {
+                if (!canReplicate || progress.failed) {
+                    return false;
                 }
-                final StringBuilder sb = new StringBuilder();
-                sb.append("failed to replay a log at revision " + nextRevision);
-                if (l != null) {
-                    sb.append(". replay log: ").append(l);
+                for (ReplicationLog<?> log : revisionLogs.logs) {
+                    replayLog(revisionLogs.revision, log);
+                }
+                // Persist the progress while holding the lock so that it never goes backwards.
+                synchronized (progress) {
+                    final long replayedRevision = progress.replayed(revisionLogs.revision);
+                    if (replayedRevision > info.lastReplayedRevision) {
+                        markReplayed(info, replayedRevision, ImmutableList.of());
+                    }
                 }
-                throw new ReplicationException(sb.toString(), t);
             }
+            return true;
+        } catch (Throwable t) {
+            // Stop the other partitions from replaying the logs which will never be marked as replayed.
+            progress.failed = true;
+            throw t;
         }
     }
 
+    private List<ReplicationLog<?>> loadLogsForReplay(long revision) {
+        try {
+            return loadLogs(revision, true);
+        } catch (Throwable t) {
+            throw replayFailed(revision, null, t);
+        }
+    }
+
+    private void replayLog(long revision, ReplicationLog<?> log) {
+        try {
+            final Command<?> command = log.command();
+            final Object expectedResult = log.result();
+            final Object actualResult = delegate.execute(REPLAY_CONTEXT, command).get();
+
+            if (!Objects.equals(expectedResult, actualResult)) {
+                throw new ReplicationException(
+                        "mismatching replay result at revision " + revision +
+                        ": " + actualResult + " (expected: " + expectedResult +
+                        ", command: " + command + ')');
+            }
+        } catch (Throwable t) {
+            throw replayFailed(revision, log, t);
+        }
+    }
+
+    private void markReplayed(ListenerInfo info, long revision, List<ReplicationLog<?>> logs) {
+        try {
+            updateLastReplayedRevision(revision);
+        } catch (Throwable t) {
+            throw replayFailed(revision, null, t);
+        }
+        info.lastReplayedRevision = revision;
+        for (ReplicationLog<?> log : logs) {
+            if (log.command() instanceof UpdateServerStatusCommand) {
+                updateZkCommandStatusLater((UpdateServerStatusCommand) log.command());
+            }
+        }
+    }
+
+    private ReplicationException replayFailed(long revision, @Nullable ReplicationLog<?> log, Throwable t) {
+        if (log != null) {
+            logger.error("Failed to replay a log at revision {}; entering read-only mode. replay log: {}",
+                         revision, log, t);
+        } else {
+            logger.error("Failed to replay a log at revision {}; entering read-only mode.", revision, t);
+        }
+
+        stopLater();
+
+        if (t instanceof ReplicationException) {
+            return (ReplicationException) t;
+        }
+        final StringBuilder sb = new StringBuilder();
+        sb.append("failed to replay a log at revision " + revision);
+        if (log != null) {
+            sb.append(". replay log: ").append(log);
+        }
+        return new ReplicationException(sb.toString(), t);
+    }
+
     private void updateZkCommandStatusLater(UpdateServerStatusCommand command) {
         canReplicate = command.serverStatus().replicating();
         // Use a separate executor since executorStatusManager.updateStatus() may stop the executor that calls
@@ -903,17 +1209,26 @@ public final class ZooKeeperCommandExecutor
         }
 
         final long lastKnownRevision = revisionFromPath(event.getData().getPath());
+        final Lock lock = snapshotLock.readLock();
+        lock.lock();
         try {
             replayLogs(lastKnownRevision);
         } catch (ReplicationException ignored) {
             // replayLogs() logs and handles the exception already, so we just bail out here.
             return;
+        } finally {
+            lock.unlock();
         }
 
         oldLogRemover.touch();
     }
 
-    private SafeCloseable safeLock(Command<?> command, ReplicationTimings timings) {
+    private SafeCloseable safeLock(Command<?> command, SharedReplicationTimings timings) {
+        final InterProcessMutex mtx = acquireLock(command, timings);
+        return () -> safeRelease(mtx, timings);
+    }
+
+    private InterProcessMutex acquireLock(Command<?> command, SharedReplicationTimings timings) {
         final long startTime = System.nanoTime();
         timings.startLockAcquisition(startTime);
         final long lockTimeoutNanos = this.lockTimeoutNanos;
@@ -969,10 +1284,10 @@ public final class ZooKeeperCommandExecutor
             }
         }
 
-        return () -> safeRelease(mtx, timings);
+        return mtx;
     }
 
-    private static void safeRelease(InterProcessMutex mtx, ReplicationTimings timings) {
+    private static void safeRelease(InterProcessMutex mtx, SharedReplicationTimings timings) {
         try {
             timings.startLockRelease();
             mtx.release();
@@ -1008,13 +1323,26 @@ public final class ZooKeeperCommandExecutor
         return path(PATH_PREFIX, path(pathElements));
     }
 
+    private long storeLogs(List<ReplicationLog<?>> logs) {
+        assert !logs.isEmpty();
+        if (logs.size() == 1) {
+            // Use the format which the replicas without batch support can read as well.
+            return storeLog(logs.get(0).replicaId(), logs.get(0), null);
+        }
+        return storeLog(logs.get(0).replicaId(), logs, LogMeta.VERSION_BATCH);
+    }
+
     private long storeLog(ReplicationLog<?> log) {
+        return storeLog(log.replicaId(), log, null);
+    }
+
+    private long storeLog(int replicaId, Object log, @Nullable Integer version) {
         try {
             byte[] bytes = Jackson.writeValueAsBytes(log);
             assert bytes.length > 0;
             bytes = Zstd.compress(bytes);
 
-            final LogMeta logMeta = new LogMeta(log.replicaId(), System.currentTimeMillis(), bytes.length,
+            final LogMeta logMeta = new LogMeta(version, replicaId, System.currentTimeMillis(), bytes.length,
                                                 true, null);
 
             final int count = (bytes.length + MAX_BYTES - 1) / MAX_BYTES;
@@ -1043,6 +1371,24 @@ public final class ZooKeeperCommandExecutor
 
     @VisibleForTesting
     Optional<ReplicationLog<?>> loadLog(long revision, boolean skipIfSameReplica) {
+        final List<ReplicationLog<?>> logs = loadLogs(revision, skipIfSameReplica);
+        if (logs.isEmpty()) {
+            return Optional.empty();
+        }
+        if (logs.size() != 1) {
+            throw new IllegalStateException(
+                    "expected a single log but found a batch of " + logs.size() + " logs at revision " +
+                    revision);
+        }
+        return Optional.of(logs.get(0));
+    }
+
+    /**
+     * Loads the logs stored at the specified revision. Returns an empty list if the logs were stored by
+     * this replica and {@code skipIfSameReplica} is {@code true}.
+     */
+    @VisibleForTesting
+    List<ReplicationLog<?>> loadLogs(long revision, boolean skipIfSameReplica) {
         try {
             createParentNodes();
 
@@ -1051,7 +1397,7 @@ public final class ZooKeeperCommandExecutor
             final LogMeta logMeta = Jackson.readValue(curator.getData().forPath(logPath), LogMeta.class);
 
             if (skipIfSameReplica && replicaId() == logMeta.replicaId()) {
-                return Optional.empty();
+                return ImmutableList.of();
             }
 
             byte[] bytes = new byte[logMeta.size()];
@@ -1068,8 +1414,10 @@ public final class ZooKeeperCommandExecutor
             if (Boolean.TRUE.equals(compressed)) {
                 bytes = Zstd.decompress(bytes);
             }
-            final ReplicationLog<?> log = Jackson.readValue(bytes, ReplicationLog.class);
-            return Optional.of(log);
+            if (logMeta.isBatch()) {
+                return Jackson.readValue(bytes, REPLICATION_LOGS_TYPE);
+            }
+            return ImmutableList.of(Jackson.readValue(bytes, ReplicationLog.class));
         } catch (Exception e) {
             logger.error("Failed to load a log at revision {}; entering read-only mode", revision, e);
             stopLater();
@@ -1112,6 +1460,10 @@ public final class ZooKeeperCommandExecutor
         }
         final ReplicationTimings timings = newReplicationTimings(command);
         timings.startExecutorSubmit();
+        if (command.type() != CommandType.UPDATE_SERVER_STATUS) {
+            enqueue(new PendingCommand<>(ctx, command, timings, future), executor);
+            return future;
+        }
         executor.execute(() -> {
             try {
                 timings.startExecutorExecution();
@@ -1132,7 +1484,8 @@ public final class ZooKeeperCommandExecutor
             throws Exception {
         createParentNodes();
 
-        try (SafeCloseable ignored = safeLock(command, timings)) {
+        try (SafeCloseable ignored = safeLock(command, timings);
+             SafeCloseable ignored2 = lockSnapshotShared()) {
 
             // NB: We are sure no other replicas will append the conflicting logs (the commands with the
             //     same execution path) while we hold the lock for the command's execution path.
@@ -1140,17 +1493,7 @@ public final class ZooKeeperCommandExecutor
             //     Other replicas may still append the logs with different execution paths, because, by design,
             //     two commands never conflict with each other if they have different execution paths.
 
-            timings.startLogReplay();
-            try {
-                final List<String> recentRevisions = curator.getChildren().forPath(absolutePath(LOG_PATH));
-                if (!recentRevisions.isEmpty()) {
-                    final long lastRevision = recentRevisions.stream().mapToLong(Long::parseLong).max()
-                                                             .getAsLong();
-                    replayLogs(lastRevision);
-                }
-            } finally {
-                timings.endLogReplay();
-            }
+            replayRecentLogs(timings);
 
             timings.startCommandExecution();
             final T result;
@@ -1164,17 +1507,7 @@ public final class ZooKeeperCommandExecutor
             final long revision;
             final ReplicationLog<?> log;
             try {
-                final Command<?> maybeUnwrapped = unwrapForcePush(command);
-                if (maybeUnwrapped instanceof NormalizableCommit) {
-                    final NormalizableCommit normalizingPushCommand = (NormalizableCommit) maybeUnwrapped;
-                    assert result instanceof CommitResult : result;
-                    final CommitResult commitResult = (CommitResult) result;
-                    final Command<Revision> pushAsIsCommand = normalizingPushCommand.asIs(commitResult);
-                    log = new ReplicationLog<>(replicaId(),
-                                               maybeWrap(command, pushAsIsCommand), commitResult.revision());
-                } else {
-                    log = new ReplicationLog<>(replicaId(), command, result);
-                }
+                log = newReplicationLog(command, result);
 
                 // Store the command execution log to ZooKeeper.
                 revision = storeLog(log);
@@ -1194,6 +1527,217 @@ public final class ZooKeeperCommandExecutor
         }
     }
 
+    private void replayRecentLogs(SharedReplicationTimings timings) throws Exception {
+        timings.startLogReplay();
+        try {
+            final List<String> recentRevisions = curator.getChildren().forPath(absolutePath(LOG_PATH));
+            if (!recentRevisions.isEmpty()) {
+                final long lastRevision = recentRevisions.stream().mapToLong(Long::parseLong).max()
+                                                         .getAsLong();
+                replayLogs(lastRevision);
+            }
+        } finally {
+            timings.endLogReplay();
+        }
+    }
+
+    private <T> ReplicationLog<?> newReplicationLog(Command<T> command, @Nullable T result) {
+        final Command<?> maybeUnwrapped = unwrapForcePush(command);
+        if (maybeUnwrapped instanceof NormalizableCommit) {
+            final NormalizableCommit normalizingPushCommand = (NormalizableCommit) maybeUnwrapped;
+            assert result instanceof CommitResult : result;
+            final CommitResult commitResult = (CommitResult) result;
+            final Command<Revision> pushAsIsCommand = normalizingPushCommand.asIs(commitResult);
+            return new ReplicationLog<>(replicaId(),
+                                        maybeWrap(command, pushAsIsCommand), commitResult.revision());
+        }
+        return new ReplicationLog<>(replicaId(), command, result);
+    }
+
+    /**
+     * Adds the specified {@link PendingCommand} to the queue of its execution path, and starts draining
+     * the queue unless another worker is draining it already. Only the draining worker acquires the lock of
+     * the execution path, so that the commands of this replica do not contend with each other in ZooKeeper.
+     * The commands queued while a batch is being executed form the next batch, which is executed without
+     * releasing the lock as long as the lease of the lock has not expired. When {@code maxLogBatchSize} is
+     * greater than {@code 1}, a batch may also contain more than one command, in which case the commands
+     * in a batch are stored as a single log item.
+     */
+    private void enqueue(PendingCommand<?> pendingCommand, ExecutorService executor) {
+        final PendingCommands pendingCommands = pendingCommandsMap.computeIfAbsent(
+                pendingCommand.command.executionPath(), unused -> new PendingCommands());
+        final long startNanos = System.nanoTime();
+        final ScheduledFuture<?> lockTimeoutFuture = CommonPools.workerGroup().schedule(
+                () -> timeOutIfQueued(pendingCommands, pendingCommand, startNanos),
+                lockTimeoutNanos, TimeUnit.NANOSECONDS);
+        pendingCommand.lockTimeoutFuture = lockTimeoutFuture;
+        pendingCommands.queue.add(pendingCommand);
+        if (!pendingCommands.draining.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> drain(pendingCommands));
+        } catch (Throwable t) {
+            pendingCommands.draining.set(false);
+            pendingCommands.queue.remove(pendingCommand);
+            lockTimeoutFuture.cancel(false);
+            throw t;
+        }
+    }
+
+    /**
+     * Fails the specified {@link PendingCommand} if it is still waiting in the queue for the lock,
+     * just like {@link #acquireLock(Command, SharedReplicationTimings)} does when it fails to acquire the lock
+     * in time.
+     */
+    private static void timeOutIfQueued(PendingCommands pendingCommands, PendingCommand<?> pendingCommand,
+                                        long startNanos) {
+        if (!pendingCommands.queue.remove(pendingCommand)) {
+            // Taken by the draining worker already.
+            return;
+        }
+
+        final String executionPath = pendingCommand.command.executionPath();
+        logger.warn("Failed to acquire a lock for {} in time (command: {})",
+                    executionPath, pendingCommand.command);
+        final ReplicationTimings timings = pendingCommand.timings;
+        timings.startExecutorExecution();
+        timings.startLockAcquisition(startNanos);
+        timings.endLockAcquisition(false);
+        timings.record();
+        pendingCommand.future.completeExceptionally(new LockAcquireTimeoutException(
+                "failed to acquire a lock for " + executionPath + " in time"));
+    }
+
+    private void drain(PendingCommands pendingCommands) {
+        final int maxLogBatchSize = this.maxLogBatchSize;
+        for (;;) {
+            final List<PendingCommand<?>> batch = new ArrayList<>();
+            for (PendingCommand<?> pendingCommand;
+                 batch.size() < maxLogBatchSize && (pendingCommand = pendingCommands.queue.poll()) != null;) {
+                assert pendingCommand.lockTimeoutFuture != null;
+                pendingCommand.lockTimeoutFuture.cancel(false);
+                pendingCommand.timings.startExecutorExecution();
+                batch.add(pendingCommand);
+            }
+
+            if (batch.isEmpty()) {
+                final InterProcessMutex lock = pendingCommands.lock;
+                if (lock != null) {
+                    // The queued commands timed out while the lock was kept for them. The lock must be
+                    // released by this worker because it is owned by the thread which acquired it.
+                    pendingCommands.lock = null;
+                    safeRelease(lock, NoopReplicationTimings.INSTANCE);
+                }
+                pendingCommands.draining.set(false);
+                // Check again in case a command was added before the flag is cleared.
+                if (pendingCommands.queue.isEmpty() || !pendingCommands.draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+
+            executeBatch(pendingCommands, batch);
+        }
+    }
+
+    private void executeBatch(PendingCommands pendingCommands, List<PendingCommand<?>> batch) {
+        final SharedReplicationTimings timings = new BatchReplicationTimings(
+                batch.stream().map(pendingCommand -> pendingCommand.timings).collect(toImmutableList()));
+        final List<PendingCommand<?>> executed = new ArrayList<>(batch.size());
+        Throwable cause = null;
+        try {
+            blockingExecuteBatch(pendingCommands, batch, executed, timings);
+        } catch (Throwable t) {
+            cause = t;
+        }
+
+        try {
+            final InterProcessMutex lock = pendingCommands.lock;
+            if (lock != null &&
+                (cause != null || pendingCommands.queue.isEmpty() ||
+                 System.nanoTime() - pendingCommands.lockLeaseDeadlineNanos >= 0)) {
+                pendingCommands.lock = null;
+                safeRelease(lock, timings);
+            }
+
+            if (cause == null) {
+                executed.forEach(PendingCommand::complete);
+            } else {
+                // Fail the commands executed already as well, because their log has not been stored.
+                for (PendingCommand<?> pendingCommand : batch) {
+                    pendingCommand.future.completeExceptionally(cause);
+                }
+            }
+        } finally {
+            for (PendingCommand<?> pendingCommand : batch) {
+                final ReplicationTimings commandTimings = pendingCommand.timings;
+                commandTimings.record();
+                if (logger.isDebugEnabled() && commandTimings != NoopReplicationTimings.INSTANCE) {
+                    logger.debug("Elapsed times for {}: {}", pendingCommand.command, commandTimings.toText());
+                }
+            }
+        }
+    }
+
+    private void blockingExecuteBatch(PendingCommands pendingCommands, List<PendingCommand<?>> batch,
+                                      List<PendingCommand<?>> executed,
+                                      SharedReplicationTimings timings) throws Exception {
+        createParentNodes();
+
+        if (pendingCommands.lock == null) {
+            pendingCommands.lock = acquireLock(batch.get(0).command, timings);
+            pendingCommands.lockLeaseDeadlineNanos = System.nanoTime() + lockLeaseNanos;
+        } else {
+            // Still holding the lock acquired for the previous batch.
+            timings.reuseLock();
+        }
+
+        try (SafeCloseable ignored = lockSnapshotShared()) {
+            // See blockingExecute() for why it is safe to execute the commands with the same execution path
+            // while holding the lock.
+            replayRecentLogs(timings);
+
+            final List<ReplicationLog<?>> logs = new ArrayList<>(batch.size());
+            for (PendingCommand<?> pendingCommand : batch) {
+                try {
+                    logs.add(execute(pendingCommand));
+                    executed.add(pendingCommand);
+                } catch (Throwable t) {
+                    // Do not log a failed command, just like blockingExecute() does.
+                    pendingCommand.future.completeExceptionally(t);
+                }
+            }
+            if (logs.isEmpty()) {
+                return;
+            }
+
+            timings.startLogStore();
+            final long revision;
+            try {
+                // Store the command execution logs to ZooKeeper as a single log item.
+                revision = storeLogs(logs);
+            } finally {
+                timings.endLogStore();
+            }
+            logger.debug("logging OK. revision = {}, logs = {}", revision, logs);
+        }
+    }
+
+    private <T> ReplicationLog<?> execute(PendingCommand<T> pendingCommand) throws Exception {
+        final ReplicationTimings timings = pendingCommand.timings;
+        timings.startCommandExecution();
+        final T result;
+        try {
+            result = delegate.execute(pendingCommand.ctx, pendingCommand.command).get();
+        } finally {
+            timings.endCommandExecution();
+        }
+        pendingCommand.result = result;
+        return newReplicationLog(pendingCommand.command, result);
+    }
+
     private static Command<?> unwrapForcePush(Command<?> command) {
         if (command.type() == CommandType.FORCE_PUSH) {
             return ((ForcePushCommand<?>) command).delegate();
@@ -1208,6 +1752,95 @@ public final class ZooKeeperCommandExecutor
         return pushAsIsCommand;
     }
 
+    /**
+     * Returns the {@link Lock} which must be held while the files in the data directory are modified
+     * by anything other than a command, e.g. while the references of a repository are packed, so that
+     * {@link #exportSnapshot(OutputStream, EncryptionStorageManager)} never stages the files being modified.
+     * The {@link Lock} is shared with the commands, so it blocks only the snapshot.
+     */
+    public Lock snapshotSharedLock() {
+        return snapshotLock.readLock();
+    }
+
+    private SafeCloseable lockSnapshotShared() {
+        final Lock lock = snapshotLock.readLock();
+        lock.lock();
+        return lock::unlock;
+    }
+
+    /**
+     * Returns the last revision of the logs replayed by this replica.
+     */
+    public long lastReplayedRevision() {
+        final ListenerInfo info = listenerInfo;
+        if (info == null) {
+            throw new IllegalStateException("not started");
+        }
+        return info.lastReplayedRevision;
+    }
+
+    /**
+     * Returns the oldest revision of the logs which are not removed from ZooKeeper yet. A replica whose last
+     * replayed revision is older than the revision before it cannot catch up by replaying the logs.
+     */
+    public long oldestLogRevision() throws Exception {
+        final List<String> revisions = curator.getChildren().forPath(absolutePath(LOG_PATH));
+        if (revisions.isEmpty()) {
+            return lastReplayedRevision() + 1;
+        }
+        return revisions.stream().mapToLong(Long::parseLong).min().getAsLong();
+    }
+
+    /**
+     * Writes a snapshot of the data directory to the specified {@link OutputStream}. All logs stored in
+     * ZooKeeper so far are replayed and no command is executed while the snapshot is staged, so that
+     * the snapshot contains exactly the changes up to its revision. The references of the repositories are
+     * not packed while the snapshot is staged either. See {@link #snapshotSharedLock()}. The staged files
+     * are mostly hard links, so the commands are blocked only briefly.
+     *
+     * @return the revision of the snapshot
+     */
+    public long exportSnapshot(OutputStream out,
+                               EncryptionStorageManager encryptionStorageManager) throws Exception {
+        requireNonNull(out, "out");
+        requireNonNull(encryptionStorageManager, "encryptionStorageManager");
+        final File stagingDir = new File(dataDir, ReplicaSnapshot.STAGING_DIR + '.' + System.nanoTime());
+        try {
+            final long revision;
+            final Lock lock = snapshotLock.writeLock();
+            lock.lock();
+            try {
+                if (!isStarted()) {
+                    throw new IllegalStateException("not started");
+                }
+                createParentNodes();
+                replayRecentLogs(NoopReplicationTimings.INSTANCE);
+                revision = lastReplayedRevision();
+                for (int i = 1; ; i++) {
+                    try {
+                        ReplicaSnapshot.stage(dataDir, stagingDir, encryptionStorageManager);
+                        break;
+                    } catch (NoSuchFileException e) {
+                        if (i == MAX_SNAPSHOT_STAGING_ATTEMPTS) {
+                            throw e;
+                        }
+                        logger.debug("A file was removed while staging a snapshot; retrying: {}", e.getFile());
+                        Util.deleteFileTree(stagingDir);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            logger.info("Exporting a snapshot at revision {} ..", revision);
+            ReplicaSnapshot.write(stagingDir, revision, out);
+            logger.info("Exported a snapshot at revision {}", revision);
+            return revision;
+        } finally {
+            Util.deleteFileTree(stagingDir);
+        }
+    }
+
     private void createParentNodes() throws Exception {
         if (createdParentNodes) {
             return;
@@ -1234,4 +1867,19 @@ public final class ZooKeeperCommandExecutor
     public void setLockTimeoutMillis(long lockTimeoutMillis) {
         lockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(lockTimeoutMillis);
     }
+
+    @VisibleForTesting
+    void setLockLeaseMillis(long lockLeaseMillis) {
+        lockLeaseNanos = TimeUnit.MILLISECONDS.toNanos(lockLeaseMillis);
+    }
+
+    @VisibleForTesting
+    void setMaxLogBatchSize(int maxLogBatchSize) {
+        this.maxLogBatchSize = maxLogBatchSize;
+    }
+
+    @VisibleForTesting
+    void setNumReplayWorkers(int numReplayWorkers) {
+        this.numReplayWorkers = numReplayWorkers;
+    }
 }
@@ -27,10 +27,14 @@ import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
@@ -46,6 +50,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableMap;
 
+import com.linecorp.armeria.common.util.Exceptions;
 import com.linecorp.centraldogma.common.Author;
 import com.linecorp.centraldogma.common.CentralDogmaException;
 import com.linecorp.centraldogma.internal.Util;
@@ -109,13 +114,25 @@ public abstract class DirectoryBasedStorageManager<T> implements StorageManager<
      * Initializes this {@link StorageManager} by loading all children.
      */
     protected final void init() {
+        init(null);
+    }
+
+    /**
+     * Initializes this {@link StorageManager} by loading all children using the specified {@link Executor}.
+     * The children are loaded sequentially in the calling thread if the {@link Executor} is {@code null}.
+     */
+    protected final void init(@Nullable Executor loader) {
         checkState(!initialized, "initialized already");
         Throwable cause = null;
         try {
             final File[] childFiles = rootDir.listFiles();
             if (childFiles != null) {
-                for (File f : childFiles) {
-                    loadChild(f);
+                if (loader == null) {
+                    for (File f : childFiles) {
+                        loadChild(f);
+                    }
+                } else {
+                    loadChildren(childFiles, loader);
                 }
             }
             initialized = true;
@@ -135,6 +152,28 @@ public abstract class DirectoryBasedStorageManager<T> implements StorageManager<
         }
     }
 
+    private void loadChildren(File[] childFiles, Executor loader) {
+        final List<CompletableFuture<T>> futures = new ArrayList<>(childFiles.length);
+        for (File f : childFiles) {
+            futures.add(CompletableFuture.supplyAsync(() -> loadChild(f), loader));
+        }
+
+        // Wait for all children even if some of them failed, so that they are closed together.
+        Throwable cause = null;
+        for (CompletableFuture<T> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (cause == null) {
+                    cause = e.getCause();
+                }
+            }
+        }
+        if (cause != null) {
+            Exceptions.throwUnsafely(cause);
+        }
+    }
+
     @Nullable
     private T loadChild(File f) {
         final String name = f.getName();
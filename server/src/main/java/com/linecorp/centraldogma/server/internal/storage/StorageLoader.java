@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.centraldogma.server.internal.storage;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.linecorp.armeria.common.util.SafeCloseable;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * Opens the projects and repositories in the data directory while a project manager starts up.
+ * When more than one worker is requested, the projects and the repositories are opened concurrently
+ * on two separate thread pools, so that opening a project never waits for its repositories on the same pool.
+ */
+public final class StorageLoader implements SafeCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageLoader.class);
+
+    private static final int PROGRESS_LOG_INTERVAL = 1000;
+
+    @Nullable
+    private final ExecutorService projectExecutor;
+    @Nullable
+    private final ExecutorService repositoryExecutor;
+    private final Counter openedRepositories;
+    private final Timer repositoryOpenTimer;
+    private final AtomicInteger numOpenedRepositories = new AtomicInteger();
+    private final long startTimeNanos = System.nanoTime();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param numWorkers the number of threads which open the projects and the repositories respectively.
+     *                   {@code 1} opens them sequentially in the calling thread.
+     */
+    public StorageLoader(int numWorkers, MeterRegistry meterRegistry) {
+        checkArgument(numWorkers > 0, "numWorkers: %s (expected: > 0)", numWorkers);
+        requireNonNull(meterRegistry, "meterRegistry");
+        if (numWorkers > 1) {
+            projectExecutor = Executors.newFixedThreadPool(
+                    numWorkers, new DefaultThreadFactory("project-loader", true));
+            repositoryExecutor = Executors.newFixedThreadPool(
+                    numWorkers, new DefaultThreadFactory("repository-loader", true));
+        } else {
+            projectExecutor = null;
+            repositoryExecutor = null;
+        }
+        openedRepositories = Counter.builder("startup.repositories.opened").register(meterRegistry);
+        repositoryOpenTimer = Timer.builder("startup.repository.open.duration").register(meterRegistry);
+    }
+
+    /**
+     * Returns the {@link Executor} which opens the projects, or {@code null} if they have to be opened
+     * sequentially.
+     */
+    @Nullable
+    public Executor projectExecutor() {
+        return projectExecutor;
+    }
+
+    /**
+     * Returns the {@link Executor} which opens the repositories, or {@code null} if they have to be opened
+     * sequentially.
+     */
+    @Nullable
+    public Executor repositoryExecutor() {
+        return repositoryExecutor;
+    }
+
+    /**
+     * Records that the specified repository has been opened in the specified amount of time.
+     */
+    public void recordOpenedRepository(String projectName, String repositoryName, long elapsedNanos) {
+        repositoryOpenTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        openedRepositories.increment();
+        logger.debug("Opened the repository '{}/{}' in {} ms", projectName, repositoryName,
+                     TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+
+        final int count = numOpenedRepositories.incrementAndGet();
+        if (count % PROGRESS_LOG_INTERVAL == 0) {
+            logger.info("Opened {} repositories in {} seconds ..", count,
+                        TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startTimeNanos));
+        }
+    }
+
+    @Override
+    public void close() {
+        if (projectExecutor != null) {
+            projectExecutor.shutdown();
+        }
+        if (repositoryExecutor != null) {
+            repositoryExecutor.shutdown();
+        }
+    }
+}
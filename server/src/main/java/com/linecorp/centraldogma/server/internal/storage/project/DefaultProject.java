@@ -51,6 +51,7 @@ import com.linecorp.centraldogma.common.RepositoryExistsException;
 import com.linecorp.centraldogma.common.Revision;
 import com.linecorp.centraldogma.internal.Jackson;
 import com.linecorp.centraldogma.server.command.CommitResult;
+import com.linecorp.centraldogma.server.internal.storage.StorageLoader;
 import com.linecorp.centraldogma.server.internal.storage.repository.DefaultMetaRepository;
 import com.linecorp.centraldogma.server.internal.storage.repository.RepositoryCache;
 import com.linecorp.centraldogma.server.internal.storage.repository.cache.CachingRepositoryManager;
@@ -87,7 +88,8 @@ public class DefaultProject implements Project {
      * Opens an existing project.
      */
     DefaultProject(File rootDir, Executor repositoryWorker, Executor purgeWorker,
-                   @Nullable RepositoryCache cache, EncryptionStorageManager encryptionStorageManager) {
+                   @Nullable RepositoryCache cache, EncryptionStorageManager encryptionStorageManager,
+                   @Nullable StorageLoader loader) {
         requireNonNull(rootDir, "rootDir");
         requireNonNull(repositoryWorker, "repositoryWorker");
         requireNonNull(encryptionStorageManager, "encryptionStorageManager");
@@ -97,7 +99,7 @@ public class DefaultProject implements Project {
         }
 
         name = rootDir.getName();
-        repos = newRepoManager(rootDir, repositoryWorker, purgeWorker, cache, encryptionStorageManager);
+        repos = newRepoManager(rootDir, repositoryWorker, purgeWorker, cache, encryptionStorageManager, loader);
         if (!repos.exists(REPO_DOGMA)) {
             throw new IllegalStateException(
                     "The project does not have a dogma repository: " + rootDir);
@@ -142,7 +144,7 @@ public class DefaultProject implements Project {
         }
 
         name = rootDir.getName();
-        repos = newRepoManager(rootDir, repositoryWorker, purgeWorker, cache, encryptionStorageManager);
+        repos = newRepoManager(rootDir, repositoryWorker, purgeWorker, cache, encryptionStorageManager, null);
 
         boolean success = false;
         try {
@@ -165,11 +167,12 @@ public class DefaultProject implements Project {
 
     private RepositoryManager newRepoManager(File rootDir, Executor repositoryWorker, Executor purgeWorker,
                                              @Nullable RepositoryCache cache,
-                                             EncryptionStorageManager encryptionStorageManager) {
+                                             EncryptionStorageManager encryptionStorageManager,
+                                             @Nullable StorageLoader loader) {
         // Enable caching if 'cache' is not null.
         final GitRepositoryManager gitRepos =
                 new GitRepositoryManager(this, rootDir, repositoryWorker, purgeWorker, cache,
-                                         encryptionStorageManager);
+                                         encryptionStorageManager, loader);
         return cache == null ? gitRepos : new CachingRepositoryManager(gitRepos, cache);
     }
 
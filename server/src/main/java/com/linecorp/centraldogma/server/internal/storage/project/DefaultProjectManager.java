@@ -24,6 +24,7 @@ import static java.util.Objects.requireNonNull;
 import java.io.File;
 import java.io.IOException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
@@ -36,6 +37,7 @@ import com.linecorp.centraldogma.common.CentralDogmaException;
 import com.linecorp.centraldogma.common.ProjectExistsException;
 import com.linecorp.centraldogma.common.ProjectNotFoundException;
 import com.linecorp.centraldogma.server.internal.storage.DirectoryBasedStorageManager;
+import com.linecorp.centraldogma.server.internal.storage.StorageLoader;
 import com.linecorp.centraldogma.server.internal.storage.repository.RepositoryCache;
 import com.linecorp.centraldogma.server.storage.encryption.EncryptionStorageManager;
 import com.linecorp.centraldogma.server.storage.project.Project;
@@ -51,10 +53,23 @@ public final class DefaultProjectManager extends DirectoryBasedStorageManager<Pr
     private final Executor repositoryWorker;
     @Nullable
     private final RepositoryCache cache;
+    // Set only while opening the existing projects.
+    @Nullable
+    private volatile StorageLoader loader;
 
     public DefaultProjectManager(File rootDir, Executor repositoryWorker, Executor purgeWorker,
                                  MeterRegistry meterRegistry, @Nullable String cacheSpec,
                                  EncryptionStorageManager encryptionStorageManager) {
+        this(rootDir, repositoryWorker, purgeWorker, meterRegistry, cacheSpec, encryptionStorageManager, 1);
+    }
+
+    /**
+     * Creates a new instance which opens the existing projects and repositories using
+     * {@code numStartupWorkers} threads for each.
+     */
+    public DefaultProjectManager(File rootDir, Executor repositoryWorker, Executor purgeWorker,
+                                 MeterRegistry meterRegistry, @Nullable String cacheSpec,
+                                 EncryptionStorageManager encryptionStorageManager, int numStartupWorkers) {
         super(rootDir, Project.class, purgeWorker, encryptionStorageManager);
 
         requireNonNull(meterRegistry, "meterRegistry");
@@ -63,7 +78,15 @@ public final class DefaultProjectManager extends DirectoryBasedStorageManager<Pr
         this.repositoryWorker = repositoryWorker;
         cache = cacheSpec != null ? new RepositoryCache(cacheSpec, meterRegistry) : null;
 
-        init();
+        final long startTimeNanos = System.nanoTime();
+        try (StorageLoader storageLoader = new StorageLoader(numStartupWorkers, meterRegistry)) {
+            loader = storageLoader;
+            init(storageLoader.projectExecutor());
+        } finally {
+            loader = null;
+        }
+        logger.info("Opened {} projects in {} ms", list().size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeNanos));
     }
 
     @Override
@@ -76,7 +99,8 @@ public final class DefaultProjectManager extends DirectoryBasedStorageManager<Pr
 
     @Override
     protected Project openChild(File childDir) throws Exception {
-        return new DefaultProject(childDir, repositoryWorker, purgeWorker(), cache, encryptionStorageManager());
+        return new DefaultProject(childDir, repositoryWorker, purgeWorker(), cache, encryptionStorageManager(),
+                                  loader);
     }
 
     @Override
@@ -98,6 +98,27 @@ public final class RepositoryCache {
         return future;
     }
 
+    /**
+     * Returns the pending or completed result of the specified {@link CacheableCall} if it's in the cache,
+     * or {@code null} otherwise. Unlike {@link #get(CacheableCall)}, this method never executes the call.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> getIfPresent(CacheableCall<T> call) {
+        requireNonNull(call, "call");
+        return (CompletableFuture<T>) cache.getIfPresent(call);
+    }
+
+    /**
+     * Puts the specified {@code value} as the result of the specified {@link CacheableCall} if the call is not
+     * in the cache yet. This is useful when a value is produced as a by-product of another operation.
+     */
+    public <T> void putIfAbsent(CacheableCall<T> call, T value) {
+        requireNonNull(call, "call");
+        requireNonNull(value, "value");
+        cache.asMap().putIfAbsent(call, CompletableFuture.<Object>completedFuture(value));
+    }
+
     public void clear() {
         cache.synchronous().invalidateAll();
     }
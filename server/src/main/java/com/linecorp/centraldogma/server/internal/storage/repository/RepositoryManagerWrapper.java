@@ -52,6 +52,10 @@ public class RepositoryManagerWrapper implements RepositoryManager {
         }
     }
 
+    public final RepositoryManager unwrap() {
+        return delegate;
+    }
+
     @Override
     public Project parent() {
         return delegate.parent();
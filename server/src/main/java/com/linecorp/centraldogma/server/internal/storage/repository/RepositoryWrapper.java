@@ -189,6 +189,15 @@ public class RepositoryWrapper implements Repository {
                                normalizing);
     }
 
+    @Override
+    public CompletableFuture<CommitResult> commit(Revision baseRevision, long commitTimeMillis,
+                                                  Author author, String summary, String detail, Markup markup,
+                                                  Iterable<Change<?>> changes, boolean normalizing,
+                                                  boolean groupCommit) {
+        return unwrap().commit(baseRevision, commitTimeMillis, author, summary, detail, markup, changes,
+                               normalizing, groupCommit);
+    }
+
     @Override
     public CompletableFuture<CommitResult> commit(Revision baseRevision, long commitTimeMillis,
                                                   Author author, String summary, String detail, Markup markup,
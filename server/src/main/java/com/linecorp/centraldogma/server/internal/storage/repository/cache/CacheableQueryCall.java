@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.storage.repository.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.linecorp.centraldogma.internal.Util.unsafeCast;
+import static com.linecorp.centraldogma.server.internal.storage.repository.RepositoryCache.logger;
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.common.base.MoreObjects.ToStringHelper;
+
+import com.linecorp.centraldogma.common.CentralDogmaException;
+import com.linecorp.centraldogma.common.Entry;
+import com.linecorp.centraldogma.common.EntryType;
+import com.linecorp.centraldogma.common.Query;
+import com.linecorp.centraldogma.common.QueryExecutionException;
+import com.linecorp.centraldogma.common.QueryType;
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.server.storage.repository.AbstractCacheableCall;
+import com.linecorp.centraldogma.server.storage.repository.Repository;
+
+/**
+ * Caches the result of a {@link QueryType#JSON_PATH} {@link Query}, so that the JSON path expressions are
+ * evaluated only once for the same revision. The content of the queried file is retrieved from the specified
+ * {@link Repository}, which is expected to cache it by itself.
+ */
+final class CacheableQueryCall<T> extends AbstractCacheableCall<Entry<T>> {
+
+    private final Revision revision;
+    private final Query<T> query;
+    private final int hashCode;
+
+    CacheableQueryCall(Repository repo, Revision revision, Query<T> query) {
+        super(repo);
+        this.revision = requireNonNull(revision, "revision");
+        this.query = requireNonNull(query, "query");
+        checkArgument(query.type() == QueryType.JSON_PATH, "query: %s (expected: a JSON path query)", query);
+
+        hashCode = Objects.hash(revision, query) * 31 + System.identityHashCode(repo);
+
+        assert !revision.isRelative();
+    }
+
+    @Override
+    public int weigh(Entry<T> value) {
+        int weight = 0;
+        weight += query.path().length();
+        final List<String> expressions = query.expressions();
+        weight += expressions.size();
+        for (String expression : expressions) {
+            weight += expression.length();
+        }
+        if (value != null && value.hasContent()) {
+            weight += value.contentAsText().length();
+        }
+        return weight;
+    }
+
+    @Override
+    public CompletableFuture<Entry<T>> execute() {
+        logger.debug("Cache miss: {}", this);
+        return repo().getOrNull(revision, query.path()).thenApply(found -> {
+            if (found == null) {
+                return null;
+            }
+
+            final Entry<T> entry = unsafeCast(found);
+
+            final EntryType entryType = entry.type();
+            if (!QueryType.JSON_PATH.supportedEntryTypes().contains(entryType)) {
+                throw new QueryExecutionException("Unsupported entry type: " + entryType +
+                                                  " (query: " + query + ')');
+            }
+
+            try {
+                return Entry.of(entry.revision(), query.path(), entryType, query.apply(entry.content()),
+                                entry.templateRevision());
+            } catch (CentralDogmaException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new QueryExecutionException(e);
+            }
+        });
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+
+        final CacheableQueryCall<?> that = (CacheableQueryCall<?>) o;
+        return revision.equals(that.revision) &&
+               query.equals(that.query);
+    }
+
+    @Override
+    protected void toString(ToStringHelper helper) {
+        helper.add("revision", revision)
+              .add("query", query);
+    }
+}
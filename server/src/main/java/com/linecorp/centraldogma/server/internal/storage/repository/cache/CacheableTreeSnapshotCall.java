@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.centraldogma.server.internal.storage.repository.cache;
+
+import static com.linecorp.centraldogma.server.internal.storage.repository.RepositoryCache.logger;
+import static com.linecorp.centraldogma.server.storage.repository.FindOptions.FIND_ALL_WITHOUT_CONTENT;
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.MoreObjects.ToStringHelper;
+
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.server.internal.storage.repository.RepositoryCache;
+import com.linecorp.centraldogma.server.internal.storage.repository.git.CacheableCommitDiffCall;
+import com.linecorp.centraldogma.server.storage.repository.AbstractCacheableCall;
+import com.linecorp.centraldogma.server.storage.repository.Repository;
+
+/**
+ * Retrieves the {@link TreeSnapshot} of a repository at a certain revision. The snapshot does not contain
+ * the content of the files, which is retrieved and cached per path by {@link CacheableFindCall}.
+ *
+ * <p>If the snapshot of the previous revision is in the cache, the snapshot is derived from it by applying
+ * the changes made by the commit, sharing all unchanged nodes with the previous snapshot.
+ */
+final class CacheableTreeSnapshotCall extends AbstractCacheableCall<TreeSnapshot> {
+
+    private final RepositoryCache cache;
+    final Revision revision;
+    private final int hashCode;
+
+    CacheableTreeSnapshotCall(Repository repo, RepositoryCache cache, Revision revision) {
+        super(repo);
+
+        this.cache = requireNonNull(cache, "cache");
+        this.revision = requireNonNull(revision, "revision");
+        hashCode = revision.hashCode() * 31 + System.identityHashCode(repo);
+
+        assert !revision.isRelative();
+    }
+
+    @Override
+    public int weigh(TreeSnapshot value) {
+        return value.weight();
+    }
+
+    @Override
+    public CompletableFuture<TreeSnapshot> execute() {
+        logger.debug("Cache miss: {}", this);
+
+        final TreeSnapshot prevSnapshot = cachedPreviousSnapshot();
+        if (prevSnapshot != null) {
+            final CacheableCommitDiffCall diffCall = CacheableCommitDiffCall.of(repo(), revision);
+            if (diffCall != null) {
+                return cache.get(diffCall).handle((diffEntries, cause) -> {
+                    if (cause == null) {
+                        try {
+                            return CompletableFuture.completedFuture(
+                                    prevSnapshot.apply(revision, diffEntries));
+                        } catch (Exception e) {
+                            cause = e;
+                        }
+                    }
+                    logger.warn("Failed to derive a tree snapshot from the previous revision: {}",
+                                this, cause);
+                    return findAll();
+                }).thenCompose(Function.identity());
+            }
+        }
+
+        return findAll();
+    }
+
+    @Nullable
+    private TreeSnapshot cachedPreviousSnapshot() {
+        if (revision.major() <= 1) {
+            return null;
+        }
+
+        final CompletableFuture<TreeSnapshot> future =
+                cache.getIfPresent(new CacheableTreeSnapshotCall(repo(), cache, revision.backward(1)));
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        return future.join();
+    }
+
+    private CompletableFuture<TreeSnapshot> findAll() {
+        return repo().find(revision, Repository.ALL_PATH, FIND_ALL_WITHOUT_CONTENT)
+                     .thenApply(entries -> TreeSnapshot.of(revision, entries));
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+
+        final CacheableTreeSnapshotCall that = (CacheableTreeSnapshotCall) o;
+        return revision.equals(that.revision);
+    }
+
+    @Override
+    protected void toString(ToStringHelper helper) {
+        helper.add("revision", revision);
+    }
+}
@@ -17,9 +17,10 @@
 package com.linecorp.centraldogma.server.internal.storage.repository.cache;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.linecorp.centraldogma.internal.Util.unsafeCast;
 import static com.linecorp.centraldogma.server.internal.api.HttpApiUtil.throwUnsafelyIfNonNull;
-import static com.linecorp.centraldogma.server.storage.repository.FindOptions.FIND_ALL_WITH_CONTENT;
+import static com.linecorp.centraldogma.server.storage.repository.FindOptions.FIND_ONE_WITH_CONTENT;
 import static java.util.Objects.requireNonNull;
 
 import java.io.File;
@@ -32,6 +33,8 @@ import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
+
 import com.google.common.collect.ImmutableMap;
 
 import com.linecorp.armeria.common.CommonPools;
@@ -42,10 +45,12 @@ import com.linecorp.centraldogma.common.Change;
 import com.linecorp.centraldogma.common.Commit;
 import com.linecorp.centraldogma.common.Entry;
 import com.linecorp.centraldogma.common.EntryNotFoundException;
+import com.linecorp.centraldogma.common.EntryType;
 import com.linecorp.centraldogma.common.Markup;
 import com.linecorp.centraldogma.common.MergeQuery;
 import com.linecorp.centraldogma.common.MergedEntry;
 import com.linecorp.centraldogma.common.Query;
+import com.linecorp.centraldogma.common.QueryType;
 import com.linecorp.centraldogma.common.Revision;
 import com.linecorp.centraldogma.common.RevisionRange;
 import com.linecorp.centraldogma.server.command.CommitResult;
@@ -55,12 +60,19 @@ import com.linecorp.centraldogma.server.internal.storage.repository.git.PathPatt
 import com.linecorp.centraldogma.server.storage.project.Project;
 import com.linecorp.centraldogma.server.storage.repository.CacheableCall;
 import com.linecorp.centraldogma.server.storage.repository.DiffResultType;
+import com.linecorp.centraldogma.server.storage.repository.EntryTransformer;
 import com.linecorp.centraldogma.server.storage.repository.FindOption;
 import com.linecorp.centraldogma.server.storage.repository.Repository;
 import com.linecorp.centraldogma.server.storage.repository.RepositoryListener;
 
 final class CachingRepository implements Repository {
 
+    /**
+     * The maximum number of files whose content is fetched and cached separately by a single
+     * {@link #find(Revision, String, Map)} call.
+     */
+    private static final int MAX_FILES_TO_FETCH_SEPARATELY = 64;
+
     private static final CancellationException CANCELLATION_EXCEPTION =
             Exceptions.clearTrace(new CancellationException("watch cancelled by caller"));
 
@@ -93,11 +105,31 @@ final class CachingRepository implements Repository {
         requireNonNull(path, "path");
 
         final Revision normalizedRevision = normalizeNow(revision);
-        // The size of the repositories in Central Dogma are relatively small. Therefore, caching the entire
-        // repo rather than caching each file separately would result in a higher cache hit rate. Additionally,
-        // when checking repository access patterns, it was found that a client tends to send multiple queries
-        // to fully scan repository files.
-        return find(normalizedRevision, ALL_PATH, FIND_ALL_WITH_CONTENT).thenApply(all -> all.get(path));
+        // Look up the path from the snapshot first, so that the content of the other files is never loaded.
+        return execute(new CacheableTreeSnapshotCall(repo, cache, normalizedRevision)).thenCompose(snapshot -> {
+            final Entry<?> entry = snapshot.get(path);
+            if (entry == null || entry.type() == EntryType.DIRECTORY) {
+                return CompletableFuture.completedFuture(entry);
+            }
+            return fetchContent(normalizedRevision, path);
+        });
+    }
+
+    @Override
+    public <T> CompletableFuture<Entry<T>> getOrNull(Revision revision, Query<T> query,
+                                                      EntryTransformer<T> transformer) {
+        requireNonNull(revision, "revision");
+        requireNonNull(query, "query");
+        requireNonNull(transformer, "transformer");
+
+        if (query.type() != QueryType.JSON_PATH || transformer != EntryTransformer.identity()) {
+            return Repository.super.getOrNull(revision, query, transformer);
+        }
+
+        // Cache the query result as well as the file, so that the JSON path expressions are evaluated
+        // only once for the same revision.
+        final Revision normalizedRevision = normalizeNow(revision);
+        return execute(new CacheableQueryCall<>(this, normalizedRevision, query));
     }
 
     @Override
@@ -121,26 +153,67 @@ final class CachingRepository implements Repository {
             cacheableOptions = newOptions.build();
         }
 
-        return execute(new CacheableFindCall(repo, normalizedRevision, ALL_PATH, cacheableOptions))
-                    .thenApply((all) -> {
-                        if (all.isEmpty()) {
-                            return all;
-                        }
+        final Map<FindOption<?>, ?> finalCacheableOptions = cacheableOptions;
+        final boolean fetchContent = FindOption.FETCH_CONTENT.get(options);
+        final int maxNumEntries = maxEntries != null ? maxEntries : Integer.MAX_VALUE;
+        return execute(new CacheableTreeSnapshotCall(repo, cache, normalizedRevision)).thenCompose(snapshot -> {
+            if (snapshot.size() == 0) {
+                return CompletableFuture.completedFuture(new LinkedHashMap<>());
+            }
 
-                        Stream<Map.Entry<String, Entry<?>>> stream = all.entrySet().stream();
-                        if (!pathPattern.equals(ALL_PATH)) {
-                            final PathPatternFilter filter = PathPatternFilter.of(pathPattern);
-                            stream = stream.filter(entry -> filter.matches(entry.getKey()));
-                        }
-                        if (maxEntries != null) {
-                            stream = stream.limit(maxEntries);
-                        }
+            final Map<String, Entry<?>> entries =
+                    snapshot.find(PathPatternFilter.of(pathPattern), maxNumEntries);
+            if (!fetchContent || entries.isEmpty()) {
+                return CompletableFuture.completedFuture(entries);
+            }
 
-                        // Use LinkedHashMap to 1) keep the order and 2) allow callers to mutate it.
-                        return stream.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
-                                                               (oldV, newV) -> oldV,
-                                                               LinkedHashMap::new));
-                    });
+            final List<String> filePaths = entries.values().stream()
+                                                  .filter(e -> e.type() != EntryType.DIRECTORY)
+                                                  .map(Entry::path)
+                                                  .collect(toImmutableList());
+            if (filePaths.size() > MAX_FILES_TO_FETCH_SEPARATELY) {
+                // Fetch and cache the matching files at once rather than creating too many cache entries.
+                return execute(new CacheableFindCall(repo, normalizedRevision, pathPattern,
+                                                     finalCacheableOptions))
+                        .thenApply(found -> limit(found, maxEntries));
+            }
+
+            // Fetch and cache the content of each file separately.
+            final List<CompletableFuture<Entry<?>>> futures =
+                    filePaths.stream()
+                             .map(filePath -> fetchContent(normalizedRevision, filePath))
+                             .collect(toImmutableList());
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(unused -> {
+                int i = 0;
+                for (Map.Entry<String, Entry<?>> e : entries.entrySet()) {
+                    if (e.getValue().type() == EntryType.DIRECTORY) {
+                        continue;
+                    }
+                    final Entry<?> entryWithContent = futures.get(i++).join();
+                    if (entryWithContent != null) {
+                        e.setValue(entryWithContent);
+                    }
+                }
+                return entries;
+            });
+        });
+    }
+
+    private CompletableFuture<Entry<?>> fetchContent(Revision normalizedRevision, String path) {
+        return execute(new CacheableFindCall(repo, normalizedRevision, path, FIND_ONE_WITH_CONTENT))
+                .thenApply(found -> found.get(path));
+    }
+
+    private static Map<String, Entry<?>> limit(Map<String, Entry<?>> found, @Nullable Integer maxEntries) {
+        Stream<Map.Entry<String, Entry<?>>> stream = found.entrySet().stream();
+        if (maxEntries != null) {
+            stream = stream.limit(maxEntries);
+        }
+
+        // Use LinkedHashMap to 1) keep the order and 2) allow callers to mutate it.
+        return stream.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+                                               (oldV, newV) -> oldV,
+                                               LinkedHashMap::new));
     }
 
     @Override
@@ -332,6 +405,15 @@ final class CachingRepository implements Repository {
                            normalizing);
     }
 
+    @Override
+    public CompletableFuture<CommitResult> commit(Revision baseRevision, long commitTimeMillis,
+                                                  Author author, String summary, String detail, Markup markup,
+                                                  Iterable<Change<?>> changes, boolean normalizing,
+                                                  boolean groupCommit) {
+        return repo.commit(baseRevision, commitTimeMillis, author, summary, detail, markup, changes,
+                           normalizing, groupCommit);
+    }
+
     @Override
     public CompletableFuture<CommitResult> commit(Revision baseRevision, long commitTimeMillis, Author author,
                                                   String summary, String detail, Markup markup,
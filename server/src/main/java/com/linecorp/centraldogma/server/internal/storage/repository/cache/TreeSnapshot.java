@@ -0,0 +1,530 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.centraldogma.server.internal.storage.repository.cache;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.jgit.diff.DiffEntry;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.centraldogma.common.Entry;
+import com.linecorp.centraldogma.common.EntryType;
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.server.internal.storage.repository.git.PathPatternFilter;
+import com.linecorp.centraldogma.server.storage.StorageException;
+
+/**
+ * An immutable, path-indexed view of the entries of a repository at a certain revision.
+ *
+ * <p>A {@link TreeSnapshot} is a trie of directories whose children are kept in the order of Git trees.
+ * It does not hold the content of the files, so that a lookup by an exact path or a path prefix only
+ * visits the directories on the way to the path rather than every file in the repository.
+ */
+final class TreeSnapshot {
+
+    private final Revision revision;
+    private final Node root;
+
+    private TreeSnapshot(Revision revision, Node root) {
+        this.revision = revision;
+        this.root = root;
+    }
+
+    /**
+     * Creates a new {@link TreeSnapshot} from the specified {@link Entry}s without content, which must be
+     * in the order of a Git tree walk, e.g. the result of
+     * {@code Repository.find(revision, "/**", FIND_ALL_WITHOUT_CONTENT)}.
+     */
+    static TreeSnapshot of(Revision revision, Map<String, Entry<?>> entries) {
+        requireNonNull(revision, "revision");
+        requireNonNull(entries, "entries");
+
+        final NodeBuilder rootBuilder = new NodeBuilder("", "", null);
+        final Map<String, NodeBuilder> directories = new HashMap<>();
+        directories.put("", rootBuilder);
+        for (Map.Entry<String, Entry<?>> e : entries.entrySet()) {
+            final String path = e.getKey();
+            final Entry<?> entry = e.getValue();
+            final int lastSlashIdx = path.lastIndexOf('/');
+            final NodeBuilder parent = directories.get(path.substring(0, lastSlashIdx));
+            if (parent == null) {
+                throw new IllegalArgumentException("entries are not in the order of a tree walk: " + path);
+            }
+            final NodeBuilder child = new NodeBuilder(path, path.substring(lastSlashIdx + 1), entry);
+            parent.children.add(child);
+            if (entry.type() == EntryType.DIRECTORY) {
+                directories.put(path, child);
+            }
+        }
+        return new TreeSnapshot(revision, rootBuilder.build());
+    }
+
+    /**
+     * Returns a new {@link TreeSnapshot} of the specified {@link Revision} by applying the specified
+     * {@link DiffEntry}s to this snapshot. The new snapshot shares all unchanged directories and files
+     * with this snapshot, so the cost of this operation is proportional to the number of the changes
+     * rather than the size of the repository.
+     *
+     * @throws IllegalStateException if the {@link DiffEntry}s do not match this snapshot
+     */
+    TreeSnapshot apply(Revision newRevision, List<DiffEntry> diffEntries) {
+        requireNonNull(newRevision, "newRevision");
+        requireNonNull(diffEntries, "diffEntries");
+
+        Node newRoot = root;
+        for (DiffEntry e : diffEntries) {
+            switch (e.getChangeType()) {
+                case ADD:
+                case COPY:
+                    newRoot = add(newRoot, '/' + e.getNewPath(), 1, newRevision);
+                    break;
+                case DELETE:
+                    newRoot = remove(newRoot, '/' + e.getOldPath(), 1);
+                    break;
+                case RENAME:
+                    newRoot = remove(newRoot, '/' + e.getOldPath(), 1);
+                    newRoot = add(newRoot, '/' + e.getNewPath(), 1, newRevision);
+                    break;
+                case MODIFY:
+                    // A snapshot does not have the content of the files, so there's nothing to update.
+                    break;
+            }
+        }
+        assert newRoot != null;
+        return new TreeSnapshot(newRevision, newRoot);
+    }
+
+    private static Node add(Node dir, String path, int start, Revision revision) {
+        assert dir.children != null;
+        final int end = path.indexOf('/', start);
+        final Node newChild;
+        if (end < 0) {
+            final String name = path.substring(start);
+            if (dir.file(name) != null) {
+                throw new IllegalStateException("an entry exists already: " + path);
+            }
+            newChild = new Node(path, name, newEntryWithoutContent(revision, path,
+                                                                   EntryType.guessFromPath(path)), null);
+        } else {
+            final String name = path.substring(start, end);
+            Node child = dir.directory(name);
+            if (child == null) {
+                final String dirPath = path.substring(0, end);
+                child = new Node(dirPath, name, Entry.ofDirectory(revision, dirPath), Node.EMPTY_CHILDREN);
+            }
+            newChild = add(child, path, end + 1, revision);
+        }
+        return dir.withChild(newChild);
+    }
+
+    /**
+     * Removes the file at the specified {@code path}.
+     *
+     * @return the new directory, or {@code null} if the directory became empty and thus has been removed.
+     */
+    @Nullable
+    private static Node remove(Node dir, String path, int start) {
+        assert dir.children != null;
+        final int end = path.indexOf('/', start);
+        // Look up a file or a directory explicitly, because a file may temporarily have the same name
+        // with a directory while a file is being replaced with a directory or vice versa.
+        final Node child = end < 0 ? dir.file(path.substring(start))
+                                   : dir.directory(path.substring(start, end));
+        if (child == null) {
+            throw new IllegalStateException("non-existent entry: " + path);
+        }
+
+        final Node newDir;
+        if (end < 0) {
+            newDir = dir.withoutChild(child);
+        } else {
+            final Node newChild = remove(child, path, end + 1);
+            newDir = newChild != null ? dir.withChild(newChild) : dir.withoutChild(child);
+        }
+
+        assert newDir.children != null;
+        if (newDir.children.length == 0 && !newDir.path.isEmpty()) {
+            // Git does not keep an empty directory.
+            return null;
+        }
+        return newDir;
+    }
+
+    Revision revision() {
+        return revision;
+    }
+
+    /**
+     * Returns the number of the files and directories in this snapshot.
+     */
+    int size() {
+        // Exclude the root.
+        return root.numNodes - 1;
+    }
+
+    /**
+     * Returns the {@link Entry} at the specified {@code path} without its content,
+     * or {@code null} if there is no such entry.
+     */
+    @Nullable
+    Entry<?> get(String path) {
+        final Node node = node(path);
+        return node != null ? node.entry(revision) : null;
+    }
+
+    @Nullable
+    private Node node(String path) {
+        if (path.isEmpty() || path.charAt(0) != '/') {
+            return null;
+        }
+
+        Node node = root;
+        int start = 1;
+        for (;;) {
+            final int end = path.indexOf('/', start);
+            final String name = end < 0 ? path.substring(start) : path.substring(start, end);
+            node = node.child(name);
+            if (node == null || end < 0) {
+                return node;
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Returns the {@link Entry}s without content that match the specified {@link PathPatternFilter},
+     * in the order of a Git tree walk. Only the directories which may contain a path that starts with
+     * the literal prefix of the path patterns are visited.
+     */
+    Map<String, Entry<?>> find(PathPatternFilter filter, int maxEntries) {
+        requireNonNull(filter, "filter");
+        final Map<String, Entry<?>> result = new LinkedHashMap<>();
+        if (maxEntries <= 0) {
+            return result;
+        }
+
+        final String exactPath = filter.exactPath();
+        if (exactPath != null) {
+            final Node node = node(exactPath);
+            if (node != null) {
+                result.put(node.path, node.entry(revision));
+            }
+            return result;
+        }
+
+        final List<String> prefixes;
+        if (filter.matchesAll()) {
+            prefixes = null;
+        } else {
+            prefixes = new ArrayList<>();
+            for (String pathPattern : filter.pathPatterns()) {
+                prefixes.add(PathPatternFilter.literalPrefix(pathPattern));
+            }
+        }
+        find(root, filter, prefixes, maxEntries, result);
+        return result;
+    }
+
+    /**
+     * Visits the children of the specified directory recursively.
+     *
+     * @return {@code false} if {@code maxEntries} has been reached.
+     */
+    private boolean find(Node dir, PathPatternFilter filter, @Nullable List<String> prefixes,
+                         int maxEntries, Map<String, Entry<?>> result) {
+        assert dir.children != null;
+        for (Node child : dir.children) {
+            if (startsWithAny(child.path, prefixes) && filter.matches(child.path)) {
+                result.put(child.path, child.entry(revision));
+                if (result.size() >= maxEntries) {
+                    return false;
+                }
+            }
+
+            if (child.isDirectory() && mayContainMatches(child.path, prefixes)) {
+                if (!find(child, filter, prefixes, maxEntries, result)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWithAny(String path, @Nullable List<String> prefixes) {
+        if (prefixes == null) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the directory at the specified path may contain a path that starts with
+     * one of the specified prefixes.
+     */
+    private static boolean mayContainMatches(String dirPath, @Nullable List<String> prefixes) {
+        if (prefixes == null) {
+            return true;
+        }
+        final String dirPrefix = dirPath + '/';
+        for (String prefix : prefixes) {
+            if (prefix.startsWith(dirPrefix) || dirPrefix.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the weight of this snapshot, which is proportional to the total length of the paths.
+     * Note that the {@link Node}s shared with other snapshots are counted as well, because a snapshot
+     * keeps its {@link Node}s reachable even after the snapshot it was derived from is evicted.
+     */
+    int weight() {
+        return root.weight;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("revision", revision)
+                          .add("size", size())
+                          .toString();
+    }
+
+    /**
+     * An immutable node of a {@link TreeSnapshot}. A {@link Node} does not depend on a certain revision,
+     * so that it can be shared by the snapshots of different revisions.
+     */
+    static final class Node {
+
+        private static final Node[] EMPTY_CHILDREN = new Node[0];
+
+        final String path;
+        final String name;
+        /**
+         * The {@link Entry} without content at the revision where this node was created.
+         * {@code null} if this node is the root.
+         */
+        @Nullable
+        private final Entry<?> entry;
+        /**
+         * The children in the order of a Git tree. {@code null} if this node is a file.
+         */
+        @Nullable
+        final Node[] children;
+        /**
+         * The total weight of this node and its descendants.
+         */
+        final int weight;
+        /**
+         * The number of this node and its descendants.
+         */
+        final int numNodes;
+
+        Node(String path, String name, @Nullable Entry<?> entry, @Nullable Node[] children) {
+            this.path = path;
+            this.name = name;
+            this.entry = entry;
+            this.children = children;
+
+            int weight = path.length();
+            int numNodes = 1;
+            if (children != null) {
+                weight += children.length;
+                for (Node child : children) {
+                    weight += child.weight;
+                    numNodes += child.numNodes;
+                }
+            }
+            this.weight = weight;
+            this.numNodes = numNodes;
+        }
+
+        boolean isDirectory() {
+            return children != null;
+        }
+
+        /**
+         * Returns the {@link Entry} of this node for the specified {@link Revision}.
+         */
+        Entry<?> entry(Revision revision) {
+            assert entry != null;
+            if (entry.revision().equals(revision)) {
+                return entry;
+            }
+            return newEntryWithoutContent(revision, path, entry.type());
+        }
+
+        @Nullable
+        Node child(String name) {
+            final Node file = file(name);
+            return file != null ? file : directory(name);
+        }
+
+        @Nullable
+        Node file(String name) {
+            if (children == null) {
+                return null;
+            }
+            final int idx = binarySearch(children, name);
+            return idx >= 0 && !children[idx].isDirectory() ? children[idx] : null;
+        }
+
+        @Nullable
+        Node directory(String name) {
+            if (children == null) {
+                return null;
+            }
+            // Git sorts the directories as if their names end with '/'.
+            final int idx = binarySearch(children, name + '/');
+            return idx >= 0 && children[idx].isDirectory() ? children[idx] : null;
+        }
+
+        /**
+         * Returns a copy of this directory whose child with the same name as the specified {@link Node}
+         * is replaced with or added as the specified {@link Node}.
+         */
+        Node withChild(Node newChild) {
+            assert children != null;
+            final int idx = binarySearch(children, newChild.sortKey());
+            final Node[] newChildren;
+            if (idx >= 0) {
+                newChildren = children.clone();
+                newChildren[idx] = newChild;
+            } else {
+                final int insertionIdx = -(idx + 1);
+                newChildren = new Node[children.length + 1];
+                System.arraycopy(children, 0, newChildren, 0, insertionIdx);
+                newChildren[insertionIdx] = newChild;
+                System.arraycopy(children, insertionIdx, newChildren, insertionIdx + 1,
+                                 children.length - insertionIdx);
+            }
+            return new Node(path, name, entry, newChildren);
+        }
+
+        /**
+         * Returns a copy of this directory without the specified child.
+         */
+        Node withoutChild(Node child) {
+            assert children != null;
+            final int idx = binarySearch(children, child.sortKey());
+            assert idx >= 0;
+            final Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, idx);
+            System.arraycopy(children, idx + 1, newChildren, idx, children.length - idx - 1);
+            return new Node(path, name, entry, newChildren);
+        }
+
+        /**
+         * Returns the key of this node which is used for sorting the children of a directory
+         * in the order of a Git tree.
+         */
+        String sortKey() {
+            return isDirectory() ? name + '/' : name;
+        }
+
+        private static int binarySearch(Node[] children, String key) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                final int cmp = children[mid].sortKey().compareTo(key);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+    private static final class NodeBuilder {
+        final String path;
+        final String name;
+        @Nullable
+        final Entry<?> entry;
+        final List<NodeBuilder> children = new ArrayList<>();
+
+        NodeBuilder(String path, String name, @Nullable Entry<?> entry) {
+            this.path = path;
+            this.name = name;
+            this.entry = entry;
+        }
+
+        Node build() {
+            if (entry != null && entry.type() != EntryType.DIRECTORY) {
+                return new Node(path, name, entry, null);
+            }
+
+            final Node[] children;
+            if (this.children.isEmpty()) {
+                children = Node.EMPTY_CHILDREN;
+            } else {
+                children = new Node[this.children.size()];
+                for (int i = 0; i < children.length; i++) {
+                    children[i] = this.children.get(i).build();
+                }
+                // A no-op for the entries from a Git tree walk, but required for the binary search.
+                Arrays.sort(children, Comparator.comparing(Node::sortKey));
+            }
+            return new Node(path, name, entry, children);
+        }
+    }
+
+    /**
+     * Creates a new {@link Entry} without content, in the same way {@code GitRepository} does when
+     * {@code FindOption.FETCH_CONTENT} is {@code false}.
+     */
+    static Entry<?> newEntryWithoutContent(Revision revision, String path, EntryType type) {
+        try {
+            switch (type) {
+                case DIRECTORY:
+                    return Entry.ofDirectory(revision, path);
+                case JSON:
+                    return Entry.ofJson(revision, path, "");
+                case YAML:
+                    return Entry.ofYaml(revision, path, "");
+                case TEXT:
+                    return Entry.ofText(revision, path, "");
+                default:
+                    throw new Error("unexpected entry type: " + type);
+            }
+        } catch (JsonProcessingException e) {
+            throw new StorageException("failed to create an entry: " + path, e);
+        }
+    }
+}
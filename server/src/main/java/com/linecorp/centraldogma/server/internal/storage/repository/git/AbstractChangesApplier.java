@@ -19,16 +19,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.IOException;
 
-import javax.annotation.Nullable;
-
-import org.eclipse.jgit.dircache.DirCache;
-import org.eclipse.jgit.dircache.DirCacheBuilder;
-import org.eclipse.jgit.dircache.DirCacheEditor;
-import org.eclipse.jgit.dircache.DirCacheEditor.PathEdit;
-import org.eclipse.jgit.dircache.DirCacheEntry;
 import org.eclipse.jgit.lib.Constants;
-import org.eclipse.jgit.lib.FileMode;
-import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectInserter;
 import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
@@ -42,23 +33,20 @@ import com.linecorp.centraldogma.server.storage.StorageException;
 
 abstract class AbstractChangesApplier {
 
-    private static final byte[] EMPTY_BYTE = new byte[0];
-
-    int apply(Repository jGitRepository, Revision headRevision,
-              @Nullable ObjectId baseTreeId, DirCache dirCache) {
+    int apply(Repository jGitRepository, Revision headRevision, TreeEditor treeEditor) {
         try (ObjectInserter inserter = jGitRepository.newObjectInserter();
              ObjectReader reader = jGitRepository.newObjectReader()) {
+            return apply(headRevision, treeEditor, reader, inserter);
+        }
+    }
 
-            if (baseTreeId != null) {
-                // the DirCacheBuilder is to used for doing update operations on the given DirCache object
-                final DirCacheBuilder builder = dirCache.builder();
-
-                // Add the tree object indicated by the prevRevision to the temporary DirCache object.
-                builder.addTree(EMPTY_BYTE, 0, reader, baseTreeId);
-                builder.finish();
-            }
-
-            return doApply(headRevision, dirCache, reader, inserter);
+    /**
+     * Applies the changes with the specified {@link ObjectReader} and {@link ObjectInserter}, which are
+     * shared with the caller, so that the new blobs are flushed together with the new trees and commit.
+     */
+    int apply(Revision headRevision, TreeEditor treeEditor, ObjectReader reader, ObjectInserter inserter) {
+        try {
+            return doApply(headRevision, treeEditor, reader, inserter);
         } catch (CentralDogmaException e) {
             throw e;
         } catch (Exception e) {
@@ -66,72 +54,16 @@ abstract class AbstractChangesApplier {
         }
     }
 
-    abstract int doApply(Revision headRevision, DirCache dirCache,
+    abstract int doApply(Revision headRevision, TreeEditor treeEditor,
                          ObjectReader reader, ObjectInserter inserter) throws IOException;
 
-    static void applyPathEdit(DirCache dirCache, PathEdit edit) {
-        final DirCacheEditor e = dirCache.editor();
-        e.add(edit);
-        e.finish();
+    static void insertJson(TreeEditor treeEditor, String path, ObjectInserter inserter,
+                           JsonNode jsonNode) throws IOException {
+        insertText(treeEditor, path, inserter, Jackson.writeValueAsPrettyString(jsonNode));
     }
 
-    // PathEdit implementations which is used when applying changes.
-
-    static final class InsertJson extends PathEdit {
-        private final ObjectInserter inserter;
-        private final JsonNode jsonNode;
-
-        InsertJson(String entryPath, ObjectInserter inserter, JsonNode jsonNode) {
-            super(entryPath);
-            this.inserter = inserter;
-            this.jsonNode = jsonNode;
-        }
-
-        @Override
-        public void apply(DirCacheEntry ent) {
-            try {
-                final byte[] jsonBytes = Jackson.writeValueAsPrettyString(jsonNode).getBytes(UTF_8);
-                ent.setObjectId(inserter.insert(Constants.OBJ_BLOB, jsonBytes));
-                ent.setFileMode(FileMode.REGULAR_FILE);
-            } catch (IOException e) {
-                throw new StorageException("failed to create a new JSON blob", e);
-            }
-        }
-    }
-
-    static final class InsertText extends PathEdit {
-        private final ObjectInserter inserter;
-        private final String text;
-
-        InsertText(String entryPath, ObjectInserter inserter, String text) {
-            super(entryPath);
-            this.inserter = inserter;
-            this.text = text;
-        }
-
-        @Override
-        public void apply(DirCacheEntry ent) {
-            try {
-                ent.setObjectId(inserter.insert(Constants.OBJ_BLOB, text.getBytes(UTF_8)));
-                ent.setFileMode(FileMode.REGULAR_FILE);
-            } catch (IOException e) {
-                throw new StorageException("failed to create a new text blob", e);
-            }
-        }
-    }
-
-    static final class CopyOldEntry extends PathEdit {
-        private final DirCacheEntry oldEntry;
-
-        CopyOldEntry(String entryPath, DirCacheEntry oldEntry) {
-            super(entryPath);
-            this.oldEntry = oldEntry;
-        }
-
-        @Override
-        public void apply(DirCacheEntry ent) {
-            ent.setFileMode(oldEntry.getFileMode());
-            ent.setObjectId(oldEntry.getObjectId());
-        }
+    static void insertText(TreeEditor treeEditor, String path, ObjectInserter inserter,
+                           String text) throws IOException {
+        treeEditor.putFile(path, inserter.insert(Constants.OBJ_BLOB, text.getBytes(UTF_8)));
     }
 }
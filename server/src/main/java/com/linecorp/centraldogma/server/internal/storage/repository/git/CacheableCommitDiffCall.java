@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import static com.linecorp.centraldogma.server.internal.storage.repository.RepositoryCache.logger;
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.jgit.diff.DiffEntry;
+
+import com.google.common.base.MoreObjects.ToStringHelper;
+
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.server.storage.repository.AbstractCacheableCall;
+import com.linecorp.centraldogma.server.storage.repository.Repository;
+
+/**
+ * Retrieves the {@link DiffEntry}s of the commit at a certain revision, i.e. the changes made between
+ * the previous revision and the revision. The result is usually served from the {@link DiffEntry}s
+ * cached by the commit itself, so that the whole tree does not need to be compared.
+ */
+public final class CacheableCommitDiffCall extends AbstractCacheableCall<List<DiffEntry>> {
+
+    /**
+     * Returns a new {@link CacheableCommitDiffCall} if the specified {@link Repository} is a Git repository,
+     * or {@code null} otherwise.
+     */
+    @Nullable
+    public static CacheableCommitDiffCall of(Repository repo, Revision revision) {
+        requireNonNull(repo, "repo");
+        requireNonNull(revision, "revision");
+        if (!(repo instanceof GitRepository)) {
+            return null;
+        }
+        return new CacheableCommitDiffCall((GitRepository) repo, revision);
+    }
+
+    private final GitRepository repo;
+    private final Revision revision;
+    private final int hashCode;
+
+    private CacheableCommitDiffCall(GitRepository repo, Revision revision) {
+        super(repo);
+        this.repo = repo;
+        this.revision = revision;
+        hashCode = revision.hashCode() * 31 + System.identityHashCode(repo);
+
+        assert !revision.isRelative();
+    }
+
+    @Override
+    public int weigh(List<DiffEntry> value) {
+        return CacheableCompareTreesCall.weigh0(value);
+    }
+
+    @Override
+    public CompletableFuture<List<DiffEntry>> execute() {
+        logger.debug("Cache miss: {}", this);
+        return repo.commitDiff(revision);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+
+        final CacheableCommitDiffCall that = (CacheableCommitDiffCall) o;
+        return revision.equals(that.revision);
+    }
+
+    @Override
+    protected void toString(ToStringHelper helper) {
+        helper.add("revision", revision);
+    }
+}
@@ -54,6 +54,10 @@ final class CacheableCompareTreesCall extends AbstractCacheableCall<List<DiffEnt
 
     @Override
     public int weigh(List<DiffEntry> value) {
+        return weigh0(value);
+    }
+
+    static int weigh0(List<DiffEntry> value) {
         int weight = SHA1_LEN * 2;
         for (DiffEntry e : value) {
             if (e.getOldId() != null) {
@@ -0,0 +1,401 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.server.storage.StorageException;
+import com.linecorp.centraldogma.server.storage.repository.Repository;
+
+/**
+ * A file-based index of the paths changed by each {@link Revision}, which is used to skip the revisions
+ * which did not change the paths of a query without comparing their trees. Similar to the changed-path
+ * Bloom filters of Git's commit-graph, a record may report a path which was not changed, but never misses
+ * a path which was changed.
+ *
+ * <h3>File layout</h3>
+ *
+ * <pre>{@code
+ * index = record*
+ * record = revision filter (128 bytes)
+ * revision = 32-bit signed big-endian integer (4 bytes)
+ * filter = 992-bit Bloom filter of the changed paths and their parent directories (124 bytes)
+ * }</pre>
+ *
+ * <p>Like {@link DefaultCommitIdDatabase}, a record is always appended at the offset
+ * {@code (revision - 1) * 128}, and the records are read from a memory-mapped buffer. The mapping is
+ * grown in 1 MiB chunks, which extends the file with the zero-filled records to be written later.
+ * The index is derived from the Git repository, so it is not synced to the disk, and the zero-filled
+ * records and the records newer than the head revision of the repository are discarded when the index
+ * is opened.
+ */
+final class ChangedPathIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangedPathIndex.class);
+
+    private static final String FILE_NAME = "changed_paths.dat";
+
+    private static final int FILTER_LEN = 124;
+    private static final int FILTER_BITS = FILTER_LEN * 8;
+    private static final int RECORD_LEN = 4 + FILTER_LEN;
+    private static final int NUM_HASHES = 7;
+
+    /**
+     * The maximum number of the keys of a filter. The filter of a {@link Revision} which changed more
+     * paths has all bits set, so that it reports every path as changed.
+     */
+    @VisibleForTesting
+    static final int MAX_KEYS = 64;
+
+    // The maximum size of a mapped buffer, which is limited by the ByteBuffer API.
+    private static final long MAX_MAPPED_SIZE = (long) (Integer.MAX_VALUE / RECORD_LEN) * RECORD_LEN;
+
+    // The unit of growing the mapped buffer, which is a multiple of RECORD_LEN.
+    private static final long MAP_CHUNK_SIZE = 1024 * 1024;
+
+    private static final Pattern SPLIT = Pattern.compile("\\s*,\\s*");
+
+    private static final HashFunction hashFunction = Hashing.murmur3_128();
+
+    private static final ThreadLocal<ByteBuffer> threadLocalBuffer =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(RECORD_LEN));
+
+    /**
+     * Returns the keys to look up from the index for the specified path pattern, or {@code null}
+     * if the path pattern may match any path, e.g. {@code "/**"} or {@code "*.json"}.
+     */
+    @Nullable
+    static long[] keys(String pathPattern) {
+        final String[] pathPatterns = SPLIT.split(pathPattern.trim());
+        final long[] keys = new long[pathPatterns.length * 2];
+        int numKeys = 0;
+        for (String p : pathPatterns) {
+            if (p.isEmpty()) {
+                continue;
+            }
+            if (p.charAt(0) != '/' || Repository.ALL_PATH.equals(p)) {
+                return null;
+            }
+            if (p.endsWith("/")) {
+                p = p.substring(0, p.length() - 1);
+            }
+
+            // A path pattern with a wildcard is looked up with its parent directory which does not
+            // have a wildcard, because the parent directories of a changed path are also in the filter.
+            final int wildcardIndex = p.indexOf('*');
+            if (wildcardIndex >= 0) {
+                p = p.substring(0, p.lastIndexOf('/', wildcardIndex));
+            }
+            if (p.isEmpty()) {
+                return null;
+            }
+            final HashCode hash = hashFunction.hashString(p, UTF_8);
+            final ByteBuffer buf = ByteBuffer.wrap(hash.asBytes());
+            keys[numKeys++] = buf.getLong();
+            keys[numKeys++] = buf.getLong();
+        }
+        if (numKeys == 0) {
+            return null;
+        }
+        if (numKeys == keys.length) {
+            return keys;
+        }
+        final long[] trimmed = new long[numKeys];
+        System.arraycopy(keys, 0, trimmed, 0, numKeys);
+        return trimmed;
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    /**
+     * The number of the valid records, i.e. the last indexed revision.
+     */
+    private volatile int headRevision;
+    @Nullable
+    private volatile MappedByteBuffer mappedBuffer;
+
+    /**
+     * Opens the index in the specified directory, discarding the records newer than the specified
+     * head revision of the repository.
+     */
+    ChangedPathIndex(File rootDir, @Nullable Revision repositoryHeadRevision) {
+        path = new File(rootDir, FILE_NAME).toPath();
+        try {
+            channel = FileChannel.open(path,
+                                       StandardOpenOption.CREATE,
+                                       StandardOpenOption.READ,
+                                       StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new StorageException("failed to open a changed path index: " + path, e);
+        }
+
+        boolean success = false;
+        try {
+            final int maxRevision = repositoryHeadRevision != null ? repositoryHeadRevision.major() : 0;
+            int numRecords = (int) Math.min(channel.size() / RECORD_LEN, maxRevision);
+            if (numRecords > 0 && readRevision((long) (numRecords - 1) * RECORD_LEN) == 0) {
+                numRecords = numWrittenRecords(numRecords);
+            }
+            if (numRecords > 0 && readRevision((long) (numRecords - 1) * RECORD_LEN) != numRecords) {
+                logger.warn("Dropping the corrupted changed path index: {}", path);
+                numRecords = 0;
+            }
+            if (channel.size() != (long) numRecords * RECORD_LEN) {
+                channel.truncate((long) numRecords * RECORD_LEN);
+            }
+            headRevision = numRecords;
+            success = true;
+        } catch (IOException e) {
+            throw new StorageException("failed to open a changed path index: " + path, e);
+        } finally {
+            if (!success) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of the records written before the zero-filled records, given that the record at
+     * {@code numRecords - 1} is zero-filled.
+     */
+    private int numWrittenRecords(int numRecords) throws IOException {
+        int low = 0;
+        int high = numRecords - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (readRevision((long) mid * RECORD_LEN) != 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int readRevision(long pos) throws IOException {
+        final ByteBuffer buf = threadLocalBuffer.get();
+        buf.clear();
+        long readPos = pos;
+        do {
+            final int readBytes = channel.read(buf, readPos);
+            if (readBytes < 0) {
+                throw new EOFException();
+            }
+            readPos += readBytes;
+        } while (buf.hasRemaining());
+        return buf.getInt(0);
+    }
+
+    /**
+     * Returns the next {@link Revision} to be indexed.
+     */
+    Revision nextRevision() {
+        return new Revision(headRevision + 1);
+    }
+
+    /**
+     * Returns {@code true} if the specified {@link Revision} may have changed any of the specified keys.
+     * {@code true} is also returned if the {@link Revision} has not been indexed yet.
+     *
+     * @param keys the keys returned by {@link #keys(String)}
+     */
+    boolean mayHaveChanged(int revision, long[] keys) {
+        if (revision > headRevision) {
+            return true;
+        }
+        final long pos = (long) (revision - 1) * RECORD_LEN;
+        if (pos + RECORD_LEN > MAX_MAPPED_SIZE) {
+            return true;
+        }
+        final MappedByteBuffer buf = mappedBuffer(pos + RECORD_LEN);
+        final int offset = (int) pos;
+        if (buf.getInt(offset) != revision) {
+            // Should never reach here.
+            return true;
+        }
+        for (int i = 0; i < keys.length; i += 2) {
+            if (mayContain(buf, offset + 4, keys[i], keys[i + 1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if any of the specified revisions may have changed any of the specified keys.
+     */
+    boolean mayHaveChanged(int fromRevision, int toRevision, long[] keys) {
+        for (int revision = fromRevision; revision <= toRevision; revision++) {
+            if (mayHaveChanged(revision, keys)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean mayContain(ByteBuffer buf, int offset, long hash1, long hash2) {
+        for (int i = 0; i < NUM_HASHES; i++) {
+            final int bit = bit(hash1, hash2, i);
+            if ((buf.get(offset + (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int bit(long hash1, long hash2, int i) {
+        return (int) Long.remainderUnsigned(hash1 + i * hash2, FILTER_BITS);
+    }
+
+    /**
+     * Returns the {@link MappedByteBuffer} whose capacity is equal to or greater than the specified size.
+     * The size of the mapping is rounded up to a multiple of {@link #MAP_CHUNK_SIZE}, so that the file is
+     * not mapped again whenever a record is appended.
+     */
+    private MappedByteBuffer mappedBuffer(long minSize) {
+        MappedByteBuffer buf = mappedBuffer;
+        if (buf != null && buf.capacity() >= minSize) {
+            return buf;
+        }
+
+        // Mapping beyond the end of the file extends the file, so map while the records are not written.
+        synchronized (this) {
+            buf = mappedBuffer;
+            if (buf != null && buf.capacity() >= minSize) {
+                return buf;
+            }
+
+            final long size = Math.min((minSize + MAP_CHUNK_SIZE - 1) / MAP_CHUNK_SIZE * MAP_CHUNK_SIZE,
+                                       MAX_MAPPED_SIZE);
+            try {
+                buf = channel.map(MapMode.READ_ONLY, 0, size);
+            } catch (IOException e) {
+                throw new StorageException("failed to map the changed path index: " + path, e);
+            }
+            mappedBuffer = buf;
+            return buf;
+        }
+    }
+
+    /**
+     * Stores the paths changed by the specified {@link Revision}. If the {@link Revision} has been
+     * indexed already, e.g. by a commit which failed to update the ref, the record is replaced and
+     * the records after it are discarded.
+     *
+     * @param changedPaths the absolute paths changed by the {@link Revision}
+     */
+    synchronized void put(Revision revision, Iterable<String> changedPaths) {
+        final int major = revision.major();
+        if (major > headRevision + 1) {
+            // Fill the gap first. See GitRepository.indexChangedPaths().
+            return;
+        }
+        write(major, changedPaths);
+    }
+
+    /**
+     * Stores the paths changed by the specified {@link Revision} only if it is the next {@link Revision}
+     * to be indexed.
+     *
+     * @return {@code true} if stored
+     */
+    synchronized boolean putIfNext(Revision revision, Iterable<String> changedPaths) {
+        if (revision.major() != headRevision + 1) {
+            return false;
+        }
+        write(revision.major(), changedPaths);
+        return true;
+    }
+
+    private void write(int revision, Iterable<String> changedPaths) {
+        final ByteBuffer buf = threadLocalBuffer.get();
+        buf.clear();
+        buf.putInt(revision);
+        final Set<String> keys = new HashSet<>();
+        for (String changedPath : changedPaths) {
+            // Add the path and its parent directories.
+            for (String p = changedPath; !p.isEmpty(); p = p.substring(0, p.lastIndexOf('/'))) {
+                if (!keys.add(p)) {
+                    break;
+                }
+            }
+            if (keys.size() > MAX_KEYS) {
+                break;
+            }
+        }
+        final byte fill = keys.size() > MAX_KEYS ? (byte) 0xFF : 0;
+        for (int i = 0; i < FILTER_LEN; i++) {
+            buf.put(4 + i, fill);
+        }
+        if (fill == 0) {
+            for (String key : keys) {
+                final ByteBuffer hash = ByteBuffer.wrap(hashFunction.hashString(key, UTF_8).asBytes());
+                final long hash1 = hash.getLong();
+                final long hash2 = hash.getLong();
+                for (int i = 0; i < NUM_HASHES; i++) {
+                    final int bit = bit(hash1, hash2, i);
+                    final int index = 4 + (bit >>> 3);
+                    buf.put(index, (byte) (buf.get(index) | (1 << (bit & 7))));
+                }
+            }
+        }
+        buf.position(RECORD_LEN);
+        buf.flip();
+
+        long pos = (long) (revision - 1) * RECORD_LEN;
+        try {
+            do {
+                pos += channel.write(buf, pos);
+            } while (buf.hasRemaining());
+        } catch (IOException e) {
+            throw new StorageException("failed to update the changed path index: " + path, e);
+        }
+        headRevision = revision;
+    }
+
+    void close() {
+        mappedBuffer = null;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close the changed path index: {}", path, e);
+        }
+    }
+}
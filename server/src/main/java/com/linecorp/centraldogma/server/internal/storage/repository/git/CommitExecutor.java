@@ -15,6 +15,7 @@
  */
 package com.linecorp.centraldogma.server.internal.storage.repository.git;
 
+import static com.linecorp.centraldogma.server.internal.storage.repository.git.FailFastUtil.failFastIfTimedOut;
 import static com.linecorp.centraldogma.server.internal.storage.repository.git.GitRepository.R_HEADS_MASTER;
 import static com.linecorp.centraldogma.server.internal.storage.repository.git.GitRepository.doRefUpdate;
 import static com.linecorp.centraldogma.server.internal.storage.repository.git.GitRepository.newRevWalk;
@@ -22,27 +23,30 @@ import static com.linecorp.centraldogma.server.internal.storage.repository.git.G
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 import javax.annotation.Nullable;
 
 import org.eclipse.jgit.diff.DiffEntry;
-import org.eclipse.jgit.diff.DiffFormatter;
-import org.eclipse.jgit.dircache.DirCache;
-import org.eclipse.jgit.dircache.DirCacheIterator;
 import org.eclipse.jgit.lib.CommitBuilder;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectInserter;
 import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.PersonIdent;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
-import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
+import com.linecorp.armeria.server.ServiceRequestContext;
 import com.linecorp.centraldogma.common.Author;
 import com.linecorp.centraldogma.common.CentralDogmaException;
 import com.linecorp.centraldogma.common.Change;
@@ -51,10 +55,13 @@ import com.linecorp.centraldogma.common.Markup;
 import com.linecorp.centraldogma.common.RedundantChangeException;
 import com.linecorp.centraldogma.common.Revision;
 import com.linecorp.centraldogma.server.command.CommitResult;
+import com.linecorp.centraldogma.server.internal.storage.repository.RepositoryCache;
 import com.linecorp.centraldogma.server.storage.StorageException;
 
 final class CommitExecutor {
 
+    private static final Logger logger = LoggerFactory.getLogger(CommitExecutor.class);
+
     final GitRepository gitRepository;
     private final long commitTimeMillis;
     private final Author author;
@@ -82,8 +89,8 @@ final class CommitExecutor {
         return summary;
     }
 
-    void executeInitialCommit() {
-        commit(null, Revision.INIT, ImmutableList.of());
+    RepositoryHead executeInitialCommit() {
+        return commit(null, Revision.INIT, ImmutableList.of()).head;
     }
 
     CommitResult execute(Revision baseRevision,
@@ -92,18 +99,13 @@ final class CommitExecutor {
         final Iterable<Change<?>> applyingChanges;
         gitRepository.writeLock();
         try {
-            final Revision normBaseRevision = gitRepository.normalizeNow(baseRevision);
+            final Revision normBaseRevision = normalizeBaseRevision(baseRevision);
             final Revision headRevision = gitRepository.cachedHeadRevision();
-            if (headRevision.major() != normBaseRevision.major()) {
-                throw new ChangeConflictException(
-                        "invalid baseRevision: " + baseRevision + " (expected: " + headRevision +
-                        " or equivalent)");
-            }
-
             applyingChanges = applyingChangesProvider.apply(normBaseRevision);
             res = commit(headRevision, headRevision.forward(1), applyingChanges);
 
-            gitRepository.setHeadRevision(res.revision);
+            // Publish the new head so that the readers can see the new revision.
+            gitRepository.setHead(res.head);
         } finally {
             gitRepository.writeUnLock();
         }
@@ -113,8 +115,83 @@ final class CommitExecutor {
         return CommitResult.of(res.revision, applyingChanges);
     }
 
+    /**
+     * Applies the specified {@link GroupCommit}s in a row, sharing a single {@link ObjectInserter},
+     * {@link ObjectReader} and {@link RevWalk}. Each {@link GroupCommit} gets its own revision and updates
+     * the branch before its revision is published, and a {@link GroupCommit} which fails is completed
+     * exceptionally without affecting the others. Must be called while the commit lock is held.
+     *
+     * @return the {@link GroupCommit}s which have been committed successfully
+     */
+    static List<GroupCommit> executeGroup(GitRepository gitRepository, List<GroupCommit> groupCommits) {
+        final Repository jGitRepository = gitRepository.jGitRepository();
+        final List<GroupCommit> committed = new ArrayList<>(groupCommits.size());
+        try (ObjectInserter inserter = jGitRepository.newObjectInserter();
+             ObjectReader reader = jGitRepository.newObjectReader();
+             RevWalk revWalk = newRevWalk(reader)) {
+            for (GroupCommit groupCommit : groupCommits) {
+                try {
+                    groupCommit.execute(gitRepository, inserter, reader, revWalk);
+                    committed.add(groupCommit);
+                } catch (CentralDogmaException | IllegalArgumentException | IllegalStateException e) {
+                    groupCommit.future.completeExceptionally(e);
+                } catch (Throwable cause) {
+                    groupCommit.future.completeExceptionally(newPushException(gitRepository, cause));
+                }
+            }
+            return committed;
+        } catch (Throwable cause) {
+            // Failed to open or close the shared objects. The commits which have been committed already
+            // are still valid because each of them has updated the branch.
+            final StorageException exception = newPushException(gitRepository, cause);
+            for (GroupCommit groupCommit : groupCommits) {
+                if (!committed.contains(groupCommit)) {
+                    groupCommit.future.completeExceptionally(exception);
+                }
+            }
+            return committed;
+        }
+    }
+
+    private Revision normalizeBaseRevision(Revision baseRevision) {
+        final Revision normBaseRevision = gitRepository.normalizeNow(baseRevision);
+        final Revision headRevision = gitRepository.cachedHeadRevision();
+        if (headRevision.major() != normBaseRevision.major()) {
+            throw new ChangeConflictException(
+                    "invalid baseRevision: " + baseRevision + " (expected: " + headRevision +
+                    " or equivalent)");
+        }
+        return normBaseRevision;
+    }
+
     RevisionAndEntries commit(@Nullable Revision headRevision, Revision nextRevision,
                               Iterable<Change<?>> changes) {
+        final Repository jGitRepository = gitRepository.jGitRepository();
+        try (ObjectInserter inserter = jGitRepository.newObjectInserter();
+             ObjectReader reader = jGitRepository.newObjectReader();
+             RevWalk revWalk = newRevWalk(reader)) {
+            return commit(inserter, reader, revWalk, headRevision, nextRevision, changes);
+        } catch (CentralDogmaException | IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw newPushException(gitRepository, e);
+        }
+    }
+
+    private static StorageException newPushException(GitRepository gitRepository, Throwable cause) {
+        return new StorageException("failed to push at '" + gitRepository.parent().name() + '/' +
+                                    gitRepository.name() + '\'', cause);
+    }
+
+    /**
+     * Writes a new commit with the specified changes, updates the branch to it and then records its
+     * revision. Nothing about the new revision is recorded before the branch is updated successfully,
+     * so that a failed or interrupted commit leaves no trace of the revision which the next commit or
+     * the next startup would assign to different changes.
+     */
+    private RevisionAndEntries commit(ObjectInserter inserter, ObjectReader reader, RevWalk revWalk,
+                                      @Nullable Revision headRevision, Revision nextRevision,
+                                      Iterable<Change<?>> changes) throws IOException {
         requireNonNull(nextRevision, "nextRevision");
         requireNonNull(changes, "changes");
 
@@ -123,92 +200,142 @@ final class CommitExecutor {
         assert nextRevision.major() > 0;
 
         final Repository jGitRepository = gitRepository.jGitRepository();
-        try (ObjectInserter inserter = jGitRepository.newObjectInserter();
-             ObjectReader reader = jGitRepository.newObjectReader();
-             RevWalk revWalk = newRevWalk(reader)) {
-            final CommitIdDatabase commitIdDatabase = gitRepository.commitIdDatabase();
-
-            // The staging area that keeps the entries of the new tree.
-            // It starts with the entries of the tree at the headRevision (or with no entries if the
-            // headRevision is the initial commit), and then this method will apply the requested changes
-            // to build the new tree.
-            final DirCache dirCache = DirCache.newInCore();
-            final List<DiffEntry> diffEntries;
-
-            if (headRevision != null) {
-                final ObjectId prevTreeId = toTree(commitIdDatabase, revWalk, headRevision);
-                // Apply the changes and retrieve the list of the affected files.
-                final int numEdits = new DefaultChangesApplier(changes)
-                        .apply(jGitRepository, headRevision, prevTreeId, dirCache);
-                // Reject empty commit if necessary.
-                boolean isEmpty = numEdits == 0;
-                if (!isEmpty) {
-                    // Even if there are edits, the resulting tree might be identical with the previous tree.
-                    final CanonicalTreeParser p = new CanonicalTreeParser();
-                    p.reset(reader, prevTreeId);
-                    final DiffFormatter diffFormatter = new DiffFormatter(null);
-                    diffFormatter.setRepository(jGitRepository);
-                    diffEntries = diffFormatter.scan(p, new DirCacheIterator(dirCache));
-                    isEmpty = diffEntries.isEmpty();
-                } else {
-                    diffEntries = ImmutableList.of();
-                }
-                if (!allowEmptyCommit && isEmpty) {
-                            throw new RedundantChangeException(
-                                    headRevision,
-                            "changes did not change anything in " + gitRepository.parent().name() + '/' +
-                            gitRepository.name() + " at revision " + headRevision.major() + ": " + changes);
-                }
-            } else {
-                // initial commit.
-                diffEntries = ImmutableList.of();
+        final CommitIdDatabase commitIdDatabase = gitRepository.commitIdDatabase();
+
+        // The editor that builds the new tree. It starts with the tree at the headRevision (or with
+        // an empty tree if the headRevision is the initial commit), and then this method will apply
+        // the requested changes to it. Only the subtrees which contain the changed paths are read and
+        // rewritten, so the cost of a commit does not grow with the size of the repository.
+        final TreeEditor treeEditor;
+        final List<DiffEntry> diffEntries;
+        RevTree prevTree = null;
+
+        if (headRevision != null) {
+            prevTree = toTree(commitIdDatabase, revWalk, headRevision);
+            treeEditor = new TreeEditor(reader, prevTree);
+            // Apply the changes and retrieve the list of the affected files.
+            final int numEdits = new DefaultChangesApplier(changes)
+                    .apply(headRevision, treeEditor, reader, inserter);
+            // Even if there are edits, the resulting tree might be identical with the previous tree.
+            diffEntries = numEdits != 0 ? treeEditor.diff() : ImmutableList.of();
+            // Reject empty commit if necessary.
+            if (!allowEmptyCommit && diffEntries.isEmpty()) {
+                throw new RedundantChangeException(
+                        headRevision,
+                        "changes did not change anything in " + gitRepository.parent().name() + '/' +
+                        gitRepository.name() + " at revision " + headRevision.major() + ": " + changes);
             }
+        } else {
+            // initial commit.
+            treeEditor = new TreeEditor(reader, null);
+            diffEntries = ImmutableList.of();
+        }
 
-            // flush the current index to repository and get the result tree object id.
-            final ObjectId nextTreeId = dirCache.writeTree(inserter);
+        // Write the modified trees to the repository and get the result tree object id.
+        final ObjectId nextTreeId = treeEditor.writeTree(inserter);
 
-            // build a commit object
-            final PersonIdent personIdent = new PersonIdent(author.name(), author.email(),
-                                                            commitTimeMillis / 1000L * 1000L, 0);
+        // build a commit object
+        final PersonIdent personIdent = new PersonIdent(author.name(), author.email(),
+                                                        commitTimeMillis / 1000L * 1000L, 0);
 
-            final CommitBuilder commitBuilder = new CommitBuilder();
+        final CommitBuilder commitBuilder = new CommitBuilder();
 
-            commitBuilder.setAuthor(personIdent);
-            commitBuilder.setCommitter(personIdent);
-            commitBuilder.setTreeId(nextTreeId);
-            commitBuilder.setEncoding(UTF_8);
+        commitBuilder.setAuthor(personIdent);
+        commitBuilder.setCommitter(personIdent);
+        commitBuilder.setTreeId(nextTreeId);
+        commitBuilder.setEncoding(UTF_8);
 
-            // Write summary, detail and revision to commit's message as JSON format.
-            commitBuilder.setMessage(CommitUtil.toJsonString(summary, detail, markup, nextRevision));
+        // Write summary, detail and revision to commit's message as JSON format.
+        commitBuilder.setMessage(CommitUtil.toJsonString(summary, detail, markup, nextRevision));
 
-            // if the head commit exists, use it as the parent commit.
-            if (headRevision != null) {
-                commitBuilder.setParentId(commitIdDatabase.get(headRevision));
-            }
+        // if the head commit exists, use it as the parent commit.
+        if (headRevision != null) {
+            commitBuilder.setParentId(commitIdDatabase.get(headRevision));
+        }
 
-            final ObjectId nextCommitId = inserter.insert(commitBuilder);
-            inserter.flush();
+        final ObjectId nextCommitId = inserter.insert(commitBuilder);
+        inserter.flush();
 
-            // tagging the revision object, for history lookup purpose.
-            commitIdDatabase.put(nextRevision, nextCommitId);
-            doRefUpdate(jGitRepository, revWalk, R_HEADS_MASTER, nextCommitId);
+        doRefUpdate(jGitRepository, revWalk, R_HEADS_MASTER, nextCommitId);
 
-            return new RevisionAndEntries(nextRevision, diffEntries);
-        } catch (CentralDogmaException | IllegalArgumentException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new StorageException("failed to push at '" + gitRepository.parent().name() + '/' +
-                                       gitRepository.name() + '\'', e);
+        // tagging the revision object, for history lookup purpose.
+        commitIdDatabase.put(nextRevision, nextCommitId);
+        gitRepository.indexChangedPaths(nextRevision, diffEntries);
+
+        final RepositoryCache cache = gitRepository.cache;
+        if (cache != null && prevTree != null) {
+            // Cache the diff we have computed already, so that the readers of the new revision,
+            // such as the watchers and the tree snapshots, do not have to compare the trees again.
+            cache.putIfAbsent(new CacheableCompareTreesCall(gitRepository, prevTree,
+                                                            revWalk.lookupTree(nextTreeId)),
+                              ImmutableList.copyOf(diffEntries));
         }
+
+        return new RevisionAndEntries(new RepositoryHead(nextRevision, nextCommitId, nextTreeId),
+                                      diffEntries);
     }
 
     static final class RevisionAndEntries {
+        final RepositoryHead head;
         final Revision revision;
         final List<DiffEntry> diffEntries;
 
-        RevisionAndEntries(Revision revision, List<DiffEntry> diffEntries) {
-            this.revision = revision;
+        RevisionAndEntries(RepositoryHead head, List<DiffEntry> diffEntries) {
+            this.head = head;
+            revision = head.revision();
             this.diffEntries = diffEntries;
         }
     }
+
+    /**
+     * A commit which is applied together with the other concurrent commits to the same repository.
+     */
+    static final class GroupCommit {
+
+        final CompletableFuture<CommitResult> future = new CompletableFuture<>();
+        @Nullable
+        private final ServiceRequestContext ctx;
+        private final CommitExecutor commitExecutor;
+        private final Revision baseRevision;
+        private final Function<Revision, Iterable<Change<?>>> applyingChangesProvider;
+        @Nullable
+        private RevisionAndEntries result;
+        @Nullable
+        private CommitResult commitResult;
+
+        GroupCommit(@Nullable ServiceRequestContext ctx, CommitExecutor commitExecutor,
+                    Revision baseRevision, Function<Revision, Iterable<Change<?>>> applyingChangesProvider) {
+            this.ctx = ctx;
+            this.commitExecutor = commitExecutor;
+            this.baseRevision = baseRevision;
+            this.applyingChangesProvider = applyingChangesProvider;
+        }
+
+        RevisionAndEntries result() {
+            assert result != null;
+            return result;
+        }
+
+        void complete() {
+            assert commitResult != null;
+            future.complete(commitResult);
+        }
+
+        private void execute(GitRepository gitRepository, ObjectInserter inserter, ObjectReader reader,
+                             RevWalk revWalk) throws IOException {
+            failFastIfTimedOut(gitRepository, logger, ctx, "commit", baseRevision,
+                               commitExecutor.author(), commitExecutor.summary());
+
+            final Revision normBaseRevision = commitExecutor.normalizeBaseRevision(baseRevision);
+            final Revision headRevision = gitRepository.cachedHeadRevision();
+            final Iterable<Change<?>> applyingChanges = applyingChangesProvider.apply(normBaseRevision);
+            final RevisionAndEntries res = commitExecutor.commit(inserter, reader, revWalk, headRevision,
+                                                                 headRevision.forward(1), applyingChanges);
+
+            // Publish the new head so that the next commit in the group and the readers can see it.
+            gitRepository.setHead(res.head);
+            result = res;
+            commitResult = CommitResult.of(res.revision, applyingChanges);
+        }
+    }
 }
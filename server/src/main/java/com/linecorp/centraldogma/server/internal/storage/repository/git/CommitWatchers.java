@@ -17,15 +17,13 @@
 package com.linecorp.centraldogma.server.internal.storage.repository.git;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.IdentityHashMap;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
@@ -38,13 +36,43 @@ import com.google.common.annotations.VisibleForTesting;
 import com.linecorp.centraldogma.common.CentralDogmaException;
 import com.linecorp.centraldogma.common.Revision;
 import com.linecorp.centraldogma.server.internal.storage.repository.git.Watch.WatchListener;
+import com.linecorp.centraldogma.server.storage.repository.Repository;
 
+/**
+ * A registry of the {@link Watch}es of a repository.
+ *
+ * <p>The {@link Watch}es are kept in concurrent maps rather than behind a single monitor, so that
+ * registering, cancelling and notifying the {@link Watch}es do not block each other. Each
+ * {@link PathPatternFilter} is also indexed by its path patterns, so that {@link #notify(Revision, String)}
+ * only evaluates the filters which may match the changed path:
+ * <ul>
+ *   <li>A path pattern without wildcards is indexed by its path, e.g. {@code /a/b.json}.</li>
+ *   <li>A path pattern with wildcards is indexed by the directory part of its literal prefix,
+ *       e.g. {@code /a/} for {@code /a/**}, and is evaluated only for the paths under the directory.</li>
+ *   <li>A path pattern that starts with a wildcard, e.g. {@code /**}{@code /*.json}, is evaluated for
+ *       every path, using a {@link PathPatternMatcher} which evaluates all such path patterns at once.
+ *       The {@link PathPatternMatcher} is rebuilt lazily when such a path pattern is added or removed.</li>
+ * </ul>
+ */
 final class CommitWatchers {
 
     private static final Logger logger = LoggerFactory.getLogger(CommitWatchers.class);
 
+    private static final String ROOT_DIR = "/";
+
+    /**
+     * The {@link Watch}es grouped by their {@link PathPatternFilter}. A {@link PathPatternFilter} is added to
+     * or removed from the index only while its key is being updated, i.e. in {@code compute*()}.
+     */
     @VisibleForTesting
-    final Map<PathPatternFilter, Set<Watch>> watchesMap = new WatcherMap(8192);
+    final Map<PathPatternFilter, Set<Watch>> watchesMap = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<PathPatternFilter>> exactPathIndex = new ConcurrentHashMap<>();
+    private final Map<String, Set<PathPatternFilter>> directoryIndex = new ConcurrentHashMap<>();
+    private final Set<PathPatternFilter> unindexedFilters = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger unindexedFiltersVersion = new AtomicInteger();
+    private volatile UnindexedFiltersMatcher unindexedFiltersMatcher =
+            new UnindexedFiltersMatcher(0, PathPatternMatcher.<PathPatternFilter>builder().build());
 
     void add(Revision lastKnownRev, String pathPattern,
              @Nullable CompletableFuture<Revision> future, @Nullable WatchListener listener) {
@@ -52,12 +80,14 @@ final class CommitWatchers {
     }
 
     private void add0(final PathPatternFilter pathPattern, Watch watch) {
-        synchronized (watchesMap) {
-            final Set<Watch> watches =
-                    watchesMap.computeIfAbsent(pathPattern,
-                                               k -> Collections.newSetFromMap(new IdentityHashMap<>()));
+        watchesMap.compute(pathPattern, (filter, watches) -> {
+            if (watches == null) {
+                watches = ConcurrentHashMap.newKeySet();
+                index(filter);
+            }
             watches.add(watch);
-        }
+            return watches;
+        });
 
         final CompletableFuture<Revision> future = watch.future();
         if (future == null) {
@@ -70,45 +100,59 @@ final class CommitWatchers {
 
             // Remove manually only when the watch was not removed from the set successfully.
             // This usually happens when a user cancels the promise.
-            synchronized (watchesMap) {
-                final Set<Watch> watches = watchesMap.get(pathPattern);
-                watches.remove(watch);
-                if (watches.isEmpty()) {
-                    watchesMap.remove(pathPattern);
-                }
+            final Set<Watch> watches = watchesMap.get(pathPattern);
+            if (watches != null && watches.remove(watch)) {
+                removeIfEmpty(pathPattern);
             }
         });
     }
 
     void notify(Revision revision, String path) {
+        if (watchesMap.isEmpty()) {
+            return;
+        }
+
+        if (path.isEmpty() || path.charAt(0) != '/') {
+            // The path of a DiffEntry does not start with '/'.
+            path = '/' + path;
+        }
+
         List<Watch> eligibleWatches = null;
-        synchronized (watchesMap) {
-            if (watchesMap.isEmpty()) {
-                return;
+        for (PathPatternFilter filter : candidates(path)) {
+            if (!filter.matches(path)) {
+                continue;
             }
 
-            for (final Iterator<Entry<PathPatternFilter, Set<Watch>>> mapIt = watchesMap.entrySet().iterator();
-                 mapIt.hasNext();) {
+            final Set<Watch> watches = watchesMap.get(filter);
+            if (watches == null) {
+                continue;
+            }
 
-                final Entry<PathPatternFilter, Set<Watch>> entry = mapIt.next();
-                if (!entry.getKey().matches(path)) {
+            boolean removed = false;
+            for (Watch w : watches) {
+                final Revision lastKnownRevision = w.lastKnownRevision();
+                if (lastKnownRevision.compareTo(revision) >= 0) {
+                    logIneligibleFuture(lastKnownRevision, revision);
                     continue;
                 }
 
-                final Set<Watch> watches = entry.getValue();
-                for (final Iterator<Watch> i = watches.iterator(); i.hasNext();) {
-                    final Watch w = i.next();
-                    final Revision lastKnownRevision = w.lastKnownRevision();
-                    if (lastKnownRevision.compareTo(revision) < 0) {
-                        eligibleWatches = move(eligibleWatches, i, w);
-                    } else {
-                        logIneligibleFuture(lastKnownRevision, revision);
+                if (w.canRemove()) {
+                    if (!watches.remove(w)) {
+                        // Removed by another notification or cancellation.
+                        continue;
                     }
+                    w.remove();
+                    removed = true;
                 }
 
-                if (watches.isEmpty()) {
-                    mapIt.remove();
+                if (eligibleWatches == null) {
+                    eligibleWatches = new ArrayList<>();
                 }
+                eligibleWatches.add(w);
+            }
+
+            if (removed) {
+                removeIfEmpty(filter);
             }
         }
 
@@ -123,20 +167,81 @@ final class CommitWatchers {
         }
     }
 
+    /**
+     * Returns the {@link PathPatternFilter}s which may match the specified path.
+     */
+    private Set<PathPatternFilter> candidates(String path) {
+        final PathPatternMatcher<PathPatternFilter> matcher = unindexedFiltersMatcher();
+        final Set<PathPatternFilter> candidates =
+                matcher.isEmpty() ? new HashSet<>() : new HashSet<>(matcher.match(path));
+        final Set<PathPatternFilter> exactMatches = exactPathIndex.get(path);
+        if (exactMatches != null) {
+            candidates.addAll(exactMatches);
+        }
+
+        if (!directoryIndex.isEmpty()) {
+            // Visit all parent directories, e.g. '/a/' and '/a/b/' for '/a/b/c.json'.
+            for (int i = path.indexOf('/', 1); i > 0; i = path.indexOf('/', i + 1)) {
+                final Set<PathPatternFilter> filters = directoryIndex.get(path.substring(0, i + 1));
+                if (filters != null) {
+                    candidates.addAll(filters);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private PathPatternMatcher<PathPatternFilter> unindexedFiltersMatcher() {
+        final UnindexedFiltersMatcher matcher = unindexedFiltersMatcher;
+        if (matcher.version == unindexedFiltersVersion.get()) {
+            return matcher.matcher;
+        }
+
+        synchronized (unindexedFilters) {
+            final int version = unindexedFiltersVersion.get();
+            if (unindexedFiltersMatcher.version == version) {
+                return unindexedFiltersMatcher.matcher;
+            }
+
+            final PathPatternMatcher.Builder<PathPatternFilter> builder = PathPatternMatcher.builder();
+            for (PathPatternFilter filter : unindexedFilters) {
+                if (filter.matchesAll()) {
+                    builder.add(Repository.ALL_PATH, filter);
+                    continue;
+                }
+                for (String pathPattern : filter.pathPatterns()) {
+                    if (ROOT_DIR.equals(indexedDirectory(pathPattern))) {
+                        builder.add(pathPattern, filter);
+                    }
+                }
+            }
+            final UnindexedFiltersMatcher newMatcher = new UnindexedFiltersMatcher(version, builder.build());
+            unindexedFiltersMatcher = newMatcher;
+            return newMatcher.matcher;
+        }
+    }
+
     void close(Supplier<CentralDogmaException> causeSupplier) {
         List<Watch> eligibleWatches = null;
-        synchronized (watchesMap) {
-            for (final Set<Watch> watches : watchesMap.values()) {
-                for (final Iterator<Watch> i = watches.iterator(); i.hasNext();) {
-                    final Watch w = i.next();
-                    if (!w.canRemove()) {
-                        // ResponseListener does not need to propagate errors when closing.
-                        i.remove();
-                    } else {
-                        eligibleWatches = move(eligibleWatches, i, w);
-                    }
+        for (Map.Entry<PathPatternFilter, Set<Watch>> entry : watchesMap.entrySet()) {
+            final Set<Watch> watches = entry.getValue();
+            for (Watch w : watches) {
+                if (!watches.remove(w)) {
+                    continue;
                 }
+
+                if (!w.canRemove()) {
+                    // ResponseListener does not need to propagate errors when closing.
+                    continue;
+                }
+
+                w.remove();
+                if (eligibleWatches == null) {
+                    eligibleWatches = new ArrayList<>();
+                }
+                eligibleWatches.add(w);
             }
+            removeIfEmpty(entry.getKey());
         }
 
         if (eligibleWatches == null) {
@@ -151,41 +256,110 @@ final class CommitWatchers {
         }
     }
 
-    private static List<Watch> move(@Nullable List<Watch> watches, Iterator<Watch> i, Watch w) {
-        if (w.canRemove()) {
-            i.remove();
-            w.remove();
+    private void removeIfEmpty(PathPatternFilter pathPattern) {
+        watchesMap.computeIfPresent(pathPattern, (filter, watches) -> {
+            if (!watches.isEmpty()) {
+                return watches;
+            }
+            unindex(filter);
+            return null;
+        });
+    }
+
+    private void index(PathPatternFilter filter) {
+        if (filter.matchesAll()) {
+            addUnindexedFilter(filter);
+            return;
         }
 
-        if (watches == null) {
-            watches = new ArrayList<>();
+        for (String pathPattern : filter.pathPatterns()) {
+            final String dir = indexedDirectory(pathPattern);
+            if (dir == null) {
+                index(exactPathIndex, pathPattern, filter);
+            } else if (ROOT_DIR.equals(dir)) {
+                addUnindexedFilter(filter);
+            } else {
+                index(directoryIndex, dir, filter);
+            }
         }
+    }
 
-        watches.add(w);
-        return watches;
+    private static void index(Map<String, Set<PathPatternFilter>> index, String key,
+                              PathPatternFilter filter) {
+        // Use compute() rather than computeIfAbsent().add() so that a concurrent unindex() does not
+        // remove the set before the filter is added to it.
+        index.compute(key, (unused, filters) -> {
+            if (filters == null) {
+                filters = ConcurrentHashMap.newKeySet();
+            }
+            filters.add(filter);
+            return filters;
+        });
     }
 
-    private static void logIneligibleFuture(Revision lastKnownRevision, Revision newRevision) {
-        logger.debug("Not notifying a future with same or newer lastKnownRevision: {} (newRevision: {})",
-                     lastKnownRevision, newRevision);
+    private void unindex(PathPatternFilter filter) {
+        if (filter.matchesAll()) {
+            removeUnindexedFilter(filter);
+            return;
+        }
+
+        for (String pathPattern : filter.pathPatterns()) {
+            final String dir = indexedDirectory(pathPattern);
+            if (dir == null) {
+                unindex(exactPathIndex, pathPattern, filter);
+            } else if (ROOT_DIR.equals(dir)) {
+                removeUnindexedFilter(filter);
+            } else {
+                unindex(directoryIndex, dir, filter);
+            }
+        }
     }
 
-    private static final class WatcherMap
-            extends LinkedHashMap<PathPatternFilter, Set<Watch>> {
+    private void addUnindexedFilter(PathPatternFilter filter) {
+        if (unindexedFilters.add(filter)) {
+            unindexedFiltersVersion.incrementAndGet();
+        }
+    }
 
-        private static final long serialVersionUID = 6793455658134063005L;
+    private void removeUnindexedFilter(PathPatternFilter filter) {
+        if (unindexedFilters.remove(filter)) {
+            unindexedFiltersVersion.incrementAndGet();
+        }
+    }
 
-        private final int maxEntries;
+    private static void unindex(Map<String, Set<PathPatternFilter>> index, String key,
+                                PathPatternFilter filter) {
+        index.computeIfPresent(key, (unused, filters) -> {
+            filters.remove(filter);
+            return filters.isEmpty() ? null : filters;
+        });
+    }
 
-        WatcherMap(int maxEntries) {
-            super(maxEntries, 0.75f, true);
-            this.maxEntries = maxEntries;
+    /**
+     * Returns the directory of the literal prefix of the specified normalized path pattern, which ends with
+     * {@code '/'}, or {@code null} if the path pattern does not contain any wildcards.
+     */
+    @Nullable
+    private static String indexedDirectory(String pathPattern) {
+        final String literalPrefix = PathPatternFilter.literalPrefix(pathPattern);
+        if (literalPrefix.length() == pathPattern.length()) {
+            return null;
         }
+        return literalPrefix.substring(0, literalPrefix.lastIndexOf('/') + 1);
+    }
+
+    private static void logIneligibleFuture(Revision lastKnownRevision, Revision newRevision) {
+        logger.debug("Not notifying a future with same or newer lastKnownRevision: {} (newRevision: {})",
+                     lastKnownRevision, newRevision);
+    }
+
+    private static final class UnindexedFiltersMatcher {
+        final int version;
+        final PathPatternMatcher<PathPatternFilter> matcher;
 
-        @Override
-        protected boolean removeEldestEntry(Entry<PathPatternFilter, Set<Watch>> eldest) {
-            // Remove only the entries with empty watchers.
-            return size() > maxEntries && eldest.getValue().isEmpty();
+        UnindexedFiltersMatcher(int version, PathPatternMatcher<PathPatternFilter> matcher) {
+            this.version = version;
+            this.matcher = matcher;
         }
     }
 }
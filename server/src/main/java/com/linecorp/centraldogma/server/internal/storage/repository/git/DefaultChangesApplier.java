@@ -28,12 +28,8 @@ import java.util.StringJoiner;
 
 import javax.annotation.Nullable;
 
-import org.eclipse.jgit.dircache.DirCache;
-import org.eclipse.jgit.dircache.DirCacheEditor;
-import org.eclipse.jgit.dircache.DirCacheEditor.DeletePath;
-import org.eclipse.jgit.dircache.DirCacheEditor.DeleteTree;
-import org.eclipse.jgit.dircache.DirCacheEntry;
 import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectInserter;
 import org.eclipse.jgit.lib.ObjectReader;
 
@@ -64,122 +60,95 @@ final class DefaultChangesApplier extends AbstractChangesApplier {
     }
 
     @Override
-    int doApply(Revision unused, DirCache dirCache,
+    int doApply(Revision unused, TreeEditor treeEditor,
                 ObjectReader reader, ObjectInserter inserter) throws IOException {
         int numEdits = 0;
         // loop over the specified changes.
         for (Change<?> change : changes) {
             final String changePath = change.path().substring(1); // Strip the leading '/'.
-            final DirCacheEntry oldEntry = dirCache.getEntry(changePath);
-            final byte[] oldContent = oldEntry != null ? reader.open(oldEntry.getObjectId()).getBytes()
-                                                       : null;
+            // Note that the old content is read only when it's required, e.g. to apply a patch.
+            // The other changes are compared with the old content by their blob IDs.
+            final ObjectId oldId = treeEditor.fileId(changePath);
 
             switch (change.type()) {
                 case UPSERT_JSON: {
-                    String rawContent = change.rawContent();
-                    final JsonNode newJsonNode = firstNonNull((JsonNode) change.content(),
-                                                              JsonNodeFactory.instance.nullNode());
-                    final boolean hasChanges;
+                    final String rawContent = change.rawContent();
                     if (rawContent != null) {
-                        rawContent = sanitizeText(rawContent);
                         // If rawContent is provided, compare the raw JSON text.
-                        final String oldRawContent = oldContent != null ? new String(oldContent, UTF_8) : null;
-                        hasChanges = !rawContent.equals(oldRawContent);
-                    } else {
-                        // Otherwise, compare the parsed JSON nodes.
-                        final JsonNode oldJsonNode = toJsonNode(changePath, oldContent);
-                        hasChanges = !Objects.equals(newJsonNode, oldJsonNode);
+                        if (upsertIfChanged(treeEditor, changePath, oldId, inserter,
+                                            sanitizeText(rawContent))) {
+                            numEdits++;
+                        }
+                        break;
                     }
 
-                    if (hasChanges) {
-                        String newJson = rawContent;
-                        if (newJson == null) {
-                            // Use pretty format for readability in the web UI.
-                            newJson = Jackson.writeValueAsPrettyString(newJsonNode);
-                            newJson = sanitizeText(newJson);
-                        }
-                        newJson = sanitizeText(newJson);
-                        applyPathEdit(dirCache, new InsertText(changePath, inserter, newJson));
+                    final JsonNode newJsonNode = firstNonNull((JsonNode) change.content(),
+                                                              JsonNodeFactory.instance.nullNode());
+                    // Use pretty format for readability in the web UI.
+                    final byte[] newJson = sanitizeText(Jackson.writeValueAsPrettyString(newJsonNode))
+                            .getBytes(UTF_8);
+                    if (oldId != null && oldId.equals(inserter.idFor(Constants.OBJ_BLOB, newJson))) {
+                        // Same JSON text.
+                        break;
+                    }
+
+                    // Otherwise, compare the parsed JSON nodes.
+                    final JsonNode oldJsonNode = toJsonNode(changePath, read(reader, oldId));
+                    if (!Objects.equals(newJsonNode, oldJsonNode)) {
+                        treeEditor.putFile(changePath, inserter.insert(Constants.OBJ_BLOB, newJson));
                         numEdits++;
                     }
                     break;
                 }
                 case UPSERT_YAML:
-                    String newYaml = change.rawContent();
+                    final String newYaml = change.rawContent();
                     // rawContent must not be null for YAML upsert.
                     assert newYaml != null;
-                    newYaml = sanitizeText(newYaml);
-
-                    final String oldYaml;
-                    if (oldContent != null) {
-                        oldYaml = new String(oldContent, UTF_8);
-                    } else {
-                        oldYaml = null;
-                    }
-
-                    if (!newYaml.equals(oldYaml)) {
-                        newYaml = sanitizeText(newYaml);
-                        applyPathEdit(dirCache, new InsertText(changePath, inserter, newYaml));
+                    if (upsertIfChanged(treeEditor, changePath, oldId, inserter, sanitizeText(newYaml))) {
                         numEdits++;
                     }
                     break;
                 case UPSERT_TEXT: {
-                    final String sanitizedOldText;
-                    if (oldContent != null) {
-                        sanitizedOldText = sanitizeText(new String(oldContent, UTF_8));
-                    } else {
-                        sanitizedOldText = null;
-                    }
-
-                    final String sanitizedNewText = sanitizeText(change.contentAsText());
-
                     // Upsert only when the contents are really different.
-                    if (!sanitizedNewText.equals(sanitizedOldText)) {
-                        applyPathEdit(dirCache, new InsertText(changePath, inserter, sanitizedNewText));
+                    if (upsertIfChanged(treeEditor, changePath, oldId, inserter,
+                                        sanitizeText(change.contentAsText()))) {
                         numEdits++;
                     }
                     break;
                 }
                 case REMOVE:
-                    if (oldEntry != null) {
-                        applyPathEdit(dirCache, new DeletePath(changePath));
-                        numEdits++;
-                        break;
-                    }
-
                     // The path might be a directory.
-                    if (applyDirectoryEdits(dirCache, changePath, null, change)) {
+                    if (treeEditor.remove(changePath)) {
                         numEdits++;
                     } else {
                         // Was not a directory either; conflict.
                         reportNonExistentEntry(change);
-                        break;
                     }
                     break;
                 case RENAME: {
                     final String newPath =
                             ((String) change.content()).substring(1); // Strip the leading '/'.
 
-                    if (dirCache.getEntry(newPath) != null) {
+                    if (treeEditor.fileId(newPath) != null) {
                         throw new ChangeConflictException("a file exists at the target path: " + change);
                     }
 
-                    if (oldEntry != null) {
+                    if (oldId != null) {
                         if (changePath.equals(newPath)) {
                             // Redundant rename request - old path and new path are same.
                             break;
                         }
 
-                        final DirCacheEditor editor = dirCache.editor();
-                        editor.add(new DeletePath(changePath));
-                        editor.add(new CopyOldEntry(newPath, oldEntry));
-                        editor.finish();
+                        treeEditor.move(changePath, newPath);
                         numEdits++;
                         break;
                     }
 
                     // The path might be a directory.
-                    if (applyDirectoryEdits(dirCache, changePath, newPath, change)) {
+                    if (treeEditor.exists(newPath)) {
+                        throw new ChangeConflictException("target directory exists already: " + change);
+                    }
+                    if (treeEditor.move(changePath, newPath)) {
                         numEdits++;
                     } else {
                         // Was not a directory either; conflict.
@@ -188,7 +157,7 @@ final class DefaultChangesApplier extends AbstractChangesApplier {
                     break;
                 }
                 case APPLY_JSON_PATCH: {
-                    final JsonNode oldJsonNode = toJsonNode(changePath, oldContent);
+                    final JsonNode oldJsonNode = toJsonNode(changePath, read(reader, oldId));
                     final JsonNode newJsonNode;
                     try {
                         newJsonNode = JsonPatch.fromJson((JsonNode) change.content()).apply(oldJsonNode);
@@ -209,7 +178,7 @@ final class DefaultChangesApplier extends AbstractChangesApplier {
                             newContent = Jackson.writeValueAsPrettyString(newJsonNode);
                         }
                         newContent = sanitizeText(newContent);
-                        applyPathEdit(dirCache, new InsertText(changePath, inserter, newContent));
+                        insertText(treeEditor, changePath, inserter, newContent);
                         numEdits++;
                     }
                     break;
@@ -218,6 +187,7 @@ final class DefaultChangesApplier extends AbstractChangesApplier {
                     final Patch<String> patch = DiffUtils.parseUnifiedDiff(
                             Util.stringToLines(sanitizeText((String) change.content())));
 
+                    final byte[] oldContent = read(reader, oldId);
                     final String sanitizedOldText;
                     final List<String> sanitizedOldTextLines;
                     if (oldContent != null) {
@@ -250,7 +220,7 @@ final class DefaultChangesApplier extends AbstractChangesApplier {
 
                     // Apply only when the contents are really different.
                     if (!newText.equals(sanitizedOldText)) {
-                        applyPathEdit(dirCache, new InsertText(changePath, inserter, newText));
+                        insertText(treeEditor, changePath, inserter, newText);
                         numEdits++;
                     }
                     break;
@@ -259,6 +229,27 @@ final class DefaultChangesApplier extends AbstractChangesApplier {
         return numEdits;
     }
 
+    /**
+     * Upserts the specified text unless the old file has the same content. The contents are compared
+     * by their blob IDs, so that the old content does not have to be read.
+     *
+     * @return {@code true} if the file has been upserted
+     */
+    private static boolean upsertIfChanged(TreeEditor treeEditor, String path, @Nullable ObjectId oldId,
+                                           ObjectInserter inserter, String text) throws IOException {
+        final byte[] content = text.getBytes(UTF_8);
+        if (oldId != null && oldId.equals(inserter.idFor(Constants.OBJ_BLOB, content))) {
+            return false;
+        }
+        treeEditor.putFile(path, inserter.insert(Constants.OBJ_BLOB, content));
+        return true;
+    }
+
+    @Nullable
+    private static byte[] read(ObjectReader reader, @Nullable ObjectId id) throws IOException {
+        return id != null ? reader.open(id).getBytes() : null;
+    }
+
     private static JsonNode toJsonNode(String path, @Nullable byte[] content) throws JsonProcessingException {
         if (content == null) {
             return Jackson.nullNode;
@@ -274,98 +265,6 @@ final class DefaultChangesApplier extends AbstractChangesApplier {
                           .toString();
     }
 
-    /**
-     * Applies recursive directory edits.
-     *
-     * @param oldDir the path to the directory to make a recursive change
-     * @param newDir the path to the renamed directory, or {@code null} to remove the directory.
-     *
-     * @return {@code true} if any edits were made to {@code dirCache}, {@code false} otherwise
-     */
-    private static boolean applyDirectoryEdits(DirCache dirCache,
-                                               String oldDir, @Nullable String newDir, Change<?> change) {
-
-        if (!oldDir.endsWith("/")) {
-            oldDir += '/';
-        }
-        if (newDir != null && !newDir.endsWith("/")) {
-            newDir += '/';
-        }
-
-        final byte[] rawOldDir = Constants.encode(oldDir);
-        final byte[] rawNewDir = newDir != null ? Constants.encode(newDir) : null;
-        final int numEntries = dirCache.getEntryCount();
-        DirCacheEditor editor = null;
-
-        loop:
-        for (int i = 0; i < numEntries; i++) {
-            final DirCacheEntry e = dirCache.getEntry(i);
-            final byte[] rawPath = e.getRawPath();
-
-            // Ensure that there are no entries under the newDir; we have a conflict otherwise.
-            if (rawNewDir != null) {
-                boolean conflict = true;
-                if (rawPath.length > rawNewDir.length) {
-                    // Check if there is a file whose path starts with 'newDir'.
-                    for (int j = 0; j < rawNewDir.length; j++) {
-                        if (rawNewDir[j] != rawPath[j]) {
-                            conflict = false;
-                            break;
-                        }
-                    }
-                } else if (rawPath.length == rawNewDir.length - 1) {
-                    // Check if there is a file whose path is exactly same with newDir without trailing '/'.
-                    for (int j = 0; j < rawNewDir.length - 1; j++) {
-                        if (rawNewDir[j] != rawPath[j]) {
-                            conflict = false;
-                            break;
-                        }
-                    }
-                } else {
-                    conflict = false;
-                }
-
-                if (conflict) {
-                    throw new ChangeConflictException("target directory exists already: " + change);
-                }
-            }
-
-            // Skip the entries that do not belong to the oldDir.
-            if (rawPath.length <= rawOldDir.length) {
-                continue;
-            }
-            for (int j = 0; j < rawOldDir.length; j++) {
-                if (rawOldDir[j] != rawPath[j]) {
-                    continue loop;
-                }
-            }
-
-            // Do not create an editor until we find an entry to rename/remove.
-            // We can tell if there was any matching entries or not from the nullness of editor later.
-            if (editor == null) {
-                editor = dirCache.editor();
-                editor.add(new DeleteTree(oldDir));
-                if (newDir == null) {
-                    // Recursive removal
-                    break;
-                }
-            }
-
-            assert newDir != null; // We should get here only when it's a recursive rename.
-
-            final String oldPath = e.getPathString();
-            final String newPath = newDir + oldPath.substring(oldDir.length());
-            editor.add(new CopyOldEntry(newPath, e));
-        }
-
-        if (editor != null) {
-            editor.finish();
-            return true;
-        } else {
-            return false;
-        }
-    }
-
     private static void reportNonExistentEntry(Change<?> change) {
         throw new ChangeConflictException("non-existent file/directory: " + change);
     }
@@ -24,7 +24,9 @@ import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 
@@ -62,6 +64,14 @@ import com.linecorp.centraldogma.server.storage.StorageException;
  * </ul>
  * Therefore, {@link #put(Revision, ObjectId)} is always appending at the end of the database file and
  * {@link #get(Revision)} is always reading a record at the offset {@code (revision - 1) * 24}.
+ *
+ * <p>The database file is memory-mapped for reading unless disabled with the {@code mmapCommitIdDatabase}
+ * property in the {@code centraldogma} section of the Git repository configuration, so that
+ * {@link #get(Revision)} reads a record from the mapped buffer without a system call. The file cannot be
+ * mapped beyond its end because its length determines the head revision, so the records appended after
+ * the file was mapped are read from the file directly until they add up to 1 MiB, and then the file is
+ * mapped again. A record which does not fit into a single mapping, i.e. beyond 2 GiB, is also read from
+ * the file directly.
  */
 final class DefaultCommitIdDatabase implements CommitIdDatabase {
 
@@ -69,28 +79,47 @@ final class DefaultCommitIdDatabase implements CommitIdDatabase {
 
     private static final int RECORD_LEN = 4 + 20; // 32-bit integer + 160-bit SHA1 hash
 
+    private static final String CONFIG_SECTION = "centraldogma";
+    private static final String CONFIG_KEY_MMAP = "mmapCommitIdDatabase";
+
+    // The size of the records appended after the file was mapped which makes the file mapped again.
+    private static final long REMAP_THRESHOLD = 1024 * 1024;
+
+    // The maximum size of a mapped buffer, which is limited by the ByteBuffer API.
+    private static final long MAX_MAPPED_SIZE = (long) (Integer.MAX_VALUE / RECORD_LEN) * RECORD_LEN;
+
     private static final ThreadLocal<ByteBuffer> threadLocalBuffer =
             ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(RECORD_LEN));
 
     private final Path path;
     private final FileChannel channel;
     private final boolean fsync;
+    private final boolean mmap;
+    private final Object mapLock = new Object();
     @Nullable
     private volatile Revision headRevision;
+    @Nullable
+    private volatile MappedByteBuffer mappedBuffer;
 
     DefaultCommitIdDatabase(Repository repo) {
         // NB: We enable fsync only when our Git repository has been configured so,
         //     because there's no point of doing fsync only on this file when the
         //     Git repository does not.
-        this(repo.getDirectory(), repo.getConfig().getBoolean(CONFIG_CORE_SECTION, "fsyncObjectFiles", false));
+        this(repo.getDirectory(), repo.getConfig().getBoolean(CONFIG_CORE_SECTION, "fsyncObjectFiles", false),
+             repo.getConfig().getBoolean(CONFIG_SECTION, CONFIG_KEY_MMAP, true));
     }
 
     @VisibleForTesting
     DefaultCommitIdDatabase(File rootDir) {
-        this(rootDir, false);
+        this(rootDir, true);
+    }
+
+    @VisibleForTesting
+    DefaultCommitIdDatabase(File rootDir, boolean mmap) {
+        this(rootDir, false, mmap);
     }
 
-    private DefaultCommitIdDatabase(File rootDir, boolean fsync) {
+    private DefaultCommitIdDatabase(File rootDir, boolean fsync, boolean mmap) {
         path = new File(rootDir, "commit_ids.dat").toPath();
         try {
             channel = FileChannel.open(path,
@@ -102,6 +131,7 @@ final class DefaultCommitIdDatabase implements CommitIdDatabase {
         }
 
         this.fsync = fsync;
+        this.mmap = mmap;
         boolean success = false;
         try {
             final long size;
@@ -140,30 +170,78 @@ final class DefaultCommitIdDatabase implements CommitIdDatabase {
             throw new RevisionNotFoundException(revision);
         }
 
+        final long pos = (long) (revision.major() - 1) * RECORD_LEN;
+        if (mmap && pos + RECORD_LEN <= MAX_MAPPED_SIZE) {
+            final MappedByteBuffer mappedBuffer = mappedBuffer(pos + RECORD_LEN, headRevision);
+            if (mappedBuffer != null) {
+                return read(mappedBuffer, (int) pos, revision);
+            }
+        }
+
         final ByteBuffer buf = threadLocalBuffer.get();
         buf.clear();
-        long pos = (long) (revision.major() - 1) * RECORD_LEN;
+        long readPos = pos;
         try {
             do {
-                final int readBytes = channel.read(buf, pos);
+                final int readBytes = channel.read(buf, readPos);
                 if (readBytes < 0) {
                     throw new EOFException();
                 }
-                pos += readBytes;
+                readPos += readBytes;
             } while (buf.hasRemaining());
         } catch (IOException e) {
             throw new StorageException("failed to read the commit ID database: " + path, e);
         }
 
-        buf.flip();
+        return read(buf, 0, revision);
+    }
 
-        final int actualRevision = buf.getInt();
+    private ObjectId read(ByteBuffer buf, int offset, Revision revision) {
+        final int actualRevision = buf.getInt(offset);
         if (actualRevision != revision.major()) {
             throw new StorageException("incorrect revision number in the commit ID database: " + path +
                                        "(actual: " + actualRevision + ", expected: " + revision.major() + ')');
         }
 
-        return new ObjectId(buf.getInt(), buf.getInt(), buf.getInt(), buf.getInt(), buf.getInt());
+        return new ObjectId(buf.getInt(offset + 4), buf.getInt(offset + 8), buf.getInt(offset + 12),
+                            buf.getInt(offset + 16), buf.getInt(offset + 20));
+    }
+
+    /**
+     * Returns the {@link MappedByteBuffer} whose capacity is equal to or greater than the specified size,
+     * mapping the records up to the specified head revision again if the records appended after the current
+     * mapping add up to {@link #REMAP_THRESHOLD}. {@code null} is returned if the record has to be read from
+     * the file directly.
+     */
+    @Nullable
+    private MappedByteBuffer mappedBuffer(long minSize, Revision headRevision) {
+        // Map only the records which have been written completely, i.e. up to the head revision,
+        // because mapping a region beyond the end of the file extends the file.
+        final long size = Math.min((long) headRevision.major() * RECORD_LEN, MAX_MAPPED_SIZE);
+        MappedByteBuffer buf = mappedBuffer;
+        if (buf != null) {
+            if (buf.capacity() >= minSize) {
+                return buf;
+            }
+            if (size - buf.capacity() < REMAP_THRESHOLD) {
+                return null;
+            }
+        }
+
+        synchronized (mapLock) {
+            buf = mappedBuffer;
+            if (buf != null && buf.capacity() >= minSize) {
+                return buf;
+            }
+
+            try {
+                buf = channel.map(MapMode.READ_ONLY, 0, size);
+            } catch (IOException e) {
+                throw new StorageException("failed to map the commit ID database: " + path, e);
+            }
+            mappedBuffer = buf;
+            return buf;
+        }
     }
 
     @Override
@@ -220,6 +298,7 @@ final class DefaultCommitIdDatabase implements CommitIdDatabase {
         logger.warn("Rebuilding the commit ID database ..");
 
         // Drop everything.
+        mappedBuffer = null;
         try {
             channel.truncate(0);
         } catch (IOException e) {
@@ -281,6 +360,7 @@ final class DefaultCommitIdDatabase implements CommitIdDatabase {
 
     @Override
     public void close() {
+        mappedBuffer = null;
         try {
             channel.close();
         } catch (IOException e) {
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * The result of packing a {@link GitRepository}.
+ */
+final class GcResult {
+
+    private final long objectsPacked;
+    private final long bytesReclaimed;
+    private final long pauseNanos;
+
+    GcResult(long objectsPacked, long bytesReclaimed, long pauseNanos) {
+        this.objectsPacked = objectsPacked;
+        this.bytesReclaimed = bytesReclaimed;
+        this.pauseNanos = pauseNanos;
+    }
+
+    /**
+     * Returns the number of the loose objects moved into a pack file.
+     */
+    long objectsPacked() {
+        return objectsPacked;
+    }
+
+    /**
+     * Returns the number of bytes reclaimed from the object storage. It can be negative if the
+     * new pack files are larger than the loose objects and the packs they replaced.
+     */
+    long bytesReclaimed() {
+        return bytesReclaimed;
+    }
+
+    /**
+     * Returns the time in nanoseconds during which the commits were blocked.
+     */
+    long pauseNanos() {
+        return pauseNanos;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("objectsPacked", objectsPacked)
+                          .add("bytesReclaimed", bytesReclaimed)
+                          .add("pauseNanos", pauseNanos)
+                          .toString();
+    }
+}
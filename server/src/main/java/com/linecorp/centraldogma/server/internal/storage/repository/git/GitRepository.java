@@ -16,6 +16,7 @@
 
 package com.linecorp.centraldogma.server.internal.storage.repository.git;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.linecorp.centraldogma.server.internal.storage.repository.git.FailFastUtil.context;
 import static com.linecorp.centraldogma.server.internal.storage.repository.git.FailFastUtil.failFastIfTimedOut;
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -31,11 +32,15 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -45,8 +50,10 @@ import javax.annotation.Nullable;
 
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffFormatter;
-import org.eclipse.jgit.dircache.DirCache;
-import org.eclipse.jgit.dircache.DirCacheIterator;
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.internal.storage.file.GC;
+import org.eclipse.jgit.internal.storage.file.GC.RepoStatistics;
+import org.eclipse.jgit.lib.AsyncObjectLoaderQueue;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectIdOwnerMap;
@@ -59,7 +66,6 @@ import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.revwalk.TreeRevFilter;
 import org.eclipse.jgit.revwalk.filter.RevFilter;
-import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.treewalk.TreeWalk;
 import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
 import org.eclipse.jgit.treewalk.filter.TreeFilter;
@@ -73,6 +79,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 
 import com.linecorp.armeria.common.util.Exceptions;
 import com.linecorp.armeria.server.ServiceRequestContext;
@@ -96,6 +103,8 @@ import com.linecorp.centraldogma.server.command.CommitResult;
 import com.linecorp.centraldogma.server.command.ContentTransformer;
 import com.linecorp.centraldogma.server.internal.IsolatedSystemReader;
 import com.linecorp.centraldogma.server.internal.storage.repository.RepositoryCache;
+import com.linecorp.centraldogma.server.internal.storage.repository.git.CommitExecutor.GroupCommit;
+import com.linecorp.centraldogma.server.internal.storage.repository.git.CommitExecutor.RevisionAndEntries;
 import com.linecorp.centraldogma.server.internal.storage.repository.git.Watch.WatchListener;
 import com.linecorp.centraldogma.server.internal.storage.repository.git.rocksdb.RocksDbRepository;
 import com.linecorp.centraldogma.server.storage.StorageException;
@@ -118,6 +127,8 @@ class GitRepository implements Repository {
 
     private static final Pattern CR = Pattern.compile("\r", Pattern.LITERAL);
 
+    private static final int CHANGED_PATH_INDEX_BATCH_SIZE = 256;
+
     private static final Field revWalkObjectsField;
 
     static {
@@ -152,7 +163,16 @@ class GitRepository implements Repository {
         revWalkObjectsField = field;
     }
 
-    private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+    /**
+     * Serializes the commits. Note that the readers never acquire this lock. They read the objects
+     * reachable from the published {@link #head}, which are never modified once written.
+     */
+    private final Lock commitLock = new ReentrantLock();
+    /**
+     * Guards the underlying storage from being closed while it is being read or written. Only
+     * {@link #close(Supplier)} acquires its write lock, so the readers never block each other or a commit.
+     */
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
     private final Project parent;
     private final Executor repositoryWorker;
     private final long creationTimeMillis;
@@ -165,16 +185,25 @@ class GitRepository implements Repository {
     private final org.eclipse.jgit.lib.Repository jGitRepository;
     private final boolean isEncrypted;
     private final CommitIdDatabase commitIdDatabase;
+    /**
+     * The index of the paths changed by each revision, which is {@code null} for an encrypted repository.
+     */
+    @Nullable
+    private final ChangedPathIndex changedPathIndex;
     @VisibleForTesting
     final CommitWatchers commitWatchers = new CommitWatchers();
     private final AtomicReference<Supplier<CentralDogmaException>> closePending = new AtomicReference<>();
     private final CompletableFuture<Void> closeFuture = new CompletableFuture<>();
     private final List<RepositoryListener> listeners = new CopyOnWriteArrayList<>();
+    /**
+     * The commits waiting to be applied together. See {@link #executeGroupCommits()}.
+     */
+    private final Queue<GroupCommit> pendingGroupCommits = new ConcurrentLinkedQueue<>();
 
     /**
-     * The current head revision. Initialized by the constructor and updated by commit().
+     * The current head. Initialized by the constructor and published by commit().
      */
-    private volatile Revision headRevision;
+    private volatile RepositoryHead head;
 
     /**
      * Creates a new Git repository.
@@ -192,11 +221,19 @@ class GitRepository implements Repository {
         this.jGitRepository = jGitRepository;
         isEncrypted = jGitRepository instanceof RocksDbRepository;
         this.commitIdDatabase = commitIdDatabase;
-        new CommitExecutor(this, creationTimeMillis, author, "Create a new repository", "",
-                           Markup.PLAINTEXT, true)
-                .executeInitialCommit();
-        // Must be set after the initial commit.
-        headRevision = Revision.INIT;
+        changedPathIndex = isEncrypted ? null : new ChangedPathIndex(jGitRepository.getDirectory(), null);
+        boolean success = false;
+        try {
+            // Must be set after the initial commit.
+            head = new CommitExecutor(this, creationTimeMillis, author, "Create a new repository", "",
+                                      Markup.PLAINTEXT, true)
+                    .executeInitialCommit();
+            success = true;
+        } finally {
+            if (!success && changedPathIndex != null) {
+                changedPathIndex.close();
+            }
+        }
     }
 
     /**
@@ -213,10 +250,24 @@ class GitRepository implements Repository {
         this.jGitRepository = requireNonNull(jGitRepository, "jGitRepository");
         isEncrypted = jGitRepository instanceof RocksDbRepository;
         this.commitIdDatabase = requireNonNull(commitIdDatabase, "commitIdDatabase");
-        this.headRevision = requireNonNull(headRevision, "headRevision");
+        requireNonNull(headRevision, "headRevision");
+        final ObjectId headCommitId = commitIdDatabase.get(headRevision);
+        try (RevWalk revWalk = newRevWalk()) {
+            head = new RepositoryHead(headRevision, headCommitId,
+                                      revWalk.parseCommit(headCommitId).getTree().getId());
+        } catch (IOException e) {
+            throw new StorageException("failed to parse the head commit: " + headCommitId, e);
+        }
         final Commit initialCommit = blockingHistory(Revision.INIT, Revision.INIT, ALL_PATH, 1).get(0);
         creationTimeMillis = initialCommit.when();
         author = initialCommit.author();
+
+        changedPathIndex = isEncrypted ? null : new ChangedPathIndex(jGitRepository.getDirectory(),
+                                                                     headRevision);
+        if (changedPathIndex != null && changedPathIndex.nextRevision().major() <= headRevision.major()) {
+            // Index the revisions committed before the index was introduced or while it was not updated.
+            repositoryWorker.execute(this::indexChangedPaths);
+        }
     }
 
     /**
@@ -229,13 +280,18 @@ class GitRepository implements Repository {
         requireNonNull(failureCauseSupplier, "failureCauseSupplier");
         if (closePending.compareAndSet(null, failureCauseSupplier)) {
             repositoryWorker.execute(() -> {
-                // MUST acquire gcLock first to prevent a dead lock
-                rwLock.writeLock().lock();
+                // Wait for the pending commits and reads.
+                commitLock.lock();
+                closeLock.writeLock().lock();
                 try {
                     closeRepository(commitIdDatabase, jGitRepository);
+                    if (changedPathIndex != null) {
+                        changedPathIndex.close();
+                    }
                 } finally {
                     try {
-                        rwLock.writeLock().unlock();
+                        closeLock.writeLock().unlock();
+                        commitLock.unlock();
                     } finally {
                         commitWatchers.close(failureCauseSupplier);
                         closeFuture.complete(null);
@@ -376,83 +432,51 @@ class GitRepository implements Repository {
             }
 
             final Map<String, Entry<?>> result = new LinkedHashMap<>();
-            final ObjectId commitId = commitIdDatabase.get(normRevision);
-            final RevCommit revCommit = revWalk.parseCommit(commitId);
             final PathPatternFilter filter = PathPatternFilter.of(pathPattern);
 
-            final RevTree revTree = revCommit.getTree();
+            final RevTree revTree = toTree(revWalk, normRevision);
+            final String exactPath = filter.exactPath();
+            if (exactPath != null) {
+                // Fast path: look up the entry directly instead of walking the whole tree.
+                try (TreeWalk exactWalk = TreeWalk.forPath(reader, exactPath.substring(1), revTree)) {
+                    if (exactWalk != null) {
+                        if (exactWalk.isSubtree()) {
+                            result.put(exactPath, Entry.ofDirectory(normRevision, exactPath));
+                        } else {
+                            result.put(exactPath, newEntry(reader, exactWalk.getObjectId(0), normRevision,
+                                                           exactPath, fetchContent, revision));
+                        }
+                    }
+                    return Util.unsafeCast(result);
+                }
+            }
+
+            if (isEncrypted) {
+                // The whole tree is walked, so let the reader read ahead its subtrees in batches.
+                prefetchTree(reader, revTree);
+            }
             treeWalk.addTree(revTree.getId());
             while (treeWalk.next() && result.size() < maxEntries) {
                 final boolean matches = filter.matches(treeWalk);
                 final String path = '/' + treeWalk.getPathString();
 
-                try {
-                    // Recurse into a directory if necessary.
-                    if (treeWalk.isSubtree()) {
-                        if (matches) {
-                            // Add the directory itself to the result set if its path matches the pattern.
-                            result.put(path, Entry.ofDirectory(normRevision, path));
-                        }
-
-                        treeWalk.enterSubtree();
-                        continue;
-                    }
-
-                    if (!matches) {
-                        continue;
+                // Recurse into a directory if necessary.
+                if (treeWalk.isSubtree()) {
+                    if (matches) {
+                        // Add the directory itself to the result set if its path matches the pattern.
+                        result.put(path, Entry.ofDirectory(normRevision, path));
                     }
 
-                    // Build an entry as requested.
-                    final Entry<?> entry;
-                    final EntryType entryType = EntryType.guessFromPath(path);
-                    if (fetchContent) {
-                        final byte[] content = reader.open(treeWalk.getObjectId(0)).getBytes();
-                        final String string = new String(content, UTF_8);
-                        switch (entryType) {
-                            case JSON:
-                                entry = Entry.ofJson(normRevision, path, string);
-                                break;
-                            case YAML:
-                                Entry<?> maybeYaml;
-                                try {
-                                    maybeYaml = Entry.ofYaml(normRevision, path, string);
-                                } catch (JsonProcessingException e) {
-                                    logger.debug("Failed to parse YAML content at {}/{}{} (rev: {})",
-                                                 parent.name(), name, path, normRevision, e);
-                                    // Fall back to text entry if the content is not valid YAML.
-                                    maybeYaml = Entry.ofText(normRevision, path, string);
-                                }
-                                entry = maybeYaml;
-                                break;
-                            case TEXT:
-                                final String strVal = sanitizeText(string);
-                                entry = Entry.ofText(normRevision, path, strVal);
-                                break;
-                            default:
-                                throw new Error("unexpected entry type: " + entryType);
-                        }
-                    } else {
-                        switch (entryType) {
-                            case JSON:
-                                entry = Entry.ofJson(normRevision, path, "");
-                                break;
-                            case YAML:
-                                entry = Entry.ofYaml(normRevision, path, "");
-                                break;
-                            case TEXT:
-                                entry = Entry.ofText(normRevision, path, "");
-                                break;
-                            default:
-                                throw new Error("unexpected entry type: " + entryType);
-                        }
-                    }
+                    treeWalk.enterSubtree();
+                    continue;
+                }
 
-                    result.put(path, entry);
-                } catch (Exception e) {
-                    throw new StorageException(
-                            "failed to get data from '" + parent.name() + '/' + name + "' at " + path +
-                            " for " + revision, e);
+                if (!matches) {
+                    continue;
                 }
+
+                result.put(path, newEntry(reader, treeWalk.getObjectId(0), normRevision, path,
+                                          fetchContent, revision));
             }
 
             return Util.unsafeCast(result);
@@ -467,6 +491,69 @@ class GitRepository implements Repository {
         }
     }
 
+    /**
+     * Opens the specified tree with {@link ObjectReader#open(Iterable, boolean)}, which reads ahead the
+     * subtrees of the tree in an encrypted repository.
+     */
+    private static void prefetchTree(ObjectReader reader, RevTree revTree) throws IOException {
+        final AsyncObjectLoaderQueue<RevTree> queue = reader.open(ImmutableList.of(revTree), false);
+        try {
+            while (queue.next()) {
+                queue.open();
+            }
+        } finally {
+            queue.release();
+        }
+    }
+
+    /**
+     * Builds an {@link Entry} of the file at the specified {@code path}, fetching its content only when
+     * {@code fetchContent} is {@code true}.
+     */
+    private Entry<?> newEntry(ObjectReader reader, ObjectId objectId, Revision normRevision, String path,
+                              boolean fetchContent, Revision revision) {
+        try {
+            final EntryType entryType = EntryType.guessFromPath(path);
+            if (fetchContent) {
+                final byte[] content = reader.open(objectId).getBytes();
+                final String string = new String(content, UTF_8);
+                switch (entryType) {
+                    case JSON:
+                        return Entry.ofJson(normRevision, path, string);
+                    case YAML:
+                        try {
+                            return Entry.ofYaml(normRevision, path, string);
+                        } catch (JsonProcessingException e) {
+                            logger.debug("Failed to parse YAML content at {}/{}{} (rev: {})",
+                                         parent.name(), name, path, normRevision, e);
+                            // Fall back to text entry if the content is not valid YAML.
+                            return Entry.ofText(normRevision, path, string);
+                        }
+                    case TEXT:
+                        final String strVal = sanitizeText(string);
+                        return Entry.ofText(normRevision, path, strVal);
+                    default:
+                        throw new Error("unexpected entry type: " + entryType);
+                }
+            } else {
+                switch (entryType) {
+                    case JSON:
+                        return Entry.ofJson(normRevision, path, "");
+                    case YAML:
+                        return Entry.ofYaml(normRevision, path, "");
+                    case TEXT:
+                        return Entry.ofText(normRevision, path, "");
+                    default:
+                        throw new Error("unexpected entry type: " + entryType);
+                }
+            }
+        } catch (Exception e) {
+            throw new StorageException(
+                    "failed to get data from '" + parent.name() + '/' + name + "' at " + path +
+                    " for " + revision, e);
+        }
+    }
+
     @Override
     public CompletableFuture<List<Commit>> history(
             Revision from, Revision to, String pathPattern, int maxCommits) {
@@ -494,26 +581,19 @@ class GitRepository implements Repository {
 
         // At this point, we are sure: from.major >= to.major
         readLock();
+        final int headMajor = cachedHeadRevision().major();
         final RepositoryCache cache =
                 // Do not cache too old data.
-                (descendingRange.from().major() < headRevision.major() - MAX_MAX_COMMITS * 3) ? null
-                                                                                              : this.cache;
+                (descendingRange.from().major() < headMajor - MAX_MAX_COMMITS * 3) ? null : this.cache;
         try (ObjectReader objectReader = jGitRepository.newObjectReader();
              RevWalk revWalk = newRevWalk(new CachingTreeObjectReader(this, objectReader, cache))) {
             final ObjectIdOwnerMap<?> revWalkInternalMap =
                     (ObjectIdOwnerMap<?>) revWalkObjectsField.get(revWalk);
 
-            final ObjectId fromCommitId = commitIdDatabase.get(descendingRange.from());
             final ObjectId toCommitId = commitIdDatabase.get(descendingRange.to());
 
-            revWalk.markStart(revWalk.parseCommit(fromCommitId));
             revWalk.setRetainBody(false);
 
-            // Instead of relying on RevWalk to filter the commits,
-            // we let RevWalk yield all commits so we can:
-            // - Have more control on when iteration should be stopped.
-            //   (A single Iterator.next() doesn't take long.)
-            // - Clean up the internal map as early as possible.
             final RevFilter filter = new TreeRevFilter(revWalk, AndTreeFilter.create(
                     TreeFilter.ANY_DIFF, PathPatternFilter.of(pathPattern)));
 
@@ -523,26 +603,71 @@ class GitRepository implements Repository {
 
             final List<Commit> commitList = new ArrayList<>();
             int numProcessedCommits = 0;
-            for (RevCommit revCommit : revWalk) {
-                numProcessedCommits++;
+            final ChangedPathIndex changedPathIndex = this.changedPathIndex;
+            final long[] changedPathKeys = changedPathIndex != null ? ChangedPathIndex.keys(pathPattern)
+                                                                   : null;
+            if (changedPathKeys != null) {
+                // Compare the trees of only the commits which may have changed the paths according to
+                // the index. The commits skipped by the index are not counted as processed.
+                assert changedPathIndex != null;
+                for (int revision = descendingRange.from().major();
+                     revision >= descendingRange.to().major(); revision--) {
+                    if (!changedPathIndex.mayHaveChanged(revision, changedPathKeys)) {
+                        continue;
+                    }
+                    numProcessedCommits++;
 
-                if (filter.include(revWalk, revCommit)) {
-                    revWalk.parseBody(revCommit);
-                    commitList.add(toCommit(revCommit));
-                    revCommit.disposeBody();
-                }
+                    final RevCommit revCommit =
+                            revWalk.parseCommit(commitIdDatabase.get(new Revision(revision)));
+                    if (revCommit.getParentCount() > 0) {
+                        // TreeRevFilter compares the tree with the tree of the parent.
+                        revWalk.parseHeaders(revCommit.getParent(0));
+                    }
+                    if (filter.include(revWalk, revCommit)) {
+                        revWalk.parseBody(revCommit);
+                        commitList.add(toCommit(revCommit));
+                        revCommit.disposeBody();
+                    }
 
-                if (revCommit.getId().equals(toCommitId) ||
-                    commitList.size() >= maxCommits ||
-                    // Prevent from iterating for too long.
-                    numProcessedCommits >= maxNumProcessedCommits) {
-                    break;
+                    if (commitList.size() >= maxCommits ||
+                        // Prevent from iterating for too long.
+                        numProcessedCommits >= maxNumProcessedCommits) {
+                        break;
+                    }
+
+                    if (numProcessedCommits % 16 == 0) {
+                        revWalkInternalMap.clear();
+                    }
                 }
+            } else {
+                revWalk.markStart(revWalk.parseCommit(commitIdDatabase.get(descendingRange.from())));
+
+                // Instead of relying on RevWalk to filter the commits,
+                // we let RevWalk yield all commits so we can:
+                // - Have more control on when iteration should be stopped.
+                //   (A single Iterator.next() doesn't take long.)
+                // - Clean up the internal map as early as possible.
+                for (RevCommit revCommit : revWalk) {
+                    numProcessedCommits++;
+
+                    if (filter.include(revWalk, revCommit)) {
+                        revWalk.parseBody(revCommit);
+                        commitList.add(toCommit(revCommit));
+                        revCommit.disposeBody();
+                    }
 
-                // Clear the internal lookup table of RevWalk to reduce the memory usage.
-                // This is safe because we have linear history and traverse in one direction.
-                if (numProcessedCommits % 16 == 0) {
-                    revWalkInternalMap.clear();
+                    if (revCommit.getId().equals(toCommitId) ||
+                        commitList.size() >= maxCommits ||
+                        // Prevent from iterating for too long.
+                        numProcessedCommits >= maxNumProcessedCommits) {
+                        break;
+                    }
+
+                    // Clear the internal lookup table of RevWalk to reduce the memory usage.
+                    // This is safe because we have linear history and traverse in one direction.
+                    if (numProcessedCommits % 16 == 0) {
+                        revWalkInternalMap.clear();
+                    }
                 }
             }
 
@@ -647,21 +772,15 @@ class GitRepository implements Repository {
 
         readLock();
         try (ObjectReader reader = jGitRepository.newObjectReader();
-             RevWalk revWalk = newRevWalk(reader);
-             DiffFormatter diffFormatter = new DiffFormatter(null)) {
+             RevWalk revWalk = newRevWalk(reader)) {
 
-            final ObjectId baseTreeId = toTree(revWalk, baseRevision);
-            final DirCache dirCache = DirCache.newInCore();
-            final int numEdits = changesApplier.apply(jGitRepository, baseRevision, baseTreeId, dirCache);
+            final TreeEditor treeEditor = new TreeEditor(reader, toTree(revWalk, baseRevision));
+            final int numEdits = changesApplier.apply(jGitRepository, baseRevision, treeEditor);
             if (numEdits == 0) {
                 return Collections.emptyMap();
             }
 
-            final CanonicalTreeParser p = new CanonicalTreeParser();
-            p.reset(reader, baseTreeId);
-            diffFormatter.setRepository(jGitRepository);
-            final List<DiffEntry> result = diffFormatter.scan(p, new DirCacheIterator(dirCache));
-            return toChangeMap(result, DiffResultType.NORMAL);
+            return toChangeMap(treeEditor.diff(), DiffResultType.NORMAL);
         } catch (IOException e) {
             throw new StorageException("failed to perform a dry-run diff", e);
         } finally {
@@ -772,6 +891,15 @@ class GitRepository implements Repository {
     public CompletableFuture<CommitResult> commit(
             Revision baseRevision, long commitTimeMillis, Author author, String summary,
             String detail, Markup markup, Iterable<Change<?>> changes, boolean directExecution) {
+        return commit(baseRevision, commitTimeMillis, author, summary, detail, markup, changes,
+                      directExecution, false);
+    }
+
+    @Override
+    public CompletableFuture<CommitResult> commit(
+            Revision baseRevision, long commitTimeMillis, Author author, String summary,
+            String detail, Markup markup, Iterable<Change<?>> changes, boolean directExecution,
+            boolean groupCommit) {
         requireNonNull(baseRevision, "baseRevision");
         requireNonNull(author, "author");
         requireNonNull(summary, "summary");
@@ -780,6 +908,9 @@ class GitRepository implements Repository {
         requireNonNull(changes, "changes");
         final CommitExecutor commitExecutor =
                 new CommitExecutor(this, commitTimeMillis, author, summary, detail, markup, false);
+        if (groupCommit) {
+            return groupCommit(baseRevision, commitExecutor, normBaseRevision -> changes);
+        }
         return commit(baseRevision, commitExecutor, normBaseRevision -> changes);
     }
 
@@ -812,6 +943,52 @@ class GitRepository implements Repository {
         }, repositoryWorker);
     }
 
+    private CompletableFuture<CommitResult> groupCommit(
+            Revision baseRevision,
+            CommitExecutor commitExecutor,
+            Function<Revision, Iterable<Change<?>>> applyingChangesProvider) {
+        final GroupCommit groupCommit =
+                new GroupCommit(context(), commitExecutor, baseRevision, applyingChangesProvider);
+        pendingGroupCommits.add(groupCommit);
+        repositoryWorker.execute(this::executeGroupCommits);
+        return groupCommit.future;
+    }
+
+    /**
+     * Applies all the commits queued by {@link #groupCommit(Revision, CommitExecutor, Function)}
+     * while holding the commit lock only once. The commits queued while the previous group is being
+     * applied form the next group, so that a burst of commits is applied in a few groups rather than
+     * one by one. The watchers are notified once per group.
+     */
+    private void executeGroupCommits() {
+        final List<GroupCommit> committed;
+        try {
+            writeLock();
+        } catch (Throwable cause) {
+            for (GroupCommit groupCommit; (groupCommit = pendingGroupCommits.poll()) != null;) {
+                groupCommit.future.completeExceptionally(cause);
+            }
+            return;
+        }
+        try {
+            final List<GroupCommit> groupCommits = new ArrayList<>();
+            for (GroupCommit groupCommit; (groupCommit = pendingGroupCommits.poll()) != null;) {
+                groupCommits.add(groupCommit);
+            }
+            if (groupCommits.isEmpty()) {
+                // Applied already by the previous group.
+                return;
+            }
+            committed = CommitExecutor.executeGroup(this, groupCommits);
+        } finally {
+            writeUnLock();
+        }
+
+        // Note that the notification is made while no lock is held to avoid the risk of a dead lock.
+        notifyWatchers(committed.stream().map(GroupCommit::result).collect(toImmutableList()));
+        committed.forEach(GroupCommit::complete);
+    }
+
     /**
      * Removes {@code \r} and appends {@code \n} on the last line if it does not end with {@code \n}.
      */
@@ -891,17 +1068,26 @@ class GitRepository implements Repository {
             }
         }
 
-        // Slow path: compare the two trees.
+        // Slow path: compare the two trees, unless the index tells that no revision in the range
+        // changed the paths.
         final PathPatternFilter filter = PathPatternFilter.of(pathPattern);
-        // Convert the revisions to Git trees.
+        final ChangedPathIndex changedPathIndex = this.changedPathIndex;
+        final long[] changedPathKeys = changedPathIndex != null ? ChangedPathIndex.keys(pathPattern) : null;
         final List<DiffEntry> diffEntries;
-        readLock();
-        try (RevWalk revWalk = newRevWalk()) {
-            final RevTree treeA = toTree(revWalk, range.from());
-            final RevTree treeB = toTree(revWalk, range.to());
-            diffEntries = blockingCompareTrees(treeA, treeB);
-        } finally {
-            readUnlock();
+        if (changedPathKeys != null &&
+            !changedPathIndex.mayHaveChanged(range.from().major() + 1, range.to().major(),
+                                             changedPathKeys)) {
+            diffEntries = ImmutableList.of();
+        } else {
+            // Convert the revisions to Git trees.
+            readLock();
+            try (RevWalk revWalk = newRevWalk()) {
+                final RevTree treeA = toTree(revWalk, range.from());
+                final RevTree treeB = toTree(revWalk, range.to());
+                diffEntries = blockingCompareTrees(treeA, treeB);
+            } finally {
+                readUnlock();
+            }
         }
 
         // Return the latest revision if the changes between the two trees contain the file.
@@ -935,6 +1121,77 @@ class GitRepository implements Repository {
         throw new EntryNotFoundException(lastKnownRevision, pathPattern);
     }
 
+    /**
+     * Stores the paths changed by the specified {@link Revision} into the {@link ChangedPathIndex}.
+     * Must be called while the commit lock is held.
+     */
+    void indexChangedPaths(Revision revision, List<DiffEntry> diffEntries) {
+        if (changedPathIndex != null) {
+            changedPathIndex.put(revision, Lists.transform(diffEntries, e -> '/' + changedPath(e)));
+        }
+    }
+
+    /**
+     * Indexes the revisions which are not in the {@link ChangedPathIndex} yet, a batch of revisions at
+     * a time so that the other tasks of the {@code repositoryWorker} are not delayed for too long.
+     */
+    private void indexChangedPaths() {
+        final ChangedPathIndex changedPathIndex = this.changedPathIndex;
+        assert changedPathIndex != null;
+        try {
+            readLock();
+        } catch (Exception e) {
+            // Closed already.
+            return;
+        }
+        try (RevWalk revWalk = newRevWalk()) {
+            for (int i = 0; i < CHANGED_PATH_INDEX_BATCH_SIZE; i++) {
+                final Revision revision = changedPathIndex.nextRevision();
+                if (revision.major() > cachedHeadRevision().major()) {
+                    logger.debug("Indexed the changed paths of {}/{}", parent.name(), name);
+                    return;
+                }
+                final List<DiffEntry> diffEntries;
+                if (revision.major() == 1) {
+                    diffEntries = ImmutableList.of();
+                } else {
+                    diffEntries = blockingCompareTreesUncached(toTree(revWalk, revision.backward(1)),
+                                                               toTree(revWalk, revision), TreeFilter.ALL);
+                }
+                changedPathIndex.putIfNext(revision, Lists.transform(diffEntries, e -> '/' + changedPath(e)));
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to index the changed paths of {}/{}", parent.name(), name, e);
+            return;
+        } finally {
+            readUnlock();
+        }
+        repositoryWorker.execute(this::indexChangedPaths);
+    }
+
+    /**
+     * Returns the {@link DiffEntry}s of the commit at the specified {@link Revision}, i.e. the changes made
+     * between the previous revision and the specified revision.
+     */
+    CompletableFuture<List<DiffEntry>> commitDiff(Revision revision) {
+        requireNonNull(revision, "revision");
+        return CompletableFuture.supplyAsync(() -> {
+            final Revision normRevision = normalizeNow(revision);
+            if (normRevision.major() <= 1) {
+                throw new IllegalArgumentException("revision: " + revision + " (expected: > 1)");
+            }
+
+            readLock();
+            try (RevWalk revWalk = newRevWalk()) {
+                final RevTree treeA = toTree(revWalk, normRevision.backward(1));
+                final RevTree treeB = toTree(revWalk, normRevision);
+                return blockingCompareTrees(treeA, treeB);
+            } finally {
+                readUnlock();
+            }
+        }, repositoryWorker);
+    }
+
     /**
      * Compares the two Git trees (with caching).
      */
@@ -976,12 +1233,24 @@ class GitRepository implements Repository {
             try {
                 // If lastKnownRevision is outdated already and the recent changes match,
                 // there's no need to watch.
+                final Revision headRevision = cachedHeadRevision();
                 final Revision latestRevision = blockingFindLatestRevision(normLastKnownRevision, pathPattern,
                                                                            errorOnEntryNotFound);
                 if (latestRevision != null) {
                     future.complete(latestRevision);
-                } else {
-                    commitWatchers.add(normLastKnownRevision, pathPattern, future, null);
+                    return;
+                }
+
+                commitWatchers.add(normLastKnownRevision, pathPattern, future, null);
+
+                // A commit does not wait for the readers, so it may have been notified to the watchers
+                // before the watch above is added. Check again if a new revision has been published.
+                if (!headRevision.equals(cachedHeadRevision())) {
+                    final Revision newLatestRevision = blockingFindLatestRevision(
+                            normLastKnownRevision, pathPattern, errorOnEntryNotFound);
+                    if (newLatestRevision != null) {
+                        future.complete(newLatestRevision);
+                    }
                 }
             } finally {
                 readUnlock();
@@ -997,7 +1266,7 @@ class GitRepository implements Repository {
     private void recursiveWatch(String pathPattern, WatchListener listener) {
         requireNonNull(pathPattern, "pathPattern");
         CompletableFuture.runAsync(() -> {
-            final Revision headRevision = this.headRevision;
+            final Revision headRevision = cachedHeadRevision();
             // Attach the listener to continuously listen for the changes.
             commitWatchers.add(headRevision, pathPattern, null, listener);
             listener.onUpdate(headRevision, null);
@@ -1039,7 +1308,7 @@ class GitRepository implements Repository {
             try {
                 assert newRevision != null;
                 // repositoryWorker thread will call this method.
-                listener.onUpdate(blockingFind(headRevision, pathPattern, ImmutableMap.of()));
+                listener.onUpdate(blockingFind(cachedHeadRevision(), pathPattern, ImmutableMap.of()));
             } catch (Exception ex) {
                 logger.warn("Unexpected exception while invoking {}.onUpdate(). listener: {}",
                             RepositoryListener.class.getSimpleName(), listener, ex);
@@ -1053,29 +1322,57 @@ class GitRepository implements Repository {
 
     void notifyWatchers(Revision newRevision, List<DiffEntry> diffEntries) {
         for (DiffEntry entry : diffEntries) {
-            switch (entry.getChangeType()) {
-                case ADD:
-                    commitWatchers.notify(newRevision, entry.getNewPath());
-                    break;
-                case MODIFY:
-                case DELETE:
-                    commitWatchers.notify(newRevision, entry.getOldPath());
-                    break;
-                default:
-                    throw new Error();
+            commitWatchers.notify(newRevision, changedPath(entry));
+        }
+    }
+
+    /**
+     * Notifies the watchers of the changes made by a group of commits. A path changed by more than one
+     * commit is notified only once, with the last revision that changed it.
+     */
+    private void notifyWatchers(List<RevisionAndEntries> results) {
+        final Map<String, Revision> changedPaths = new LinkedHashMap<>();
+        for (RevisionAndEntries res : results) {
+            for (DiffEntry entry : res.diffEntries) {
+                changedPaths.put(changedPath(entry), res.revision);
             }
         }
+        changedPaths.forEach((path, revision) -> commitWatchers.notify(revision, path));
+    }
+
+    private static String changedPath(DiffEntry entry) {
+        switch (entry.getChangeType()) {
+            case ADD:
+                return entry.getNewPath();
+            case MODIFY:
+            case DELETE:
+                return entry.getOldPath();
+            default:
+                throw new Error();
+        }
     }
 
     Revision cachedHeadRevision() {
-        return headRevision;
+        return head.revision();
     }
 
-    void setHeadRevision(Revision headRevision) {
-        this.headRevision = headRevision;
+    /**
+     * Publishes the specified {@link RepositoryHead}. Must be called while the commit lock is held.
+     */
+    void setHead(RepositoryHead head) {
+        this.head = head;
     }
 
     private RevTree toTree(RevWalk revWalk, Revision revision) {
+        final RepositoryHead head = this.head;
+        if (head.revision().equals(revision)) {
+            // Fast path: the tree of the head is known already.
+            try {
+                return revWalk.parseTree(head.treeId());
+            } catch (IOException e) {
+                throw new StorageException("failed to parse a tree: " + head.treeId(), e);
+            }
+        }
         return toTree(commitIdDatabase, revWalk, revision);
     }
 
@@ -1105,20 +1402,96 @@ class GitRepository implements Repository {
         revWalk.setRewriteParents(false);
     }
 
+    /**
+     * Packs the loose references and objects of this repository if it has at least
+     * {@code minLooseObjects} loose objects. The commits are blocked only while the references are
+     * packed, and the readers are never blocked because JGit keeps the old pack files readable until
+     * they are replaced. An encrypted repository is never packed because its objects are in RocksDB.
+     *
+     * @param snapshotLock the {@link Lock} held while the references are packed, so that a snapshot of
+     *                     the data directory never sees a reference missing from both the loose
+     *                     references and the {@code packed-refs} file
+     * @return the {@link GcResult}, or {@code null} if this repository was not packed
+     */
+    @Nullable
+    GcResult gc(int minLooseObjects, @Nullable Lock snapshotLock) throws Exception {
+        if (!(jGitRepository instanceof FileRepository)) {
+            return null;
+        }
+        // Run the steps of GC.gc() one by one instead of GC.gc() which adds a JVM shutdown hook
+        // for each invocation.
+        final GC gc = new GC((FileRepository) jGitRepository);
+        final RepoStatistics before;
+        readLock();
+        try {
+            before = gc.getStatistics();
+        } finally {
+            readUnlock();
+        }
+        if (before.numberOfLooseObjects < minLooseObjects) {
+            return null;
+        }
+
+        // A commit fails to update the ref if the refs are being packed, so block the commits.
+        // The snapshot lock is acquired first, in the same order as the commands do.
+        final long pauseNanos;
+        if (snapshotLock != null) {
+            snapshotLock.lock();
+        }
+        try {
+            writeLock();
+            final long pauseStartNanos = System.nanoTime();
+            try {
+                gc.packRefs();
+            } finally {
+                pauseNanos = System.nanoTime() - pauseStartNanos;
+                writeUnLock();
+            }
+        } finally {
+            if (snapshotLock != null) {
+                snapshotLock.unlock();
+            }
+        }
+
+        final RepoStatistics after;
+        readLock();
+        try {
+            // The objects created by the commits in progress are recent enough not to be pruned.
+            gc.repack();
+            gc.prune(Collections.emptySet());
+            after = gc.getStatistics();
+        } finally {
+            readUnlock();
+        }
+        return new GcResult(before.numberOfLooseObjects - after.numberOfLooseObjects,
+                            before.sizeOfLooseObjects + before.sizeOfPackedObjects -
+                            after.sizeOfLooseObjects - after.sizeOfPackedObjects,
+                            pauseNanos);
+    }
+
+    /**
+     * Marks the beginning of a read operation. Unlike a conventional read lock, this method does not
+     * block while a commit is in progress, because a reader only sees the revisions up to the head
+     * published before the commit. It blocks only while this repository is being closed.
+     */
     private void readLock() {
-        rwLock.readLock().lock();
+        closeLock.readLock().lock();
         if (closePending.get() != null) {
-            rwLock.readLock().unlock();
+            closeLock.readLock().unlock();
             throw closePending.get().get();
         }
     }
 
     private void readUnlock() {
-        rwLock.readLock().unlock();
+        closeLock.readLock().unlock();
     }
 
+    /**
+     * Acquires the lock that serializes the commits. Note that it does not block the readers.
+     */
     void writeLock() {
-        rwLock.writeLock().lock();
+        commitLock.lock();
+        closeLock.readLock().lock();
         if (closePending.get() != null) {
             writeUnLock();
             throw closePending.get().get();
@@ -1126,7 +1499,8 @@ class GitRepository implements Repository {
     }
 
     void writeUnLock() {
-        rwLock.writeLock().unlock();
+        closeLock.readLock().unlock();
+        commitLock.unlock();
     }
 
     static void deleteCruft(File repoDir) {
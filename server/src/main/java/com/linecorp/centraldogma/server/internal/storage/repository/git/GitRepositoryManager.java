@@ -59,6 +59,7 @@ import com.linecorp.centraldogma.common.RepositoryNotFoundException;
 import com.linecorp.centraldogma.common.Revision;
 import com.linecorp.centraldogma.server.internal.JGitUtil;
 import com.linecorp.centraldogma.server.internal.storage.DirectoryBasedStorageManager;
+import com.linecorp.centraldogma.server.internal.storage.StorageLoader;
 import com.linecorp.centraldogma.server.internal.storage.repository.RepositoryCache;
 import com.linecorp.centraldogma.server.internal.storage.repository.git.rocksdb.EncryptionGitStorage;
 import com.linecorp.centraldogma.server.internal.storage.repository.git.rocksdb.RocksDbCommitIdDatabase;
@@ -81,15 +82,37 @@ public final class GitRepositoryManager extends DirectoryBasedStorageManager<Rep
 
     @Nullable
     private final RepositoryCache cache;
+    // Set only while opening the existing repositories.
+    @Nullable
+    private volatile StorageLoader loader;
 
     public GitRepositoryManager(Project parent, File rootDir, Executor repositoryWorker,
                                 Executor purgeWorker, @Nullable RepositoryCache cache,
                                 EncryptionStorageManager encryptionStorageManager) {
+        this(parent, rootDir, repositoryWorker, purgeWorker, cache, encryptionStorageManager, null);
+    }
+
+    /**
+     * Creates a new instance which opens the existing repositories using the specified {@link StorageLoader}.
+     */
+    public GitRepositoryManager(Project parent, File rootDir, Executor repositoryWorker,
+                                Executor purgeWorker, @Nullable RepositoryCache cache,
+                                EncryptionStorageManager encryptionStorageManager,
+                                @Nullable StorageLoader loader) {
         super(rootDir, Repository.class, purgeWorker, encryptionStorageManager);
         this.parent = requireNonNull(parent, "parent");
         this.repositoryWorker = requireNonNull(repositoryWorker, "repositoryWorker");
         this.cache = cache;
-        init();
+        if (loader != null) {
+            this.loader = loader;
+            try {
+                init(loader.repositoryExecutor());
+            } finally {
+                this.loader = null;
+            }
+        } else {
+            init();
+        }
     }
 
     @Override
@@ -180,12 +203,21 @@ public final class GitRepositoryManager extends DirectoryBasedStorageManager<Rep
     @Override
     protected Repository openChild(File childDir) throws Exception {
         requireNonNull(childDir, "childDir");
+        final long startTimeNanos = System.nanoTime();
+        final Repository repository;
         if (isEncryptedRepository(childDir)) {
-            return openEncryptionRepository(
+            repository = openEncryptionRepository(
                     parent, childDir, repositoryWorker, cache, encryptionStorageManager());
         } else {
-            return openFileRepository(parent, childDir, repositoryWorker, cache);
+            repository = openFileRepository(parent, childDir, repositoryWorker, cache);
+        }
+
+        final StorageLoader loader = this.loader;
+        if (loader != null) {
+            loader.recordOpenedRepository(parent.name(), childDir.getName(),
+                                          System.nanoTime() - startTimeNanos);
         }
+        return repository;
     }
 
     public static boolean isEncryptedRepository(File dir) {
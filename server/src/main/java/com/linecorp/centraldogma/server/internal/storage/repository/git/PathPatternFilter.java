@@ -18,14 +18,17 @@ package com.linecorp.centraldogma.server.internal.storage.repository.git;
 
 import static com.linecorp.centraldogma.internal.Util.validatePathPattern;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
+import javax.annotation.Nullable;
+
 import org.eclipse.jgit.treewalk.TreeWalk;
 import org.eclipse.jgit.treewalk.filter.TreeFilter;
 
+import com.google.common.collect.ImmutableList;
+
 import com.linecorp.centraldogma.server.storage.repository.Repository;
 
 public final class PathPatternFilter extends TreeFilter {
@@ -48,7 +51,9 @@ public final class PathPatternFilter extends TreeFilter {
         return f;
     }
 
-    private final Pattern[] pathPatterns;
+    @Nullable
+    private final PathPatternMatcher<String> matcher;
+    private final List<String> normalizedPathPatterns;
     private final String pathPattern;
 
     private PathPatternFilter(String pathPattern) {
@@ -56,7 +61,9 @@ public final class PathPatternFilter extends TreeFilter {
 
         final String[] pathPatterns = SPLIT.split(pathPattern);
         final StringBuilder pathPatternBuf = new StringBuilder(pathPattern.length());
-        final List<Pattern> compiledPathPatterns = new ArrayList<>(pathPatterns.length);
+        final PathPatternMatcher.Builder<String> matcherBuilder = PathPatternMatcher.builder();
+        final ImmutableList.Builder<String> normalizedPathPatterns = ImmutableList.builder();
+        boolean empty = true;
         boolean matchAll = false;
         for (String p: pathPatterns) {
             if (Repository.ALL_PATH.equals(p)) {
@@ -69,19 +76,23 @@ public final class PathPatternFilter extends TreeFilter {
             }
 
             final String normalized = normalize(p);
-            compiledPathPatterns.add(compile(normalized));
+            matcherBuilder.add(normalized, normalized);
+            normalizedPathPatterns.add(normalized);
+            empty = false;
             pathPatternBuf.append(normalized).append(',');
         }
 
         if (matchAll) {
-            this.pathPatterns = null;
+            matcher = null;
+            this.normalizedPathPatterns = ImmutableList.of();
             this.pathPattern = "/**";
         } else {
-            if (compiledPathPatterns.isEmpty()) {
+            if (empty) {
                 throw new IllegalArgumentException("pathPattern is empty.");
             }
 
-            this.pathPatterns = compiledPathPatterns.toArray(new Pattern[compiledPathPatterns.size()]);
+            matcher = matcherBuilder.build();
+            this.normalizedPathPatterns = normalizedPathPatterns.build();
             this.pathPattern = pathPatternBuf.substring(0, pathPatternBuf.length() - 1);
         }
     }
@@ -101,7 +112,11 @@ public final class PathPatternFilter extends TreeFilter {
         return normalized;
     }
 
-    private static Pattern compile(final String pathPattern) {
+    /**
+     * Compiles the specified path pattern into a regular expression. Note that {@link PathPatternMatcher}
+     * uses a regular expression only for the path patterns it cannot compile into its automaton.
+     */
+    static Pattern compile(final String pathPattern) {
         if (pathPattern.isEmpty()) {
             throw new IllegalArgumentException("contains an empty path pattern");
         }
@@ -206,47 +221,62 @@ public final class PathPatternFilter extends TreeFilter {
     @Override
     public boolean include(TreeWalk walker) {
         if (walker.isSubtree()) {
-            return true;
+            // Skip the directories that cannot contain any matching files.
+            return matcher == null || matcher.mayMatchUnder(walker.getPathString());
         }
 
         return matches(walker);
     }
 
     public boolean matches(TreeWalk walker) {
-        if (pathPatterns == null) {
+        if (matcher == null) {
             return true;
         }
 
-        for (Pattern p: pathPatterns) {
-            if (p.matcher(walker.getPathString()).matches()) {
-                return true;
-            }
-        }
-
-        return false;
+        return matcher.matches(walker.getPathString());
     }
 
     public boolean matches(String path) {
-        if (pathPatterns == null) {
+        if (matcher == null) {
             return true;
         }
 
-        if (path.charAt(0) == '/') {
-            // Strip the leading '/' since pathPatterns was compiled without it.
-            path = path.substring(1);
-        }
+        return matcher.matches(path);
+    }
 
-        for (Pattern p: pathPatterns) {
-            if (p.matcher(path).matches()) {
-                return true;
-            }
-        }
+    public boolean matchesAll() {
+        return matcher == null;
+    }
 
-        return false;
+    /**
+     * Returns the normalized path patterns of this filter, which always start with {@code '/'}.
+     * An empty list is returned if this filter matches all paths.
+     */
+    public List<String> pathPatterns() {
+        return normalizedPathPatterns;
     }
 
-    public boolean matchesAll() {
-        return pathPatterns == null;
+    /**
+     * Returns the path if this filter consists of a single path pattern without any wildcards,
+     * or {@code null} otherwise.
+     */
+    @Nullable
+    public String exactPath() {
+        if (normalizedPathPatterns.size() != 1) {
+            return null;
+        }
+        final String p = normalizedPathPatterns.get(0);
+        return p.indexOf('*') < 0 ? p : null;
+    }
+
+    /**
+     * Returns the literal prefix of the specified normalized path pattern, i.e. the part before the first
+     * wildcard. Every path that matches the pattern starts with the returned prefix. The pattern itself is
+     * returned if it does not contain any wildcards.
+     */
+    public static String literalPrefix(String normalizedPathPattern) {
+        final int asteriskIdx = normalizedPathPattern.indexOf('*');
+        return asteriskIdx < 0 ? normalizedPathPattern : normalizedPathPattern.substring(0, asteriskIdx);
     }
 
     @Override
@@ -0,0 +1,466 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Matches a path against many path patterns at once.
+ *
+ * <p>The path patterns are compiled into an automaton over path segments, which shares the common
+ * segments of the path patterns, e.g. {@code /a/b/*.json} and {@code /a/b/c/**} share {@code /a/b}.
+ * A path is matched by a single pass over its segments, visiting only the states which are reachable
+ * from the segments seen so far. The following kinds of segments are supported:
+ * <ul>
+ *   <li>a literal segment, e.g. {@code foo.json}</li>
+ *   <li>a segment with {@code *}, e.g. {@code *.json}, which matches a single segment</li>
+ *   <li>{@code **}, which matches zero or more segments in the middle of a pattern, or one or more
+ *       segments at the end of a pattern</li>
+ * </ul>
+ * A path pattern with other forms of wildcards, e.g. {@code /a**b}, is matched with a regular expression
+ * after the automaton, which is rare in practice.
+ *
+ * @param <T> the type of the values associated with the path patterns
+ */
+final class PathPatternMatcher<T> {
+
+    private static final int[] EMPTY_IDS = {};
+    private static final int MAX_LINEAR_SEARCH_STATES = 8;
+
+    static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    private final State root;
+    /**
+     * The values of the path patterns, indexed by the ID of each path pattern.
+     */
+    private final List<T> values;
+    private final List<Pattern> fallbackPatterns;
+    private final int[] fallbackIds;
+
+    private PathPatternMatcher(State root, List<T> values, List<Pattern> fallbackPatterns, int[] fallbackIds) {
+        this.root = root;
+        this.values = values;
+        this.fallbackPatterns = fallbackPatterns;
+        this.fallbackIds = fallbackIds;
+    }
+
+    boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /**
+     * Returns whether any of the path patterns matches the specified path.
+     */
+    boolean matches(String path) {
+        if (!fallbackPatterns.isEmpty()) {
+            final String relativePath = relativize(path);
+            for (Pattern p : fallbackPatterns) {
+                if (p.matcher(relativePath).matches()) {
+                    return true;
+                }
+            }
+        }
+
+        final StateList states = run(path);
+        for (int i = 0; i < states.size(); i++) {
+            if (states.get(i).acceptIds.length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the values of all path patterns that match the specified path. A value associated with
+     * more than one matching path pattern is returned only once.
+     */
+    Set<T> match(String path) {
+        BitSet ids = null;
+        final StateList states = run(path);
+        for (int i = 0; i < states.size(); i++) {
+            final int[] acceptIds = states.get(i).acceptIds;
+            if (acceptIds.length > 0) {
+                if (ids == null) {
+                    ids = new BitSet(values.size());
+                }
+                for (int id : acceptIds) {
+                    ids.set(id);
+                }
+            }
+        }
+
+        if (!fallbackPatterns.isEmpty()) {
+            final String relativePath = relativize(path);
+            for (int i = 0; i < fallbackPatterns.size(); i++) {
+                if (fallbackPatterns.get(i).matcher(relativePath).matches()) {
+                    if (ids == null) {
+                        ids = new BitSet(values.size());
+                    }
+                    ids.set(fallbackIds[i]);
+                }
+            }
+        }
+
+        if (ids == null) {
+            return Collections.emptySet();
+        }
+        final Set<T> result = new LinkedHashSet<>();
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            result.add(values.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether any of the path patterns may match a path under the specified directory.
+     * {@code false} means the directory does not need to be visited at all.
+     */
+    boolean mayMatchUnder(String dirPath) {
+        if (!fallbackPatterns.isEmpty()) {
+            return true;
+        }
+
+        final StateList states = run(dirPath);
+        for (int i = 0; i < states.size(); i++) {
+            if (states.get(i).hasTransitions()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Feeds the segments of the specified path to the automaton and returns the states it ends up with.
+     */
+    private StateList run(String path) {
+        final int pathLen = path.length();
+        int start = !path.isEmpty() && path.charAt(0) == '/' ? 1 : 0;
+        StateList states = new StateList().add(root).close();
+        while (start < pathLen && !states.isEmpty()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = pathLen;
+            }
+
+            final StateList next = new StateList();
+            String segment = null;
+            for (int i = 0; i < states.size(); i++) {
+                final State s = states.get(i);
+                if (!s.literals.isEmpty()) {
+                    if (segment == null) {
+                        segment = path.substring(start, end);
+                    }
+                    final State literalNext = s.literals.get(segment);
+                    if (literalNext != null) {
+                        next.add(literalNext);
+                    }
+                }
+                for (int j = 0; j < s.globs.length; j++) {
+                    if (globMatches(s.globs[j], path, start, end)) {
+                        next.add(s.globStates[j]);
+                    }
+                }
+                if (s.anySegments != null) {
+                    next.add(s.anySegments);
+                }
+                if (s.selfLoop) {
+                    next.add(s);
+                }
+            }
+
+            states = next.close();
+            start = end + 1;
+        }
+        return states;
+    }
+
+    private static String relativize(String path) {
+        return !path.isEmpty() && path.charAt(0) == '/' ? path.substring(1) : path;
+    }
+
+    /**
+     * Returns whether the specified glob, which may contain {@code '*'}s, matches the segment of
+     * the {@code path} from {@code start} (inclusive) to {@code end} (exclusive).
+     */
+    static boolean globMatches(String glob, String path, int start, int end) {
+        final int globLen = glob.length();
+        int g = 0;
+        int p = start;
+        int starG = -1;
+        int starP = -1;
+        while (p < end) {
+            if (g < globLen && glob.charAt(g) == '*') {
+                starG = g++;
+                starP = p;
+            } else if (g < globLen && glob.charAt(g) == path.charAt(p)) {
+                g++;
+                p++;
+            } else if (starG >= 0) {
+                // Let the last '*' consume one more character.
+                g = starG + 1;
+                p = ++starP;
+            } else {
+                return false;
+            }
+        }
+        while (g < globLen && glob.charAt(g) == '*') {
+            g++;
+        }
+        return g == globLen;
+    }
+
+    /**
+     * A state of the automaton, which is reached after consuming some segments of a path.
+     */
+    private static final class State {
+
+        private static final State[] EMPTY_STATES = {};
+        private static final String[] EMPTY_GLOBS = {};
+
+        final Map<String, State> literals;
+        final String[] globs;
+        final State[] globStates;
+        /**
+         * The state reached by consuming a segment with {@code **}.
+         */
+        @Nullable
+        final State anySegments;
+        /**
+         * The state which behaves the same with {@link #anySegments} without consuming a segment.
+         * Note that it does not accept a path by itself, because {@code **} at the end of a path pattern
+         * matches one or more segments.
+         */
+        @Nullable
+        final State skippedAnySegments;
+        /**
+         * Whether this state is reached by {@code **} and thus can consume any number of segments.
+         */
+        final boolean selfLoop;
+        final int[] acceptIds;
+
+        State(Map<String, State> literals, String[] globs, State[] globStates,
+              @Nullable State anySegments, boolean selfLoop, int[] acceptIds) {
+            this(literals, globs, globStates, anySegments,
+                 anySegments != null ? anySegments.withoutSelfLoopAndAccept() : null, selfLoop, acceptIds);
+        }
+
+        private State(Map<String, State> literals, String[] globs, State[] globStates,
+                      @Nullable State anySegments, @Nullable State skippedAnySegments,
+                      boolean selfLoop, int[] acceptIds) {
+            this.literals = literals;
+            this.globs = globs;
+            this.globStates = globStates;
+            this.anySegments = anySegments;
+            this.skippedAnySegments = skippedAnySegments;
+            this.selfLoop = selfLoop;
+            this.acceptIds = acceptIds;
+        }
+
+        private State withoutSelfLoopAndAccept() {
+            return new State(literals, globs, globStates, anySegments, skippedAnySegments, false, EMPTY_IDS);
+        }
+
+        boolean hasTransitions() {
+            return !literals.isEmpty() || globs.length > 0 || anySegments != null || selfLoop;
+        }
+    }
+
+    /**
+     * A list of {@link State}s without duplicates.
+     */
+    private static final class StateList {
+
+        private final List<State> list = new ArrayList<>(4);
+        @Nullable
+        private Set<State> set;
+
+        int size() {
+            return list.size();
+        }
+
+        boolean isEmpty() {
+            return list.isEmpty();
+        }
+
+        State get(int index) {
+            return list.get(index);
+        }
+
+        StateList add(State state) {
+            if (set != null) {
+                if (set.add(state)) {
+                    list.add(state);
+                }
+                return this;
+            }
+
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i) == state) {
+                    return this;
+                }
+            }
+            list.add(state);
+            if (list.size() > MAX_LINEAR_SEARCH_STATES) {
+                set = Collections.newSetFromMap(new IdentityHashMap<>());
+                set.addAll(list);
+            }
+            return this;
+        }
+
+        /**
+         * Adds the states reachable without consuming a segment, i.e. by matching {@code **} with
+         * zero segments.
+         */
+        StateList close() {
+            for (int i = 0; i < list.size(); i++) {
+                final State skipped = list.get(i).skippedAnySegments;
+                if (skipped != null) {
+                    add(skipped);
+                }
+            }
+            return this;
+        }
+    }
+
+    static final class Builder<T> {
+
+        private final StateBuilder root = new StateBuilder();
+        private final List<T> values = new ArrayList<>();
+        private final List<Pattern> fallbackPatterns = new ArrayList<>();
+        private final List<Integer> fallbackIds = new ArrayList<>();
+
+        private Builder() {}
+
+        /**
+         * Adds the specified normalized path pattern, which starts with {@code '/'}, and its value.
+         */
+        Builder<T> add(String normalizedPathPattern, T value) {
+            requireNonNull(normalizedPathPattern, "normalizedPathPattern");
+            requireNonNull(value, "value");
+            if (normalizedPathPattern.isEmpty() || normalizedPathPattern.charAt(0) != '/') {
+                throw new IllegalArgumentException(
+                        "normalizedPathPattern: " + normalizedPathPattern + " (expected: an absolute path)");
+            }
+            if (normalizedPathPattern.contains("***")) {
+                throw new IllegalArgumentException(
+                        "contains a path pattern with invalid wildcard characters: " + normalizedPathPattern +
+                        " (only * and ** are allowed)");
+            }
+
+            final int id = values.size();
+            values.add(value);
+
+            final String[] segments = normalizedPathPattern.substring(1).split("/", -1);
+            for (String segment : segments) {
+                if (segment.contains("**") && !"**".equals(segment)) {
+                    fallbackPatterns.add(PathPatternFilter.compile(normalizedPathPattern));
+                    fallbackIds.add(id);
+                    return this;
+                }
+            }
+
+            StateBuilder state = root;
+            for (String segment : segments) {
+                if ("**".equals(segment)) {
+                    if (state.anySegments == null) {
+                        state.anySegments = new StateBuilder();
+                        state.anySegments.selfLoop = true;
+                    }
+                    state = state.anySegments;
+                } else if (segment.indexOf('*') >= 0) {
+                    state = state.globs.computeIfAbsent(segment, unused -> new StateBuilder());
+                } else {
+                    state = state.literals.computeIfAbsent(segment, unused -> new StateBuilder());
+                }
+            }
+            state.acceptIds.add(id);
+            return this;
+        }
+
+        PathPatternMatcher<T> build() {
+            final int[] fallbackIds = new int[this.fallbackIds.size()];
+            for (int i = 0; i < fallbackIds.length; i++) {
+                fallbackIds[i] = this.fallbackIds.get(i);
+            }
+            return new PathPatternMatcher<>(root.build(), ImmutableList.copyOf(values),
+                                            ImmutableList.copyOf(fallbackPatterns), fallbackIds);
+        }
+    }
+
+    private static final class StateBuilder {
+        final Map<String, StateBuilder> literals = new HashMap<>();
+        final Map<String, StateBuilder> globs = new LinkedHashMap<>();
+        @Nullable
+        StateBuilder anySegments;
+        boolean selfLoop;
+        final List<Integer> acceptIds = new ArrayList<>();
+
+        State build() {
+            final Map<String, State> literals;
+            if (this.literals.isEmpty()) {
+                literals = Collections.emptyMap();
+            } else {
+                literals = new HashMap<>(this.literals.size() * 2);
+                this.literals.forEach((segment, state) -> literals.put(segment, state.build()));
+            }
+
+            final String[] globs;
+            final State[] globStates;
+            if (this.globs.isEmpty()) {
+                globs = State.EMPTY_GLOBS;
+                globStates = State.EMPTY_STATES;
+            } else {
+                globs = this.globs.keySet().toArray(State.EMPTY_GLOBS);
+                globStates = new State[globs.length];
+                for (int i = 0; i < globs.length; i++) {
+                    globStates[i] = this.globs.get(globs[i]).build();
+                }
+            }
+
+            final int[] acceptIds;
+            if (this.acceptIds.isEmpty()) {
+                acceptIds = EMPTY_IDS;
+            } else {
+                acceptIds = new int[this.acceptIds.size()];
+                for (int i = 0; i < acceptIds.length; i++) {
+                    acceptIds[i] = this.acceptIds.get(i);
+                }
+            }
+
+            return new State(literals, globs, globStates, anySegments != null ? anySegments.build() : null,
+                             selfLoop, acceptIds);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.locks.Lock;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.centraldogma.server.CentralDogmaConfig;
+import com.linecorp.centraldogma.server.command.CommandExecutor;
+import com.linecorp.centraldogma.server.internal.replication.ZooKeeperCommandExecutor;
+import com.linecorp.centraldogma.server.plugin.AllReplicasPlugin;
+import com.linecorp.centraldogma.server.plugin.PluginContext;
+import com.linecorp.centraldogma.server.storage.repository.RepositoryGcPluginConfig;
+
+/**
+ * A plugin which runs the {@link RepositoryGcService}. It runs on all replicas because every replica
+ * has its own copy of the {@link GitRepository}s.
+ */
+public final class RepositoryGcPlugin extends AllReplicasPlugin {
+
+    @Nullable
+    private static RepositoryGcPluginConfig gcConfig(CentralDogmaConfig config) {
+        return (RepositoryGcPluginConfig) config.pluginConfigMap().get(RepositoryGcPluginConfig.class);
+    }
+
+    @Nullable
+    private volatile RepositoryGcService gcService;
+
+    @Override
+    public synchronized CompletionStage<Void> start(PluginContext context) {
+        requireNonNull(context, "context");
+        RepositoryGcService gcService = this.gcService;
+        if (gcService == null) {
+            final RepositoryGcPluginConfig gcConfig = gcConfig(context.config());
+            assert gcConfig != null;
+            // Keep the references from being packed while a snapshot is staged for the other replicas.
+            final CommandExecutor executor = context.commandExecutor();
+            final Lock snapshotLock = executor instanceof ZooKeeperCommandExecutor ?
+                                      ((ZooKeeperCommandExecutor) executor).snapshotSharedLock() : null;
+            gcService = new RepositoryGcService(context.projectManager(), context.meterRegistry(),
+                                                gcConfig, snapshotLock);
+            this.gcService = gcService;
+        }
+        gcService.start();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public synchronized CompletionStage<Void> stop(PluginContext context) {
+        final RepositoryGcService gcService = this.gcService;
+        if (gcService != null && gcService.isStarted()) {
+            gcService.stop();
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public boolean isEnabled(CentralDogmaConfig config) {
+        final RepositoryGcPluginConfig gcConfig = gcConfig(requireNonNull(config, "config"));
+        return gcConfig != null && gcConfig.enabled();
+    }
+
+    @Override
+    public Class<?> configType() {
+        return RepositoryGcPluginConfig.class;
+    }
+
+    @Nullable
+    public RepositoryGcService gcService() {
+        return gcService;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .omitNullValues()
+                          .add("configType", configType().getName())
+                          .add("gcService", gcService)
+                          .toString();
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.centraldogma.server.internal.storage.repository.RepositoryManagerWrapper;
+import com.linecorp.centraldogma.server.storage.project.Project;
+import com.linecorp.centraldogma.server.storage.project.ProjectManager;
+import com.linecorp.centraldogma.server.storage.repository.Repository;
+import com.linecorp.centraldogma.server.storage.repository.RepositoryGcPluginConfig;
+import com.linecorp.centraldogma.server.storage.repository.RepositoryManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * A service which periodically packs the loose objects and references of the {@link Repository}s
+ * of this replica, one {@link Repository} at a time.
+ */
+public final class RepositoryGcService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryGcService.class);
+
+    private final ProjectManager projectManager;
+    private final RepositoryGcPluginConfig config;
+    private final Counter objectsPackedCounter;
+    private final Counter bytesReclaimedCounter;
+    private final Timer pauseTimer;
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    @Nullable
+    private final Lock snapshotLock;
+
+    @Nullable
+    private ScheduledExecutorService executor;
+    @Nullable
+    private volatile CountDownLatch stopLatch;
+
+    public RepositoryGcService(ProjectManager projectManager, MeterRegistry meterRegistry,
+                               RepositoryGcPluginConfig config) {
+        this(projectManager, meterRegistry, config, null);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param snapshotLock the {@link Lock} held while the references of a {@link Repository} are packed,
+     *                     which keeps a snapshot of the data directory from being staged meanwhile
+     */
+    public RepositoryGcService(ProjectManager projectManager, MeterRegistry meterRegistry,
+                               RepositoryGcPluginConfig config, @Nullable Lock snapshotLock) {
+        this.projectManager = requireNonNull(projectManager, "projectManager");
+        requireNonNull(meterRegistry, "meterRegistry");
+        this.config = requireNonNull(config, "config");
+        objectsPackedCounter = Counter.builder("repository.gc.objects.packed").register(meterRegistry);
+        bytesReclaimedCounter = Counter.builder("repository.gc.reclaimed")
+                                       .baseUnit("bytes")
+                                       .register(meterRegistry);
+        pauseTimer = Timer.builder("repository.gc.pause").register(meterRegistry);
+        successTimer = Timer.builder("repository.gc.duration").tag("result", "success")
+                            .register(meterRegistry);
+        failureTimer = Timer.builder("repository.gc.duration").tag("result", "failure")
+                            .register(meterRegistry);
+        this.snapshotLock = snapshotLock;
+    }
+
+    public synchronized boolean isStarted() {
+        return executor != null;
+    }
+
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        stopLatch = new CountDownLatch(1);
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+                new DefaultThreadFactory("repository-gc", true));
+        this.executor = executor;
+        // Start at a random point of the interval so that the replicas do not pack their repositories
+        // at the same time.
+        final long intervalMillis = config.intervalMillis();
+        executor.scheduleWithFixedDelay(this::gcAll, ThreadLocalRandom.current().nextLong(intervalMillis),
+                                        intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        final ScheduledExecutorService executor = this.executor;
+        if (executor == null) {
+            return;
+        }
+        final CountDownLatch stopLatch = this.stopLatch;
+        assert stopLatch != null;
+        stopLatch.countDown();
+        // Do not interrupt the GC in progress. JGit closes the pack files shared with the readers
+        // when a thread reading them is interrupted.
+        executor.shutdown();
+        boolean interrupted = false;
+        for (;;) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        this.executor = null;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @VisibleForTesting
+    void gcAll() {
+        try {
+            for (Project project : projectManager.list().values()) {
+                RepositoryManager repos = project.repos();
+                if (repos instanceof RepositoryManagerWrapper) {
+                    repos = ((RepositoryManagerWrapper) repos).unwrap();
+                }
+                for (Repository repo : repos.list().values()) {
+                    if (isStopping()) {
+                        return;
+                    }
+                    if (!(repo instanceof GitRepository) || gc((GitRepository) repo) == null) {
+                        continue;
+                    }
+                    final CountDownLatch stopLatch = this.stopLatch;
+                    if (stopLatch != null &&
+                        stopLatch.await(config.delayBetweenRepositoriesMillis(), TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Unexpected repository GC failure", e);
+        }
+    }
+
+    private boolean isStopping() {
+        final CountDownLatch stopLatch = this.stopLatch;
+        return stopLatch != null && stopLatch.getCount() == 0;
+    }
+
+    @VisibleForTesting
+    @Nullable
+    GcResult gc(GitRepository repo) {
+        final long startNanos = System.nanoTime();
+        final GcResult result;
+        try {
+            result = repo.gc(config.minLooseObjects(), snapshotLock);
+        } catch (Exception e) {
+            failureTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            logger.warn("Failed to pack the repository: {}/{}", repo.parent().name(), repo.name(), e);
+            return null;
+        }
+        if (result == null) {
+            return null;
+        }
+
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        successTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        pauseTimer.record(result.pauseNanos(), TimeUnit.NANOSECONDS);
+        objectsPackedCounter.increment(result.objectsPacked());
+        if (result.bytesReclaimed() > 0) {
+            bytesReclaimedCounter.increment(result.bytesReclaimed());
+        }
+        logger.info("Packed the repository {}/{} in {} ms: {}", repo.parent().name(), repo.name(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), result);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("config", config)
+                          .toString();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import static java.util.Objects.requireNonNull;
+
+import org.eclipse.jgit.lib.ObjectId;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.centraldogma.common.Revision;
+
+/**
+ * An immutable snapshot of the head of a {@link GitRepository}. A commit publishes a new
+ * {@link RepositoryHead} only after all objects of the commit and its commit ID have been written,
+ * so that a reader can read any revision up to the head without acquiring a lock.
+ */
+final class RepositoryHead {
+
+    private final Revision revision;
+    private final ObjectId commitId;
+    private final ObjectId treeId;
+
+    RepositoryHead(Revision revision, ObjectId commitId, ObjectId treeId) {
+        this.revision = requireNonNull(revision, "revision");
+        this.commitId = requireNonNull(commitId, "commitId");
+        this.treeId = requireNonNull(treeId, "treeId");
+    }
+
+    Revision revision() {
+        return revision;
+    }
+
+    ObjectId commitId() {
+        return commitId;
+    }
+
+    ObjectId treeId() {
+        return treeId;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("revision", revision)
+                          .add("commitId", commitId.name())
+                          .add("treeId", treeId.name())
+                          .toString();
+    }
+}
@@ -21,8 +21,7 @@ import static java.util.Objects.requireNonNull;
 import java.io.IOException;
 import java.util.Objects;
 
-import org.eclipse.jgit.dircache.DirCache;
-import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectInserter;
 import org.eclipse.jgit.lib.ObjectReader;
 
@@ -49,19 +48,18 @@ final class TransformingChangesApplier extends AbstractChangesApplier {
     }
 
     @Override
-    int doApply(Revision headRevision, DirCache dirCache,
+    int doApply(Revision headRevision, TreeEditor treeEditor,
                 ObjectReader reader, ObjectInserter inserter) throws IOException {
         final String changePath = transformer.path().substring(1); // Strip the leading '/'.
-        final DirCacheEntry oldEntry = dirCache.getEntry(changePath);
-        final byte[] oldContent = oldEntry != null ? reader.open(oldEntry.getObjectId()).getBytes()
-                                                   : null;
+        final ObjectId oldId = treeEditor.fileId(changePath);
+        final byte[] oldContent = oldId != null ? reader.open(oldId).getBytes() : null;
         final JsonNode oldJsonNode = oldContent != null ? Jackson.readTree(oldContent)
                                                         : JsonNodeFactory.instance.nullNode();
         try {
             final JsonNode newJsonNode = transformer.transformer().apply(headRevision, oldJsonNode.deepCopy());
             requireNonNull(newJsonNode, "transformer.transformer().apply() returned null");
             if (!Objects.equals(newJsonNode, oldJsonNode)) {
-                applyPathEdit(dirCache, new InsertJson(changePath, inserter, newJsonNode));
+                insertJson(treeEditor, changePath, inserter, newJsonNode);
                 return 1;
             }
         } catch (CentralDogmaException e) {
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.AbbreviatedObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.util.Paths;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Edits a Git tree in memory and writes only the subtrees which have been modified. Unlike
+ * {@link org.eclipse.jgit.dircache.DirCache}, which needs all entries of a tree, a subtree is read only
+ * when a path under it is accessed, and the {@link ObjectId}s of the untouched subtrees are reused as they
+ * are. The {@link DiffEntry}s of the edits are computed by comparing only the modified subtrees with
+ * the base tree.
+ *
+ * <p>All paths given to this class are relative, i.e. they must not start with {@code '/'}.
+ */
+final class TreeEditor {
+
+    private static final Comparator<Map.Entry<String, Object>> GIT_ORDER = (a, b) -> {
+        final byte[] aName = Constants.encode(a.getKey());
+        final byte[] bName = Constants.encode(b.getKey());
+        return Paths.compare(aName, 0, aName.length, mode(a.getValue()).getBits(),
+                             bName, 0, bName.length, mode(b.getValue()).getBits());
+    };
+
+    private static FileMode mode(Object entry) {
+        return entry instanceof Tree ? FileMode.TREE : ((FileEntry) entry).mode;
+    }
+
+    private final ObjectReader reader;
+    @Nullable
+    private final ObjectId baseTreeId;
+    private final Tree root;
+
+    /**
+     * Creates a new instance which edits the specified tree.
+     *
+     * @param baseTreeId the {@link ObjectId} of the tree to edit, or {@code null} to start with
+     *                   an empty tree
+     */
+    TreeEditor(ObjectReader reader, @Nullable ObjectId baseTreeId) {
+        this.reader = requireNonNull(reader, "reader");
+        this.baseTreeId = baseTreeId;
+        if (baseTreeId != null) {
+            root = new Tree(baseTreeId);
+        } else {
+            root = Tree.newEmpty();
+        }
+    }
+
+    /**
+     * Returns the {@link ObjectId} of the file at the specified path,
+     * or {@code null} if there's no file at the path.
+     */
+    @Nullable
+    ObjectId fileId(String path) throws IOException {
+        final Object entry = lookup(path);
+        return entry instanceof FileEntry ? ((FileEntry) entry).id : null;
+    }
+
+    /**
+     * Returns whether there's a file or a non-empty directory at the specified path.
+     */
+    boolean exists(String path) throws IOException {
+        return lookup(path) != null;
+    }
+
+    /**
+     * Adds or replaces the file at the specified path. A file or a directory which conflicts with
+     * the path is removed, as {@link org.eclipse.jgit.dircache.DirCacheEditor} does.
+     */
+    void putFile(String path, ObjectId blobId) throws IOException {
+        put(path, new FileEntry(FileMode.REGULAR_FILE, blobId));
+    }
+
+    /**
+     * Removes the file or the directory at the specified path.
+     *
+     * @return {@code true} if the file or the directory existed
+     */
+    boolean remove(String path) throws IOException {
+        path = trimSlash(path);
+        if (lookup(path) == null) {
+            return false;
+        }
+        final Tree parent = parentForUpdate(path);
+        parent.entries(reader).remove(path.substring(path.lastIndexOf('/') + 1));
+        return true;
+    }
+
+    /**
+     * Moves the file or the directory at the specified path. The moved directory keeps its
+     * {@link ObjectId} if it has not been modified.
+     *
+     * @return {@code true} if the file or the directory existed
+     */
+    boolean move(String oldPath, String newPath) throws IOException {
+        oldPath = trimSlash(oldPath);
+        final Object entry = lookup(oldPath);
+        if (entry == null) {
+            return false;
+        }
+        remove(oldPath);
+        put(newPath, entry);
+        return true;
+    }
+
+    /**
+     * Writes the modified subtrees and returns the {@link ObjectId} of the root tree.
+     */
+    ObjectId writeTree(ObjectInserter inserter) throws IOException {
+        final ObjectId id = root.write(reader, inserter);
+        if (id != null) {
+            return id;
+        }
+        // Every entry has been removed.
+        return inserter.insert(new TreeFormatter());
+    }
+
+    /**
+     * Returns the {@link DiffEntry}s of the files changed by the edits, sorted by their paths.
+     */
+    List<DiffEntry> diff() throws IOException {
+        final List<DiffEntry> diffEntries = new ArrayList<>();
+        diff("", baseTreeId != null ? new Tree(baseTreeId) : null, root, diffEntries);
+        diffEntries.sort(Comparator.comparing(e -> e.getChangeType() == DiffEntry.ChangeType.DELETE ?
+                                                   e.getOldPath() : e.getNewPath()));
+        return diffEntries;
+    }
+
+    private void diff(String prefix, @Nullable Tree oldTree, @Nullable Tree newTree,
+                      List<DiffEntry> diffEntries) throws IOException {
+        if (oldTree != null && newTree != null && !newTree.dirty && oldTree.id.equals(newTree.id)) {
+            return;
+        }
+        final Map<String, Object> oldEntries = oldTree != null ? oldTree.entries(reader) : ImmutableMap.of();
+        final Map<String, Object> newEntries = newTree != null ? newTree.entries(reader) : ImmutableMap.of();
+        for (Map.Entry<String, Object> e : oldEntries.entrySet()) {
+            diff(prefix + e.getKey(), e.getValue(), newEntries.get(e.getKey()), diffEntries);
+        }
+        for (Map.Entry<String, Object> e : newEntries.entrySet()) {
+            if (!oldEntries.containsKey(e.getKey())) {
+                diff(prefix + e.getKey(), null, e.getValue(), diffEntries);
+            }
+        }
+    }
+
+    private void diff(String path, @Nullable Object oldEntry, @Nullable Object newEntry,
+                      List<DiffEntry> diffEntries) throws IOException {
+        final FileEntry oldFile = oldEntry instanceof FileEntry ? (FileEntry) oldEntry : null;
+        final FileEntry newFile = newEntry instanceof FileEntry ? (FileEntry) newEntry : null;
+        if (oldFile != null && newFile != null) {
+            if (!oldFile.equals(newFile)) {
+                diffEntries.add(new EditEntry(path, oldFile, newFile));
+            }
+        } else if (oldFile != null) {
+            diffEntries.add(new EditEntry(path, oldFile, null));
+        } else if (newFile != null) {
+            diffEntries.add(new EditEntry(path, null, newFile));
+        }
+
+        final Tree oldTree = oldEntry instanceof Tree ? (Tree) oldEntry : null;
+        final Tree newTree = newEntry instanceof Tree ? (Tree) newEntry : null;
+        if (oldTree != null || newTree != null) {
+            diff(path + '/', oldTree, newTree, diffEntries);
+        }
+    }
+
+    /**
+     * Returns the {@link FileEntry} or the non-empty {@link Tree} at the specified path.
+     */
+    @Nullable
+    private Object lookup(String path) throws IOException {
+        path = trimSlash(path);
+        Tree tree = root;
+        int start = 0;
+        for (;;) {
+            final int slash = path.indexOf('/', start);
+            if (slash < 0) {
+                final Object entry = tree.entries(reader).get(path.substring(start));
+                if (entry instanceof Tree && ((Tree) entry).isEmpty(reader)) {
+                    return null;
+                }
+                return entry;
+            }
+            final Object child = tree.entries(reader).get(path.substring(start, slash));
+            if (!(child instanceof Tree)) {
+                return null;
+            }
+            tree = (Tree) child;
+            start = slash + 1;
+        }
+    }
+
+    private void put(String path, Object entry) throws IOException {
+        path = trimSlash(path);
+        final Tree parent = parentForUpdate(path);
+        parent.entries(reader).put(path.substring(path.lastIndexOf('/') + 1), entry);
+    }
+
+    /**
+     * Returns the parent {@link Tree} of the specified path, creating the missing directories. All trees
+     * from the root to the parent are marked as modified.
+     */
+    private Tree parentForUpdate(String path) throws IOException {
+        Tree tree = root;
+        tree.dirty = true;
+        int start = 0;
+        for (;;) {
+            final int slash = path.indexOf('/', start);
+            if (slash < 0) {
+                return tree;
+            }
+            final Map<String, Object> entries = tree.entries(reader);
+            final String name = path.substring(start, slash);
+            final Object child = entries.get(name);
+            if (child instanceof Tree) {
+                tree = (Tree) child;
+            } else {
+                // Replace the file with a directory if exists.
+                tree = Tree.newEmpty();
+                entries.put(name, tree);
+            }
+            tree.dirty = true;
+            start = slash + 1;
+        }
+    }
+
+    private static String trimSlash(String path) {
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private static final class Tree {
+
+        static Tree newEmpty() {
+            final Tree tree = new Tree(null);
+            tree.entries = new HashMap<>();
+            tree.dirty = true;
+            return tree;
+        }
+
+        /**
+         * The {@link ObjectId} of this tree, which is valid only when this tree is not {@link #dirty}.
+         */
+        @Nullable
+        ObjectId id;
+        /**
+         * The {@link FileEntry}s and the {@link Tree}s of this tree, which are read lazily.
+         */
+        @Nullable
+        private Map<String, Object> entries;
+        boolean dirty;
+
+        Tree(@Nullable ObjectId id) {
+            this.id = id;
+        }
+
+        Map<String, Object> entries(ObjectReader reader) throws IOException {
+            if (entries != null) {
+                return entries;
+            }
+            assert id != null;
+            final Map<String, Object> entries = new HashMap<>();
+            final CanonicalTreeParser parser = new CanonicalTreeParser(null, reader, id);
+            for (; !parser.eof(); parser.next()) {
+                final FileMode mode = parser.getEntryFileMode();
+                final ObjectId entryId = parser.getEntryObjectId();
+                entries.put(parser.getEntryPathString(),
+                            mode == FileMode.TREE ? new Tree(entryId) : new FileEntry(mode, entryId));
+            }
+            return this.entries = entries;
+        }
+
+        boolean isEmpty(ObjectReader reader) throws IOException {
+            if (!dirty) {
+                // A tree in a repository is never empty.
+                return false;
+            }
+            for (Object entry : entries(reader).values()) {
+                if (entry instanceof FileEntry || !((Tree) entry).isEmpty(reader)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Writes this tree if modified and returns its {@link ObjectId},
+         * or {@code null} if this tree is empty.
+         */
+        @Nullable
+        ObjectId write(ObjectReader reader, ObjectInserter inserter) throws IOException {
+            if (!dirty) {
+                return id;
+            }
+            final List<Map.Entry<String, Object>> sortedEntries = new ArrayList<>(entries(reader).entrySet());
+            sortedEntries.sort(GIT_ORDER);
+            final TreeFormatter formatter = new TreeFormatter();
+            int numEntries = 0;
+            for (Map.Entry<String, Object> e : sortedEntries) {
+                final Object entry = e.getValue();
+                if (entry instanceof FileEntry) {
+                    final FileEntry file = (FileEntry) entry;
+                    formatter.append(e.getKey(), file.mode, file.id);
+                } else {
+                    final ObjectId subtreeId = ((Tree) entry).write(reader, inserter);
+                    if (subtreeId == null) {
+                        // Git does not store an empty directory.
+                        continue;
+                    }
+                    formatter.append(e.getKey(), FileMode.TREE, subtreeId);
+                }
+                numEntries++;
+            }
+            if (numEntries == 0) {
+                // Leave an empty tree dirty because it has no ObjectId.
+                return null;
+            }
+            id = inserter.insert(formatter);
+            dirty = false;
+            return id;
+        }
+    }
+
+    private static final class FileEntry {
+        final FileMode mode;
+        final ObjectId id;
+
+        FileEntry(FileMode mode, ObjectId id) {
+            this.mode = mode;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FileEntry)) {
+                return false;
+            }
+            final FileEntry that = (FileEntry) o;
+            return mode.equals(that.mode) && id.equals(that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return id.hashCode();
+        }
+    }
+
+    /**
+     * A {@link DiffEntry} which is equivalent to what {@link org.eclipse.jgit.diff.DiffFormatter} produces
+     * for an added, a modified or a deleted file.
+     */
+    private static final class EditEntry extends DiffEntry {
+
+        private static final AbbreviatedObjectId A_ZERO = AbbreviatedObjectId.fromObjectId(ObjectId.zeroId());
+
+        EditEntry(String path, @Nullable FileEntry oldFile, @Nullable FileEntry newFile) {
+            if (oldFile == null) {
+                changeType = ChangeType.ADD;
+            } else if (newFile == null) {
+                changeType = ChangeType.DELETE;
+            } else {
+                changeType = ChangeType.MODIFY;
+            }
+            oldPath = oldFile != null ? path : DEV_NULL;
+            newPath = newFile != null ? path : DEV_NULL;
+            oldMode = oldFile != null ? oldFile.mode : FileMode.MISSING;
+            newMode = newFile != null ? newFile.mode : FileMode.MISSING;
+            oldId = oldFile != null ? AbbreviatedObjectId.fromObjectId(oldFile.id) : A_ZERO;
+            newId = newFile != null ? AbbreviatedObjectId.fromObjectId(newFile.id) : A_ZERO;
+        }
+    }
+}
@@ -28,6 +28,10 @@ import static org.eclipse.jgit.lib.Ref.Storage.NEW;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
@@ -45,6 +49,9 @@ import org.eclipse.jgit.lib.Ref.Storage;
 import org.eclipse.jgit.lib.RefUpdate.Result;
 import org.eclipse.jgit.lib.SymbolicRef;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.luben.zstd.Zstd;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.primitives.Ints;
@@ -63,12 +70,25 @@ public final class EncryptionGitStorage implements SafeCloseable {
     public static final String REFS = R_REFS; // refs/
     public static final String REV2SHA = "rev2sha/";
 
+    // An object smaller than this is not compressed because it would not be smaller after compression.
+    private static final int MIN_COMPRESSION_SIZE = 256;
+
+    // An object larger than this is not cached but its unwrapped object DEK is.
+    private static final int MAX_CACHED_OBJECT_SIZE = 1024 * 1024;
+
+    // The caches shared by all encrypted repositories of the same EncryptionStorageManager,
+    // which are sized with its EncryptionConfig.
+    private static final Cache<EncryptionStorageManager, ObjectCaches> objectCaches =
+            Caffeine.newBuilder().weakKeys().build();
+
     private final String projectName;
     private final String repoName;
     private final byte[] objectKeyPrefix;
     private final byte[] refsKeyPrefix;
     private final byte[] rev2ShaPrefix;
     private final EncryptionStorageManager encryptionStorageManager;
+    private final Cache<CacheKey, DecryptedObject> decryptedObjects;
+    private final Cache<CacheKey, ObjectKey> objectKeys;
 
     private volatile SecretKeyWithVersion currentDek;
     private final ConcurrentHashMap<Integer, SecretKey> dekWithVersion = new ConcurrentHashMap<>();
@@ -83,6 +103,9 @@ public final class EncryptionGitStorage implements SafeCloseable {
         refsKeyPrefix = projectRepoPrefix.getBytes(StandardCharsets.UTF_8);
         rev2ShaPrefix = (projectRepoPrefix + REV2SHA).getBytes(StandardCharsets.UTF_8);
         this.encryptionStorageManager = encryptionStorageManager;
+        final ObjectCaches caches = objectCaches.get(encryptionStorageManager, ObjectCaches::new);
+        decryptedObjects = caches.decryptedObjects;
+        objectKeys = caches.objectKeys;
         currentDek = encryptionStorageManager.getCurrentDek(projectName, repoName);
 
         encryptionStorageManager.addCurrentDekListener(projectName, repoName, newDek -> currentDek = newDek);
@@ -123,15 +146,32 @@ public final class EncryptionGitStorage implements SafeCloseable {
 
         assert objectWdek.length == KEY_SIZE_BYTES + 16; // 16 bytes for the tag
 
+        // Compress the content before encrypting it because the ciphertext is not compressible.
+        final byte[] compressed = compress(data, off, len);
+        final int format = compressed != null ? GitObjectMetadata.FORMAT_ZSTD : GitObjectMetadata.FORMAT_RAW;
         final GitObjectMetadata gitObjectMetadata = GitObjectMetadata.of(currentDek.version(), nonce, type,
-                                                                         objectWdek);
+                                                                         objectWdek, format);
 
         final SecretKeySpec keySpec = aesSecretKey(objectDek);
 
         final byte[] encryptedId = encryptObjectId(keySpec, nonce, objectId);
-        final byte[] encryptedValue = encrypt(keySpec, nonce, data, off, len);
+        final byte[] encryptedValue;
+        if (compressed != null) {
+            encryptedValue = encrypt(keySpec, nonce, compressed, 0, compressed.length);
+        } else {
+            encryptedValue = encrypt(keySpec, nonce, data, off, len);
+        }
         encryptionStorageManager.putObject(metadataKey, gitObjectMetadata.toBytes(),
                                            encryptedId, encryptedValue);
+
+        // A new object is likely to be read soon, e.g. when the commit is applied to the caches.
+        final CacheKey cacheKey = new CacheKey(this, objectId.copy());
+        objectKeys.put(cacheKey, new ObjectKey(keySpec, nonce, type, format));
+        if (len <= MAX_CACHED_OBJECT_SIZE) {
+            final byte[] copy = new byte[len];
+            System.arraycopy(data, off, copy, 0, len);
+            decryptedObjects.put(cacheKey, new DecryptedObject(copy, type));
+        }
         return objectId;
     }
 
@@ -169,17 +209,122 @@ public final class EncryptionGitStorage implements SafeCloseable {
 
     @Nullable
     public ObjectLoader getObject(ObjectId objectId, int typeHint) throws IncorrectObjectTypeException {
+        final CacheKey cacheKey = new CacheKey(this, objectId.copy());
+        final DecryptedObject cached = decryptedObjects.getIfPresent(cacheKey);
+        if (cached != null) {
+            checkType(objectId, typeHint, cached.type);
+            return new DecryptedObjectLoader(cached.data, cached.type);
+        }
+
         final byte[] metadataKey = objectMetadataKey(objectId);
-        final byte[] metadata = encryptionStorageManager.getMetadata(metadataKey);
-        if (metadata == null) {
+        ObjectKey objectKey = objectKeys.getIfPresent(cacheKey);
+        if (objectKey == null) {
+            final byte[] metadata = encryptionStorageManager.getMetadata(metadataKey);
+            if (metadata == null) {
+                return null;
+            }
+            checkType(objectId, typeHint, getInt(metadata, 4 + NONCE_SIZE_BYTES));
+            objectKey = unwrapObjectKey(objectId, metadata);
+            objectKeys.put(cacheKey, objectKey);
+        } else {
+            checkType(objectId, typeHint, objectKey.type);
+        }
+
+        final byte[] encryptedKey = encryptObjectId(objectKey.dek, objectKey.nonce, objectId);
+        final byte[] value = encryptionStorageManager.getObject(encryptedKey, metadataKey);
+        if (value == null) {
             return null;
         }
 
-        final int actualType = getInt(metadata, 4 + NONCE_SIZE_BYTES);
+        final byte[] decrypted = decryptObject(objectKey, value);
+        cacheDecryptedObject(cacheKey, decrypted, objectKey.type);
+        return new DecryptedObjectLoader(decrypted, objectKey.type);
+    }
+
+    /**
+     * Returns the {@link ObjectLoader}s of the specified {@link ObjectId}s. The objects which are not
+     * cached are read with two batched lookups, one for the metadata and the other for the encrypted
+     * objects, rather than two lookups for each object. A missing object is not in the returned
+     * {@link Map}.
+     */
+    Map<ObjectId, ObjectLoader> getObjects(List<ObjectId> objectIds) {
+        final Map<ObjectId, ObjectLoader> loaders = new HashMap<>();
+        final List<CacheKey> keysWithoutObjectKey = new ArrayList<>();
+        final List<CacheKey> keysToRead = new ArrayList<>();
+        final List<ObjectKey> objectKeysToRead = new ArrayList<>();
+        for (ObjectId objectId : objectIds) {
+            final CacheKey cacheKey = new CacheKey(this, objectId.copy());
+            final DecryptedObject cached = decryptedObjects.getIfPresent(cacheKey);
+            if (cached != null) {
+                loaders.put(cacheKey.objectId, new DecryptedObjectLoader(cached.data, cached.type));
+                continue;
+            }
+            final ObjectKey objectKey = objectKeys.getIfPresent(cacheKey);
+            if (objectKey != null) {
+                keysToRead.add(cacheKey);
+                objectKeysToRead.add(objectKey);
+            } else {
+                keysWithoutObjectKey.add(cacheKey);
+            }
+        }
+
+        if (!keysWithoutObjectKey.isEmpty()) {
+            final List<byte[]> metadataKeys = new ArrayList<>(keysWithoutObjectKey.size());
+            for (CacheKey cacheKey : keysWithoutObjectKey) {
+                metadataKeys.add(objectMetadataKey(cacheKey.objectId));
+            }
+            final List<byte[]> metadataList = encryptionStorageManager.multiGetMetadata(metadataKeys);
+            for (int i = 0; i < keysWithoutObjectKey.size(); i++) {
+                final byte[] metadata = metadataList.get(i);
+                if (metadata == null) {
+                    continue;
+                }
+                final CacheKey cacheKey = keysWithoutObjectKey.get(i);
+                final ObjectKey objectKey = unwrapObjectKey(cacheKey.objectId, metadata);
+                objectKeys.put(cacheKey, objectKey);
+                keysToRead.add(cacheKey);
+                objectKeysToRead.add(objectKey);
+            }
+        }
+
+        if (keysToRead.isEmpty()) {
+            return loaders;
+        }
+        final List<byte[]> encryptedKeys = new ArrayList<>(keysToRead.size());
+        for (int i = 0; i < keysToRead.size(); i++) {
+            final ObjectKey objectKey = objectKeysToRead.get(i);
+            encryptedKeys.add(encryptObjectId(objectKey.dek, objectKey.nonce, keysToRead.get(i).objectId));
+        }
+        final List<byte[]> values = encryptionStorageManager.multiGetObjects(encryptedKeys);
+        for (int i = 0; i < keysToRead.size(); i++) {
+            final byte[] value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            final CacheKey cacheKey = keysToRead.get(i);
+            final ObjectKey objectKey = objectKeysToRead.get(i);
+            final byte[] decrypted = decryptObject(objectKey, value);
+            cacheDecryptedObject(cacheKey, decrypted, objectKey.type);
+            loaders.put(cacheKey.objectId, new DecryptedObjectLoader(decrypted, objectKey.type));
+        }
+        return loaders;
+    }
+
+    /**
+     * Returns whether the decrypted object of the specified {@link ObjectId} is cached.
+     */
+    boolean isCached(ObjectId objectId) {
+        return decryptedObjects.getIfPresent(new CacheKey(this, objectId.copy())) != null;
+    }
+
+    private static void checkType(ObjectId objectId, int typeHint, int actualType)
+            throws IncorrectObjectTypeException {
         if (typeHint != OBJ_ANY && actualType != typeHint) {
             throw new IncorrectObjectTypeException(objectId.copy(), typeHint);
         }
+    }
 
+    private ObjectKey unwrapObjectKey(ObjectId objectId, byte[] metadata) {
         final int keyVersion = getInt(metadata, 0);
         final SecretKey dek = getDek(keyVersion);
 
@@ -191,16 +336,47 @@ public final class EncryptionGitStorage implements SafeCloseable {
             throw new EncryptionStorageException(
                     "Failed to get object dek in " + projectName + '/' + repoName + " for " + objectId, e);
         }
+        return new ObjectKey(objectDek, gitObjectMetadata.nonce(), gitObjectMetadata.type(),
+                             gitObjectMetadata.format());
+    }
 
-        final byte[] encryptedKey = encryptObjectId(objectDek,
-                                                    gitObjectMetadata.nonce(), objectId);
-        final byte[] value = encryptionStorageManager.getObject(encryptedKey, metadataKey);
-        if (value == null) {
+    /**
+     * Returns the compressed content, or {@code null} if the content is not worth compressing.
+     */
+    @Nullable
+    private static byte[] compress(byte[] data, int off, int len) {
+        if (len < MIN_COMPRESSION_SIZE) {
             return null;
         }
+        final byte[] src;
+        if (off == 0 && len == data.length) {
+            src = data;
+        } else {
+            src = new byte[len];
+            System.arraycopy(data, off, src, 0, len);
+        }
+        final byte[] compressed = Zstd.compress(src);
+        // Store as is if the compression does not save at least 1/8 of the content.
+        return compressed.length <= len - (len >>> 3) ? compressed : null;
+    }
 
-        final byte[] decrypted = decrypt(objectDek, gitObjectMetadata.nonce(), value);
-        return new DecryptedObjectLoader(decrypted, actualType);
+    private byte[] decryptObject(ObjectKey objectKey, byte[] value) {
+        final byte[] decrypted = decrypt(objectKey.dek, objectKey.nonce, value);
+        if (objectKey.format == GitObjectMetadata.FORMAT_RAW) {
+            return decrypted;
+        }
+        try {
+            return Zstd.decompress(decrypted);
+        } catch (Exception e) {
+            throw new EncryptionStorageException(
+                    "Failed to decompress data in " + projectName + '/' + repoName, e);
+        }
+    }
+
+    private void cacheDecryptedObject(CacheKey cacheKey, byte[] decrypted, int type) {
+        if (decrypted.length <= MAX_CACHED_OBJECT_SIZE) {
+            decryptedObjects.put(cacheKey, new DecryptedObject(decrypted, type));
+        }
     }
 
     @Nullable
@@ -376,6 +552,80 @@ public final class EncryptionGitStorage implements SafeCloseable {
     @Override
     public void close() {
         encryptionStorageManager.removeCurrentDekListener(projectName, repoName);
+        decryptedObjects.asMap().keySet().removeIf(key -> key.storage == this);
+        objectKeys.asMap().keySet().removeIf(key -> key.storage == this);
+    }
+
+    /**
+     * The decrypted Git objects and the unwrapped object DEKs of the encrypted repositories. They are kept
+     * only in memory and never persisted. A Git object is immutable and the object DEK is not changed by
+     * re-encryption, so the entries are valid until the repository is closed.
+     */
+    private static final class ObjectCaches {
+        final Cache<CacheKey, DecryptedObject> decryptedObjects;
+        final Cache<CacheKey, ObjectKey> objectKeys;
+
+        ObjectCaches(EncryptionStorageManager encryptionStorageManager) {
+            decryptedObjects = Caffeine.newBuilder()
+                                       .maximumWeight(encryptionStorageManager.objectCacheSizeBytes())
+                                       .weigher((CacheKey key, DecryptedObject value) ->
+                                                        value.data.length + 64)
+                                       .build();
+            objectKeys = Caffeine.newBuilder()
+                                 .maximumSize(encryptionStorageManager.objectKeyCacheSize())
+                                 .build();
+        }
+    }
+
+    private static final class CacheKey {
+        final EncryptionGitStorage storage;
+        final ObjectId objectId;
+
+        CacheKey(EncryptionGitStorage storage, ObjectId objectId) {
+            this.storage = storage;
+            this.objectId = objectId;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(storage) * 31 + objectId.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            final CacheKey that = (CacheKey) o;
+            return storage == that.storage && objectId.equals(that.objectId);
+        }
+    }
+
+    private static final class ObjectKey {
+        final SecretKeySpec dek;
+        final byte[] nonce;
+        final int type;
+        final int format;
+
+        ObjectKey(SecretKeySpec dek, byte[] nonce, int type, int format) {
+            this.dek = dek;
+            this.nonce = nonce;
+            this.type = type;
+            this.format = format;
+        }
+    }
+
+    private static final class DecryptedObject {
+        final byte[] data;
+        final int type;
+
+        DecryptedObject(byte[] data, int type) {
+            this.data = data;
+            this.type = type;
+        }
     }
 
     private static final class DecryptedObjectLoader extends ObjectLoader {
@@ -28,40 +28,70 @@ import com.linecorp.centraldogma.server.internal.storage.AesGcmSivCipher;
 
 public final class GitObjectMetadata {
 
+    /**
+     * The format of an object whose content is encrypted as is.
+     */
+    public static final int FORMAT_RAW = 0;
+
+    /**
+     * The format of an object whose content is compressed with Zstandard before encrypted.
+     */
+    public static final int FORMAT_ZSTD = 1;
+
+    // key version(4) + Nonce(12) + type(4) + objectWdek(48)
+    private static final int RAW_FORMAT_LENGTH = 4 + NONCE_SIZE_BYTES + 4 + KEY_SIZE_BYTES + 16;
+
     public static GitObjectMetadata of(int keyVersion, byte[] nonce, int type, byte[] objectWdek) {
-        return new GitObjectMetadata(keyVersion, nonce, type, objectWdek);
+        return of(keyVersion, nonce, type, objectWdek, FORMAT_RAW);
+    }
+
+    public static GitObjectMetadata of(int keyVersion, byte[] nonce, int type, byte[] objectWdek,
+                                       int format) {
+        if (format != FORMAT_RAW && format != FORMAT_ZSTD) {
+            throw new IllegalArgumentException("Unsupported object format: " + format);
+        }
+        return new GitObjectMetadata(keyVersion, nonce, type, objectWdek, format);
     }
 
     public static GitObjectMetadata fromBytes(byte[] metadata) {
-        // metadata: key version(4) + Nonce(12) + type(4) + objectWdek(48)
-        final int expectedLength = 4 + NONCE_SIZE_BYTES + 4 + KEY_SIZE_BYTES + 16;
-        if (metadata.length != expectedLength) {
-            throw new IllegalArgumentException("Invalid metadata length: expected " + expectedLength +
-                                               ", got " + metadata.length);
+        // metadata: key version(4) + Nonce(12) + type(4) + objectWdek(48) [+ format(4)]
+        // The format is omitted for FORMAT_RAW so that the objects stored before the format was introduced
+        // remain readable.
+        final int format;
+        if (metadata.length == RAW_FORMAT_LENGTH) {
+            format = FORMAT_RAW;
+        } else if (metadata.length == RAW_FORMAT_LENGTH + 4) {
+            format = getInt(metadata, RAW_FORMAT_LENGTH);
+        } else {
+            throw new IllegalArgumentException("Invalid metadata length: expected " + RAW_FORMAT_LENGTH +
+                                               " or " + (RAW_FORMAT_LENGTH + 4) + ", got " + metadata.length);
         }
         final byte[] nonce = new byte[NONCE_SIZE_BYTES];
 
         System.arraycopy(metadata, 4, nonce, 0, NONCE_SIZE_BYTES);
-        final int wdekLength = metadata.length - (4 + NONCE_SIZE_BYTES + 4); // 48
+        final int wdekLength = RAW_FORMAT_LENGTH - (4 + NONCE_SIZE_BYTES + 4); // 48
         final byte[] objectWdek = new byte[wdekLength];
         System.arraycopy(metadata, 4 + NONCE_SIZE_BYTES + 4, objectWdek, 0, wdekLength);
 
-        return new GitObjectMetadata(getInt(metadata, 0),
-                                     nonce,
-                                     getInt(metadata, 4 + NONCE_SIZE_BYTES),
-                                     objectWdek);
+        return of(getInt(metadata, 0),
+                  nonce,
+                  getInt(metadata, 4 + NONCE_SIZE_BYTES),
+                  objectWdek,
+                  format);
     }
 
     private final int keyVersion;
     private final byte[] nonce;
     private final int type;
     private final byte[] objectWdek;
+    private final int format;
 
-    private GitObjectMetadata(int keyVersion, byte[] nonce, int type, byte[] objectWdek) {
+    private GitObjectMetadata(int keyVersion, byte[] nonce, int type, byte[] objectWdek, int format) {
         this.keyVersion = keyVersion;
         this.nonce = nonce;
         this.type = type;
         this.objectWdek = objectWdek;
+        this.format = format;
     }
 
     public int keyVersion() {
@@ -80,9 +110,17 @@ public final class GitObjectMetadata {
         return objectWdek;
     }
 
+    /**
+     * Returns the format of the encrypted content, which is {@link #FORMAT_RAW} or {@link #FORMAT_ZSTD}.
+     */
+    public int format() {
+        return format;
+    }
+
     public byte[] toBytes() {
-        // key version(4) + Nonce(12) + type(4) + objectWdek(48)
-        final byte[] bytes = new byte[4 + NONCE_SIZE_BYTES + 4 + objectWdek.length];
+        // key version(4) + Nonce(12) + type(4) + objectWdek(48) [+ format(4)]
+        final int length = 4 + NONCE_SIZE_BYTES + 4 + objectWdek.length;
+        final byte[] bytes = new byte[format == FORMAT_RAW ? length : length + 4];
         int index = 0;
         putInt(bytes, index, keyVersion);
         index += 4;
@@ -91,6 +129,10 @@ public final class GitObjectMetadata {
         putInt(bytes, index, type);
         index += 4;
         System.arraycopy(objectWdek, 0, bytes, index, objectWdek.length);
+        if (format != FORMAT_RAW) {
+            index += objectWdek.length;
+            putInt(bytes, index, format);
+        }
         return bytes;
     }
 
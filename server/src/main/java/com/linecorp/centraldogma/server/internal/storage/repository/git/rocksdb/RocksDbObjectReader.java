@@ -15,23 +15,38 @@
  */
 package com.linecorp.centraldogma.server.internal.storage.repository.git.rocksdb;
 
+import static org.eclipse.jgit.lib.Constants.OBJ_TREE;
+
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.eclipse.jgit.errors.MissingObjectException;
 import org.eclipse.jgit.internal.JGitText;
 import org.eclipse.jgit.lib.AbbreviatedObjectId;
 import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.AsyncObjectLoaderQueue;
+import org.eclipse.jgit.lib.FileMode;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectLoader;
 import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 final class RocksDbObjectReader extends ObjectReader {
 
+    // The maximum number of the trees read ahead when a tree which is not cached is opened in a batch.
+    private static final int MAX_PREFETCHED_TREES = 1024;
+
     private final EncryptionGitStorage encryptionGitStorage;
 
     RocksDbObjectReader(EncryptionGitStorage encryptionGitStorage) {
@@ -69,6 +84,109 @@ final class RocksDbObjectReader extends ObjectReader {
         return objectLoader;
     }
 
+    /**
+     * Reads the subtrees of the specified trees level by level with batched lookups, so that a recursive
+     * tree walk which enters them does not read them one by one.
+     */
+    private void prefetchSubtrees(List<byte[]> trees) {
+        final CanonicalTreeParser parser = new CanonicalTreeParser();
+        int numPrefetched = 0;
+        while (!trees.isEmpty() && numPrefetched < MAX_PREFETCHED_TREES) {
+            final List<ObjectId> subtreeIds = new ArrayList<>();
+            for (byte[] t : trees) {
+                parser.reset(t);
+                while (!parser.eof() && numPrefetched + subtreeIds.size() < MAX_PREFETCHED_TREES) {
+                    if (parser.getEntryFileMode() == FileMode.TREE) {
+                        subtreeIds.add(parser.getEntryObjectId());
+                    }
+                    parser.next();
+                }
+            }
+            if (subtreeIds.isEmpty()) {
+                return;
+            }
+            numPrefetched += subtreeIds.size();
+            final Map<ObjectId, ObjectLoader> subtrees = encryptionGitStorage.getObjects(subtreeIds);
+            final List<byte[]> nextTrees = new ArrayList<>(subtrees.size());
+            for (ObjectLoader loader : subtrees.values()) {
+                if (loader.getType() == OBJ_TREE) {
+                    nextTrees.add(loader.getCachedBytes());
+                }
+            }
+            trees = nextTrees;
+        }
+    }
+
+    /**
+     * {@inheritDoc} The subtrees of the trees which were not cached are read ahead as well, so a caller
+     * which is about to walk a tree recursively may open it with this method first.
+     */
+    @Override
+    public <T extends ObjectId> AsyncObjectLoaderQueue<T> open(Iterable<T> objectIds, boolean reportMissing) {
+        final List<T> ids = new ArrayList<>();
+        final Set<ObjectId> uncachedIds = new HashSet<>();
+        objectIds.forEach(id -> {
+            ids.add(id);
+            if (!encryptionGitStorage.isCached(id)) {
+                uncachedIds.add(id);
+            }
+        });
+        final Map<ObjectId, ObjectLoader> loaders =
+                encryptionGitStorage.getObjects(ImmutableList.copyOf(ids));
+        final List<byte[]> uncachedTrees = new ArrayList<>();
+        loaders.forEach((id, loader) -> {
+            if (uncachedIds.contains(id) && loader.getType() == OBJ_TREE) {
+                uncachedTrees.add(loader.getCachedBytes());
+            }
+        });
+        prefetchSubtrees(uncachedTrees);
+        final Iterator<T> it = ids.iterator();
+        return new AsyncObjectLoaderQueue<T>() {
+            @Nullable
+            private T current;
+
+            @Override
+            public boolean next() {
+                if (!it.hasNext()) {
+                    current = null;
+                    return false;
+                }
+                current = it.next();
+                return true;
+            }
+
+            @Override
+            public T getCurrent() {
+                return current;
+            }
+
+            @Override
+            public ObjectId getObjectId() {
+                return current;
+            }
+
+            @Override
+            public ObjectLoader open() throws IOException {
+                assert current != null;
+                final ObjectLoader loader = loaders.get(current);
+                if (loader == null) {
+                    throw new MissingObjectException(current.copy(), JGitText.get().unknownObjectType2);
+                }
+                return loader;
+            }
+
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                return true;
+            }
+
+            @Override
+            public void release() {
+                // No-op
+            }
+        };
+    }
+
     @Override
     public Set<ObjectId> getShallowCommits() throws IOException {
         // The underlying EncryptionGitStorage currently has no defined mechanism
@@ -32,6 +32,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,7 +42,6 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
 import com.spotify.futures.CompletableFutures;
 
-import com.linecorp.armeria.common.annotation.Nullable;
 import com.linecorp.armeria.common.util.Exceptions;
 import com.linecorp.centraldogma.common.Author;
 import com.linecorp.centraldogma.common.ChangeConflictException;
@@ -49,6 +49,7 @@ import com.linecorp.centraldogma.common.EntryNotFoundException;
 import com.linecorp.centraldogma.common.ProjectRole;
 import com.linecorp.centraldogma.common.RedundantChangeException;
 import com.linecorp.centraldogma.common.RepositoryExistsException;
+import com.linecorp.centraldogma.common.RepositoryNotFoundException;
 import com.linecorp.centraldogma.common.RepositoryRole;
 import com.linecorp.centraldogma.common.RepositoryStatus;
 import com.linecorp.centraldogma.common.Revision;
@@ -971,29 +972,7 @@ public class MetadataService {
         requireNonNull(projectName, "projectName");
         requireNonNull(repoName, "repoName");
         requireNonNull(token, "token");
-
-        return getProject(projectName).thenApply(metadata -> {
-            final RepositoryMetadata repositoryMetadata = metadata.repo(repoName);
-            final Roles roles = repositoryMetadata.roles();
-            final String appId = token.appId();
-            final RepositoryRole tokenRepositoryRole = roles.appIds().get(appId);
-
-            final TokenRegistration projectTokenRegistration = metadata.appIds().get(appId);
-            final ProjectRole projectRole;
-            if (projectTokenRegistration != null) {
-                projectRole = projectTokenRegistration.role();
-            } else {
-                // System admin tokens were checked before this method.
-                assert !token.isSystemAdmin();
-                if (token.allowGuestAccess()) {
-                    projectRole = ProjectRole.GUEST;
-                } else {
-                    // The token is not allowed with the GUEST permission.
-                    return null;
-                }
-            }
-            return repositoryRole(roles, tokenRepositoryRole, projectRole);
-        });
+        return findRepositoryRole(projectName, repoName, index -> index.tokenRole(token));
     }
 
     private CompletableFuture<RepositoryRole> findRepositoryRole0(String projectName, String repoName,
@@ -1001,46 +980,24 @@ public class MetadataService {
         requireNonNull(projectName, "projectName");
         requireNonNull(repoName, "repoName");
         requireNonNull(user, "user");
-
-        return getProject(projectName).thenApply(metadata -> {
-            final RepositoryMetadata repositoryMetadata = metadata.repo(repoName);
-            final Roles roles = repositoryMetadata.roles();
-            final RepositoryRole userRepositoryRole = roles.users().get(user.id());
-
-            final Member projectUser = metadata.memberOrDefault(user.id(), null);
-            final ProjectRole projectRole = projectUser != null ? projectUser.role() : ProjectRole.GUEST;
-            return repositoryRole(roles, userRepositoryRole, projectRole);
-        });
+        return findRepositoryRole(projectName, repoName, index -> index.userRole(user.id()));
     }
 
-    @Nullable
-    private static RepositoryRole repositoryRole(Roles roles, @Nullable RepositoryRole repositoryRole,
-                                                 ProjectRole projectRole) {
-        if (projectRole == ProjectRole.OWNER) {
-            return RepositoryRole.ADMIN;
-        }
-
-        final RepositoryRole memberOrGuestRole;
-        if (projectRole == ProjectRole.MEMBER) {
-            memberOrGuestRole = roles.projectRoles().member();
-        } else {
-            assert projectRole == ProjectRole.GUEST;
-            memberOrGuestRole = roles.projectRoles().guest();
+    private CompletableFuture<RepositoryRole> findRepositoryRole(
+            String projectName, String repoName, Function<RepositoryRoleIndex, RepositoryRole> lookup) {
+        final RepositoryRoleIndex index = getMetadata(projectName).repositoryRoleIndex(repoName);
+        if (index != null) {
+            // Fast path: the roles of the repository are indexed in the current metadata.
+            return CompletableFuture.completedFuture(lookup.apply(index));
         }
 
-        if (repositoryRole == RepositoryRole.ADMIN || memberOrGuestRole == RepositoryRole.ADMIN) {
-            return RepositoryRole.ADMIN;
-        }
-
-        if (repositoryRole == RepositoryRole.WRITE || memberOrGuestRole == RepositoryRole.WRITE) {
-            return RepositoryRole.WRITE;
-        }
-
-        if (repositoryRole == RepositoryRole.READ || memberOrGuestRole == RepositoryRole.READ) {
-            return RepositoryRole.READ;
-        }
-
-        return null;
+        return getProject(projectName).thenApply(metadata -> {
+            final RepositoryRoleIndex fetched = metadata.repositoryRoleIndex(repoName);
+            if (fetched == null) {
+                throw RepositoryNotFoundException.of(projectName, repoName);
+            }
+            return lookup.apply(fetched);
+        });
     }
 
     /**
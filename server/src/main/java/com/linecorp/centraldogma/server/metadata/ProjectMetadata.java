@@ -22,6 +22,7 @@ import static java.util.Objects.requireNonNull;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
@@ -84,6 +85,12 @@ public class ProjectMetadata implements Identifiable, HasWeight {
     @Nullable
     private final UserAndTimestamp removal;
 
+    /**
+     * The {@link RepositoryRoleIndex} of each repository, which is built when a role is looked up first.
+     * It is never stale because this class is immutable.
+     */
+    private final Map<String, RepositoryRoleIndex> repositoryRoleIndexes = new ConcurrentHashMap<>();
+
     /**
      * Creates a new instance.
      */
@@ -178,6 +185,24 @@ public class ProjectMetadata implements Identifiable, HasWeight {
         throw RepositoryNotFoundException.of(name, repoName);
     }
 
+    /**
+     * Returns the {@link RepositoryRoleIndex} of the specified repository in this project, or {@code null}
+     * if there's no {@link RepositoryMetadata} of the repository.
+     */
+    @Nullable
+    RepositoryRoleIndex repositoryRoleIndex(String repoName) {
+        final RepositoryRoleIndex index = repositoryRoleIndexes.get(repoName);
+        if (index != null) {
+            return index;
+        }
+        final RepositoryMetadata repositoryMetadata = repos.get(repoName);
+        if (repositoryMetadata == null) {
+            return null;
+        }
+        return repositoryRoleIndexes.computeIfAbsent(
+                repoName, unused -> new RepositoryRoleIndex(this, repositoryMetadata));
+    }
+
     /**
      * Returns the {@link Member} of the specified ID in this project.
      */
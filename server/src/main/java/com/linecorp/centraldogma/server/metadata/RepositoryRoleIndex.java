@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.metadata;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.centraldogma.common.ProjectRole;
+import com.linecorp.centraldogma.common.RepositoryRole;
+
+/**
+ * An immutable index of the effective {@link RepositoryRole}s of the users and the application IDs for
+ * a repository. It is built from a {@link ProjectMetadata}, which is also immutable, so that the role of
+ * a request is found with a single hash lookup instead of being computed for each request.
+ */
+final class RepositoryRoleIndex {
+
+    // The maps below allow null values which mean no role.
+
+    /**
+     * The effective roles of the project members and the users who have an explicit repository role.
+     */
+    private final Map<String, RepositoryRole> userRoles;
+
+    /**
+     * The effective role of the other users.
+     */
+    @Nullable
+    private final RepositoryRole guestRole;
+
+    /**
+     * The effective roles of the application IDs registered to the project.
+     */
+    private final Map<String, RepositoryRole> registeredAppIdRoles;
+
+    /**
+     * The effective roles of the unregistered application IDs which have an explicit repository role.
+     * They are used only when the token is allowed with the guest access.
+     */
+    private final Map<String, RepositoryRole> guestAppIdRoles;
+
+    RepositoryRoleIndex(ProjectMetadata metadata, RepositoryMetadata repositoryMetadata) {
+        final Roles roles = repositoryMetadata.roles();
+        guestRole = repositoryRole(roles, null, ProjectRole.GUEST);
+
+        final Map<String, RepositoryRole> userRoles = new HashMap<>();
+        for (Entry<String, Member> entry : metadata.members().entrySet()) {
+            final String userId = entry.getKey();
+            userRoles.put(userId, repositoryRole(roles, roles.users().get(userId), entry.getValue().role()));
+        }
+        for (Entry<String, RepositoryRole> entry : roles.users().entrySet()) {
+            if (!userRoles.containsKey(entry.getKey())) {
+                userRoles.put(entry.getKey(), repositoryRole(roles, entry.getValue(), ProjectRole.GUEST));
+            }
+        }
+        this.userRoles = userRoles;
+
+        final Map<String, RepositoryRole> registeredAppIdRoles = new HashMap<>();
+        for (Entry<String, TokenRegistration> entry : metadata.appIds().entrySet()) {
+            final String appId = entry.getKey();
+            registeredAppIdRoles.put(appId, repositoryRole(roles, roles.appIds().get(appId),
+                                                           entry.getValue().role()));
+        }
+        this.registeredAppIdRoles = registeredAppIdRoles;
+
+        final Map<String, RepositoryRole> guestAppIdRoles = new HashMap<>();
+        for (Entry<String, RepositoryRole> entry : roles.appIds().entrySet()) {
+            if (!registeredAppIdRoles.containsKey(entry.getKey())) {
+                guestAppIdRoles.put(entry.getKey(), repositoryRole(roles, entry.getValue(), ProjectRole.GUEST));
+            }
+        }
+        this.guestAppIdRoles = guestAppIdRoles;
+    }
+
+    /**
+     * Returns the {@link RepositoryRole} of the specified user ID, or {@code null} if the user has no role.
+     */
+    @Nullable
+    RepositoryRole userRole(String userId) {
+        return userRoles.getOrDefault(userId, guestRole);
+    }
+
+    /**
+     * Returns the {@link RepositoryRole} of the specified {@link Token}, or {@code null} if the
+     * {@link Token} has no role.
+     */
+    @Nullable
+    RepositoryRole tokenRole(Token token) {
+        final String appId = token.appId();
+        final RepositoryRole role = registeredAppIdRoles.get(appId);
+        if (role != null || registeredAppIdRoles.containsKey(appId)) {
+            return role;
+        }
+        // System admin tokens were checked before this method.
+        assert !token.isSystemAdmin();
+        if (!token.allowGuestAccess()) {
+            // The token is not allowed with the GUEST permission.
+            return null;
+        }
+        return guestAppIdRoles.getOrDefault(appId, guestRole);
+    }
+
+    @Nullable
+    static RepositoryRole repositoryRole(Roles roles, @Nullable RepositoryRole repositoryRole,
+                                         ProjectRole projectRole) {
+        if (projectRole == ProjectRole.OWNER) {
+            return RepositoryRole.ADMIN;
+        }
+
+        final RepositoryRole memberOrGuestRole;
+        if (projectRole == ProjectRole.MEMBER) {
+            memberOrGuestRole = roles.projectRoles().member();
+        } else {
+            assert projectRole == ProjectRole.GUEST;
+            memberOrGuestRole = roles.projectRoles().guest();
+        }
+
+        if (repositoryRole == RepositoryRole.ADMIN || memberOrGuestRole == RepositoryRole.ADMIN) {
+            return RepositoryRole.ADMIN;
+        }
+
+        if (repositoryRole == RepositoryRole.WRITE || memberOrGuestRole == RepositoryRole.WRITE) {
+            return RepositoryRole.WRITE;
+        }
+
+        if (repositoryRole == RepositoryRole.READ || memberOrGuestRole == RepositoryRole.READ) {
+            return RepositoryRole.READ;
+        }
+
+        return null;
+    }
+}
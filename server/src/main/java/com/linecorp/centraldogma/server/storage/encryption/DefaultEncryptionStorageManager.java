@@ -17,6 +17,7 @@ package com.linecorp.centraldogma.server.storage.encryption;
 
 import static java.util.Objects.requireNonNull;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
@@ -29,24 +30,39 @@ import javax.crypto.SecretKey;
 
 import com.google.common.collect.ImmutableList;
 
+import com.linecorp.armeria.common.metric.NoopMeterRegistry;
 import com.linecorp.armeria.common.util.UnmodifiableFuture;
+import com.linecorp.centraldogma.server.EncryptionConfig;
 import com.linecorp.centraldogma.server.auth.SessionKey;
 import com.linecorp.centraldogma.server.auth.SessionMasterKey;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 final class DefaultEncryptionStorageManager implements EncryptionStorageManager {
 
     static final String ROCKSDB_PATH = "_rocks";
 
     private final boolean encryptSessionCookie;
     private final String kekId;
+    private final long objectCacheSizeBytes;
+    private final int objectKeyCacheSize;
     private final RocksDBStorage rocksDbStorage;
     private final SessionKeyStorage sessionKeyStorage;
     private final RepositoryEncryptionStorage repositoryEncryptionStorage;
 
     DefaultEncryptionStorageManager(String rocksDbPath, boolean encryptSessionCookie, String kekId) {
+        this(rocksDbPath, new EncryptionConfig(true, encryptSessionCookie, kekId), NoopMeterRegistry.get());
+    }
+
+    DefaultEncryptionStorageManager(String rocksDbPath, EncryptionConfig encryptionConfig,
+                                    MeterRegistry meterRegistry) {
         requireNonNull(rocksDbPath, "rocksDbPath");
-        this.encryptSessionCookie = encryptSessionCookie;
-        this.kekId = requireNonNull(kekId, "kekId");
+        requireNonNull(encryptionConfig, "encryptionConfig");
+        requireNonNull(meterRegistry, "meterRegistry");
+        encryptSessionCookie = encryptionConfig.encryptSessionCookie();
+        kekId = requireNonNull(encryptionConfig.kekId(), "kekId");
+        objectCacheSizeBytes = encryptionConfig.objectCacheSizeBytes();
+        objectKeyCacheSize = encryptionConfig.objectKeyCacheSize();
         final List<KeyWrapper> keyWrappers = ImmutableList.copyOf(ServiceLoader.load(
                 KeyWrapper.class, EncryptionStorageManager.class.getClassLoader()));
         if (keyWrappers.size() != 1) {
@@ -55,7 +71,8 @@ final class DefaultEncryptionStorageManager implements EncryptionStorageManager
         }
         final KeyWrapper keyWrapper = keyWrappers.get(0);
 
-        rocksDbStorage = new RocksDBStorage(rocksDbPath);
+        rocksDbStorage = new RocksDBStorage(rocksDbPath, encryptionConfig);
+        rocksDbStorage.bindMetrics(meterRegistry);
 
         sessionKeyStorage = new SessionKeyStorage(rocksDbStorage, keyWrapper, kekId);
         repositoryEncryptionStorage = new RepositoryEncryptionStorage(rocksDbStorage, keyWrapper, kekId);
@@ -76,6 +93,16 @@ final class DefaultEncryptionStorageManager implements EncryptionStorageManager
         return kekId;
     }
 
+    @Override
+    public long objectCacheSizeBytes() {
+        return objectCacheSizeBytes;
+    }
+
+    @Override
+    public int objectKeyCacheSize() {
+        return objectKeyCacheSize;
+    }
+
     @Override
     public CompletableFuture<SessionMasterKey> generateSessionMasterKey(int version) {
         return sessionKeyStorage.generateSessionMasterKey(version);
@@ -156,6 +183,16 @@ final class DefaultEncryptionStorageManager implements EncryptionStorageManager
         return repositoryEncryptionStorage.getMetadata(metadataKey);
     }
 
+    @Override
+    public List<byte[]> multiGetMetadata(List<byte[]> metadataKeys) {
+        return repositoryEncryptionStorage.multiGetMetadata(metadataKeys);
+    }
+
+    @Override
+    public List<byte[]> multiGetObjects(List<byte[]> keys) {
+        return repositoryEncryptionStorage.multiGetObjects(keys);
+    }
+
     @Override
     public void putObject(byte[] metadataKey, byte[] metadataValue, byte[] key, byte[] value) {
         repositoryEncryptionStorage.putObject(metadataKey, metadataValue, key, value);
@@ -223,6 +260,11 @@ final class DefaultEncryptionStorageManager implements EncryptionStorageManager
                 });
     }
 
+    @Override
+    public void createCheckpoint(Path dir) {
+        rocksDbStorage.createCheckpoint(requireNonNull(dir, "dir").toString());
+    }
+
     @Override
     public void close() {
         rocksDbStorage.close();
@@ -36,6 +36,8 @@ import com.linecorp.centraldogma.server.EncryptionConfig;
 import com.linecorp.centraldogma.server.auth.SessionKey;
 import com.linecorp.centraldogma.server.auth.SessionMasterKey;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Manages the storage of encrypted data at rest.
  */
@@ -44,8 +46,9 @@ public interface EncryptionStorageManager extends SafeCloseable {
     /**
      * Creates a new {@link EncryptionStorageManager} instance.
      */
-    static EncryptionStorageManager of(CentralDogmaConfig cfg) {
+    static EncryptionStorageManager of(CentralDogmaConfig cfg, MeterRegistry meterRegistry) {
         requireNonNull(cfg, "cfg");
+        requireNonNull(meterRegistry, "meterRegistry");
         final EncryptionConfig encryptionConfig = cfg.encryption();
         final boolean enabled = encryptionConfig != null && encryptionConfig.enabled();
         final Path rocksDbPath = cfg.dataDir().toPath().resolve(ROCKSDB_PATH);
@@ -56,10 +59,7 @@ public interface EncryptionStorageManager extends SafeCloseable {
             return NoopEncryptionStorageManager.INSTANCE;
         }
 
-        final String kekId = encryptionConfig.kekId();
-        assert kekId != null;
-        return new DefaultEncryptionStorageManager(rocksDbPath.toString(),
-                                                   encryptionConfig.encryptSessionCookie(), kekId);
+        return new DefaultEncryptionStorageManager(rocksDbPath.toString(), encryptionConfig, meterRegistry);
     }
 
     /**
@@ -86,6 +86,18 @@ public interface EncryptionStorageManager extends SafeCloseable {
      */
     String kekId();
 
+    /**
+     * Returns the maximum total size of the decrypted Git objects of the encrypted repositories which are
+     * cached in memory.
+     */
+    long objectCacheSizeBytes();
+
+    /**
+     * Returns the maximum number of the unwrapped object keys of the encrypted repositories which are
+     * cached in memory.
+     */
+    int objectKeyCacheSize();
+
     /**
      * Generates a new data encryption key (DEK) and wraps it.
      */
@@ -172,6 +184,18 @@ public interface EncryptionStorageManager extends SafeCloseable {
     @Nullable
     byte[] getMetadata(byte[] metadataKey);
 
+    /**
+     * Returns the values of the specified metadata keys in a single batch. The element of the returned
+     * {@link List} is {@code null} if the corresponding key does not exist.
+     */
+    List<byte[]> multiGetMetadata(List<byte[]> metadataKeys);
+
+    /**
+     * Returns the objects associated with the specified keys in a single batch. The element of the
+     * returned {@link List} is {@code null} if the corresponding key does not exist.
+     */
+    List<byte[]> multiGetObjects(List<byte[]> keys);
+
     /**
      * Stores the specified key-value object with metadata.
      */
@@ -237,4 +261,10 @@ public interface EncryptionStorageManager extends SafeCloseable {
      * @param executor the {@link Executor} to use for storing re-wrapped keys.
      */
     CompletableFuture<Void> rewrapAllKeys(Executor executor);
+
+    /**
+     * Creates a consistent point-in-time copy of the encryption storage in the specified directory,
+     * which must not exist. Does nothing if the encryption is disabled.
+     */
+    void createCheckpoint(Path dir);
 }
@@ -15,6 +15,8 @@
  */
 package com.linecorp.centraldogma.server.storage.encryption;
 
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -56,6 +58,16 @@ public enum NoopEncryptionStorageManager implements EncryptionStorageManager {
         return "";
     }
 
+    @Override
+    public long objectCacheSizeBytes() {
+        return 0;
+    }
+
+    @Override
+    public int objectKeyCacheSize() {
+        return 0;
+    }
+
     @Override
     public CompletableFuture<String> generateWdek() {
         return UnmodifiableFuture.completedFuture(null);
@@ -136,6 +148,16 @@ public enum NoopEncryptionStorageManager implements EncryptionStorageManager {
         return null;
     }
 
+    @Override
+    public List<byte[]> multiGetMetadata(List<byte[]> metadataKeys) {
+        return Collections.nCopies(metadataKeys.size(), null);
+    }
+
+    @Override
+    public List<byte[]> multiGetObjects(List<byte[]> keys) {
+        return Collections.nCopies(keys.size(), new byte[0]);
+    }
+
     @Override
     public void putObject(byte[] metadataKey, byte[] metadataValue, byte[] key, byte[] value) {
         // No-op
@@ -193,6 +215,11 @@ public enum NoopEncryptionStorageManager implements EncryptionStorageManager {
         return UnmodifiableFuture.completedFuture(null);
     }
 
+    @Override
+    public void createCheckpoint(Path dir) {
+        // No-op
+    }
+
     @Override
     public void close() {
         // No-op
@@ -302,6 +302,24 @@ final class RepositoryEncryptionStorage {
         }
     }
 
+    List<byte[]> multiGetMetadata(List<byte[]> metadataKeys) {
+        requireNonNull(metadataKeys, "metadataKeys");
+        try {
+            return rocksDbStorage.multiGet(ENCRYPTION_METADATA_COLUMN_FAMILY, metadataKeys);
+        } catch (RocksDBException e) {
+            throw new EncryptionStorageException("Failed to get " + metadataKeys.size() + " metadata", e);
+        }
+    }
+
+    List<byte[]> multiGetObjects(List<byte[]> keys) {
+        requireNonNull(keys, "keys");
+        try {
+            return rocksDbStorage.multiGet(ENCRYPTED_OBJECT_COLUMN_FAMILY, keys);
+        } catch (RocksDBException e) {
+            throw new EncryptionStorageException("Failed to get " + keys.size() + " objects", e);
+        }
+    }
+
     void putObject(byte[] metadataKey, byte[] metadataValue, byte[] key, byte[] value) {
         try (WriteBatch writeBatch = new WriteBatch();
              WriteOptions writeOptions = new WriteOptions()) {
@@ -414,7 +432,7 @@ final class RepositoryEncryptionStorage {
 
                 if (startsWith(metadataKey, objectKeyPrefixBytes)) {
                     // MetadataKey: project/repo/objs/<objectId_bytes(20)>
-                    // MetadataValue: key version(4) + nonce(12) + type(4) + objectWdek(48)
+                    // MetadataValue: key version(4) + nonce(12) + type(4) + objectWdek(48) [+ format(4)]
                     if (metadataKey.length == objectKeyPrefixBytes.length + 20) {
                         idPart = null; // unused
                         if (metadataValue != null) {
@@ -447,7 +465,7 @@ final class RepositoryEncryptionStorage {
 
                             final GitObjectMetadata newGitObjectMetadata = GitObjectMetadata.of(
                                     newKeyVersion, gitObjectMetadata.nonce(), gitObjectMetadata.type(),
-                                    newWrappedObjectDek);
+                                    newWrappedObjectDek, gitObjectMetadata.format());
                             final byte[] newMetadataValue = newGitObjectMetadata.toBytes();
 
                             // Update only metadata - encrypted object data and its key remain unchanged
@@ -578,7 +596,7 @@ final class RepositoryEncryptionStorage {
 
                 if (startsWith(metadataKey, objectKeyPrefixBytes)) {
                     // MetadataKey: project/repo/objs/<objectId_bytes(20)>
-                    // MetadataValue: key version(4) + nonce(12) + type(4) + objectWdek(48)
+                    // MetadataValue: key version(4) + nonce(12) + type(4) + objectWdek(48) [+ format(4)]
                     if (metadataKey.length == objectKeyPrefixBytes.length + 20) {
                         idPart = Arrays.copyOfRange(metadataKey, objectKeyPrefixBytes.length,
                                                     metadataKey.length);
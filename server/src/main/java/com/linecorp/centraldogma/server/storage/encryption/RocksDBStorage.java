@@ -17,25 +17,35 @@ package com.linecorp.centraldogma.server.storage.encryption;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.annotation.Nullable;
 
 import org.rocksdb.BlockBasedTableConfig;
 import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
+import org.rocksdb.Checkpoint;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.CompactionStyle;
 import org.rocksdb.CompressionType;
 import org.rocksdb.DBOptions;
+import org.rocksdb.LRUCache;
+import org.rocksdb.RateLimiter;
 import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
 import org.rocksdb.RocksObject;
 import org.rocksdb.Snapshot;
+import org.rocksdb.Statistics;
+import org.rocksdb.TickerType;
 import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
 import org.slf4j.Logger;
@@ -44,6 +54,13 @@ import org.slf4j.LoggerFactory;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
+import com.linecorp.centraldogma.server.EncryptionConfig;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 final class RocksDBStorage {
 
     private static final Logger logger = LoggerFactory.getLogger(RocksDBStorage.class);
@@ -59,19 +76,42 @@ final class RocksDBStorage {
             ENCRYPTED_OBJECT_COLUMN_FAMILY, ENCRYPTED_OBJECT_ID_COLUMN_FAMILY
     );
 
+    private static final int BLOOM_FILTER_BITS_PER_KEY = 10;
+
     private final RocksDB rocksDb;
     private final DBOptions dbOptions;
     private final Map<String, ColumnFamilyHandle> columnFamilyHandlesMap;
+    private final Map<String, ColumnFamilyOptions> cfNameToOptions;
     private final BloomFilter bloomFilter;
+    // Shared by all column families so that the memory used for caching blocks is bounded.
+    private final Cache blockCache;
+    private final Statistics statistics;
+    @Nullable
+    private final RateLimiter rateLimiter;
 
-    RocksDBStorage(String rocksDbPath) {
+    private final List<Meter> meters = new ArrayList<>();
+    @Nullable
+    private MeterRegistry meterRegistry;
+    // Held while the meters read the native objects, so that close() does not free them in the meantime.
+    private final ReadWriteLock metricsLock = new ReentrantReadWriteLock();
+    // Guarded by 'metricsLock'.
+    private boolean closed;
+
+    RocksDBStorage(String rocksDbPath, EncryptionConfig encryptionConfig) {
         RocksDB.loadLibrary();
 
-        bloomFilter = new BloomFilter();
-        final Map<String, ColumnFamilyOptions> cfNameToOptions = new HashMap<>();
+        bloomFilter = new BloomFilter(BLOOM_FILTER_BITS_PER_KEY);
+        blockCache = new LRUCache(encryptionConfig.blockCacheSizeBytes());
+        statistics = new Statistics();
+        if (encryptionConfig.compactionRateLimitBytesPerSecond() > 0) {
+            rateLimiter = new RateLimiter(encryptionConfig.compactionRateLimitBytesPerSecond());
+        } else {
+            rateLimiter = null;
+        }
+
+        cfNameToOptions = new HashMap<>();
         for (String cfName : ALL_COLUMN_FAMILY_NAMES) {
-            cfNameToOptions.put(cfName, createColumnFamilyOptions(
-                    ENCRYPTION_METADATA_COLUMN_FAMILY.equals(cfName)));
+            cfNameToOptions.put(cfName, createColumnFamilyOptions(encryptionConfig));
         }
         final List<ColumnFamilyDescriptor> cfDescriptors = new ArrayList<>();
         for (String cfName : ALL_COLUMN_FAMILY_NAMES) {
@@ -80,15 +120,21 @@ final class RocksDBStorage {
             ));
         }
 
-        dbOptions = new DBOptions().setCreateIfMissing(true).setCreateMissingColumnFamilies(true);
+        dbOptions = new DBOptions().setCreateIfMissing(true)
+                                   .setCreateMissingColumnFamilies(true)
+                                   .setMaxBackgroundJobs(encryptionConfig.maxBackgroundJobs())
+                                   .setStatistics(statistics);
+        if (rateLimiter != null) {
+            dbOptions.setRateLimiter(rateLimiter);
+        }
 
         final List<ColumnFamilyHandle> openedHandlesList = new ArrayList<>();
         try {
             rocksDb = RocksDB.open(dbOptions, rocksDbPath, cfDescriptors, openedHandlesList);
         } catch (RocksDBException e) {
-            bloomFilter.close();
             cfNameToOptions.values().forEach(ColumnFamilyOptions::close);
             dbOptions.close();
+            closeOptionObjects();
             throw new EncryptionStorageException("Failed to open RocksDB with column families at " +
                                                  rocksDbPath, e);
         }
@@ -98,11 +144,11 @@ final class RocksDBStorage {
             try {
                 handlesMapBuilder.put(new String(handle.getName(), StandardCharsets.UTF_8), handle);
             } catch (RocksDBException e) {
-                bloomFilter.close();
                 openedHandlesList.forEach(RocksDBStorage::closeSilently);
                 closeSilently(rocksDb);
                 cfNameToOptions.values().forEach(ColumnFamilyOptions::close);
                 dbOptions.close();
+                closeOptionObjects();
                 throw new EncryptionStorageException("Failed to get name for a column family handle", e);
             }
         }
@@ -116,15 +162,87 @@ final class RocksDBStorage {
         }
     }
 
-    private ColumnFamilyOptions createColumnFamilyOptions(boolean withBloomFilter) {
-        final ColumnFamilyOptions columnFamilyOptions = new ColumnFamilyOptions()
+    private ColumnFamilyOptions createColumnFamilyOptions(EncryptionConfig encryptionConfig) {
+        final BlockBasedTableConfig tableConfig =
+                new BlockBasedTableConfig().setBlockCache(blockCache)
+                                           .setFilterPolicy(bloomFilter)
+                                           // Account the index and filter blocks in the block cache
+                                           // so that the memory usage is bounded by its size.
+                                           .setCacheIndexAndFilterBlocks(true)
+                                           .setPinL0FilterAndIndexBlocksInCache(true);
+        return new ColumnFamilyOptions()
                 // No compression is used for the encrypted data and nonce.
-                .setCompressionType(CompressionType.NO_COMPRESSION);
-        if (!withBloomFilter) {
-            return columnFamilyOptions;
+                .setCompressionType(CompressionType.NO_COMPRESSION)
+                .setWriteBufferSize(encryptionConfig.writeBufferSizeBytes())
+                .setCompactionStyle(CompactionStyle.valueOf(encryptionConfig.compactionStyle()))
+                .setTableFormatConfig(tableConfig);
+    }
+
+    /**
+     * Exports the statistics of the block cache, compactions and write stalls to the specified
+     * {@link MeterRegistry}. The meters are removed when this storage is closed.
+     */
+    void bindMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        meters.add(FunctionCounter.builder("encryption.storage.block.cache.hits", this,
+                                           self -> self.tickerCount(TickerType.BLOCK_CACHE_HIT))
+                                  .register(meterRegistry));
+        meters.add(FunctionCounter.builder("encryption.storage.block.cache.misses", this,
+                                           self -> self.tickerCount(TickerType.BLOCK_CACHE_MISS))
+                                  .register(meterRegistry));
+        meters.add(Gauge.builder("encryption.storage.block.cache.hit.ratio", this,
+                                 RocksDBStorage::blockCacheHitRatio)
+                        .register(meterRegistry));
+        meters.add(Gauge.builder("encryption.storage.block.cache.usage", this,
+                                 self -> self.longProperty("rocksdb.block-cache-usage", false))
+                        .baseUnit("bytes")
+                        .register(meterRegistry));
+        meters.add(Gauge.builder("encryption.storage.compaction.pending", this,
+                                 self -> self.longProperty("rocksdb.estimate-pending-compaction-bytes", true))
+                        .baseUnit("bytes")
+                        .register(meterRegistry));
+        meters.add(Gauge.builder("encryption.storage.compaction.running", this,
+                                 self -> self.longProperty("rocksdb.num-running-compactions", false))
+                        .register(meterRegistry));
+        meters.add(FunctionCounter.builder("encryption.storage.write.stall", this,
+                                           self -> self.tickerCount(TickerType.STALL_MICROS) / 1_000_000)
+                                  .baseUnit("seconds")
+                                  .register(meterRegistry));
+    }
+
+    private double tickerCount(TickerType tickerType) {
+        metricsLock.readLock().lock();
+        try {
+            if (closed) {
+                return Double.NaN;
+            }
+            return statistics.getTickerCount(tickerType);
+        } finally {
+            metricsLock.readLock().unlock();
+        }
+    }
+
+    private double blockCacheHitRatio() {
+        final double hits = tickerCount(TickerType.BLOCK_CACHE_HIT);
+        final double total = hits + tickerCount(TickerType.BLOCK_CACHE_MISS);
+        return total > 0 ? hits / total : Double.NaN;
+    }
+
+    private double longProperty(String property, boolean perColumnFamily) {
+        metricsLock.readLock().lock();
+        try {
+            if (closed) {
+                return Double.NaN;
+            }
+            if (perColumnFamily) {
+                return rocksDb.getAggregatedLongProperty(property);
+            }
+            return rocksDb.getLongProperty(property);
+        } catch (RocksDBException e) {
+            return Double.NaN;
+        } finally {
+            metricsLock.readLock().unlock();
         }
-        return columnFamilyOptions.setTableFormatConfig(
-                new BlockBasedTableConfig().setFilterPolicy(bloomFilter));
     }
 
     @Nullable
@@ -132,6 +250,11 @@ final class RocksDBStorage {
         return rocksDb.get(getColumnFamilyHandle(cfName), key);
     }
 
+    List<byte[]> multiGet(String cfName, List<byte[]> keys) throws RocksDBException {
+        final ColumnFamilyHandle handle = getColumnFamilyHandle(cfName);
+        return rocksDb.multiGetAsList(Collections.nCopies(keys.size(), handle), keys);
+    }
+
     void write(WriteOptions writeOptions, WriteBatch writeBatch) throws RocksDBException {
         rocksDb.write(writeOptions, writeBatch);
     }
@@ -161,10 +284,31 @@ final class RocksDBStorage {
     }
 
     void close() {
-        bloomFilter.close();
+        if (meterRegistry != null) {
+            meters.forEach(meterRegistry::remove);
+            meters.clear();
+        }
+        // Wait for the meters which are being read by a scrape that got them before they were removed.
+        metricsLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            metricsLock.writeLock().unlock();
+        }
         columnFamilyHandlesMap.values().forEach(RocksDBStorage::closeSilently);
         closeSilently(rocksDb);
         closeSilently(dbOptions);
+        cfNameToOptions.values().forEach(RocksDBStorage::closeSilently);
+        closeOptionObjects();
+    }
+
+    private void closeOptionObjects() {
+        closeSilently(bloomFilter);
+        closeSilently(blockCache);
+        closeSilently(statistics);
+        if (rateLimiter != null) {
+            closeSilently(rateLimiter);
+        }
     }
 
     private static void closeSilently(RocksObject obj) {
@@ -178,4 +322,13 @@ final class RocksDBStorage {
     void releaseSnapshot(Snapshot snapshot) {
         rocksDb.releaseSnapshot(snapshot);
     }
+
+    void createCheckpoint(String dir) {
+        // The SST files are hard-linked if possible, so that a checkpoint is cheap to create.
+        try (Checkpoint checkpoint = Checkpoint.create(rocksDb)) {
+            checkpoint.createCheckpoint(dir);
+        } catch (RocksDBException e) {
+            throw new EncryptionStorageException("Failed to create a checkpoint at " + dir, e);
+        }
+    }
 }
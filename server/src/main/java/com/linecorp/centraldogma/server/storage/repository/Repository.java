@@ -483,6 +483,34 @@ public interface Repository {
                                            Author author, String summary, String detail, Markup markup,
                                            Iterable<Change<?>> changes, boolean directExecution);
 
+    /**
+     * Adds the specified changes to this {@link Repository}.
+     *
+     * @param baseRevision the base {@link Revision} of this {@link Commit}
+     * @param commitTimeMillis the time and date of this {@link Commit}, represented as the number of
+     *                         milliseconds since the epoch (midnight, January 1, 1970 UTC)
+     * @param author the {@link Author} of this {@link Commit}
+     * @param summary the human-readable summary of this {@link Commit}
+     * @param detail the human-readable detailed description of this {@link Commit}
+     * @param markup the {@link Markup} language of {@code summary} and {@code detail}
+     * @param changes the changes to be applied
+     * @param directExecution whether this {@link Commit} is received by this server and executed directly.
+     *                        {@code false} if this commit is delivered by a {@link ReplicationLog}.
+     * @param groupCommit whether this {@link Commit} may be applied together with the other commits
+     *                    pushed to this {@link Repository} concurrently. The {@link Commit} still gets its
+     *                    own {@link Revision}. A {@link Repository} that does not support group commit
+     *                    ignores this parameter.
+     *
+     * @return the {@link Revision} of the new {@link Commit}
+     */
+    default CompletableFuture<CommitResult> commit(Revision baseRevision, long commitTimeMillis,
+                                                   Author author, String summary, String detail, Markup markup,
+                                                   Iterable<Change<?>> changes, boolean directExecution,
+                                                   boolean groupCommit) {
+        return commit(baseRevision, commitTimeMillis, author, summary, detail, markup, changes,
+                      directExecution);
+    }
+
     /**
      * Adds the content that is transformed by the specified {@link ContentTransformer} to
      * this {@link Repository}.
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.storage.repository;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.base.Preconditions.checkArgument;
+
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.centraldogma.server.plugin.AbstractPluginConfig;
+
+/**
+ * A configuration of the plugin which periodically packs the loose objects and references of
+ * the {@link Repository}s on each replica.
+ */
+public final class RepositoryGcPluginConfig extends AbstractPluginConfig {
+
+    static final long DEFAULT_INTERVAL_MILLIS = 60 * 60 * 1000; // 1 hour
+    static final int DEFAULT_MIN_LOOSE_OBJECTS = 1024;
+    static final long DEFAULT_DELAY_BETWEEN_REPOSITORIES_MILLIS = 1000;
+
+    private final long intervalMillis;
+    private final int minLooseObjects;
+    private final long delayBetweenRepositoriesMillis;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param intervalMillis the interval between the runs which examine all {@link Repository}s
+     * @param minLooseObjects the minimum number of loose objects a {@link Repository} must have
+     *                        to be packed
+     * @param delayBetweenRepositoriesMillis the delay after packing a {@link Repository}, which limits
+     *                                       the I/O used for packing
+     */
+    @JsonCreator
+    public RepositoryGcPluginConfig(
+            @JsonProperty("enabled") @Nullable Boolean enabled,
+            @JsonProperty("intervalMillis") @Nullable Long intervalMillis,
+            @JsonProperty("minLooseObjects") @Nullable Integer minLooseObjects,
+            @JsonProperty("delayBetweenRepositoriesMillis") @Nullable Long delayBetweenRepositoriesMillis) {
+        super(enabled);
+        this.intervalMillis = firstNonNull(intervalMillis, DEFAULT_INTERVAL_MILLIS);
+        checkArgument(this.intervalMillis > 0, "intervalMillis: %s (expected: > 0)", this.intervalMillis);
+        this.minLooseObjects = firstNonNull(minLooseObjects, DEFAULT_MIN_LOOSE_OBJECTS);
+        checkArgument(this.minLooseObjects > 0,
+                      "minLooseObjects: %s (expected: > 0)", this.minLooseObjects);
+        this.delayBetweenRepositoriesMillis =
+                firstNonNull(delayBetweenRepositoriesMillis, DEFAULT_DELAY_BETWEEN_REPOSITORIES_MILLIS);
+        checkArgument(this.delayBetweenRepositoriesMillis >= 0,
+                      "delayBetweenRepositoriesMillis: %s (expected: >= 0)",
+                      this.delayBetweenRepositoriesMillis);
+    }
+
+    /**
+     * Returns the interval between the runs which examine all {@link Repository}s.
+     */
+    @JsonProperty
+    public long intervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * Returns the minimum number of loose objects a {@link Repository} must have to be packed.
+     */
+    @JsonProperty
+    public int minLooseObjects() {
+        return minLooseObjects;
+    }
+
+    /**
+     * Returns the delay after packing a {@link Repository}.
+     */
+    @JsonProperty
+    public long delayBetweenRepositoriesMillis() {
+        return delayBetweenRepositoriesMillis;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("enabled", enabled())
+                          .add("intervalMillis", intervalMillis)
+                          .add("minLooseObjects", minLooseObjects)
+                          .add("delayBetweenRepositoriesMillis", delayBetweenRepositoriesMillis)
+                          .toString();
+    }
+}
@@ -26,6 +26,8 @@ import java.nio.file.Path;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import com.linecorp.centraldogma.internal.Jackson;
+
 class EncryptionConfigTest {
 
     @Test
@@ -115,4 +117,64 @@ class EncryptionConfigTest {
         assertThat(config.enabled()).isTrue();
         assertThat(config.encryptSessionCookie()).isTrue();
     }
+
+    @Test
+    void storageOptions() throws Exception {
+        final EncryptionConfig defaultConfig = new EncryptionConfig(true, false, "test-kek-id");
+        assertThat(defaultConfig.blockCacheSizeBytes())
+                .isEqualTo(EncryptionConfig.DEFAULT_BLOCK_CACHE_SIZE_BYTES);
+        assertThat(defaultConfig.writeBufferSizeBytes())
+                .isEqualTo(EncryptionConfig.DEFAULT_WRITE_BUFFER_SIZE_BYTES);
+        assertThat(defaultConfig.compactionStyle()).isEqualTo("LEVEL");
+        assertThat(defaultConfig.maxBackgroundJobs()).isEqualTo(EncryptionConfig.DEFAULT_MAX_BACKGROUND_JOBS);
+        assertThat(defaultConfig.compactionRateLimitBytesPerSecond()).isZero();
+        assertThat(defaultConfig.objectCacheSizeBytes())
+                .isEqualTo(EncryptionConfig.DEFAULT_OBJECT_CACHE_SIZE_BYTES);
+        assertThat(defaultConfig.objectKeyCacheSize())
+                .isEqualTo(EncryptionConfig.DEFAULT_OBJECT_KEY_CACHE_SIZE);
+
+        final EncryptionConfig config = Jackson.readValue(
+                "{\n" +
+                "  \"enabled\": true,\n" +
+                "  \"kekId\": \"test-kek-id\",\n" +
+                "  \"blockCacheSizeBytes\": 1048576,\n" +
+                "  \"writeBufferSizeBytes\": 2097152,\n" +
+                "  \"compactionStyle\": \"universal\",\n" +
+                "  \"maxBackgroundJobs\": 4,\n" +
+                "  \"compactionRateLimitBytesPerSecond\": 1000000,\n" +
+                "  \"objectCacheSizeBytes\": 4194304,\n" +
+                "  \"objectKeyCacheSize\": 1024\n" +
+                '}', EncryptionConfig.class);
+        assertThat(config.blockCacheSizeBytes()).isEqualTo(1048576);
+        assertThat(config.writeBufferSizeBytes()).isEqualTo(2097152);
+        assertThat(config.compactionStyle()).isEqualTo("UNIVERSAL");
+        assertThat(config.maxBackgroundJobs()).isEqualTo(4);
+        assertThat(config.compactionRateLimitBytesPerSecond()).isEqualTo(1000000);
+        assertThat(config.objectCacheSizeBytes()).isEqualTo(4194304);
+        assertThat(config.objectKeyCacheSize()).isEqualTo(1024);
+    }
+
+    @Test
+    void invalidStorageOptions() {
+        assertThatThrownBy(() -> new EncryptionConfig(true, false, "test-kek-id", 0L, null, null, null, null,
+                                                      null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("blockCacheSizeBytes");
+        assertThatThrownBy(() -> new EncryptionConfig(true, false, "test-kek-id", null, null, "FIFO", null,
+                                                      null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("compactionStyle");
+        assertThatThrownBy(() -> new EncryptionConfig(true, false, "test-kek-id", null, null, null, 0, null,
+                                                      null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maxBackgroundJobs");
+        assertThatThrownBy(() -> new EncryptionConfig(true, false, "test-kek-id", null, null, null, null,
+                                                      null, -1L, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("objectCacheSizeBytes");
+        assertThatThrownBy(() -> new EncryptionConfig(true, false, "test-kek-id", null, null, null, null,
+                                                      null, null, -1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("objectKeyCacheSize");
+    }
 }
@@ -35,7 +35,8 @@ class ZooKeeperReplicationConfigTest {
                 6, new ZooKeeperServerConfig("7", 8, 9, 10, /* groupId */ null, /* weight */ 1));
         final ZooKeeperReplicationConfig cfg = new ZooKeeperReplicationConfig(
                 1, servers,
-                "11", ImmutableMap.of("12", "13", "14", "15", "quorumListenOnAllIPs", "true"), 16, 17, 18, 19);
+                "11", ImmutableMap.of("12", "13", "14", "15", "quorumListenOnAllIPs", "true"),
+                16, 17, 18, 19, 20, 21);
         assertJsonConversion(cfg, ReplicationConfig.class,
                              '{' +
                              "  \"method\": \"ZOOKEEPER\"," +
@@ -63,7 +64,11 @@ class ZooKeeperReplicationConfigTest {
                              "  \"timeoutMillis\": 16," +
                              "  \"numWorkers\": 17," +
                              "  \"maxLogCount\": 18," +
-                             "  \"minLogAgeMillis\": 19" +
+                             "  \"minLogAgeMillis\": 19," +
+                             "  \"maxLogBatchSize\": 20," +
+                             "  \"numReplayWorkers\": 21," +
+                             "  \"snapshotSourceUri\": null," +
+                             "  \"snapshotServiceEnabled\": false" +
                              '}');
     }
 
@@ -96,7 +101,7 @@ class ZooKeeperReplicationConfigTest {
                                                           0, /* groupId */ null, /* weight */ 1),
                             11, new ZooKeeperServerConfig("bar", 200, 201,
                                                           0, /* groupId */ null, /* weight */ 1)),
-                        null, null, null, null, null, null));
+                        null, null, null, null, null, null, null, null, null, null));
     }
 
     @Test
@@ -168,6 +173,32 @@ class ZooKeeperReplicationConfigTest {
                 });
     }
 
+    @Test
+    void snapshotServiceRequiresSecret() throws Exception {
+        final String json =
+                '{' +
+                "  \"method\": \"ZOOKEEPER\"," +
+                "  \"serverId\": 1," +
+                "  \"servers\": {" +
+                "    \"1\": {" +
+                "      \"host\": \"foo\"," +
+                "      \"quorumPort\": 100," +
+                "      \"electionPort\": 101" +
+                "    }" +
+                "  }," +
+                "%s" +
+                "  \"snapshotServiceEnabled\": true" +
+                '}';
+
+        assertThatThrownBy(() -> Jackson.readValue(String.format(json, ""), ZooKeeperReplicationConfig.class))
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+
+        final ZooKeeperReplicationConfig cfg =
+                Jackson.readValue(String.format(json, "  \"secret\": \"foo\","),
+                                  ZooKeeperReplicationConfig.class);
+        assertThat(cfg.snapshotServiceEnabled()).isTrue();
+    }
+
     @Test
     void hierarchicalQuorums() throws Exception {
         final ReplicationConfig defaultCfg =
@@ -219,6 +250,6 @@ class ZooKeeperReplicationConfigTest {
                                                           0, /* groupId */ 2, /* weight */ 1),
                             13, new ZooKeeperServerConfig("bar-2", 200, 201,
                                                           0, /* groupId */ 2, /* weight */ 3)),
-                        null, null, null, null, null, null));
+                        null, null, null, null, null, null, null, null, null, null));
     }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.metric.NoopMeterRegistry;
+import com.linecorp.armeria.common.util.SafeCloseable;
+import com.linecorp.armeria.server.ServiceRequestContext;
+import com.linecorp.centraldogma.common.Entry;
+import com.linecorp.centraldogma.common.Query;
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.server.internal.api.WatchService.FileWatchFuture;
+import com.linecorp.centraldogma.server.storage.repository.Repository;
+
+class WatchServiceTest {
+
+    private static final Query<JsonNode> QUERY = Query.ofJsonPath("/foo.json", "$.a");
+
+    @Test
+    void coalesceFileWatches() throws Exception {
+        final Repository repo = mock(Repository.class);
+        final CompletableFuture<Entry<JsonNode>> watchFuture = new CompletableFuture<>();
+        when(repo.watch(eq(new Revision(1)), eq(QUERY), anyBoolean(), any(), any(), any()))
+                .thenReturn(watchFuture);
+
+        final WatchService watchService = new WatchService(NoopMeterRegistry.get());
+        final CompletableFuture<Entry<JsonNode>> first = watchFile(watchService, repo, 1);
+        final CompletableFuture<Entry<JsonNode>> second = watchFile(watchService, repo, 1);
+        verify(repo, times(1)).watch(eq(new Revision(1)), eq(QUERY), anyBoolean(), any(), any(), any());
+        assertThat(first).isNotSameAs(second);
+
+        final Entry<JsonNode> entry = Entry.ofJson(new Revision(2), "/foo.json", "\"b\"");
+        watchFuture.complete(entry);
+        assertThat(first.join()).isSameAs(entry);
+        assertThat(second.join()).isSameAs(entry);
+
+        // A new watch is started once the previous one is complete.
+        final CompletableFuture<Entry<JsonNode>> third = watchFile(watchService, repo, 1);
+        verify(repo, times(2)).watch(eq(new Revision(1)), eq(QUERY), anyBoolean(), any(), any(), any());
+        assertThat(third.join()).isSameAs(entry);
+    }
+
+    @Test
+    void shareEncodedResultsInFileWatch() {
+        final Repository repo = mock(Repository.class);
+        when(repo.watch(eq(new Revision(1)), eq(QUERY), anyBoolean(), any(), any(), any()))
+                .thenAnswer(invocation -> new CompletableFuture<>());
+
+        final WatchService watchService = new WatchService(NoopMeterRegistry.get());
+        final FileWatchFuture<JsonNode> first = (FileWatchFuture<JsonNode>) watchFile(watchService, repo, 1);
+        final FileWatchFuture<JsonNode> second = (FileWatchFuture<JsonNode>) watchFile(watchService, repo, 1);
+        final byte[] encoded = first.encodedResult("full", () -> new byte[1]);
+        assertThat(second.encodedResult("full", () -> new byte[1])).isSameAs(encoded);
+        assertThat(second.encodedResult("patch", () -> new byte[1])).isNotSameAs(encoded);
+
+        // The encoded results are released with the watch.
+        first.cancel(false);
+        second.cancel(false);
+        final FileWatchFuture<JsonNode> third = (FileWatchFuture<JsonNode>) watchFile(watchService, repo, 1);
+        assertThat(third.encodedResult("full", () -> new byte[1])).isNotSameAs(encoded);
+    }
+
+    @Test
+    void cancelFileWatchWhenAllWatchersLeave() {
+        final Repository repo = mock(Repository.class);
+        final CompletableFuture<Entry<JsonNode>> watchFuture = new CompletableFuture<>();
+        when(repo.watch(eq(new Revision(1)), eq(QUERY), anyBoolean(), any(), any(), any()))
+                .thenReturn(watchFuture);
+
+        final WatchService watchService = new WatchService(NoopMeterRegistry.get());
+        final CompletableFuture<Entry<JsonNode>> first = watchFile(watchService, repo, 1);
+        final CompletableFuture<Entry<JsonNode>> second = watchFile(watchService, repo, 1);
+
+        first.cancel(false);
+        assertThat(watchFuture).isNotDone();
+        assertThat(second).isNotDone();
+
+        second.cancel(false);
+        assertThat(watchFuture).isCompletedExceptionally();
+    }
+
+    private static CompletableFuture<Entry<JsonNode>> watchFile(WatchService watchService, Repository repo,
+                                                                int lastKnownRevision) {
+        final ServiceRequestContext ctx = ServiceRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+        try (SafeCloseable ignored = ctx.push()) {
+            return watchService.watchFile(repo, new Revision(lastKnownRevision), QUERY, 0, false,
+                                          TemplateParams.disabled(), null);
+        }
+    }
+}
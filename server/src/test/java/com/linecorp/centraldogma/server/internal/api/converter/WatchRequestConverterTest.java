@@ -23,9 +23,11 @@ import javax.annotation.Nullable;
 import org.junit.jupiter.api.Test;
 
 import com.linecorp.armeria.common.AggregatedHttpRequest;
+import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpMethod;
 import com.linecorp.armeria.common.RequestHeaders;
 import com.linecorp.armeria.server.ServiceRequestContext;
+import com.linecorp.centraldogma.common.Revision;
 import com.linecorp.centraldogma.server.internal.api.converter.WatchRequestConverter.WatchRequest;
 
 class WatchRequestConverterTest {
@@ -92,6 +94,28 @@ class WatchRequestConverterTest {
         assertThat(watchRequest).isNull();
     }
 
+    @Test
+    void jsonPatchAccepted() throws Exception {
+        final RequestHeaders headers = RequestHeaders.of(HttpMethod.GET, "/",
+                                                         HttpHeaderNames.IF_NONE_MATCH, "3",
+                                                         HttpHeaderNames.PREFER, "wait=10, delta=json-patch");
+        final AggregatedHttpRequest request = AggregatedHttpRequest.of(headers);
+        final ServiceRequestContext ctx = ServiceRequestContext.of(request.toHttpRequest());
+
+        final WatchRequest watchRequest = convert(ctx, request);
+        assertThat(watchRequest).isNotNull();
+        assertThat(watchRequest.lastKnownRevision()).isEqualTo(new Revision(3));
+        assertThat(watchRequest.jsonPatchAccepted()).isTrue();
+
+        final RequestHeaders headers2 = RequestHeaders.of(HttpMethod.GET, "/",
+                                                          HttpHeaderNames.IF_NONE_MATCH, "3",
+                                                          HttpHeaderNames.PREFER, "wait=10");
+        final AggregatedHttpRequest request2 = AggregatedHttpRequest.of(headers2);
+        final WatchRequest watchRequest2 = convert(ctx, request2);
+        assertThat(watchRequest2).isNotNull();
+        assertThat(watchRequest2.jsonPatchAccepted()).isFalse();
+    }
+
     @Nullable
     private static WatchRequest convert(
             ServiceRequestContext ctx, AggregatedHttpRequest request) throws Exception {
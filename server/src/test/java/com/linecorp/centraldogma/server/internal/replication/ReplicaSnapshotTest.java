@@ -0,0 +1,206 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.replication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.linecorp.centraldogma.common.Author;
+import com.linecorp.centraldogma.common.Change;
+import com.linecorp.centraldogma.common.Markup;
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.server.ZooKeeperReplicationConfig;
+import com.linecorp.centraldogma.server.ZooKeeperServerConfig;
+import com.linecorp.centraldogma.server.command.Command;
+import com.linecorp.centraldogma.server.command.CommandExecutor;
+import com.linecorp.centraldogma.server.internal.storage.repository.git.RepositoryGcService;
+import com.linecorp.centraldogma.server.storage.encryption.EncryptionStorageManager;
+import com.linecorp.centraldogma.server.storage.encryption.NoopEncryptionStorageManager;
+import com.linecorp.centraldogma.server.storage.repository.Repository;
+import com.linecorp.centraldogma.server.storage.repository.RepositoryGcPluginConfig;
+import com.linecorp.centraldogma.testing.internal.ProjectManagerExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReplicaSnapshotTest {
+
+    @RegisterExtension
+    static final ProjectManagerExtension manager = new ProjectManagerExtension();
+
+    @TempDir
+    Path sourceDir;
+
+    @TempDir
+    Path targetDir;
+
+    @Test
+    void roundTrip() throws Exception {
+        write(sourceDir.resolve("foo/bar.git/config"), "config");
+        write(sourceDir.resolve("foo/bar.git/objects/ab/cdef"), "loose");
+        write(sourceDir.resolve("foo/bar.git/objects/pack/pack-1.pack"), "pack");
+        write(sourceDir.resolve("foo/bar.git/index.lock"), "lock");
+        write(sourceDir.resolve("foo/bar.git/changed_paths.dat"), "derived");
+        write(sourceDir.resolve("last_revision"), "10");
+        write(sourceDir.resolve("replica_id"), "1");
+
+        write(targetDir.resolve("stale/file"), "stale");
+        write(targetDir.resolve("replica_id"), "2");
+
+        final byte[] snapshot = snapshot(10);
+        assertThat(ReplicaSnapshot.restore(new ByteArrayInputStream(snapshot), targetDir.toFile()))
+                .isEqualTo(10);
+
+        assertThat(read(targetDir.resolve("foo/bar.git/config"))).isEqualTo("config");
+        assertThat(read(targetDir.resolve("foo/bar.git/objects/ab/cdef"))).isEqualTo("loose");
+        assertThat(read(targetDir.resolve("foo/bar.git/objects/pack/pack-1.pack"))).isEqualTo("pack");
+        assertThat(targetDir.resolve("foo/bar.git/index.lock")).doesNotExist();
+        assertThat(targetDir.resolve("foo/bar.git/changed_paths.dat")).doesNotExist();
+        assertThat(targetDir.resolve("stale")).doesNotExist();
+        // The local state of the replica is kept.
+        assertThat(read(targetDir.resolve("replica_id"))).isEqualTo("2");
+        assertThat(read(targetDir.resolve("last_revision"))).isEqualTo("10");
+        assertThat(ZooKeeperCommandExecutor.readLastReplayedRevision(
+                targetDir.resolve("last_revision").toFile())).isEqualTo(10);
+    }
+
+    @Test
+    void gitObjectsAreHardLinked() throws Exception {
+        write(sourceDir.resolve("foo/bar.git/objects/ab/cdef"), "loose");
+        write(sourceDir.resolve("foo/bar.git/config"), "config");
+        final File stagingDir = sourceDir.resolve(ReplicaSnapshot.STAGING_DIR).toFile();
+        ReplicaSnapshot.stage(sourceDir.toFile(), stagingDir, mock(EncryptionStorageManager.class));
+
+        final Path staging = stagingDir.toPath();
+        assertThat(Files.isSameFile(staging.resolve("foo/bar.git/objects/ab/cdef"),
+                                    sourceDir.resolve("foo/bar.git/objects/ab/cdef"))).isTrue();
+        assertThat(Files.isSameFile(staging.resolve("foo/bar.git/config"),
+                                    sourceDir.resolve("foo/bar.git/config"))).isFalse();
+    }
+
+    @Test
+    void truncatedSnapshotIsRejected() throws Exception {
+        write(sourceDir.resolve("foo/bar.git/config"), "config");
+        write(sourceDir.resolve("foo/bar.git/objects/ab/cdef"), "loose");
+        write(targetDir.resolve("foo/bar.git/config"), "old");
+
+        final byte[] snapshot = snapshot(10);
+        final byte[] truncated = Arrays.copyOf(snapshot, snapshot.length / 2);
+        assertThatThrownBy(() -> ReplicaSnapshot.restore(new ByteArrayInputStream(truncated),
+                                                         targetDir.toFile()))
+                .isInstanceOf(IOException.class);
+        // The data directory is left intact.
+        assertThat(read(targetDir.resolve("foo/bar.git/config"))).isEqualTo("old");
+    }
+
+    @Test
+    void interruptedRestoreIsDetected() throws Exception {
+        write(sourceDir.resolve("foo/bar.git/config"), "config");
+        write(targetDir.resolve("last_revision"), "5");
+        // A restore which crashed after it started to replace the data directory.
+        write(targetDir.resolve("_snapshot_restore_in_progress"), "");
+
+        final ZooKeeperReplicationConfig cfg = new ZooKeeperReplicationConfig(
+                1, ImmutableMap.of(1, new ZooKeeperServerConfig("127.0.0.1", 1, 2, 3, null, 1)));
+        assertThatThrownBy(() -> ReplicaSnapshot.bootstrapIfNecessary(cfg, targetDir.toFile()))
+                .isInstanceOf(ReplicationException.class)
+                .hasMessageContaining("interrupted");
+
+        assertThat(ReplicaSnapshot.restore(new ByteArrayInputStream(snapshot(10)), targetDir.toFile()))
+                .isEqualTo(10);
+        assertThat(read(targetDir.resolve("foo/bar.git/config"))).isEqualTo("config");
+        assertThat(read(targetDir.resolve("last_revision"))).isEqualTo("10");
+        assertThat(targetDir.resolve("_snapshot_restore_in_progress")).doesNotExist();
+    }
+
+    @Test
+    void stageWhileRepositoryGc() throws Exception {
+        final CommandExecutor executor = manager.executor();
+        executor.execute(Command.createProject(Author.SYSTEM, "gc")).join();
+        executor.execute(Command.createRepository(Author.SYSTEM, "gc", "repo")).join();
+        final Repository repo = manager.projectManager().get("gc").repos().get("repo");
+        final File projectDir = repo.repoDir().getParentFile();
+        final Path repoPath = projectDir.toPath().relativize(repo.repoDir().toPath());
+
+        final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+        final RepositoryGcService gcService = new RepositoryGcService(
+                manager.projectManager(), new SimpleMeterRegistry(),
+                new RepositoryGcPluginConfig(true, 1L, 1, 0L), snapshotLock.readLock());
+        gcService.start();
+        try {
+            for (int i = 1; i <= 100; i++) {
+                executor.execute(Command.push(Author.SYSTEM, "gc", "repo", Revision.HEAD, "Summary " + i, "",
+                                              Markup.PLAINTEXT,
+                                              Change.ofTextUpsert("/file_" + i + ".txt", String.valueOf(i))))
+                        .join();
+
+                final File stagingDir = new File(sourceDir.toFile(), "staging_" + i);
+                snapshotLock.writeLock().lock();
+                try {
+                    ReplicaSnapshot.stage(projectDir, stagingDir, NoopEncryptionStorageManager.INSTANCE);
+                } catch (NoSuchFileException e) {
+                    // An object was packed while staging, which is retried by exportSnapshot().
+                    continue;
+                } finally {
+                    snapshotLock.writeLock().unlock();
+                }
+
+                // The head must be either a loose reference or in the packed-refs file.
+                final Path staged = stagingDir.toPath().resolve(repoPath);
+                final Path packedRefs = staged.resolve("packed-refs");
+                assertThat(Files.exists(staged.resolve("refs/heads/master")) ||
+                           (Files.exists(packedRefs) && read(packedRefs).contains("refs/heads/master")))
+                        .as("staging #%s", i).isTrue();
+            }
+        } finally {
+            gcService.stop();
+        }
+    }
+
+    private byte[] snapshot(long revision) throws IOException {
+        final File stagingDir = sourceDir.resolve(ReplicaSnapshot.STAGING_DIR).toFile();
+        ReplicaSnapshot.stage(sourceDir.toFile(), stagingDir, mock(EncryptionStorageManager.class));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReplicaSnapshot.write(stagingDir, revision, out);
+        return out.toByteArray();
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
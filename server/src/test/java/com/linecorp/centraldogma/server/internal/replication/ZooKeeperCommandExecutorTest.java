@@ -23,6 +23,7 @@ import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.timeout;
@@ -36,6 +37,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -50,6 +53,7 @@ import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.function.ThrowingConsumer;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -76,6 +80,7 @@ import com.linecorp.centraldogma.server.command.ContentTransformer;
 import com.linecorp.centraldogma.server.command.ForcePushCommand;
 import com.linecorp.centraldogma.server.command.NormalizingPushCommand;
 import com.linecorp.centraldogma.server.command.PushAsIsCommand;
+import com.linecorp.centraldogma.server.command.RepositoryCommand;
 import com.linecorp.centraldogma.server.command.TransformCommand;
 import com.linecorp.centraldogma.server.management.ServerStatus;
 import com.linecorp.centraldogma.testing.internal.FlakyTest;
@@ -584,6 +589,235 @@ class ZooKeeperCommandExecutorTest {
         }
     }
 
+    @Test
+    void testBatchedLogs() throws Exception {
+        try (Cluster cluster = Cluster.of(ZooKeeperCommandExecutorTest::newMockDelegate)) {
+            final Replica replica1 = cluster.get(0);
+            final Replica replica2 = cluster.get(1);
+            replica1.commandExecutor().setMaxLogBatchSize(16);
+
+            // Block the first command so that the following commands are queued behind it.
+            final Command<Void> command1 = Command.createProject(Author.SYSTEM, "batch0");
+            final CompletableFuture<Void> command1Future = new CompletableFuture<>();
+            lenient().when(replica1.delegate().apply(eq(command1))).thenReturn(command1Future);
+            final CompletableFuture<Void> future1 = replica1.commandExecutor().execute(command1);
+            await().untilAsserted(() -> verify(replica1.delegate()).apply(eq(command1)));
+
+            final List<Command<Void>> commands = new ArrayList<>();
+            final List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 1; i <= 4; i++) {
+                final Command<Void> command = Command.createProject(Author.SYSTEM, "batch" + i);
+                commands.add(command);
+                futures.add(replica1.commandExecutor().execute(command));
+            }
+            command1Future.complete(null);
+            future1.join();
+            futures.forEach(CompletableFuture::join);
+
+            // The queued commands are stored as a single log item.
+            assertThat(replica1.commandExecutor().loadLogs(0, false))
+                    .extracting(ReplicationLog::command).containsExactly(command1);
+            assertThat(replica1.commandExecutor().loadLogs(1, false))
+                    .extracting(ReplicationLog::command).containsExactlyElementsOf(commands);
+            assertThatThrownBy(() -> replica1.commandExecutor().loadLog(1, false))
+                    .isInstanceOf(IllegalStateException.class);
+
+            // The other replicas replay the batch in the same order.
+            await().untilAsserted(() -> verify(replica2.delegate()).apply(eq(commands.get(3))));
+            final InOrder inOrder = inOrder(replica2.delegate());
+            inOrder.verify(replica2.delegate()).apply(eq(command1));
+            for (Command<Void> command : commands) {
+                inOrder.verify(replica2.delegate()).apply(eq(command));
+            }
+            await().untilAsserted(() -> assertThat(replica2.localRevision()).isEqualTo(1L));
+        }
+    }
+
+    @Test
+    void reuseLockForQueuedCommands() throws Exception {
+        try (Cluster cluster = Cluster.of(ZooKeeperCommandExecutorTest::newMockDelegate)) {
+            final Replica replica1 = cluster.get(0);
+            final Replica replica2 = cluster.get(1);
+            final ZooKeeperCommandExecutor executor = replica1.commandExecutor();
+            executor.setLockLeaseMillis(TimeUnit.MINUTES.toMillis(1));
+
+            // Block the first command so that the following commands are queued behind it.
+            final Command<Revision> command1 = newPushCommand(0);
+            final CompletableFuture<Revision> command1Future = new CompletableFuture<>();
+            lenient().when(replica1.delegate().apply(eq(command1))).thenReturn(command1Future);
+            final CompletableFuture<Revision> future1 = executor.execute(command1);
+            await().untilAsserted(() -> verify(replica1.delegate()).apply(eq(command1)));
+
+            final List<Command<Revision>> commands = new ArrayList<>();
+            final List<CompletableFuture<Revision>> futures = new ArrayList<>();
+            for (int i = 1; i <= 3; i++) {
+                final Command<Revision> command = newPushCommand(i);
+                commands.add(command);
+                futures.add(executor.execute(command));
+            }
+            command1Future.complete(new Revision(2));
+            future1.join();
+            futures.forEach(CompletableFuture::join);
+
+            // The queued commands are executed without acquiring the lock again,
+            // but stored as separate log items.
+            for (int i = 0; i < commands.size(); i++) {
+                assertThat(executor.loadLog(i + 1, false).get().command()).isEqualTo(commands.get(i));
+            }
+            assertThat(MoreMeters.measureAll(replica1.meterRegistry()))
+                    .containsEntry("replication.lock.reuse#count{project=project}", 3.0);
+
+            await().untilAsserted(() -> verify(replica2.delegate()).apply(eq(commands.get(2))));
+            await().untilAsserted(() -> assertThat(replica2.localRevision()).isEqualTo(3L));
+        }
+    }
+
+    @Test
+    void releaseLockWhenQueuedCommandsTimeOut() throws Exception {
+        try (Cluster cluster = Cluster.of(ZooKeeperCommandExecutorTest::newMockDelegate)) {
+            final Replica replica1 = cluster.get(0);
+            final Replica replica2 = cluster.get(1);
+            final ZooKeeperCommandExecutor executor = replica1.commandExecutor();
+            executor.setLockLeaseMillis(TimeUnit.MINUTES.toMillis(1));
+            executor.setLockTimeoutMillis(3000);
+
+            // Block the first command so that the second command is queued behind it.
+            final Command<Revision> command1 = newPushCommand(0);
+            final CompletableFuture<Revision> command1Future = new CompletableFuture<>();
+            lenient().when(replica1.delegate().apply(eq(command1))).thenReturn(command1Future);
+            final CompletableFuture<Revision> future1 = executor.execute(command1);
+            await().untilAsserted(() -> verify(replica1.delegate()).apply(eq(command1)));
+            final CompletableFuture<Revision> future2 = executor.execute(newPushCommand(1));
+
+            // The worker keeps the lock for the second command and then completes the first command.
+            // Block the worker until the second command times out so that nothing is left in the queue.
+            future1.thenRun(() -> catchThrowable(future2::join));
+            command1Future.complete(new Revision(2));
+            future1.join();
+            assertThat(catchThrowable(future2::join))
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(LockAcquireTimeoutException.class);
+
+            // The lock must have been released so that the other replicas can acquire it.
+            assertThat(replica2.commandExecutor().execute(newPushCommand(2))
+                               .get(10, TimeUnit.SECONDS).major()).isPositive();
+        }
+    }
+
+    private static Command<Revision> newPushCommand(int i) {
+        return Command.push(null, Author.SYSTEM, "project", "repo", new Revision(42),
+                            "summary" + i, "", Markup.PLAINTEXT, ImmutableList.of());
+    }
+
+    @Test
+    void replayLogsConcurrently() throws Exception {
+        final List<List<Command<?>>> executedCommands = new ArrayList<>();
+        try (Cluster cluster = Cluster.builder().numReplicas(3).autoStart(false).build(() -> {
+            // Count the revisions of each repository so that the logs of different repositories
+            // can be replayed in any order.
+            final Map<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+            final List<Command<?>> commands = new CopyOnWriteArrayList<>();
+            executedCommands.add(commands);
+            return command -> {
+                commands.add(command);
+                if (command instanceof RepositoryCommand) {
+                    final AtomicInteger counter =
+                            counters.computeIfAbsent(command.executionPath(), unused -> new AtomicInteger());
+                    return completedFuture(new Revision(counter.incrementAndGet()));
+                }
+                return completedFuture(null);
+            };
+        })) {
+            final List<CompletableFuture<Void>> startFutures = new ArrayList<>();
+            for (Replica replica : cluster) {
+                replica.commandExecutor().setNumReplayWorkers(4);
+                startFutures.add(replica.commandExecutor().start());
+            }
+            startFutures.forEach(CompletableFuture::join);
+
+            final Replica replica1 = cluster.get(0);
+            final Command<Void> barrier = Command.createProject(Author.SYSTEM, "bar");
+            replica1.commandExecutor().execute(Command.createProject(Author.SYSTEM, "foo")).join();
+            for (int i = 0; i < 2; i++) {
+                for (int j = 0; j < 10; j++) {
+                    for (int k = 0; k < 4; k++) {
+                        final Command<Revision> push =
+                                Command.push(null, Author.SYSTEM, "foo", "repo" + k, new Revision(42),
+                                             "", "", Markup.PLAINTEXT, ImmutableList.of());
+                        assertThat(replica1.commandExecutor().execute(push).join().major())
+                                .isEqualTo(i * 10 + j + 1);
+                    }
+                }
+                if (i == 0) {
+                    replica1.commandExecutor().execute(barrier).join();
+                }
+            }
+
+            // 2 projects and 80 pushes.
+            final long lastRevision = 81;
+            for (int i = 1; i < cluster.size(); i++) {
+                final Replica replica = cluster.get(i);
+                await().untilAsserted(() -> assertThat(replica.localRevision()).isEqualTo(lastRevision));
+
+                // The barrier must be replayed after all the logs before it and before all the logs after it.
+                final List<Command<?>> commands = executedCommands.get(i);
+                assertThat(commands).hasSize(82);
+                assertThat(commands.indexOf(barrier)).isEqualTo(41);
+            }
+        }
+    }
+
+    @Test
+    void persistReplayedRevisionWhilePartitionsAreReplaying() throws Exception {
+        final Command<Revision> blockedPush = newPushCommand("foo", "blocked");
+        final CompletableFuture<Void> unblock = new CompletableFuture<>();
+        final AtomicInteger replicaIndex = new AtomicInteger();
+        try (Cluster cluster = Cluster.builder().numReplicas(3).autoStart(false).build(() -> {
+            // Only the second replica is blocked while replaying the push to the blocked repository.
+            final boolean blocking = replicaIndex.getAndIncrement() == 1;
+            final Map<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+            return command -> {
+                if (command instanceof RepositoryCommand) {
+                    final Revision revision = new Revision(
+                            counters.computeIfAbsent(command.executionPath(), unused -> new AtomicInteger())
+                                    .incrementAndGet());
+                    if (blocking && command.executionPath().equals(blockedPush.executionPath())) {
+                        return unblock.thenApply(unused -> revision);
+                    }
+                    return completedFuture(revision);
+                }
+                return completedFuture(null);
+            };
+        })) {
+            for (Replica replica : cluster) {
+                replica.commandExecutor().setNumReplayWorkers(4);
+            }
+            final Replica replica1 = cluster.get(0);
+            final Replica replica2 = cluster.get(1);
+            CompletableFuture.allOf(replica1.commandExecutor().start(),
+                                    cluster.get(2).commandExecutor().start()).join();
+
+            replica1.commandExecutor().execute(Command.createProject(Author.SYSTEM, "foo")).join();
+            for (int i = 0; i < 3; i++) {
+                replica1.commandExecutor().execute(newPushCommand("foo", "repo")).join();
+            }
+            replica1.commandExecutor().execute(blockedPush).join();
+
+            // Start the second replica later so that it replays the logs in as few batches as possible.
+            replica2.commandExecutor().start().join();
+            // The revisions before the blocked one must be persisted while the blocked one is replayed.
+            await().untilAsserted(() -> assertThat(replica2.localRevision()).isEqualTo(4));
+
+            unblock.complete(null);
+            await().untilAsserted(() -> assertThat(replica2.localRevision()).isEqualTo(5));
+        }
+    }
+
+    private static Command<Revision> newPushCommand(String projectName, String repositoryName) {
+        return Command.push(null, Author.SYSTEM, projectName, repositoryName, new Revision(42),
+                            "", "", Markup.PLAINTEXT, ImmutableList.of());
+    }
+
     @Test
     void testLogMetaSerde() throws JsonProcessingException {
         final LogMeta logMeta = new LogMeta(1, 1L, 10, false, false);
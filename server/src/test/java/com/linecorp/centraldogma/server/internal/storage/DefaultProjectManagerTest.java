@@ -28,12 +28,14 @@ import org.junit.jupiter.api.io.TempDir;
 import com.google.common.util.concurrent.MoreExecutors;
 
 import com.linecorp.centraldogma.common.Author;
+import com.linecorp.centraldogma.common.CentralDogmaException;
 import com.linecorp.centraldogma.server.internal.storage.project.DefaultProjectManager;
 import com.linecorp.centraldogma.server.storage.encryption.NoopEncryptionStorageManager;
 import com.linecorp.centraldogma.server.storage.project.Project;
 import com.linecorp.centraldogma.server.storage.repository.RepositoryManager;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 class DefaultProjectManagerTest {
 
@@ -65,4 +67,34 @@ class DefaultProjectManagerTest {
         pm.purgeMarked();
         assertThat(counter.get()).isEqualTo(2);
     }
+
+    @Test
+    void openProjectsConcurrently() {
+        final DefaultProjectManager pm = new DefaultProjectManager(
+                tempDir, MoreExecutors.directExecutor(), MoreExecutors.directExecutor(),
+                new SimpleMeterRegistry(), null, NoopEncryptionStorageManager.INSTANCE);
+        int numRepositories = 0;
+        for (int i = 0; i < 8; i++) {
+            final RepositoryManager repos = pm.create("foo" + i, Author.SYSTEM).repos();
+            for (int j = 0; j < 4; j++) {
+                repos.create("bar" + j, Author.SYSTEM);
+            }
+            numRepositories += repos.list().size();
+        }
+        pm.close(() -> new CentralDogmaException("closed"));
+
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final DefaultProjectManager reopened = new DefaultProjectManager(
+                tempDir, MoreExecutors.directExecutor(), MoreExecutors.directExecutor(),
+                meterRegistry, null, NoopEncryptionStorageManager.INSTANCE, 4);
+        assertThat(reopened.list()).hasSize(8);
+        for (int i = 0; i < 8; i++) {
+            assertThat(reopened.get("foo" + i).repos().list()).containsKeys("bar0", "bar1", "bar2", "bar3");
+        }
+        assertThat(meterRegistry.get("startup.repositories.opened").counter().count())
+                .isEqualTo(numRepositories);
+        assertThat(meterRegistry.get("startup.repository.open.duration").timer().count())
+                .isEqualTo(numRepositories);
+        reopened.close(() -> new CentralDogmaException("closed"));
+    }
 }
@@ -19,7 +19,8 @@ import static com.linecorp.centraldogma.common.Author.SYSTEM;
 import static com.linecorp.centraldogma.common.EntryType.JSON;
 import static com.linecorp.centraldogma.common.Revision.HEAD;
 import static com.linecorp.centraldogma.common.Revision.INIT;
-import static com.linecorp.centraldogma.server.storage.repository.FindOptions.FIND_ALL_WITH_CONTENT;
+import static com.linecorp.centraldogma.server.storage.repository.FindOptions.FIND_ALL_WITHOUT_CONTENT;
+import static com.linecorp.centraldogma.server.storage.repository.FindOptions.FIND_ONE_WITH_CONTENT;
 import static com.linecorp.centraldogma.server.storage.repository.Repository.ALL_PATH;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -84,10 +85,13 @@ class CachingRepositoryTest {
         doReturn(new Revision(10)).when(delegateRepo).normalizeNow(HEAD);
 
         // Uncached
-        when(delegateRepo.find(any(), eq(ALL_PATH), eq(FIND_ALL_WITH_CONTENT)))
+        when(delegateRepo.find(any(), eq(ALL_PATH), eq(FIND_ALL_WITHOUT_CONTENT)))
                 .thenReturn(completedFuture(entries));
+        when(delegateRepo.find(any(), eq("/baz.txt"), eq(FIND_ONE_WITH_CONTENT)))
+                .thenReturn(completedFuture(ImmutableMap.of("/baz.txt", result)));
         assertThat(repo.get(HEAD, query).join()).isEqualTo(result);
-        verify(delegateRepo).find(new Revision(10), ALL_PATH, FIND_ALL_WITH_CONTENT);
+        verify(delegateRepo).find(new Revision(10), ALL_PATH, FIND_ALL_WITHOUT_CONTENT);
+        verify(delegateRepo).find(new Revision(10), "/baz.txt", FIND_ONE_WITH_CONTENT);
         verifyNoMoreInteractions(delegateRepo);
 
         // Cached
@@ -113,10 +117,13 @@ class CachingRepositoryTest {
         doReturn(new Revision(10)).when(delegateRepo).normalizeNow(HEAD);
 
         // Uncached
-        when(delegateRepo.find(any(), eq(ALL_PATH), eq(FIND_ALL_WITH_CONTENT)))
+        when(delegateRepo.find(any(), eq(ALL_PATH), eq(FIND_ALL_WITHOUT_CONTENT)))
                 .thenReturn(completedFuture(entries));
+        when(delegateRepo.find(any(), eq("/baz.json"), eq(FIND_ONE_WITH_CONTENT)))
+                .thenReturn(completedFuture(ImmutableMap.of("/baz.json", result)));
         assertThat(repo.get(HEAD, query).join()).isEqualTo(queryResult);
-        verify(delegateRepo).find(new Revision(10), ALL_PATH, FIND_ALL_WITH_CONTENT);
+        verify(delegateRepo).find(new Revision(10), ALL_PATH, FIND_ALL_WITHOUT_CONTENT);
+        verify(delegateRepo).find(new Revision(10), "/baz.json", FIND_ONE_WITH_CONTENT);
         verifyNoMoreInteractions(delegateRepo);
 
         // Cached
@@ -162,10 +169,10 @@ class CachingRepositoryTest {
         doReturn(new Revision(10)).when(delegateRepo).normalizeNow(HEAD);
 
         // Uncached
-        when(delegateRepo.find(any(), eq(ALL_PATH), eq(FIND_ALL_WITH_CONTENT)))
+        when(delegateRepo.find(any(), eq(ALL_PATH), eq(FIND_ALL_WITHOUT_CONTENT)))
                 .thenReturn(completedFuture(ImmutableMap.of()));
         assertThat(repo.getOrNull(HEAD, query).join()).isNull();
-        verify(delegateRepo).find(new Revision(10), ALL_PATH, FIND_ALL_WITH_CONTENT);
+        verify(delegateRepo).find(new Revision(10), ALL_PATH, FIND_ALL_WITHOUT_CONTENT);
         verifyNoMoreInteractions(delegateRepo);
 
         // Cached
@@ -176,6 +183,34 @@ class CachingRepositoryTest {
         verifyNoMoreInteractions(delegateRepo);
     }
 
+    @Test
+    void jsonPathQueryResult() throws JsonParseException {
+        final CachingRepository repo = setMockNames(newCachingRepo());
+        final Query<JsonNode> query = Query.ofJsonPath("/baz.json", "$.a");
+        final Query<JsonNode> otherQuery = Query.ofJsonPath("/baz.json", "$.c");
+        final Entry<JsonNode> result = Entry.ofJson(new Revision(10), query.path(), "{\"a\": \"b\", \"c\": 1}");
+
+        doReturn(new Revision(10)).when(delegateRepo).normalizeNow(new Revision(10));
+        doReturn(new Revision(10)).when(delegateRepo).normalizeNow(HEAD);
+        when(delegateRepo.find(any(), eq(ALL_PATH), eq(FIND_ALL_WITHOUT_CONTENT)))
+                .thenReturn(completedFuture(ImmutableMap.of("/baz.json", result)));
+        when(delegateRepo.find(any(), eq("/baz.json"), eq(FIND_ONE_WITH_CONTENT)))
+                .thenReturn(completedFuture(ImmutableMap.of("/baz.json", result)));
+
+        // The query result is cached, so the JSON path is not evaluated again.
+        final Entry<JsonNode> queryResult = repo.get(HEAD, query).join();
+        assertThat(queryResult).isEqualTo(Entry.ofJson(new Revision(10), query.path(), "\"b\""));
+        assertThat(repo.get(HEAD, query).join()).isSameAs(queryResult);
+        assertThat(repo.getOrNull(new Revision(10), query).join()).isSameAs(queryResult);
+
+        // A different JSON path is evaluated against the cached file.
+        assertThat(repo.get(HEAD, otherQuery).join())
+                .isEqualTo(Entry.ofJson(new Revision(10), query.path(), "1"));
+        verify(delegateRepo).find(new Revision(10), ALL_PATH, FIND_ALL_WITHOUT_CONTENT);
+        verify(delegateRepo).find(new Revision(10), "/baz.json", FIND_ONE_WITH_CONTENT);
+        verify(delegateRepo, never()).getOrNull(any(), any(Query.class));
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     void jsonPathQueryMissingEntry() {
@@ -186,10 +221,10 @@ class CachingRepositoryTest {
         doReturn(new Revision(10)).when(delegateRepo).normalizeNow(HEAD);
 
         // Uncached
-        when(delegateRepo.find(any(), eq(ALL_PATH), eq(FIND_ALL_WITH_CONTENT)))
+        when(delegateRepo.find(any(), eq(ALL_PATH), eq(FIND_ALL_WITHOUT_CONTENT)))
                 .thenReturn(completedFuture(ImmutableMap.of()));
         assertThat(repo.getOrNull(HEAD, query).join()).isNull();
-        verify(delegateRepo).find(new Revision(10), ALL_PATH, FIND_ALL_WITH_CONTENT);
+        verify(delegateRepo).find(new Revision(10), ALL_PATH, FIND_ALL_WITHOUT_CONTENT);
         verifyNoMoreInteractions(delegateRepo);
 
         // Cached
@@ -212,7 +247,8 @@ class CachingRepositoryTest {
         // Uncached
         when(delegateRepo.find(any(), any(), any())).thenReturn(completedFuture(entries));
         assertThat(repo.find(HEAD, "/**", ImmutableMap.of()).join()).isEqualTo(entries);
-        verify(delegateRepo).find(new Revision(10), "/**", ImmutableMap.of());
+        verify(delegateRepo).find(new Revision(10), ALL_PATH, FIND_ALL_WITHOUT_CONTENT);
+        verify(delegateRepo).find(new Revision(10), "/baz.txt", FIND_ONE_WITH_CONTENT);
         verifyNoMoreInteractions(delegateRepo);
 
         // Cached
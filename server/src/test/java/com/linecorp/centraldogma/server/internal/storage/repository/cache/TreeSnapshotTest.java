@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.centraldogma.server.internal.storage.repository.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffEntry.ChangeType;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.centraldogma.common.Entry;
+import com.linecorp.centraldogma.common.EntryType;
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.server.internal.storage.repository.git.PathPatternFilter;
+
+class TreeSnapshotTest {
+
+    private static final Revision REVISION = new Revision(3);
+
+    @Test
+    void get() {
+        final TreeSnapshot snapshot = newSnapshot();
+        assertThat(snapshot.size()).isEqualTo(7);
+        assertThat(snapshot.get("/a.json").type()).isEqualTo(EntryType.JSON);
+        assertThat(snapshot.get("/a").type()).isEqualTo(EntryType.DIRECTORY);
+        assertThat(snapshot.get("/a/b/c.txt").type()).isEqualTo(EntryType.TEXT);
+        assertThat(snapshot.get("/a/b/c.txt").revision()).isEqualTo(REVISION);
+        assertThat(snapshot.get("/a/b/d.txt")).isNull();
+        assertThat(snapshot.get("/a.json/b")).isNull();
+        assertThat(snapshot.get("/")).isNull();
+    }
+
+    @Test
+    void find() {
+        final TreeSnapshot snapshot = newSnapshot();
+        assertThat(find(snapshot, "/**", Integer.MAX_VALUE)).containsExactly(
+                "/a-b.txt", "/a.json", "/a", "/a/b", "/a/b/c.txt", "/a/d.json", "/e.txt");
+        assertThat(find(snapshot, "/**", 2)).containsExactly("/a-b.txt", "/a.json");
+        assertThat(find(snapshot, "/a/**", Integer.MAX_VALUE)).containsExactly(
+                "/a/b", "/a/b/c.txt", "/a/d.json");
+        assertThat(find(snapshot, "/a/b/c.txt", Integer.MAX_VALUE)).containsExactly("/a/b/c.txt");
+        assertThat(find(snapshot, "*.json", Integer.MAX_VALUE)).containsExactly("/a.json", "/a/d.json");
+        assertThat(find(snapshot, "/e.txt,/a/*.json", Integer.MAX_VALUE)).containsExactly(
+                "/a/d.json", "/e.txt");
+        assertThat(find(snapshot, "/x/**", Integer.MAX_VALUE)).isEmpty();
+    }
+
+    @Test
+    void apply() {
+        final TreeSnapshot snapshot = newSnapshot();
+        final Revision nextRevision = REVISION.forward(1);
+        final TreeSnapshot nextSnapshot = snapshot.apply(nextRevision, ImmutableList.of(
+                diff(ChangeType.ADD, null, "a/b/x.yaml"),
+                diff(ChangeType.DELETE, "a/d.json", null),
+                diff(ChangeType.MODIFY, "e.txt", "e.txt"),
+                diff(ChangeType.ADD, null, "f/g/h.json"),
+                diff(ChangeType.RENAME, "a-b.txt", "i.txt")));
+
+        assertThat(nextSnapshot.revision()).isEqualTo(nextRevision);
+        assertThat(find(nextSnapshot, "/**", Integer.MAX_VALUE)).containsExactly(
+                "/a.json", "/a", "/a/b", "/a/b/c.txt", "/a/b/x.yaml", "/e.txt",
+                "/f", "/f/g", "/f/g/h.json", "/i.txt");
+        assertThat(nextSnapshot.size()).isEqualTo(10);
+        assertThat(nextSnapshot.get("/a/b/x.yaml").type()).isEqualTo(EntryType.YAML);
+        assertThat(nextSnapshot.get("/f/g").type()).isEqualTo(EntryType.DIRECTORY);
+        assertThat(nextSnapshot.get("/e.txt").revision()).isEqualTo(nextRevision);
+
+        // The original snapshot must not be affected.
+        assertThat(find(snapshot, "/**", Integer.MAX_VALUE)).containsExactly(
+                "/a-b.txt", "/a.json", "/a", "/a/b", "/a/b/c.txt", "/a/d.json", "/e.txt");
+
+        // Removing the last file of a directory removes the directory as well.
+        final TreeSnapshot lastSnapshot = nextSnapshot.apply(nextRevision.forward(1), ImmutableList.of(
+                diff(ChangeType.DELETE, "f/g/h.json", null)));
+        assertThat(lastSnapshot.get("/f")).isNull();
+        assertThat(lastSnapshot.size()).isEqualTo(7);
+    }
+
+    @Test
+    void applyInconsistentChanges() {
+        final TreeSnapshot snapshot = newSnapshot();
+        assertThatThrownBy(() -> snapshot.apply(REVISION.forward(1), ImmutableList.of(
+                diff(ChangeType.DELETE, "x.txt", null))))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> snapshot.apply(REVISION.forward(1), ImmutableList.of(
+                diff(ChangeType.ADD, null, "e.txt"))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static DiffEntry diff(ChangeType changeType, @Nullable String oldPath, @Nullable String newPath) {
+        final DiffEntry diffEntry = mock(DiffEntry.class);
+        when(diffEntry.getChangeType()).thenReturn(changeType);
+        when(diffEntry.getOldPath()).thenReturn(oldPath != null ? oldPath : DiffEntry.DEV_NULL);
+        when(diffEntry.getNewPath()).thenReturn(newPath != null ? newPath : DiffEntry.DEV_NULL);
+        return diffEntry;
+    }
+
+    private static Iterable<String> find(TreeSnapshot snapshot, String pathPattern, int maxEntries) {
+        return snapshot.find(PathPatternFilter.of(pathPattern), maxEntries).keySet();
+    }
+
+    private static TreeSnapshot newSnapshot() {
+        // In the order of a Git tree walk, where a directory is sorted as if its name ends with '/'.
+        final Map<String, Entry<?>> entries = new LinkedHashMap<>();
+        entries.put("/a-b.txt", Entry.ofText(REVISION, "/a-b.txt", ""));
+        entries.put("/a.json", TreeSnapshot.newEntryWithoutContent(REVISION, "/a.json", EntryType.JSON));
+        entries.put("/a", Entry.ofDirectory(REVISION, "/a"));
+        entries.put("/a/b", Entry.ofDirectory(REVISION, "/a/b"));
+        entries.put("/a/b/c.txt", Entry.ofText(REVISION, "/a/b/c.txt", ""));
+        entries.put("/a/d.json", TreeSnapshot.newEntryWithoutContent(REVISION, "/a/d.json", EntryType.JSON));
+        entries.put("/e.txt", Entry.ofText(REVISION, "/e.txt", ""));
+        return TreeSnapshot.of(REVISION, entries);
+    }
+}
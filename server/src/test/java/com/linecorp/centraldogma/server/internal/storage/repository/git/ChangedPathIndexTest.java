@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import static com.linecorp.centraldogma.server.internal.storage.repository.git.GitRepositoryManager.createFileRepository;
+import static com.linecorp.centraldogma.server.internal.storage.repository.git.GitRepositoryManager.openFileRepository;
+import static java.util.concurrent.ForkJoinPool.commonPool;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.centraldogma.common.Author;
+import com.linecorp.centraldogma.common.Change;
+import com.linecorp.centraldogma.common.Commit;
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.server.storage.project.Project;
+
+class ChangedPathIndexTest {
+
+    @TempDir
+    File tempDir;
+
+    private ChangedPathIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ChangedPathIndex(tempDir, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (index != null) {
+            index.close();
+        }
+    }
+
+    @Test
+    void keys() {
+        assertThat(ChangedPathIndex.keys("/**")).isNull();
+        assertThat(ChangedPathIndex.keys("*.json")).isNull();
+        assertThat(ChangedPathIndex.keys("/*.json")).isNull();
+        assertThat(ChangedPathIndex.keys("/a.json, /b/**")).hasSize(4);
+        assertThat(ChangedPathIndex.keys("/a.json, /**")).isNull();
+        // A wildcard pattern is looked up with its parent directory.
+        assertThat(ChangedPathIndex.keys("/a/b/*.json")).containsExactly(ChangedPathIndex.keys("/a/b"));
+        assertThat(ChangedPathIndex.keys("/a/b/")).containsExactly(ChangedPathIndex.keys("/a/b"));
+    }
+
+    @Test
+    void lookUp() {
+        assertThat(index.nextRevision()).isEqualTo(new Revision(1));
+        index.put(new Revision(1), ImmutableList.of());
+        index.put(new Revision(2), ImmutableList.of("/a/b.json", "/c.txt"));
+        index.put(new Revision(3), ImmutableList.of("/a/d.json"));
+        assertThat(index.nextRevision()).isEqualTo(new Revision(4));
+
+        assertThat(index.mayHaveChanged(1, ChangedPathIndex.keys("/a/b.json"))).isFalse();
+        assertThat(index.mayHaveChanged(2, ChangedPathIndex.keys("/a/b.json"))).isTrue();
+        assertThat(index.mayHaveChanged(2, ChangedPathIndex.keys("/c.txt"))).isTrue();
+        assertThat(index.mayHaveChanged(2, ChangedPathIndex.keys("/a/**"))).isTrue();
+        assertThat(index.mayHaveChanged(3, ChangedPathIndex.keys("/a/b.json"))).isFalse();
+        assertThat(index.mayHaveChanged(3, ChangedPathIndex.keys("/a/*.json"))).isTrue();
+        assertThat(index.mayHaveChanged(3, ChangedPathIndex.keys("/c.txt, /a/d.json"))).isTrue();
+        assertThat(index.mayHaveChanged(3, ChangedPathIndex.keys("/c.txt, /e.txt"))).isFalse();
+        assertThat(index.mayHaveChanged(3, 3, ChangedPathIndex.keys("/c.txt"))).isFalse();
+        assertThat(index.mayHaveChanged(2, 3, ChangedPathIndex.keys("/c.txt"))).isTrue();
+
+        // Not indexed yet.
+        assertThat(index.mayHaveChanged(4, ChangedPathIndex.keys("/c.txt"))).isTrue();
+        // A gap is not filled.
+        index.put(new Revision(5), ImmutableList.of("/c.txt"));
+        assertThat(index.nextRevision()).isEqualTo(new Revision(4));
+        assertThat(index.putIfNext(new Revision(5), ImmutableList.of("/c.txt"))).isFalse();
+        assertThat(index.putIfNext(new Revision(4), ImmutableList.of("/c.txt"))).isTrue();
+    }
+
+    @Test
+    void overwrite() {
+        index.put(new Revision(1), ImmutableList.of());
+        index.put(new Revision(2), ImmutableList.of("/a.json"));
+        index.put(new Revision(3), ImmutableList.of("/b.json"));
+        index.put(new Revision(2), ImmutableList.of("/c.json"));
+        assertThat(index.nextRevision()).isEqualTo(new Revision(3));
+        assertThat(index.mayHaveChanged(2, ChangedPathIndex.keys("/a.json"))).isFalse();
+        assertThat(index.mayHaveChanged(2, ChangedPathIndex.keys("/c.json"))).isTrue();
+        assertThat(index.mayHaveChanged(3, ChangedPathIndex.keys("/a.json"))).isTrue();
+    }
+
+    @Test
+    void saturated() {
+        final List<String> paths = new ArrayList<>();
+        for (int i = 0; i <= ChangedPathIndex.MAX_KEYS; i++) {
+            paths.add("/file_" + i + ".txt");
+        }
+        index.put(new Revision(1), paths);
+        assertThat(index.mayHaveChanged(1, ChangedPathIndex.keys("/a.json"))).isTrue();
+    }
+
+    @Test
+    void reopen() {
+        for (int i = 1; i <= 10; i++) {
+            index.put(new Revision(i), ImmutableList.of("/file_" + i + ".txt"));
+        }
+        index.close();
+
+        // The records newer than the head revision of the repository are discarded.
+        index = new ChangedPathIndex(tempDir, new Revision(7));
+        assertThat(index.nextRevision()).isEqualTo(new Revision(8));
+        assertThat(index.mayHaveChanged(7, ChangedPathIndex.keys("/file_7.txt"))).isTrue();
+        assertThat(index.mayHaveChanged(7, ChangedPathIndex.keys("/file_6.txt"))).isFalse();
+        assertThat(new File(tempDir, "changed_paths.dat")).hasSize(7 * 128);
+    }
+
+    @Test
+    void reopenPreallocated() {
+        for (int i = 1; i <= 10; i++) {
+            index.put(new Revision(i), ImmutableList.of("/file_" + i + ".txt"));
+        }
+        // The file is extended to the size of the mapping.
+        assertThat(index.mayHaveChanged(10, ChangedPathIndex.keys("/file_10.txt"))).isTrue();
+        index.put(new Revision(11), ImmutableList.of("/file_11.txt"));
+        assertThat(index.mayHaveChanged(11, ChangedPathIndex.keys("/file_11.txt"))).isTrue();
+        assertThat(new File(tempDir, "changed_paths.dat")).hasSize(1024 * 1024);
+        index.close();
+
+        // The zero-filled records are discarded.
+        index = new ChangedPathIndex(tempDir, new Revision(100));
+        assertThat(index.nextRevision()).isEqualTo(new Revision(12));
+        assertThat(index.mayHaveChanged(11, ChangedPathIndex.keys("/file_11.txt"))).isTrue();
+        assertThat(index.mayHaveChanged(11, ChangedPathIndex.keys("/file_10.txt"))).isFalse();
+        assertThat(new File(tempDir, "changed_paths.dat")).hasSize(11 * 128);
+    }
+
+    @Test
+    void historyWithIndex() throws Exception {
+        final File repoDir = new File(tempDir, "repo");
+        final Author author = Author.SYSTEM;
+        GitRepository repo = createFileRepository(mock(Project.class), repoDir, author, 0L,
+                                                  commonPool(), null);
+        try {
+            for (int i = 1; i < 100; i++) {
+                repo.commit(new Revision(i), 0L, author, "Summary " + i,
+                            Change.ofTextUpsert("/dir_" + i % 3 + "/file_" + i % 7 + ".txt",
+                                                String.valueOf(i))).join();
+            }
+            final List<Revision> expected = revisions(repo, "/dir_1/file_3.txt, /dir_2/**");
+
+            // Rebuild the index in the background after it is removed.
+            repo.internalClose();
+            Files.delete(new File(repoDir, "changed_paths.dat").toPath());
+            repo = openFileRepository(mock(Project.class), repoDir, commonPool(), null);
+            assertThat(revisions(repo, "/dir_1/file_3.txt, /dir_2/**")).isEqualTo(expected);
+            assertThat(expected).hasSize(38);
+            assertThat(repo.findLatestRevision(new Revision(99), "/dir_1/file_3.txt", false).join())
+                    .isNull();
+            assertThat(repo.findLatestRevision(new Revision(90), "/dir_1/file_3.txt", false).join())
+                    .isEqualTo(new Revision(100));
+        } finally {
+            repo.internalClose();
+        }
+    }
+
+    private static List<Revision> revisions(GitRepository repo, String pathPattern) {
+        return repo.history(Revision.HEAD, Revision.INIT, pathPattern, 1000).join().stream()
+                   .map(Commit::revision)
+                   .collect(Collectors.toList());
+    }
+}
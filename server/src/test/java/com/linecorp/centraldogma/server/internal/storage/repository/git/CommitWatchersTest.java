@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.common.ShuttingDownException;
+
+class CommitWatchersTest {
+
+    private static final Revision REVISION = new Revision(2);
+
+    @Test
+    void notifyMatchingWatches() {
+        final CommitWatchers commitWatchers = new CommitWatchers();
+        final CompletableFuture<Revision> exact = watch(commitWatchers, "/a/b.json");
+        final CompletableFuture<Revision> prefix = watch(commitWatchers, "/a/**");
+        final CompletableFuture<Revision> partialName = watch(commitWatchers, "/a/b*");
+        final CompletableFuture<Revision> glob = watch(commitWatchers, "*.json");
+        final CompletableFuture<Revision> all = watch(commitWatchers, "/**");
+        final CompletableFuture<Revision> other = watch(commitWatchers, "/c/**,/a/c.json");
+        assertThat(commitWatchers.watchesMap).hasSize(6);
+
+        // The path of a DiffEntry does not start with '/'.
+        commitWatchers.notify(REVISION, "a/b.json");
+        assertThat(exact).isCompletedWithValue(REVISION);
+        assertThat(prefix).isCompletedWithValue(REVISION);
+        assertThat(partialName).isCompletedWithValue(REVISION);
+        assertThat(glob).isCompletedWithValue(REVISION);
+        assertThat(all).isCompletedWithValue(REVISION);
+        assertThat(other).isNotDone();
+        assertThat(commitWatchers.watchesMap).hasSize(1);
+
+        commitWatchers.notify(REVISION, "/a/c.json");
+        assertThat(other).isCompletedWithValue(REVISION);
+        assertThat(commitWatchers.watchesMap).isEmpty();
+    }
+
+    @Test
+    void notifyOnlyNewerRevision() {
+        final CommitWatchers commitWatchers = new CommitWatchers();
+        final CompletableFuture<Revision> future = new CompletableFuture<>();
+        commitWatchers.add(REVISION, "/a.json", future, null);
+        commitWatchers.notify(REVISION, "/a.json");
+        assertThat(future).isNotDone();
+        commitWatchers.notify(REVISION.forward(1), "/a.json");
+        assertThat(future).isCompletedWithValue(REVISION.forward(1));
+    }
+
+    @Test
+    void listenerIsNotRemoved() {
+        final CommitWatchers commitWatchers = new CommitWatchers();
+        final List<Revision> revisions = new ArrayList<>();
+        commitWatchers.add(Revision.INIT, "/a/**,/**/*.json", null,
+                           (revision, cause) -> revisions.add(revision));
+
+        // Must be notified only once even if more than one path pattern matches.
+        commitWatchers.notify(REVISION, "/a/b.json");
+        commitWatchers.notify(REVISION.forward(1), "/b.txt");
+        commitWatchers.notify(REVISION.forward(2), "/a/b.txt");
+        assertThat(revisions).containsExactly(REVISION, REVISION.forward(2));
+        assertThat(commitWatchers.watchesMap).hasSize(1);
+    }
+
+    @Test
+    void cancel() {
+        final CommitWatchers commitWatchers = new CommitWatchers();
+        final CompletableFuture<Revision> future = watch(commitWatchers, "/a/**");
+        assertThat(commitWatchers.watchesMap).hasSize(1);
+        future.cancel(true);
+        assertThat(commitWatchers.watchesMap).isEmpty();
+
+        // The index must be cleaned up as well.
+        final CompletableFuture<Revision> newFuture = watch(commitWatchers, "/a/**");
+        commitWatchers.notify(REVISION, "/a/b.json");
+        assertThat(newFuture).isCompletedWithValue(REVISION);
+    }
+
+    @Test
+    void close() {
+        final CommitWatchers commitWatchers = new CommitWatchers();
+        final CompletableFuture<Revision> future = watch(commitWatchers, "/a/**");
+        commitWatchers.add(Revision.INIT, "/b/**", null, (revision, cause) -> {});
+        commitWatchers.close(ShuttingDownException::new);
+        assertThat(future).isCompletedExceptionally();
+        assertThat(commitWatchers.watchesMap).isEmpty();
+    }
+
+    private static CompletableFuture<Revision> watch(CommitWatchers commitWatchers, String pathPattern) {
+        final CompletableFuture<Revision> future = new CompletableFuture<>();
+        commitWatchers.add(Revision.INIT, pathPattern, future, null);
+        return future;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import static com.linecorp.centraldogma.server.internal.storage.repository.git.GitRepository.sanitizeText;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.RepositoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.centraldogma.common.Change;
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.internal.Jackson;
+
+class DefaultChangesApplierTest {
+
+    @TempDir
+    File tempDir;
+
+    private Repository repo;
+    private ObjectInserter inserter;
+    private CountingObjectReader reader;
+    private ObjectId baseTreeId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repo = new RepositoryBuilder().setGitDir(tempDir).setBare().build();
+        repo.create(true);
+        inserter = repo.newObjectInserter();
+        reader = new CountingObjectReader(repo.newObjectReader());
+
+        final TreeEditor editor = new TreeEditor(reader, null);
+        editor.putFile("a.json", blob(sanitizeText(Jackson.writeValueAsPrettyString(
+                Jackson.readTree("{\"a\":1}")))));
+        editor.putFile("b.json", blob("{\"b\":1}\n"));
+        editor.putFile("c.txt", blob("c\n"));
+        editor.putFile("d.yaml", blob("d: 1\n"));
+        baseTreeId = editor.writeTree(inserter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reader.close();
+        inserter.close();
+        repo.close();
+    }
+
+    @Test
+    void unchangedUpsertsDoNotReadOldContent() throws Exception {
+        final TreeEditor editor = new TreeEditor(reader, baseTreeId);
+        assertThat(apply(editor,
+                         Change.ofJsonUpsert("/a.json", Jackson.readTree("{\"a\":1}")),
+                         Change.ofTextUpsert("/c.txt", "c"),
+                         Change.ofYamlUpsert("/d.yaml", "d: 1"))).isZero();
+        // Only the trees were read.
+        assertThat(reader.numBlobOpens.get()).isZero();
+
+        assertThat(apply(editor, Change.ofTextUpsert("/c.txt", "c2"))).isOne();
+        assertThat(reader.numBlobOpens.get()).isZero();
+    }
+
+    @Test
+    void compareJsonNodesIfFormattedDifferently() throws Exception {
+        final TreeEditor editor = new TreeEditor(reader, baseTreeId);
+        assertThat(apply(editor, Change.ofJsonUpsert("/b.json", Jackson.readTree("{\"b\":1}")))).isZero();
+        assertThat(reader.numBlobOpens.get()).isOne();
+        assertThat(apply(editor, Change.ofJsonUpsert("/b.json", Jackson.readTree("{\"b\":2}")))).isOne();
+        assertThat(editor.diff()).hasSize(1);
+    }
+
+    private int apply(TreeEditor editor, Change<?>... changes) throws IOException {
+        return new DefaultChangesApplier(ImmutableList.copyOf(changes))
+                .doApply(Revision.INIT, editor, reader, inserter);
+    }
+
+    private ObjectId blob(String content) throws IOException {
+        return inserter.insert(Constants.OBJ_BLOB, content.getBytes(UTF_8));
+    }
+
+    private static final class CountingObjectReader extends ObjectReader.Filter {
+
+        final AtomicInteger numBlobOpens = new AtomicInteger();
+        private final ObjectReader delegate;
+
+        CountingObjectReader(ObjectReader delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected ObjectReader delegate() {
+            return delegate;
+        }
+
+        @Override
+        public ObjectLoader open(AnyObjectId objectId, int typeHint) throws IOException {
+            final ObjectLoader loader = super.open(objectId, typeHint);
+            if (loader.getType() == Constants.OBJ_BLOB) {
+                numBlobOpens.incrementAndGet();
+            }
+            return loader;
+        }
+    }
+}
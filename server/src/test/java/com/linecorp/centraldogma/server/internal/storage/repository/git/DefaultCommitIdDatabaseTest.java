@@ -34,6 +34,8 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import com.linecorp.centraldogma.common.Author;
 import com.linecorp.centraldogma.common.Change;
@@ -90,6 +92,53 @@ class DefaultCommitIdDatabaseTest {
                 .isInstanceOf(RevisionNotFoundException.class);
     }
 
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void getWhileAppending(boolean mmap) {
+        db.close();
+        db = new DefaultCommitIdDatabase(tempDir, mmap);
+
+        final int numCommits = 100;
+        final ObjectId[] expectedCommitIds = new ObjectId[numCommits + 1];
+        for (int i = 1; i <= numCommits; i++) {
+            final ObjectId commitId = randomCommitId();
+            expectedCommitIds[i] = commitId;
+            db.put(new Revision(i), commitId);
+
+            // The record must be visible right after appended.
+            assertThat(db.get(new Revision(i))).isEqualTo(commitId);
+            final int revision = ThreadLocalRandom.current().nextInt(i) + 1;
+            assertThat(db.get(new Revision(revision))).isEqualTo(expectedCommitIds[revision]);
+        }
+
+        // Reopen the database and read all records again.
+        db.close();
+        db = new DefaultCommitIdDatabase(tempDir, mmap);
+        assertThat(db.headRevision()).isEqualTo(new Revision(numCommits));
+        for (int i = 1; i <= numCommits; i++) {
+            assertThat(db.get(new Revision(i))).isEqualTo(expectedCommitIds[i]);
+        }
+    }
+
+    @Test
+    void getWhileAppendingBeyondRemapThreshold() {
+        // More than 1 MiB of records, so that the file is mapped again while appending.
+        final int numCommits = 50000;
+        final ObjectId[] expectedCommitIds = new ObjectId[numCommits + 1];
+        for (int i = 1; i <= numCommits; i++) {
+            final ObjectId commitId = randomCommitId();
+            expectedCommitIds[i] = commitId;
+            db.put(new Revision(i), commitId);
+
+            assertThat(db.get(new Revision(i))).isEqualTo(commitId);
+            final int revision = ThreadLocalRandom.current().nextInt(i) + 1;
+            assertThat(db.get(new Revision(revision))).isEqualTo(expectedCommitIds[revision]);
+        }
+        for (int i = 1; i <= numCommits; i++) {
+            assertThat(db.get(new Revision(i))).isEqualTo(expectedCommitIds[i]);
+        }
+    }
+
     @Test
     void truncatedDatabase() throws Exception {
         db.put(Revision.INIT, randomCommitId());
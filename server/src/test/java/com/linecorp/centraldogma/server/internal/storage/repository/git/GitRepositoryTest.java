@@ -63,6 +63,7 @@ import org.junit.jupiter.api.io.TempDir;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.common.collect.ImmutableList;
 
 import com.linecorp.centraldogma.common.Author;
 import com.linecorp.centraldogma.common.CentralDogmaException;
@@ -72,6 +73,7 @@ import com.linecorp.centraldogma.common.ChangeType;
 import com.linecorp.centraldogma.common.Commit;
 import com.linecorp.centraldogma.common.Entry;
 import com.linecorp.centraldogma.common.EntryType;
+import com.linecorp.centraldogma.common.Markup;
 import com.linecorp.centraldogma.common.Query;
 import com.linecorp.centraldogma.common.RedundantChangeException;
 import com.linecorp.centraldogma.common.Revision;
@@ -79,6 +81,7 @@ import com.linecorp.centraldogma.common.RevisionNotFoundException;
 import com.linecorp.centraldogma.common.TextPatchConflictException;
 import com.linecorp.centraldogma.common.jsonpatch.JsonPatchConflictException;
 import com.linecorp.centraldogma.internal.Util;
+import com.linecorp.centraldogma.server.command.CommitResult;
 import com.linecorp.centraldogma.server.internal.JGitUtil;
 import com.linecorp.centraldogma.server.storage.StorageException;
 import com.linecorp.centraldogma.server.storage.encryption.EncryptionStorageManager;
@@ -460,6 +463,77 @@ class GitRepositoryTest {
                 .hasCauseInstanceOf(ChangeConflictException.class);
     }
 
+    /**
+     * Makes sure a reader is not blocked by a commit in progress.
+     */
+    @Test
+    void testReadWhileCommitting() throws Exception {
+        testReadWhileCommitting(fileRepo);
+        testReadWhileCommitting(encryptedRepo);
+    }
+
+    private void testReadWhileCommitting(GitRepository repo) throws Exception {
+        final Revision rev = repo.commit(HEAD, 0L, Author.UNKNOWN, SUMMARY, jsonUpserts[0])
+                                 .join().revision();
+
+        // Acquire the lock a commit acquires.
+        repo.writeLock();
+        try {
+            final Map<String, Entry<?>> entries =
+                    repo.find(HEAD, allPattern).get(10, TimeUnit.SECONDS);
+            assertThat(entries).containsOnlyKeys(jsonPaths[0]);
+            assertThat(entries.get(jsonPaths[0]).revision()).isEqualTo(rev);
+            assertThat(repo.history(rev, INIT, allPattern).get(10, TimeUnit.SECONDS)).isNotEmpty();
+        } finally {
+            repo.writeUnLock();
+        }
+    }
+
+    /**
+     * Makes sure the commits applied as a group get their own revisions and a failed commit does not
+     * affect the others.
+     */
+    @Test
+    void testGroupCommit() throws Exception {
+        testGroupCommit(fileRepo);
+        testGroupCommit(encryptedRepo);
+    }
+
+    private void testGroupCommit(GitRepository repo) throws Exception {
+        final Revision headRevision = repo.normalizeNow(HEAD);
+        final CompletableFuture<Revision> watchFuture = repo.watch(headRevision, allPattern, false);
+        final List<CompletableFuture<CommitResult>> futures = new ArrayList<>();
+
+        // Hold the commit lock so that the following commits are applied as a group.
+        repo.writeLock();
+        try {
+            for (int i = 0; i < NUM_ITERATIONS; i++) {
+                futures.add(repo.commit(HEAD, 0L, Author.UNKNOWN, SUMMARY, "", Markup.PLAINTEXT,
+                                        ImmutableList.of(jsonUpserts[i]), true, true));
+            }
+            // A redundant change.
+            futures.add(repo.commit(HEAD, 0L, Author.UNKNOWN, SUMMARY, "", Markup.PLAINTEXT,
+                                    ImmutableList.of(jsonUpserts[0]), true, true));
+        } finally {
+            repo.writeUnLock();
+        }
+
+        for (int i = 0; i < NUM_ITERATIONS; i++) {
+            assertThat(futures.get(i).get(10, TimeUnit.SECONDS).revision())
+                    .isEqualTo(headRevision.forward(i + 1));
+        }
+        assertThatThrownBy(() -> futures.get(NUM_ITERATIONS).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(RedundantChangeException.class);
+
+        final Revision lastRevision = headRevision.forward(NUM_ITERATIONS);
+        assertThat(repo.normalizeNow(HEAD)).isEqualTo(lastRevision);
+        assertThat(repo.jGitRepository().exactRef(R_HEADS_MASTER).getObjectId())
+                .isEqualTo(repo.commitIdDatabase().get(lastRevision));
+        assertThat(repo.find(HEAD, allPattern).join()).containsOnlyKeys(jsonPaths);
+        assertThat(watchFuture.get(10, TimeUnit.SECONDS).major()).isGreaterThan(headRevision.major());
+    }
+
     @Test
     void testEmptyCommit() {
         testEmptyCommit(fileRepo);
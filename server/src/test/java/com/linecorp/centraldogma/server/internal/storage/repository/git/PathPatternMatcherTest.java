@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+class PathPatternMatcherTest {
+
+    private static final List<String> PATTERNS = ImmutableList.of(
+            "/a.json", "/a/b.json", "/a/*", "/a/*.json", "/a/b*", "/a/**", "/a/**/c.json", "/**/c.json",
+            "/**/*.txt", "/*/b/*", "/**/b/**", "/a/**/**/d", "/a**.json", "/a/b/c/d/e.json", "/x.y/z+w");
+
+    private static final List<String> PATHS = ImmutableList.of(
+            "/a.json", "/a", "/a/b.json", "/a/b", "/a/bc", "/a/c.json", "/a/b/c.json", "/a/b/c/d",
+            "/a/b/c/d/e.json", "/b/c.json", "/c.json", "/a/b/d", "/a/d", "/e.txt", "/a/b/e.txt", "/abc.json",
+            "/x.y/z+w", "/xay/z+w", "/q/b/r", "/b", "/a/b/c");
+
+    @Test
+    void matchesSameAsRegularExpression() {
+        for (String pattern : PATTERNS) {
+            final PathPatternMatcher<String> matcher =
+                    PathPatternMatcher.<String>builder().add(pattern, pattern).build();
+            for (String path : PATHS) {
+                final boolean expected = PathPatternFilter.compile(pattern).matcher(path.substring(1))
+                                                          .matches();
+                assertThat(matcher.matches(path))
+                        .as("pattern: %s, path: %s", pattern, path)
+                        .isEqualTo(expected);
+                assertThat(matcher.matches(path.substring(1)))
+                        .as("pattern: %s, path: %s", pattern, path.substring(1))
+                        .isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void matchAllPatternsAtOnce() {
+        final PathPatternMatcher.Builder<String> builder = PathPatternMatcher.builder();
+        PATTERNS.forEach(pattern -> builder.add(pattern, pattern));
+        final PathPatternMatcher<String> matcher = builder.build();
+        for (String path : PATHS) {
+            final Set<String> expected = new LinkedHashSet<>();
+            for (String pattern : PATTERNS) {
+                if (PathPatternFilter.compile(pattern).matcher(path.substring(1)).matches()) {
+                    expected.add(pattern);
+                }
+            }
+            assertThat(matcher.match(path)).as("path: %s", path)
+                                           .containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    void sameValueIsReturnedOnce() {
+        final PathPatternMatcher<String> matcher = PathPatternMatcher.<String>builder()
+                                                                     .add("/a/**", "foo")
+                                                                     .add("/**/*.json", "foo")
+                                                                     .add("/a/b.json", "bar")
+                                                                     .build();
+        assertThat(matcher.match("/a/b.json")).containsExactly("foo", "bar");
+        assertThat(matcher.match("/c.txt")).isEmpty();
+    }
+
+    @Test
+    void mayMatchUnder() {
+        final PathPatternMatcher<String> matcher = PathPatternMatcher.<String>builder()
+                                                                     .add("/a/b/*.json", "foo")
+                                                                     .add("/c/**/d.json", "bar")
+                                                                     .add("/e.json", "baz")
+                                                                     .build();
+        assertThat(matcher.mayMatchUnder("/a")).isTrue();
+        assertThat(matcher.mayMatchUnder("/a/b")).isTrue();
+        assertThat(matcher.mayMatchUnder("/a/b/c")).isFalse();
+        assertThat(matcher.mayMatchUnder("/a/c")).isFalse();
+        assertThat(matcher.mayMatchUnder("/c/x/y")).isTrue();
+        assertThat(matcher.mayMatchUnder("/e.json")).isFalse();
+        assertThat(matcher.mayMatchUnder("/f")).isFalse();
+    }
+
+    @Test
+    void invalidPattern() {
+        assertThatThrownBy(() -> PathPatternMatcher.builder().add("/a/***", "foo"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PathPatternMatcher.builder().add("a.json", "foo"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
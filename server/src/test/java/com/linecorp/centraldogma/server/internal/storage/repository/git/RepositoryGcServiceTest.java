@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import static com.linecorp.centraldogma.server.internal.storage.repository.git.GitRepositoryManager.createFileRepository;
+import static java.util.concurrent.ForkJoinPool.commonPool;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.internal.storage.file.GC;
+import org.eclipse.jgit.internal.storage.file.GC.RepoStatistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.linecorp.centraldogma.common.Author;
+import com.linecorp.centraldogma.common.Change;
+import com.linecorp.centraldogma.common.Markup;
+import com.linecorp.centraldogma.common.Revision;
+import com.linecorp.centraldogma.server.storage.project.Project;
+import com.linecorp.centraldogma.server.storage.project.ProjectManager;
+import com.linecorp.centraldogma.server.storage.repository.RepositoryGcPluginConfig;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RepositoryGcServiceTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void packLooseObjects() throws Exception {
+        final Project project = mock(Project.class);
+        when(project.name()).thenReturn("foo");
+        final GitRepository repo = createFileRepository(project, new File(tempDir, "bar"), Author.SYSTEM,
+                                                        0L, commonPool(), null);
+        try {
+            for (int i = 1; i <= 10; i++) {
+                repo.commit(new Revision(i), i * 1000L, Author.SYSTEM, "Summary", "", Markup.PLAINTEXT,
+                            Change.ofTextUpsert("/file_" + i + ".txt", String.valueOf(i))).join();
+            }
+            final RepoStatistics before = new GC((FileRepository) repo.jGitRepository()).getStatistics();
+            assertThat(before.numberOfLooseObjects).isPositive();
+
+            final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            final ProjectManager projectManager = mock(ProjectManager.class);
+
+            // Not packed if there are not enough loose objects.
+            final RepositoryGcService notPacking = new RepositoryGcService(
+                    projectManager, meterRegistry,
+                    new RepositoryGcPluginConfig(true, null, (int) before.numberOfLooseObjects + 1, 0L));
+            assertThat(notPacking.gc(repo)).isNull();
+
+            final RepositoryGcService service = new RepositoryGcService(
+                    projectManager, meterRegistry, new RepositoryGcPluginConfig(true, null, 1, 0L));
+            final GcResult result = service.gc(repo);
+            assertThat(result).isNotNull();
+            assertThat(result.objectsPacked()).isEqualTo(before.numberOfLooseObjects);
+
+            final RepoStatistics after = new GC((FileRepository) repo.jGitRepository()).getStatistics();
+            assertThat(after.numberOfLooseObjects).isZero();
+            assertThat(meterRegistry.get("repository.gc.objects.packed").counter().count())
+                    .isEqualTo(before.numberOfLooseObjects);
+            assertThat(meterRegistry.get("repository.gc.pause").timer().count()).isOne();
+
+            // The repository is still readable and writable.
+            assertThat(repo.get(Revision.HEAD, "/file_10.txt").join().content()).isEqualTo("10");
+            repo.commit(new Revision(11), 12000L, Author.SYSTEM, "Summary", "", Markup.PLAINTEXT,
+                        Change.ofTextUpsert("/file_11.txt", "11")).join();
+            assertThat(repo.normalizeNow(Revision.HEAD)).isEqualTo(new Revision(12));
+        } finally {
+            repo.internalClose();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.internal.storage.repository.git;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.dircache.DirCacheIterator;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.RepositoryBuilder;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TreeEditorTest {
+
+    @TempDir
+    File tempDir;
+
+    private Repository repo;
+    private ObjectInserter inserter;
+    private ObjectReader reader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repo = new RepositoryBuilder().setGitDir(tempDir).setBare().build();
+        repo.create(true);
+        inserter = repo.newObjectInserter();
+        reader = repo.newObjectReader();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reader.close();
+        inserter.close();
+        repo.close();
+    }
+
+    @Test
+    void writeSameTreeAsDirCache() throws Exception {
+        final TreeEditor editor = new TreeEditor(reader, null);
+        editor.putFile("a/b.txt", blob("b"));
+        editor.putFile("a/c/d.txt", blob("d"));
+        editor.putFile("a.txt", blob("a"));
+        editor.putFile("a-b/e.txt", blob("e"));
+        editor.putFile("z/y.txt", blob("y"));
+        assertThat(editor.writeTree(inserter))
+                .isEqualTo(dirCacheTree("a/b.txt", "b", "a/c/d.txt", "d", "a.txt", "a",
+                                        "a-b/e.txt", "e", "z/y.txt", "y"));
+
+        assertThat(new TreeEditor(reader, null).writeTree(inserter)).isEqualTo(dirCacheTree());
+    }
+
+    @Test
+    void editAndDiff() throws Exception {
+        final ObjectId baseTreeId = dirCacheTree("a/b.txt", "b", "a/c/d.txt", "d", "e.txt", "e",
+                                                 "z/y.txt", "y");
+        final TreeEditor editor = new TreeEditor(reader, baseTreeId);
+        assertThat(editor.fileId("a/b.txt")).isEqualTo(blob("b"));
+        assertThat(editor.fileId("a/c")).isNull();
+        assertThat(editor.exists("a/c")).isTrue();
+        assertThat(editor.exists("a/x")).isFalse();
+
+        editor.putFile("a/c/f.txt", blob("f"));
+        editor.putFile("a/c/d.txt", blob("d2"));
+        assertThat(editor.remove("e.txt")).isTrue();
+        assertThat(editor.remove("x.txt")).isFalse();
+        assertThat(editor.move("a/b.txt", "g/b.txt")).isTrue();
+        assertThat(editor.move("a/c", "h")).isTrue();
+        assertThat(editor.exists("a")).isFalse();
+
+        assertThat(editor.diff().stream().map(TreeEditorTest::toString).collect(Collectors.toList()))
+                .isEqualTo(dirCacheDiff(baseTreeId, "g/b.txt", "b", "h/d.txt", "d2", "h/f.txt", "f",
+                                        "z/y.txt", "y"))
+                .containsExactly("DELETE a/b.txt", "DELETE a/c/d.txt", "DELETE e.txt", "ADD g/b.txt",
+                                 "ADD h/d.txt", "ADD h/f.txt");
+        assertThat(editor.writeTree(inserter))
+                .isEqualTo(dirCacheTree("g/b.txt", "b", "h/d.txt", "d2", "h/f.txt", "f", "z/y.txt", "y"));
+        // The diff is the same after the tree is written.
+        assertThat(editor.diff()).hasSize(6);
+    }
+
+    @Test
+    void replaceFileWithDirectory() throws Exception {
+        final ObjectId baseTreeId = dirCacheTree("a", "a", "b/c.txt", "c");
+        final TreeEditor editor = new TreeEditor(reader, baseTreeId);
+        editor.putFile("a/b.txt", blob("b"));
+        editor.putFile("b", blob("b"));
+        assertThat(editor.diff().stream().map(TreeEditorTest::toString).collect(Collectors.toList()))
+                .containsExactly("DELETE a", "ADD a/b.txt", "ADD b", "DELETE b/c.txt");
+        assertThat(editor.writeTree(inserter)).isEqualTo(dirCacheTree("a/b.txt", "b", "b", "b"));
+    }
+
+    @Test
+    void unmodified() throws Exception {
+        final ObjectId baseTreeId = dirCacheTree("a/b.txt", "b");
+        final TreeEditor editor = new TreeEditor(reader, baseTreeId);
+        editor.putFile("a/b.txt", blob("b"));
+        assertThat(editor.diff()).isEmpty();
+        assertThat(editor.writeTree(inserter)).isEqualTo(baseTreeId);
+    }
+
+    private ObjectId blob(String content) throws Exception {
+        return inserter.insert(Constants.OBJ_BLOB, content.getBytes(UTF_8));
+    }
+
+    private ObjectId dirCacheTree(String... pathAndContents) throws Exception {
+        return newDirCache(pathAndContents).writeTree(inserter);
+    }
+
+    private List<String> dirCacheDiff(ObjectId baseTreeId, String... pathAndContents) throws Exception {
+        try (TreeWalk treeWalk = new TreeWalk(reader)) {
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(TreeFilter.ANY_DIFF);
+            treeWalk.addTree(new CanonicalTreeParser(null, reader, baseTreeId));
+            treeWalk.addTree(new DirCacheIterator(newDirCache(pathAndContents)));
+            return DiffEntry.scan(treeWalk).stream()
+                            .map(TreeEditorTest::toString)
+                            .collect(Collectors.toList());
+        }
+    }
+
+    private DirCache newDirCache(String... pathAndContents) throws Exception {
+        final DirCache dirCache = DirCache.newInCore();
+        final DirCacheBuilder builder = dirCache.builder();
+        for (int i = 0; i < pathAndContents.length; i += 2) {
+            final DirCacheEntry entry = new DirCacheEntry(pathAndContents[i]);
+            entry.setFileMode(FileMode.REGULAR_FILE);
+            entry.setObjectId(blob(pathAndContents[i + 1]));
+            builder.add(entry);
+        }
+        builder.finish();
+        return dirCache;
+    }
+
+    private static String toString(DiffEntry entry) {
+        return entry.getChangeType() + " " +
+               (entry.getChangeType() == DiffEntry.ChangeType.DELETE ? entry.getOldPath()
+                                                                      : entry.getNewPath());
+    }
+}
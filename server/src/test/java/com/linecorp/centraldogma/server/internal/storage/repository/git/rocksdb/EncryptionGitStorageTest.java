@@ -30,6 +30,8 @@ import static org.mockito.Mockito.when;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
@@ -50,6 +52,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 
 import com.linecorp.centraldogma.common.Revision;
 import com.linecorp.centraldogma.common.RevisionNotFoundException;
@@ -83,6 +86,8 @@ class EncryptionGitStorageTest {
                  .thenReturn(new SecretKeyWithVersion(DEK, 1));
         lenient().when(encryptionStorageManager.getDek(TEST_PROJECT, TEST_REPO, 1))
                  .thenReturn(DEK);
+        lenient().when(encryptionStorageManager.objectCacheSizeBytes()).thenReturn(1024L * 1024);
+        lenient().when(encryptionStorageManager.objectKeyCacheSize()).thenReturn(1024);
         storage = new EncryptionGitStorage(TEST_PROJECT, TEST_REPO, encryptionStorageManager);
 
         // Leniently stubs.
@@ -132,6 +137,35 @@ class EncryptionGitStorageTest {
         assertThat(dataValueCaptor.getValue()).isEqualTo(expectedEncryptedDataValue);
     }
 
+    @Test
+    void insertCompressibleObject() throws Exception {
+        final byte[] data = Strings.repeat("{ \"a\": \"b\" }\n", 1000).getBytes(StandardCharsets.UTF_8);
+        final ArgumentCaptor<byte[]> metadataKeyCaptor = ArgumentCaptor.forClass(byte[].class);
+        final ArgumentCaptor<byte[]> metadataValueCaptor = ArgumentCaptor.forClass(byte[].class);
+        final ArgumentCaptor<byte[]> dataKeyCaptor = ArgumentCaptor.forClass(byte[].class);
+        final ArgumentCaptor<byte[]> dataValueCaptor = ArgumentCaptor.forClass(byte[].class);
+
+        storage.insertObject(OBJECT_ID, Constants.OBJ_BLOB, data, 0, data.length);
+        verify(encryptionStorageManager).putObject(
+                metadataKeyCaptor.capture(), metadataValueCaptor.capture(),
+                dataKeyCaptor.capture(), dataValueCaptor.capture());
+
+        final byte[] metadata = metadataValueCaptor.getValue();
+        assertThat(metadata.length).isEqualTo(4 + NONCE_SIZE_BYTES + 4 + 48 + 4);
+        assertThat(GitObjectMetadata.fromBytes(metadata).format()).isEqualTo(GitObjectMetadata.FORMAT_ZSTD);
+        assertThat(dataValueCaptor.getValue().length).isLessThan(data.length / 10);
+
+        // Read by another instance which does not have the object in the cache.
+        final EncryptionGitStorage newStorage =
+                new EncryptionGitStorage(TEST_PROJECT, TEST_REPO, encryptionStorageManager);
+        when(encryptionStorageManager.getMetadata(metadataKeyCaptor.getValue())).thenReturn(metadata);
+        when(encryptionStorageManager.getObject(dataKeyCaptor.getValue(), metadataKeyCaptor.getValue()))
+                .thenReturn(dataValueCaptor.getValue());
+        final ObjectLoader loader = newStorage.getObject(OBJECT_ID, Constants.OBJ_BLOB);
+        assertThat(loader).isNotNull();
+        assertThat(loader.getBytes()).isEqualTo(data);
+    }
+
     @Test
     void insertExistingObject() throws Exception {
         when(encryptionStorageManager.containsMetadata(storage.objectMetadataKey(OBJECT_ID))).thenReturn(true);
@@ -220,6 +254,57 @@ class EncryptionGitStorageTest {
                 .hasMessageContaining("Failed to decrypt data");
     }
 
+    @Test
+    void getObjectFromCache() throws Exception {
+        storage.insertObject(OBJECT_ID, Constants.OBJ_BLOB, OBJ_DATA, 0, OBJ_DATA.length);
+        assertThat(storage.isCached(OBJECT_ID)).isTrue();
+
+        final ObjectLoader loader = storage.getObject(OBJECT_ID, Constants.OBJ_BLOB);
+        assertThat(loader).isNotNull();
+        assertThat(loader.getBytes()).isEqualTo(OBJ_DATA);
+        assertThatThrownBy(() -> storage.getObject(OBJECT_ID, Constants.OBJ_COMMIT))
+                .isInstanceOf(IncorrectObjectTypeException.class);
+        verify(encryptionStorageManager, never()).getMetadata(storage.objectMetadataKey(OBJECT_ID));
+        verify(encryptionStorageManager, never()).getObject(any(), any());
+
+        // The cached objects are removed when the repository is closed.
+        storage.close();
+        assertThat(storage.isCached(OBJECT_ID)).isFalse();
+    }
+
+    @Test
+    void getObjects() throws Exception {
+        final ObjectId missingObjectId = ObjectId.fromString(Strings.repeat("b", 40));
+        final byte[] nonce = AesGcmSivCipher.generateNonce();
+        final byte[] objectDek = AesGcmSivCipher.generateAes256Key();
+        final GitObjectMetadata gitObjectMetadata =
+                GitObjectMetadata.of(1, nonce, Constants.OBJ_TREE, encryptWithDek(nonce, objectDek));
+        final SecretKeySpec key = aesSecretKey(objectDek);
+
+        when(encryptionStorageManager.multiGetMetadata(any()))
+                .thenReturn(Arrays.asList(gitObjectMetadata.toBytes(), null));
+        when(encryptionStorageManager.multiGetObjects(any()))
+                .thenReturn(Collections.singletonList(encrypt(key, nonce, OBJ_DATA)));
+
+        final Map<ObjectId, ObjectLoader> loaders =
+                storage.getObjects(ImmutableList.of(OBJECT_ID, missingObjectId));
+        assertThat(loaders).containsOnlyKeys(OBJECT_ID);
+        assertThat(loaders.get(OBJECT_ID).getType()).isEqualTo(Constants.OBJ_TREE);
+        assertThat(loaders.get(OBJECT_ID).getBytes()).isEqualTo(OBJ_DATA);
+        assertThat(storage.isCached(OBJECT_ID)).isTrue();
+        assertThat(storage.isCached(missingObjectId)).isFalse();
+
+        // Read with batched lookups only.
+        verify(encryptionStorageManager).multiGetMetadata(argThat(
+                keys -> keys.size() == 2 &&
+                        Arrays.equals(keys.get(0), storage.objectMetadataKey(OBJECT_ID)) &&
+                        Arrays.equals(keys.get(1), storage.objectMetadataKey(missingObjectId))));
+        verify(encryptionStorageManager).multiGetObjects(argThat(
+                keys -> keys.size() == 1 &&
+                        Arrays.equals(keys.get(0), encryptObjectId(key, nonce, OBJECT_ID))));
+        verify(encryptionStorageManager, never()).getObject(any(), any());
+    }
+
     // ref test methods
 
     @Test
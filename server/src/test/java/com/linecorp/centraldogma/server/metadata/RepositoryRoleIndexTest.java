@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.centraldogma.server.metadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.centraldogma.common.ProjectRole;
+import com.linecorp.centraldogma.common.RepositoryRole;
+
+class RepositoryRoleIndexTest {
+
+    private static final UserAndTimestamp CREATION = new UserAndTimestamp(User.SYSTEM.id());
+    private static final ImmutableList<String> USERS =
+            ImmutableList.of("owner@foo.com", "member@foo.com", "guest@foo.com", "explicit@foo.com",
+                             "member-explicit@foo.com");
+    private static final ImmutableList<String> APP_IDS =
+            ImmutableList.of("owner-app", "member-app", "guest-app", "explicit-app", "unknown-app");
+
+    @Test
+    void sameAsComputedRoles() {
+        final RepositoryRole[] roles = {
+                null, RepositoryRole.READ, RepositoryRole.WRITE, RepositoryRole.ADMIN
+        };
+        for (RepositoryRole memberRole : roles) {
+            for (RepositoryRole guestRole : roles) {
+                final ProjectMetadata metadata = metadata(ProjectRoles.of(memberRole, guestRole));
+                final RepositoryRoleIndex index = metadata.repositoryRoleIndex("repo");
+                assertThat(index).isNotNull();
+                for (String userId : USERS) {
+                    assertThat(index.userRole(userId)).isSameAs(computedUserRole(metadata, userId));
+                }
+                for (String appId : APP_IDS) {
+                    for (boolean allowGuestAccess : new boolean[] { true, false }) {
+                        final Token token = new Token(appId, "appToken-secret", false, allowGuestAccess,
+                                                      CREATION);
+                        assertThat(index.tokenRole(token)).isSameAs(computedTokenRole(metadata, token));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void indexIsBuiltOncePerMetadata() {
+        final ProjectMetadata metadata = metadata(ProjectRoles.of(RepositoryRole.READ, null));
+        final RepositoryRoleIndex index = metadata.repositoryRoleIndex("repo");
+        assertThat(metadata.repositoryRoleIndex("repo")).isSameAs(index);
+        assertThat(metadata.repositoryRoleIndex("missing")).isNull();
+
+        // A new revision of the metadata has its own index.
+        final ProjectMetadata newMetadata = new ProjectMetadata(metadata.name(), metadata.repos(),
+                                                                ImmutableMap.of(), null, metadata.appIds(),
+                                                                metadata.creation(), null);
+        final RepositoryRoleIndex newIndex = newMetadata.repositoryRoleIndex("repo");
+        assertThat(newIndex).isNotSameAs(index);
+        assertThat(index.userRole("owner@foo.com")).isSameAs(RepositoryRole.ADMIN);
+        assertThat(newIndex.userRole("owner@foo.com")).isNull();
+    }
+
+    private static ProjectMetadata metadata(ProjectRoles projectRoles) {
+        final Map<String, RepositoryRole> users = new HashMap<>();
+        users.put("explicit@foo.com", RepositoryRole.WRITE);
+        users.put("member-explicit@foo.com", RepositoryRole.READ);
+        final Map<String, RepositoryRole> appIds = new HashMap<>();
+        appIds.put("explicit-app", RepositoryRole.READ);
+        appIds.put("member-app", RepositoryRole.WRITE);
+        final RepositoryMetadata repo =
+                RepositoryMetadata.of("repo", new Roles(projectRoles, users, null, appIds), CREATION);
+
+        return new ProjectMetadata(
+                "project",
+                ImmutableMap.of("repo", repo),
+                ImmutableMap.of("owner@foo.com", new Member("owner@foo.com", ProjectRole.OWNER, CREATION),
+                                "member@foo.com", new Member("member@foo.com", ProjectRole.MEMBER, CREATION),
+                                "member-explicit@foo.com",
+                                new Member("member-explicit@foo.com", ProjectRole.MEMBER, CREATION)),
+                null,
+                ImmutableMap.of("owner-app",
+                                new TokenRegistration("owner-app", ProjectRole.OWNER, CREATION),
+                                "member-app",
+                                new TokenRegistration("member-app", ProjectRole.MEMBER, CREATION)),
+                CREATION, null);
+    }
+
+    @Nullable
+    private static RepositoryRole computedUserRole(ProjectMetadata metadata, String userId) {
+        final Roles roles = metadata.repo("repo").roles();
+        final Member member = metadata.memberOrDefault(userId, null);
+        final ProjectRole projectRole = member != null ? member.role() : ProjectRole.GUEST;
+        return RepositoryRoleIndex.repositoryRole(roles, roles.users().get(userId), projectRole);
+    }
+
+    @Nullable
+    private static RepositoryRole computedTokenRole(ProjectMetadata metadata, Token token) {
+        final Roles roles = metadata.repo("repo").roles();
+        final TokenRegistration registration = metadata.appIds().get(token.appId());
+        final ProjectRole projectRole;
+        if (registration != null) {
+            projectRole = registration.role();
+        } else if (token.allowGuestAccess()) {
+            projectRole = ProjectRole.GUEST;
+        } else {
+            return null;
+        }
+        return RepositoryRoleIndex.repositoryRole(roles, roles.appIds().get(token.appId()), projectRole);
+    }
+}
@@ -29,6 +29,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import com.linecorp.centraldogma.server.EncryptionConfig;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class DefaultEncryptionStorageManagerTest {
 
     // Test Data
@@ -60,6 +64,30 @@ class DefaultEncryptionStorageManagerTest {
         // tempDir is automatically cleaned up by JUnit 5
     }
 
+    @Test
+    void exportMetrics() throws Exception {
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final EncryptionConfig config = new EncryptionConfig(true, false, "kekId", 8L * 1024 * 1024,
+                                                             null, "UNIVERSAL", 4, 1024L * 1024, null, null);
+        final DefaultEncryptionStorageManager manager = new DefaultEncryptionStorageManager(
+                tempDir.resolve("metrics").toString(), config, meterRegistry);
+        manager.storeWdek(new WrappedDekDetails(manager.generateWdek().join(), 1,
+                                                manager.kekId(), PROJECT_NAME, REPO_NAME));
+        manager.getCurrentDek(PROJECT_NAME, REPO_NAME);
+
+        assertThat(meterRegistry.get("encryption.storage.block.cache.usage").gauge().value())
+                .isGreaterThanOrEqualTo(0);
+        assertThat(meterRegistry.get("encryption.storage.compaction.pending").gauge().value())
+                .isGreaterThanOrEqualTo(0);
+        assertThat(meterRegistry.get("encryption.storage.block.cache.hits").functionCounter().count())
+                .isGreaterThanOrEqualTo(0);
+        assertThat(meterRegistry.get("encryption.storage.write.stall").functionCounter().count())
+                .isGreaterThanOrEqualTo(0);
+
+        manager.close();
+        assertThat(meterRegistry.find("encryption.storage.block.cache.usage").gauge()).isNull();
+    }
+
     @Test
     void enabled_shouldReturnTrue() {
         assertThat(storageManager.enabled()).isTrue();